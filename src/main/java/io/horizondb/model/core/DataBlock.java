@@ -39,6 +39,12 @@ public interface DataBlock extends Serializable {
      */
     ReadableBuffer getData();
 
+    /**
+     * Returns the bloom filters of the block. They are stored uncompressed after the block header.
+     * @return the bloom filters of the block or an empty buffer if the block does not have bloom filters
+     */
+    ReadableBuffer getBloomFilters();
+
     /**
      * Splits this block in multiple block matching the time series partitions.
      *
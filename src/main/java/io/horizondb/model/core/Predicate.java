@@ -16,6 +16,8 @@ package io.horizondb.model.core;
 import io.horizondb.io.serialization.Serializable;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
+import java.io.IOException;
+
 import com.google.common.collect.RangeSet;
 
 /***
@@ -46,6 +48,17 @@ public interface Predicate extends Serializable {
      */
     Filter<Record> toFilter(TimeSeriesDefinition definition);
 
+    /**
+     * Checks, using only the block header, if some records of the specified block may satisfy this predicate.
+     * 
+     * @param definition the definition of the time series to which the block belongs.
+     * @param block the data block
+     * @return <code>false</code> if none of the records of the block can satisfy this predicate, 
+     * <code>true</code> otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    boolean mayMatch(TimeSeriesDefinition definition, DataBlock block) throws IOException;
+
     /**
      * {@inheritDoc}
      */
@@ -13,13 +13,19 @@
  */
 package io.horizondb.model.core.blocks;
 
+import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.io.encoding.VarInts;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
 import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
 import io.horizondb.model.core.records.BlockHeaderUtils;
 import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.BlockLayout;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
@@ -28,6 +34,7 @@ import com.google.common.collect.ImmutableRangeMap;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
 
+import static io.horizondb.model.core.iterators.BlockIterators.decompress;
 import static io.horizondb.model.core.iterators.BlockIterators.singleton;
 
 /**
@@ -50,6 +57,129 @@ public abstract class AbstractDataBlock implements DataBlock {
             return ImmutableRangeMap.<Field, DataBlock> of(partitionRange, this);
         }
 
+        if (definition.getBlockLayout() == BlockLayout.ROW && definition.getKeyframeInterval() == 0) {
+            return splitRows(definition, partitionRange);
+        }
+
+        return splitRecords(definition, partitionRange);
+    }
+
+    /**
+     * Splits this block, which uses the row layout, by copying the serialized records. The cuts are found by 
+     * decoding only the record timestamps and the bytes between them are copied as whole ranges. Only the 
+     * first record of each type after a partition boundary is rewritten, as a full record.
+     * 
+     * @param definition the time series definition
+     * @param partitionRange the range of the partition containing the first record of the block
+     * @return the blocks per partition
+     * @throws IOException if an I/O problem occurs
+     */
+    private RangeMap<Field, DataBlock> splitRows(TimeSeriesDefinition definition, 
+                                                 Range<Field> partitionRange) throws IOException {
+
+        DataBlock block = this;
+
+        if (BlockHeaderUtils.getCompressionType(getHeader()) != CompressionType.NONE) {
+
+            try (ResourceIterator<DataBlock> iterator = decompress(singleton(this), ChecksumVerification.OFF)) {
+                block = iterator.next();
+            }
+        }
+
+        ImmutableRangeMap.Builder<Field, DataBlock> builder = ImmutableRangeMap.builder();
+
+        BinaryTimeSeriesRecord[] binaryRecords = definition.newBinaryRecords();
+        TimeSeriesRecord[] records = definition.newRecords();
+
+        Field[] timestamps = new Field[records.length];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = definition.newField(Record.TIMESTAMP_FIELD_NAME);
+        }
+
+        // The partition upper bound is only computed when a boundary is crossed, the records timestamps 
+        // are compared to it as primitive values.
+        long partitionEnd = partitionRange.upperEndpoint().getTimestampInMillis();
+
+        // The full values of the records are only needed to rewrite the first record of each type after a 
+        // boundary. Once the last partition of the block is reached, they are no longer tracked.
+        long lastPartitionStart = definition.getPartitionTimeRange(BlockHeaderUtils.getLastTimestampField(getHeader()))
+                                            .lowerEndpoint()
+                                            .getTimestampInMillis();
+
+        ReadableBuffer data = block.getData().duplicate();
+        RowBlockWriter writer = new RowBlockWriter(definition);
+
+        // The start of the bytes that have not yet been copied into the current block
+        int copyStart = data.readerIndex();
+
+        while (data.isReadable()) {
+
+            int start = data.readerIndex();
+            int type = data.readByte();
+            int length = VarInts.readUnsignedInt(data);
+            BinaryTimeSeriesRecord record = binaryRecords[type].fill(data.slice(length));
+            int end = data.readerIndex();
+
+            Field timestamp = timestamps[type];
+            boolean delta = record.isDelta();
+
+            if (delta) {
+                timestamp.add(record.getField(Record.TIMESTAMP_FIELD_INDEX));
+            } else {
+                record.getField(Record.TIMESTAMP_FIELD_INDEX).copyTo(timestamp);
+            }
+
+            long timestampInMillis = timestamp.getTimestampInMillis();
+
+            if (timestampInMillis >= partitionEnd) {
+
+                writer.addBytes(data.slice(copyStart, start - copyStart));
+                copyStart = start;
+
+                builder.put(partitionRange, writer.getDataBlock());
+                partitionRange = definition.getPartitionTimeRange(timestamp);
+                partitionEnd = partitionRange.upperEndpoint().getTimestampInMillis();
+                writer = new RowBlockWriter(definition);
+            }
+
+            boolean rewrite = delta && writer.getRecordCount(type) == 0;
+
+            if (!rewrite && timestampInMillis >= lastPartitionStart && !writer.hasIndexedFields(type)) {
+                writer.add(record, timestamp);
+                continue;
+            }
+
+            TimeSeriesRecord full = (TimeSeriesRecord) record.inflate(records[type]);
+
+            if (rewrite) {
+
+                writer.addBytes(data.slice(copyStart, start - copyStart));
+                copyStart = end;
+                writer.append(full);
+
+            } else {
+
+                writer.add(full, timestamp);
+            }
+        }
+
+        writer.addBytes(data.slice(copyStart, data.readerIndex() - copyStart));
+        builder.put(partitionRange, writer.getDataBlock());
+
+        return builder.build();
+    }
+
+    /**
+     * Splits this block by decoding all its records and appending them to new blocks.
+     * 
+     * @param definition the time series definition
+     * @param partitionRange the range of the partition containing the first record of the block
+     * @return the blocks per partition
+     * @throws IOException if an I/O problem occurs
+     */
+    private RangeMap<Field, DataBlock> splitRecords(TimeSeriesDefinition definition, 
+                                                    Range<Field> partitionRange) throws IOException {
+
         TimeSeriesRecord[] records = definition.newRecords();
 
         ImmutableRangeMap.Builder<Field, DataBlock> builder = ImmutableRangeMap.builder();
@@ -13,17 +13,23 @@
  */
 package io.horizondb.model.core.blocks;
 
+import io.horizondb.io.Buffer;
 import io.horizondb.io.ByteReader;
 import io.horizondb.io.ByteWriter;
 import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
 import io.horizondb.io.encoding.VarInts;
 import io.horizondb.model.core.Record;
 import io.horizondb.model.core.RecordUtils;
 import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.core.util.BufferPool;
+import io.horizondb.model.core.util.PooledBuffer;
+import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
 
 import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressedBlockSize;
+import static io.horizondb.model.core.records.BlockHeaderUtils.hasBloomFilters;
 import static org.apache.commons.lang.Validate.isTrue;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
@@ -38,18 +44,54 @@ public final class BinaryDataBlock extends AbstractDataBlock {
      */
     private final BinaryTimeSeriesRecord header;
 
+    /**
+     * The length in bytes of the bloom filters following the headers that have the bloom filters flag.
+     */
+    private final int bloomFiltersLength;
+
+    /**
+     * The bloom filters of the block.
+     */
+    private ReadableBuffer bloomFilters = Buffers.EMPTY_BUFFER;
+
     /**
      * The buffer containing the block data.
      */
     private ReadableBuffer buffer;
 
     /**
-     * Creates a new <code>BinaryDataBlock</code> that will use the specified header.
+     * The pooled buffer holding the block data if the data has been copied into a pooled buffer.
+     */
+    private PooledBuffer pooledBuffer;
+
+    /**
+     * Creates a new <code>BinaryDataBlock</code> that will use the specified header. The blocks followed by 
+     * bloom filters cannot be read by such block.
      * 
      * @param header the record used to store the block headers
      */
     public BinaryDataBlock(BinaryTimeSeriesRecord header) {
+        this(header, 0);
+    }
+
+    /**
+     * Creates a new <code>BinaryDataBlock</code> to read the blocks of the specified time series.
+     * 
+     * @param definition the time series definition
+     */
+    public BinaryDataBlock(TimeSeriesDefinition definition) {
+        this(definition.newBinaryBlockHeader(), definition.getBloomFiltersLength());
+    }
+
+    /**
+     * Creates a new <code>BinaryDataBlock</code> that will use the specified header.
+     * 
+     * @param header the record used to store the block headers
+     * @param bloomFiltersLength the length in bytes of the bloom filters of the blocks
+     */
+    private BinaryDataBlock(BinaryTimeSeriesRecord header, int bloomFiltersLength) {
         this.header = header;
+        this.bloomFiltersLength = bloomFiltersLength;
     }
 
     /**
@@ -61,6 +103,144 @@ public final class BinaryDataBlock extends AbstractDataBlock {
      */
     public BinaryDataBlock fill(ByteReader reader) throws IOException {
 
+        return readHeader(reader).readData(reader);
+    }
+
+    /**
+     * Fills the header of this block with the header read from the specified <code>ByteReader</code>. The block 
+     * data must then be read with one of the <code>readData</code> methods or skipped with 
+     * {@link #skipData(ByteReader)}. The block data must not be used until it has been read.
+     *
+     * @param reader the <code>ByteReader</code> to read the block header from.
+     * @return this <code>DataBlock</code>
+     * @throws IOException if an I/O problem occurs
+     */
+    public BinaryDataBlock readHeader(ByteReader reader) throws IOException {
+
+        release();
+        fillHeader(reader);
+        return this;
+    }
+
+    /**
+     * Reads the data of the block whose header has been read last by slicing it from the specified 
+     * <code>ByteReader</code>.
+     *
+     * @param reader the <code>ByteReader</code> to read the block data from.
+     * @return this <code>DataBlock</code>
+     * @throws IOException if an I/O problem occurs
+     */
+    public BinaryDataBlock readData(ByteReader reader) throws IOException {
+
+        this.buffer = reader.slice(getCompressedBlockSize(this.header));
+        return this;
+    }
+
+    /**
+     * Skips the data of the block whose header has been read last without reading it.
+     *
+     * @param reader the <code>ByteReader</code> to skip the block data from.
+     * @throws IOException if an I/O problem occurs
+     */
+    public void skipData(ByteReader reader) throws IOException {
+
+        reader.skipBytes(getCompressedBlockSize(this.header));
+    }
+
+    /**
+     * Fills this block with the data read from the specified <code>ByteReader</code>. The block data is 
+     * copied into a buffer acquired from the specified pool instead of being sliced from the reader. 
+     * The buffer previously used by this block is released.
+     *
+     * @param reader the <code>ByteReader</code> to read the block from.
+     * @param pool the pool from which the buffer holding the block data must be acquired 
+     * @return this <code>DataBlock</code>
+     * @throws IOException if an I/O problem occurs
+     */
+    public BinaryDataBlock fill(ByteReader reader, BufferPool pool) throws IOException {
+
+        return readHeader(reader).readData(reader, pool);
+    }
+
+    /**
+     * Reads the data of the block whose header has been read last by copying it into a buffer acquired from the 
+     * specified pool. The data is copied only once: directly from the reader buffer if the reader is a buffer, 
+     * into the backing array of heap buffers otherwise. Only the direct buffers filled from another kind of 
+     * reader go through an intermediate array.
+     *
+     * @param reader the <code>ByteReader</code> to read the block data from.
+     * @param pool the pool from which the buffer holding the block data must be acquired 
+     * @return this <code>DataBlock</code>
+     * @throws IOException if an I/O problem occurs
+     */
+    public BinaryDataBlock readData(ByteReader reader, BufferPool pool) throws IOException {
+
+        int blockSize = getCompressedBlockSize(this.header);
+
+        this.pooledBuffer = pool.acquire(blockSize);
+        Buffer data = this.pooledBuffer.getBuffer();
+
+        if (reader instanceof ReadableBuffer) {
+
+            data.transfer(reader.slice(blockSize));
+
+        } else if (data.isDirect()) {
+
+            byte[] bytes = new byte[Math.min(blockSize, BufferPool.MINIMUM_SIZE_CLASS)];
+
+            for (int remaining = blockSize; remaining > 0;) {
+
+                int length = Math.min(bytes.length, remaining);
+                reader.readBytes(bytes, 0, length);
+                data.writeBytes(bytes, 0, length);
+                remaining -= length;
+            }
+
+        } else {
+
+            reader.readBytes(data.array(), data.arrayOffset(), blockSize);
+            data.writerIndex(blockSize);
+        }
+
+        this.buffer = data.slice(0, blockSize);
+        return this;
+    }
+
+    /**
+     * Retains the pooled buffer holding the block data, if any, so that the current data stays valid after this 
+     * block has been refilled. The returned buffer must be released once the data is no longer used.
+     * 
+     * @return the retained pooled buffer or <code>null</code> if the block data is not held by a pooled buffer.
+     */
+    public PooledBuffer retainBuffer() {
+
+        if (this.pooledBuffer == null) {
+            return null;
+        }
+
+        return this.pooledBuffer.retain();
+    }
+
+    /**
+     * Releases the pooled buffer holding the block data, if any. The block data must not be used afterward.
+     */
+    public void release() {
+
+        if (this.pooledBuffer != null) {
+            this.pooledBuffer.release();
+            this.pooledBuffer = null;
+        }
+    }
+
+    /**
+     * Fills the header of this block with the header read from the specified <code>ByteReader</code>, together 
+     * with the bloom filters that follow it, if any.
+     *
+     * @param reader the <code>ByteReader</code> to read the header from.
+     * @throws IOException if an I/O problem occurs
+     */
+    private void fillHeader(ByteReader reader) throws IOException {
+
         isTrue(reader.readByte() == Record.BLOCK_HEADER_TYPE,
                 "The first record should be a block header but was not.");
 
@@ -68,9 +248,15 @@ public final class BinaryDataBlock extends AbstractDataBlock {
         ReadableBuffer headerBytes = reader.slice(length).duplicate();
         this.header.fill(headerBytes);
 
-        int blockSize = getCompressedBlockSize(this.header);
-        this.buffer = reader.slice(blockSize);
-        return this;
+        if (hasBloomFilters(this.header)) {
+
+            isTrue(this.bloomFiltersLength > 0, "The block has bloom filters but their length is unknown.");
+            this.bloomFilters = reader.slice(this.bloomFiltersLength).duplicate();
+
+        } else {
+
+            this.bloomFilters = Buffers.EMPTY_BUFFER;
+        }
     }
 
     /**
@@ -79,6 +265,7 @@ public final class BinaryDataBlock extends AbstractDataBlock {
     @Override
     public int computeSerializedSize() throws IOException {
         return RecordUtils.computeSerializedSize(this.header)
+                + this.bloomFilters.readableBytes()
                 + getCompressedBlockSize(this.header);
     }
 
@@ -88,6 +275,7 @@ public final class BinaryDataBlock extends AbstractDataBlock {
     @Override
     public void writeTo(ByteWriter writer) throws IOException {
         RecordUtils.writeRecord(writer, this.header);
+        writer.transfer(getBloomFilters());
         writer.transfer(this.buffer.readerIndex(0));
     }
 
@@ -107,6 +295,14 @@ public final class BinaryDataBlock extends AbstractDataBlock {
         return this.buffer;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ReadableBuffer getBloomFilters() {
+        return this.bloomFilters.duplicate();
+    }
+
     /**
      * {@inheritDoc}
      */
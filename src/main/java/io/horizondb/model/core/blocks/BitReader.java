@@ -0,0 +1,93 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteReader;
+
+import java.io.IOException;
+
+/**
+ * Reads the bits written by a <code>BitWriter</code>.
+ */
+final class BitReader {
+
+    /**
+     * The underlying reader.
+     */
+    private final ByteReader reader;
+
+    /**
+     * The byte being read.
+     */
+    private int current;
+
+    /**
+     * The number of bits of the current byte that have not been read yet.
+     */
+    private int available;
+
+    /**
+     * Creates a new <code>BitReader</code> that read the bits from the specified reader.
+     * 
+     * @param reader the underlying reader
+     */
+    public BitReader(ByteReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next bit.
+     * 
+     * @return <code>true</code> if the bit is set, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    public boolean readBit() throws IOException {
+
+        if (this.available == 0) {
+            this.current = this.reader.readByte() & 0xFF;
+            this.available = 8;
+        }
+
+        this.available--;
+        return ((this.current >>> this.available) & 1) != 0;
+    }
+
+    /**
+     * Reads the specified number of bits, the most significant bit first.
+     * 
+     * @param length the number of bits to read (between 0 and 64)
+     * @return the bits read
+     * @throws IOException if an I/O problem occurs
+     */
+    public long readBits(int length) throws IOException {
+
+        long value = 0;
+
+        for (int remaining = length; remaining > 0;) {
+
+            if (this.available == 0) {
+                this.current = this.reader.readByte() & 0xFF;
+                this.available = 8;
+            }
+
+            int n = Math.min(remaining, this.available);
+
+            this.available -= n;
+            value = (value << n) | ((this.current >>> this.available) & ((1 << n) - 1));
+            remaining -= n;
+        }
+
+        return value;
+    }
+}
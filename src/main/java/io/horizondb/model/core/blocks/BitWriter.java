@@ -0,0 +1,115 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Accumulates bits in memory, the most significant bit of each byte being written first.
+ */
+final class BitWriter {
+
+    /**
+     * The initial capacity in bytes.
+     */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /**
+     * The bytes written so far.
+     */
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The number of bits written so far.
+     */
+    private long numberOfBits;
+
+    /**
+     * Writes the specified bit.
+     * 
+     * @param bit the bit to write
+     */
+    public void writeBit(boolean bit) {
+
+        int index = ensureCapacity(1);
+
+        if (bit) {
+            this.bytes[index] |= 0x80 >>> (this.numberOfBits & 7);
+        }
+
+        this.numberOfBits++;
+    }
+
+    /**
+     * Writes the specified number of low order bits of the specified value, the most significant bit first.
+     * 
+     * @param value the value containing the bits to write
+     * @param length the number of bits to write (between 0 and 64)
+     */
+    public void writeBits(long value, int length) {
+
+        ensureCapacity(length);
+
+        for (int i = length - 1; i >= 0; i--) {
+
+            if (((value >>> i) & 1) != 0) {
+                this.bytes[(int) (this.numberOfBits >>> 3)] |= 0x80 >>> (this.numberOfBits & 7);
+            }
+
+            this.numberOfBits++;
+        }
+    }
+
+    /**
+     * Returns the number of bytes needed to store the bits written so far.
+     * 
+     * @return the number of bytes needed to store the bits written so far.
+     */
+    public int computeSerializedSize() {
+        return (int) ((this.numberOfBits + 7) >>> 3);
+    }
+
+    /**
+     * Writes the bits to the specified writer. The last byte is padded with zeros.
+     * 
+     * @param writer the writer to write to
+     * @throws IOException if an I/O problem occurs
+     */
+    public void writeTo(ByteWriter writer) throws IOException {
+
+        for (int i = 0, m = computeSerializedSize(); i < m; i++) {
+            writer.writeByte(this.bytes[i]);
+        }
+    }
+
+    /**
+     * Makes sure that the specified number of bits can be written and returns the index of the current byte.
+     * 
+     * @param length the number of bits that will be written
+     * @return the index of the current byte
+     */
+    private int ensureCapacity(int length) {
+
+        int required = (int) ((this.numberOfBits + length + 7) >>> 3);
+
+        if (required > this.bytes.length) {
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(required, this.bytes.length << 1));
+        }
+
+        return (int) (this.numberOfBits >>> 3);
+    }
+}
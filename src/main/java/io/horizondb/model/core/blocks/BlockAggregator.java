@@ -0,0 +1,180 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.filters.Filters;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.FieldDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+
+import com.google.common.collect.Range;
+
+import static io.horizondb.model.core.iterators.BlockIterators.singleton;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRange;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRecordCount;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getZoneMap;
+import static org.apache.commons.lang.Validate.isTrue;
+
+/**
+ * Computes the aggregates of a field over a time range. The blocks that are fully contained within the 
+ * time range are aggregated using their header if the aggregates of the field are maintained within the
+ * block headers. Only the other blocks are decoded.
+ */
+public final class BlockAggregator {
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The name of the record type.
+     */
+    private final String recordType;
+
+    /**
+     * The index of the record type.
+     */
+    private final int recordTypeIndex;
+
+    /**
+     * The index of the field.
+     */
+    private final int fieldIndex;
+
+    /**
+     * The field type.
+     */
+    private final FieldType fieldType;
+
+    /**
+     * Creates a <code>BlockAggregator</code> that computes the aggregates of the specified field.
+     * 
+     * @param definition the time series definition
+     * @param recordType the name of the record type
+     * @param fieldName the name of the field
+     */
+    public BlockAggregator(TimeSeriesDefinition definition, String recordType, String fieldName) {
+
+        this.definition = definition;
+        this.recordType = recordType;
+        this.recordTypeIndex = definition.getRecordTypeIndex(recordType);
+        this.fieldIndex = definition.getFieldIndex(this.recordTypeIndex, fieldName);
+
+        isTrue(this.fieldIndex >= 0, "No field " + fieldName + " has been defined for the " + recordType 
+                                      + " records.");
+
+        this.fieldType = definition.newField(this.recordTypeIndex, this.fieldIndex).getType();
+
+        isTrue(FieldDefinition.supportsAggregates(this.fieldType), 
+               "aggregates cannot be computed for " + this.fieldType + " fields.");
+    }
+
+    /**
+     * Computes the aggregates of the field for the records of the specified blocks that are within the 
+     * specified time range.
+     * 
+     * @param range the time range
+     * @param blocks the blocks
+     * @return the aggregates of the field for the records within the specified time range.
+     * @throws IOException if an I/O problem occurs
+     */
+    public FieldAggregate aggregate(Range<Field> range, ResourceIterator<DataBlock> blocks) throws IOException {
+
+        FieldAggregate aggregate = new FieldAggregate(this.fieldType);
+
+        while (blocks.hasNext()) {
+
+            DataBlock block = blocks.next();
+            Range<Field> blockRange = getRange(block.getHeader());
+
+            if (!range.isConnected(blockRange) || range.intersection(blockRange).isEmpty()) {
+                continue;
+            }
+
+            if (!range.encloses(blockRange) || !aggregateHeader(block.getHeader(), aggregate)) {
+                aggregateRecords(range, block, aggregate);
+            }
+        }
+
+        return aggregate;
+    }
+
+    /**
+     * Adds the aggregates stored within the specified block header to the specified aggregate.
+     * 
+     * @param header the block header
+     * @param aggregate the aggregate to update
+     * @return <code>true</code> if the block header contains the aggregates of the field, <code>false</code>
+     * otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    private boolean aggregateHeader(Record header, FieldAggregate aggregate) throws IOException {
+
+        int sumIndex = this.definition.getSumIndex(this.recordTypeIndex, this.fieldIndex);
+
+        if (sumIndex < 0) {
+            return false;
+        }
+
+        int count = getRecordCount(header, this.recordTypeIndex);
+
+        if (count != 0) {
+
+            Range<Field> zoneMap = getZoneMap(header, this.definition.getZoneMapIndex(this.recordTypeIndex, 
+                                                                                      this.fieldIndex));
+
+            aggregate.add(count, header.getField(sumIndex), zoneMap.lowerEndpoint(), zoneMap.upperEndpoint());
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the field values of the records of the specified block that are within the specified time range 
+     * to the specified aggregate.
+     * 
+     * @param range the time range
+     * @param block the block
+     * @param aggregate the aggregate to update
+     * @throws IOException if an I/O problem occurs
+     */
+    private void aggregateRecords(Range<Field> range, DataBlock block, FieldAggregate aggregate) throws IOException {
+
+        TimeSeriesRecord previous = this.definition.newRecord(this.recordTypeIndex);
+
+        try (BinaryTimeSeriesRecordIterator iterator = 
+                new BinaryTimeSeriesRecordIterator(this.definition, 
+                                                   singleton(block), 
+                                                   Filters.eq(this.recordType, false))) {
+
+            while (iterator.hasNext()) {
+
+                Record record = iterator.next().inflate(previous);
+
+                if (range.contains(record.getField(Record.TIMESTAMP_FIELD_INDEX))) {
+                    aggregate.add(record.getField(this.fieldIndex));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.io.serialization.Parser;
+import io.horizondb.io.serialization.Serializable;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.records.BlockHeaderUtils;
+import io.horizondb.model.schema.BlockPosition;
+
+import java.io.IOException;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * An entry of a block index: the position of a block within a file together with a summary of its header.
+ */
+public final class BlockIndexEntry implements Serializable {
+
+    /**
+     * The parser instance.
+     */
+    private static final Parser<BlockIndexEntry> PARSER = new Parser<BlockIndexEntry>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockIndexEntry parseFrom(ByteReader reader) throws IOException {
+
+            BlockPosition position = BlockPosition.parseFrom(reader);
+            long firstTimestamp = VarInts.readLong(reader);
+            long lastTimestamp = firstTimestamp + VarInts.readUnsignedLong(reader);
+            return new BlockIndexEntry(position, firstTimestamp, lastTimestamp);
+        }
+    };
+
+    /**
+     * The position of the block within the file.
+     */
+    private final BlockPosition position;
+
+    /**
+     * The timestamp of the first record of the block.
+     */
+    private final long firstTimestamp;
+
+    /**
+     * The timestamp of the last record of the block.
+     */
+    private final long lastTimestamp;
+
+    /**
+     * Creates a new <code>BlockIndexEntry</code> instance.
+     * 
+     * @param position the position of the block within the file
+     * @param firstTimestamp the timestamp of the first record of the block
+     * @param lastTimestamp the timestamp of the last record of the block
+     */
+    public BlockIndexEntry(BlockPosition position, long firstTimestamp, long lastTimestamp) {
+        this.position = position;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    /**
+     * Creates a new <code>BlockIndexEntry</code> for the block with the specified position and header.
+     * 
+     * @param position the position of the block within the file
+     * @param header the block header
+     * @return a new <code>BlockIndexEntry</code> for the specified block
+     * @throws IOException if an I/O problem occurs
+     */
+    public static BlockIndexEntry newInstance(BlockPosition position, Record header) throws IOException {
+        return new BlockIndexEntry(position, 
+                                   BlockHeaderUtils.getFirstTimestamp(header), 
+                                   BlockHeaderUtils.getLastTimestamp(header));
+    }
+
+    /**
+     * Returns the position of the block within the file.
+     * @return the position of the block within the file
+     */
+    public BlockPosition getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Returns the timestamp of the first record of the block in the time unit of the time series.
+     * @return the timestamp of the first record of the block
+     */
+    public long getFirstTimestamp() {
+        return this.firstTimestamp;
+    }
+
+    /**
+     * Returns the timestamp of the last record of the block in the time unit of the time series.
+     * @return the timestamp of the last record of the block
+     */
+    public long getLastTimestamp() {
+        return this.lastTimestamp;
+    }
+
+    /**
+     * Creates a new <code>BlockIndexEntry</code> by reading the data from the specified reader.
+     * 
+     * @param reader the reader to read from.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static BlockIndexEntry parseFrom(ByteReader reader) throws IOException {
+
+        return getParser().parseFrom(reader);
+    }
+
+    /**
+     * Returns the parser that can be used to deserialize <code>BlockIndexEntry</code> instances.
+     * @return the parser that can be used to deserialize <code>BlockIndexEntry</code> instances.
+     */
+    public static Parser<BlockIndexEntry> getParser() {
+
+        return PARSER;
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+        return this.position.computeSerializedSize() 
+                + VarInts.computeLongSize(this.firstTimestamp)
+                + VarInts.computeUnsignedLongSize(this.lastTimestamp - this.firstTimestamp);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+        this.position.writeTo(writer);
+        VarInts.writeLong(writer, this.firstTimestamp);
+        VarInts.writeUnsignedLong(writer, this.lastTimestamp - this.firstTimestamp);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof BlockIndexEntry)) {
+            return false;
+        }
+        BlockIndexEntry rhs = (BlockIndexEntry) object;
+        return new EqualsBuilder().append(this.position, rhs.position)
+                                  .append(this.firstTimestamp, rhs.firstTimestamp)
+                                  .append(this.lastTimestamp, rhs.lastTimestamp)
+                                  .isEquals();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(-1476429373, 1172350211).append(this.position)
+                                                           .append(this.firstTimestamp)
+                                                           .append(this.lastTimestamp)
+                                                           .toHashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("position", this.position)
+                                                                          .append("firstTimestamp", this.firstTimestamp)
+                                                                          .append("lastTimestamp", this.lastTimestamp)
+                                                                          .toString();
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.model.core.DataBlock;
+
+import java.io.IOException;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.computeChecksum;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getChecksum;
+import static java.lang.String.format;
+
+/**
+ * The possible way to verify the checksums of the blocks while reading them.
+ */
+public enum ChecksumVerification {
+
+    /**
+     * The checksum of every block is verified.
+     */
+    ALWAYS {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isRequired(long blockIndex) {
+            return true;
+        }
+    },
+
+    /**
+     * Only the checksum of one block out of {@link ChecksumVerification#SAMPLING_INTERVAL} is verified.
+     */
+    SAMPLED {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isRequired(long blockIndex) {
+            return blockIndex % SAMPLING_INTERVAL == 0;
+        }
+    },
+
+    /**
+     * The checksums are not verified.
+     */
+    OFF {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isRequired(long blockIndex) {
+            return false;
+        }
+    };
+
+    /**
+     * The number of blocks read for each block verified in <code>SAMPLED</code> mode.
+     */
+    public static final int SAMPLING_INTERVAL = 16;
+
+    /**
+     * Checks if the checksum of the block with the specified index must be verified.
+     * 
+     * @param blockIndex the index of the block within the blocks read
+     * @return <code>true</code> if the checksum of the block must be verified, <code>false</code> otherwise.
+     */
+    public abstract boolean isRequired(long blockIndex);
+
+    /**
+     * Verifies, if required, the checksum of the specified block. The blocks without checksum are not verified.
+     * 
+     * @param block the block to verify
+     * @param blockIndex the index of the block within the blocks read
+     * @throws CorruptedBlockException if the block data does not match the checksum
+     * @throws IOException if an I/O problem occurs
+     */
+    public final void verify(DataBlock block, long blockIndex) throws IOException {
+
+        if (!isRequired(blockIndex)) {
+            return;
+        }
+
+        int expected = getChecksum(block.getHeader());
+
+        if (expected == 0) {
+            return;
+        }
+
+        int actual = computeChecksum(block.getBloomFilters(), block.getData());
+
+        if (actual != expected) {
+            throw new CorruptedBlockException(format("The checksum of the block %d does not match its data: "
+                    + "expected %08x but was %08x.", blockIndex, expected, actual));
+        }
+    }
+}
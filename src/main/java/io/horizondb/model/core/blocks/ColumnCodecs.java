@@ -0,0 +1,92 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.BufferAllocator;
+import io.horizondb.io.ByteReader;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.schema.FieldEncoding;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for the column encoders and decoders.
+ */
+final class ColumnCodecs {
+
+    /**
+     * Creates a new <code>ColumnEncoder</code> for the specified encoding.
+     * 
+     * @param encoding the field encoding
+     * @param allocator the buffer allocator
+     * @param prototype a field of the column type
+     * @return a new <code>ColumnEncoder</code> for the specified encoding.
+     */
+    public static ColumnEncoder newEncoder(FieldEncoding encoding, BufferAllocator allocator, Field prototype) {
+
+        switch (encoding) {
+            case XOR:
+                return new XorColumnEncoder();
+            case DELTA_OF_DELTA:
+                return new DeltaOfDeltaColumnEncoder(getTimeUnit(prototype));
+            case FRAME_OF_REFERENCE:
+                return new FrameOfReferenceColumnEncoder(allocator);
+            case RUN_LENGTH:
+                return new RunLengthColumnEncoder(allocator, prototype);
+            default:
+                return new DeltaColumnEncoder(allocator, prototype);
+        }
+    }
+
+    /**
+     * Creates a new <code>ColumnDecoder</code> for the specified encoding.
+     * 
+     * @param encoding the field encoding
+     * @param prototype a field of the column type
+     * @param reader the reader containing the column chunk
+     * @return a new <code>ColumnDecoder</code> for the specified encoding.
+     */
+    public static ColumnDecoder newDecoder(FieldEncoding encoding, Field prototype, ByteReader reader) {
+
+        switch (encoding) {
+            case XOR:
+                return new XorColumnDecoder(reader);
+            case DELTA_OF_DELTA:
+                return new DeltaOfDeltaColumnDecoder(getTimeUnit(prototype), reader);
+            case FRAME_OF_REFERENCE:
+                return new FrameOfReferenceColumnDecoder(prototype, reader);
+            case RUN_LENGTH:
+                return new RunLengthColumnDecoder(prototype, reader);
+            default:
+                return new DeltaColumnDecoder(prototype, reader);
+        }
+    }
+
+    /**
+     * Returns the unit of the specified timestamp field.
+     * 
+     * @param prototype a timestamp field
+     * @return the unit of the specified timestamp field.
+     */
+    private static TimeUnit getTimeUnit(Field prototype) {
+        return ((TimestampField) prototype).getTimeUnit();
+    }
+
+    /**
+     * Must not be instantiated.
+     */
+    private ColumnCodecs() {
+    }
+}
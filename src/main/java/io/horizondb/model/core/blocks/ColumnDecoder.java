@@ -0,0 +1,32 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+/**
+ * Decodes the successive values of a field from a column chunk.
+ */
+interface ColumnDecoder {
+
+    /**
+     * Reads the next value of the column into the specified field.
+     * 
+     * @param field the field into which the value (not a delta) must be read
+     * @throws IOException if an I/O problem occurs
+     */
+    void readNext(Field field) throws IOException;
+}
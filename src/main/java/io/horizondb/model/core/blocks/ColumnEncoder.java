@@ -0,0 +1,39 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.serialization.Serializable;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+/**
+ * Encodes the successive values of a field into a column chunk.
+ */
+interface ColumnEncoder extends Serializable {
+
+    /**
+     * Appends the specified value to the column.
+     * 
+     * @param value the field value (not a delta)
+     * @throws IOException if an I/O problem occurs
+     */
+    void append(Field value) throws IOException;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int computeSerializedSize();
+}
@@ -0,0 +1,311 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Filter;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.FieldEncoding;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import static io.horizondb.io.encoding.VarInts.readUnsignedInt;
+import static io.horizondb.model.core.Record.TIMESTAMP_FIELD_INDEX;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRecordCount;
+
+/**
+ * Reads the records of the blocks written using the {@link io.horizondb.model.schema.BlockLayout#COLUMNAR} layout.
+ * <p>
+ * Only the chunks of the selected record types and of the projected fields are decoded. The other fields 
+ * of the returned records are set to zero. The timestamp column is always decoded as it is needed to return
+ * the records in time order. 
+ * </p>
+ * <p>
+ * The records are returned as they would have been by a block using the 
+ * {@link io.horizondb.model.schema.BlockLayout#ROW} layout: the first record of each type is a full record 
+ * and the next ones are deltas. The decoded values are copied directly into the returned records: they are
+ * only serialized if their binary representation is requested.
+ * </p>
+ */
+public final class ColumnarBlockReader {
+
+    /**
+     * The records returned per type (<code>null</code> for the types that have not been selected).
+     */
+    private final BinaryTimeSeriesRecord[] records;
+
+    /**
+     * The projected fields per type.
+     */
+    private final boolean[][] projections;
+
+    /**
+     * The field encodings per type.
+     */
+    private final FieldEncoding[][] encodings;
+
+    /**
+     * The current values per type.
+     */
+    private final TimeSeriesRecord[] currents;
+
+    /**
+     * The previous values per type.
+     */
+    private final TimeSeriesRecord[] previous;
+
+    /**
+     * The records used to compute the deltas.
+     */
+    private final TimeSeriesRecord[] deltas;
+
+    /**
+     * The column decoders per type for the current block.
+     */
+    private final ColumnDecoder[][] decoders;
+
+    /**
+     * The number of records remaining per type within the current block.
+     */
+    private final int[] remaining;
+
+    /**
+     * The number of records returned per type from the current block.
+     */
+    private final int[] returned;
+
+    /**
+     * The total number of records remaining within the current block.
+     */
+    private int totalRemaining;
+
+    /**
+     * Creates a new <code>ColumnarBlockReader</code> that will return the records accepted by the specified filter.
+     * 
+     * @param definition the time series definition
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     */
+    public ColumnarBlockReader(TimeSeriesDefinition definition, Filter<String> filter, Filter<String> fieldFilter) {
+
+        this.records = definition.newBinaryRecords(filter);
+
+        int numberOfTypes = this.records.length;
+
+        this.projections = new boolean[numberOfTypes][];
+        this.encodings = new FieldEncoding[numberOfTypes][];
+        this.currents = new TimeSeriesRecord[numberOfTypes];
+        this.previous = new TimeSeriesRecord[numberOfTypes];
+        this.deltas = new TimeSeriesRecord[numberOfTypes];
+        this.decoders = new ColumnDecoder[numberOfTypes][];
+        this.remaining = new int[numberOfTypes];
+        this.returned = new int[numberOfTypes];
+
+        for (int type = 0; type < numberOfTypes; type++) {
+
+            TimeSeriesRecord record = definition.newRecord(type);
+            int numberOfFields = record.getNumberOfFields();
+
+            this.currents[type] = record;
+            this.previous[type] = definition.newRecord(type);
+            this.deltas[type] = definition.newRecord(type);
+            this.decoders[type] = new ColumnDecoder[numberOfFields];
+            this.projections[type] = new boolean[numberOfFields];
+            this.encodings[type] = new FieldEncoding[numberOfFields];
+
+            for (int i = 0; i < numberOfFields; i++) {
+                this.projections[type][i] = (i == TIMESTAMP_FIELD_INDEX) 
+                        || isAcceptedBy(fieldFilter, definition.getFieldName(type, i));
+                this.encodings[type][i] = definition.getFieldEncoding(type, i);
+            }
+        }
+    }
+
+    /**
+     * Positions this reader on the first record of the specified block.
+     * 
+     * @param block the block to read
+     * @throws IOException if an I/O problem occurs
+     */
+    public void fill(DataBlock block) throws IOException {
+
+        Record header = block.getHeader();
+        ReadableBuffer data = block.getData();
+
+        int numberOfTypes = this.records.length;
+        int[][] chunkLengths = new int[numberOfTypes][];
+
+        this.totalRemaining = 0;
+
+        for (int type = 0; type < numberOfTypes; type++) {
+
+            int count = getRecordCount(header, type);
+
+            if (count > 0) {
+
+                int[] lengths = new int[this.currents[type].getNumberOfFields()];
+
+                for (int i = 0; i < lengths.length; i++) {
+                    lengths[i] = readUnsignedInt(data);
+                }
+
+                chunkLengths[type] = lengths;
+            }
+
+            this.remaining[type] = (this.records[type] == null) ? 0 : count;
+            this.returned[type] = 0;
+            this.totalRemaining += this.remaining[type];
+        }
+
+        int offset = data.readerIndex();
+
+        for (int type = 0; type < numberOfTypes; type++) {
+
+            int[] lengths = chunkLengths[type];
+
+            if (lengths == null) {
+                continue;
+            }
+
+            ColumnDecoder[] columns = this.decoders[type];
+            TimeSeriesRecord current = this.currents[type];
+
+            for (int i = 0; i < lengths.length; i++) {
+
+                if (this.remaining[type] > 0 && this.projections[type][i]) {
+
+                    columns[i] = ColumnCodecs.newDecoder(this.encodings[type][i], 
+                                                         current.getField(i), 
+                                                         data.slice(offset, lengths[i]));
+                    current.getField(i).setValueToZero();
+
+                } else {
+
+                    columns[i] = null;
+                }
+
+                offset += lengths[i];
+            }
+
+            if (this.remaining[type] > 0) {
+                columns[TIMESTAMP_FIELD_INDEX].readNext(current.getField(TIMESTAMP_FIELD_INDEX));
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the current block contains more records.
+     * 
+     * @return <code>true</code> if the current block contains more records.
+     */
+    public boolean hasNext() {
+        return this.totalRemaining > 0;
+    }
+
+    /**
+     * Returns the next record of the current block.
+     * 
+     * @return the next record of the current block.
+     * @throws IOException if an I/O problem occurs
+     */
+    public BinaryTimeSeriesRecord next() throws IOException {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more records are available within the block.");
+        }
+
+        int type = nextType();
+
+        TimeSeriesRecord current = this.currents[type];
+        ColumnDecoder[] columns = this.decoders[type];
+
+        for (int i = TIMESTAMP_FIELD_INDEX + 1; i < columns.length; i++) {
+
+            if (columns[i] != null) {
+                columns[i].readNext(current.getField(i));
+            }
+        }
+
+        TimeSeriesRecord record = current;
+
+        if (this.returned[type] > 0) {
+
+            record = this.deltas[type];
+            current.copyTo(record);
+            record.subtract(this.previous[type]);
+        }
+
+        current.copyTo(this.previous[type]);
+
+        BinaryTimeSeriesRecord next = this.records[type].fill(record);
+
+        this.returned[type]++;
+        this.totalRemaining--;
+
+        if (--this.remaining[type] > 0) {
+            columns[TIMESTAMP_FIELD_INDEX].readNext(current.getField(TIMESTAMP_FIELD_INDEX));
+        }
+
+        return next;
+    }
+
+    /**
+     * Returns the type of the next record: the one with the smallest timestamp or the lowest type index 
+     * if several records have the same timestamp. 
+     * 
+     * @return the type of the next record.
+     * @throws IOException if an I/O problem occurs
+     */
+    private int nextType() throws IOException {
+
+        int next = -1;
+        long nextTimestamp = Long.MAX_VALUE;
+
+        for (int type = 0; type < this.remaining.length; type++) {
+
+            if (this.remaining[type] > 0) {
+
+                long timestamp = this.currents[type].getTimestampInNanos(TIMESTAMP_FIELD_INDEX);
+
+                if (next < 0 || timestamp < nextTimestamp) {
+                    next = type;
+                    nextTimestamp = timestamp;
+                }
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Checks if the specified field is accepted by the specified filter.
+     * 
+     * @param filter the field filter
+     * @param name the field name
+     * @return <code>true</code> if the field is accepted by the filter, <code>false</code> otherwise.
+     */
+    private static boolean isAcceptedBy(Filter<String> filter, String name) {
+        try {
+            return filter.accept(name);
+        } catch (IOException e) {
+            // Should never happend.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.BufferAllocator;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+
+import static io.horizondb.io.encoding.VarInts.computeUnsignedIntSize;
+import static io.horizondb.io.encoding.VarInts.writeUnsignedInt;
+
+/**
+ * Writes the records of a block using the {@link io.horizondb.model.schema.BlockLayout#COLUMNAR} layout.
+ * <p>
+ * The block data is composed of a directory followed by the column chunks. For each record type present 
+ * within the block (in the type order) and for each of its fields (in the field order) the directory contains 
+ * the length of the corresponding chunk as an unsigned varint. The chunks follow in the same order.
+ * </p>
+ */
+final class ColumnarBlockWriter {
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The buffer allocator.
+     */
+    private final BufferAllocator allocator;
+
+    /**
+     * The column encoders per record type.
+     */
+    private final ColumnEncoder[][] encoders;
+
+    /**
+     * The size of the directory and of the chunks.
+     */
+    private int size;
+
+    /**
+     * Creates a new <code>ColumnarBlockWriter</code> for the specified time series.
+     * 
+     * @param definition the time series definition
+     * @param allocator the buffer allocator
+     */
+    public ColumnarBlockWriter(TimeSeriesDefinition definition, BufferAllocator allocator) {
+
+        this.definition = definition;
+        this.allocator = allocator;
+        this.encoders = new ColumnEncoder[definition.getNumberOfRecordTypes()][];
+    }
+
+    /**
+     * Appends the specified full record to the columns.
+     * 
+     * @param record the record to append (must not be a delta)
+     * @throws IOException if an I/O problem occurs
+     */
+    public void append(Record record) throws IOException {
+
+        int type = record.getType();
+
+        ColumnEncoder[] columns = this.encoders[type];
+
+        if (columns == null) {
+            columns = newEncoders(type);
+            this.encoders[type] = columns;
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+
+            ColumnEncoder column = columns[i];
+
+            this.size -= computeChunkSize(column);
+            column.append(record.getField(i));
+            this.size += computeChunkSize(column);
+        }
+    }
+
+    /**
+     * Returns the size in bytes of the block data.
+     * 
+     * @return the size in bytes of the block data.
+     */
+    public int computeSerializedSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the block data.
+     * 
+     * @return the block data.
+     * @throws IOException if an I/O problem occurs
+     */
+    public ReadableBuffer getData() throws IOException {
+
+        Buffer buffer = this.allocator.allocate(this.size);
+
+        for (ColumnEncoder[] columns : this.encoders) {
+
+            if (columns != null) {
+
+                for (ColumnEncoder column : columns) {
+                    writeUnsignedInt(buffer, column.computeSerializedSize());
+                }
+            }
+        }
+
+        for (ColumnEncoder[] columns : this.encoders) {
+
+            if (columns != null) {
+
+                for (ColumnEncoder column : columns) {
+                    column.writeTo(buffer);
+                }
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Creates the column encoders for the specified record type.
+     * 
+     * @param type the record type
+     * @return the column encoders for the specified record type.
+     */
+    private ColumnEncoder[] newEncoders(int type) {
+
+        Record prototype = this.definition.newRecord(type);
+
+        ColumnEncoder[] columns = new ColumnEncoder[prototype.getNumberOfFields()];
+
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnCodecs.newEncoder(this.definition.getFieldEncoding(type, i), 
+                                                 this.allocator, 
+                                                 this.definition.newField(type, i));
+            this.size += computeChunkSize(columns[i]);
+        }
+
+        return columns;
+    }
+
+    /**
+     * Computes the number of bytes used by the specified column within the block data.
+     * 
+     * @param column the column
+     * @return the number of bytes used by the specified column within the block data.
+     */
+    private static int computeChunkSize(ColumnEncoder column) {
+
+        int chunkSize = column.computeSerializedSize();
+        return computeUnsignedIntSize(chunkSize) + chunkSize;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import static org.apache.commons.lang.Validate.isTrue;
+
+/**
+ * Estimates the compression ratio of the blocks of a time series from the ratio observed on its recent blocks.
+ * <p>
+ * The estimate is used by the {@link RecordAppender} to fill the blocks up to the size that they will have once 
+ * compressed. The same instance must be shared by all the appenders used to build the blocks of a time series.
+ * This class is not thread-safe.
+ * </p>
+ */
+public final class CompressionRatioEstimator {
+
+    /**
+     * The maximum ratio that can be estimated. It limits the size of the uncompressed blocks if the data 
+     * compresses extremely well.
+     */
+    public static final double MAXIMUM_RATIO = 8.0;
+
+    /**
+     * The weight given to the last observed ratio.
+     */
+    private static final double WEIGHT = 0.5;
+
+    /**
+     * The estimated ratio between the uncompressed and the compressed size of a block.
+     */
+    private double ratio = 1.0;
+
+    /**
+     * Returns the estimated ratio between the uncompressed and the compressed size of a block.
+     * 
+     * @return the estimated ratio between the uncompressed and the compressed size of a block.
+     */
+    public double getRatio() {
+        return this.ratio;
+    }
+
+    /**
+     * Updates the estimate with the sizes observed on a block.
+     * 
+     * @param uncompressedSize the uncompressed size of the block
+     * @param compressedSize the compressed size of the block
+     */
+    public void update(int uncompressedSize, int compressedSize) {
+
+        isTrue(uncompressedSize >= 0, "the uncompressedSize parameter must not be negative.");
+        isTrue(compressedSize >= 0, "the compressedSize parameter must not be negative.");
+
+        if (uncompressedSize == 0 || compressedSize == 0) {
+            return;
+        }
+
+        double observed = Math.min(MAXIMUM_RATIO, Math.max(1.0, (double) uncompressedSize / compressedSize));
+
+        this.ratio = (WEIGHT * observed) + ((1 - WEIGHT) * this.ratio);
+    }
+
+    /**
+     * Returns the uncompressed size that a block can reach for its compressed size to be the specified one.
+     * 
+     * @param compressedSize the expected compressed size
+     * @return the uncompressed size that a block can reach for its compressed size to be the specified one.
+     */
+    public int getUncompressedSize(int compressedSize) {
+
+        return (int) Math.min(Integer.MAX_VALUE, compressedSize * this.ratio);
+    }
+}
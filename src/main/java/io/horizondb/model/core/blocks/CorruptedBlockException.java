@@ -0,0 +1,36 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import java.io.IOException;
+
+/**
+ * An <code>IOException</code> thrown when the data of a block does not match
+ * the checksum stored within its header.
+ */
+public final class CorruptedBlockException extends IOException {
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = -2383410470542816741L;
+
+    /**
+     * Create a new <code>CorruptedBlockException</code> with the specified error message.
+     * @param message the error message
+     */
+    public CorruptedBlockException(String message) {
+        super(message);
+    }
+}
@@ -15,34 +15,70 @@ package io.horizondb.model.core.blocks;
 
 import io.horizondb.io.buffers.Buffers;
 import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Record;
 import io.horizondb.model.core.records.TimeSeriesRecord;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import static java.lang.String.format;
 
+import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
 
 /**
  * Utility class to build <code>DataBlock</code>s.
- * 
+ * <p>
+ * By default the records are kept in memory and sorted by timestamp when the block is built. In streaming mode
+ * the records are appended to the block as soon as they are complete. Only the records of a bounded reorder 
+ * window are kept in memory in order to support records arriving slightly out of order.
+ * </p>
  */
 public final class DataBlockBuilder {
 
     /**
-     * The records.
+     * The records if the builder is not in streaming mode.
      */
-    private final List<TimeSeriesRecord> records = new ArrayList<>();
+    private final List<TimeSeriesRecord> records;
     
     /**
      * The definition of the time series.
      */
     private final TimeSeriesDefinition definition;
 
+    /**
+     * The appender used to append the records if the builder is in streaming mode.
+     */
+    private final RecordAppender appender;
+
+    /**
+     * The reorder window used in streaming mode. The window is a circular buffer in which the records are 
+     * kept sorted by timestamp.
+     */
+    private final TimeSeriesRecord[] window;
+
+    /**
+     * The timestamps in nanoseconds of the records within the reorder window.
+     */
+    private final long[] windowTimestamps;
+
+    /**
+     * The position of the first record within the reorder window.
+     */
+    private int windowStart;
+
+    /**
+     * The number of records within the reorder window.
+     */
+    private int windowSize;
+
+    /**
+     * The timestamp in nanoseconds of the last record appended in streaming mode.
+     */
+    private long lastAppendedTimestamp = Long.MIN_VALUE;
+
     /**
      * The current record being filled.
      */
@@ -59,6 +95,30 @@ public final class DataBlockBuilder {
         notNull(definition, "the definition parameter must not be null.");
 
         this.definition = definition;
+        this.records = new ArrayList<>();
+        this.appender = null;
+        this.window = null;
+        this.windowTimestamps = null;
+    }
+
+    /**
+     * Creates a new <code>DataBlockBuilder</code> in streaming mode that will be used to build a 
+     * <code>DataBlock</code> for the specified time series.
+     * 
+     * @param definition the time series definition.
+     * @param reorderWindowSize the maximum number of records that can be held back to be reordered. 
+     * A record older than a record already appended to the block will be rejected.
+     */
+    public DataBlockBuilder(TimeSeriesDefinition definition, int reorderWindowSize) {
+
+        notNull(definition, "the definition parameter must not be null.");
+        isTrue(reorderWindowSize >= 0, "the reorderWindowSize parameter must not be negative.");
+
+        this.definition = definition;
+        this.records = null;
+        this.appender = new RecordAppender(definition, Buffers.DEFAULT_ALLOCATOR, definition.newRecords());
+        this.window = new TimeSeriesRecord[reorderWindowSize + 1];
+        this.windowTimestamps = new long[reorderWindowSize + 1];
     }
 
     /**
@@ -324,16 +384,24 @@ public final class DataBlockBuilder {
     public final DataBlock build() throws IOException {
 
         addCurrentToRecords();
-        Collections.sort(this.records);
+
+        if (this.appender != null) {
+
+            this.current = null;
+
+            while (this.windowSize > 0) {
+                appendFirstFromWindow();
+            }
+
+            return this.appender.getDataBlock();
+        }
+
         RecordAppender appender = new RecordAppender(this.definition,
                                                      Buffers.DEFAULT_ALLOCATOR,
                                                      this.definition.newRecords());
 
-        for (TimeSeriesRecord record : this.records){
-            if (!appender.append(record)) {
-                throw new BlockOverflowException(format("The record %s cannot be appended to the block as it is full.",
-                                                        record));
-            }
+        for (int index : sortByTimestamp(this.records)) {
+            append(appender, this.records.get(index));
         }
 
         return appender.getDataBlock();
@@ -349,12 +417,158 @@ public final class DataBlockBuilder {
     }
 
     /**
-     * Adds the current record to the record set.
+     * Adds the current record to the record set or, in streaming mode, to the reorder window.
      */
     private void addCurrentToRecords() {
 
-        if (this.current != null) {
+        if (this.current == null) {
+            return;
+        }
+
+        if (this.appender == null) {
             this.records.add(this.current);
+            return;
+        }
+
+        try {
+
+            addToWindow(this.current);
+
+            if (this.windowSize == this.window.length) {
+                appendFirstFromWindow();
+            }
+
+        } catch (IOException e) {
+            // Should never happen as the records are appended in memory
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Inserts the specified record within the reorder window after the records with a lower or equal timestamp.
+     * 
+     * @param record the record to insert
+     */
+    private void addToWindow(TimeSeriesRecord record) {
+
+        long timestamp = record.getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+
+        if (timestamp < this.lastAppendedTimestamp) {
+            throw new IllegalStateException(format("The record %s is older than the records already appended "
+                    + "to the block and is outside of the reorder window.", record));
+        }
+
+        int length = this.window.length;
+        int position = this.windowSize;
+
+        while (position > 0 && this.windowTimestamps[(this.windowStart + position - 1) % length] > timestamp) {
+
+            int from = (this.windowStart + position - 1) % length;
+            int to = (this.windowStart + position) % length;
+
+            this.window[to] = this.window[from];
+            this.windowTimestamps[to] = this.windowTimestamps[from];
+            position--;
+        }
+
+        int index = (this.windowStart + position) % length;
+
+        this.window[index] = record;
+        this.windowTimestamps[index] = timestamp;
+        this.windowSize++;
+    }
+
+    /**
+     * Removes the oldest record from the reorder window and appends it to the block.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void appendFirstFromWindow() throws IOException {
+
+        TimeSeriesRecord record = this.window[this.windowStart];
+
+        this.lastAppendedTimestamp = this.windowTimestamps[this.windowStart];
+        this.window[this.windowStart] = null;
+        this.windowStart = (this.windowStart + 1) % this.window.length;
+        this.windowSize--;
+
+        append(this.appender, record);
+    }
+
+    /**
+     * Appends the specified record using the specified appender.
+     * 
+     * @param appender the record appender
+     * @param record the record to append
+     * @throws IOException if an I/O problem occurs
+     * @throws BlockOverflowException if the block is full
+     */
+    private static void append(RecordAppender appender, TimeSeriesRecord record) throws IOException {
+
+        if (!appender.append(record)) {
+            throw new BlockOverflowException(format("The record %s cannot be appended to the block as it is full.",
+                                                    record));
+        }
+    }
+
+    /**
+     * Returns the indices of the specified records sorted by timestamp. The sort is stable and performed on 
+     * the timestamps, the records themselves are not compared.
+     * 
+     * @param records the records to sort
+     * @return the indices of the records sorted by timestamp
+     */
+    static int[] sortByTimestamp(List<TimeSeriesRecord> records) {
+
+        int size = records.size();
+        long[] timestamps = new long[size];
+        int[] indices = new int[size];
+        boolean sorted = true;
+
+        for (int i = 0; i < size; i++) {
+
+            timestamps[i] = records.get(i).getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+            indices[i] = i;
+
+            if (i > 0 && timestamps[i] < timestamps[i - 1]) {
+                sorted = false;
+            }
+        }
+
+        if (!sorted) {
+            mergeSort(timestamps, indices.clone(), indices, 0, size);
+        }
+
+        return indices;
+    }
+
+    /**
+     * Sorts the specified range of indices by timestamp using a merge sort.
+     * 
+     * @param timestamps the timestamps
+     * @param source the indices to sort
+     * @param destination the array receiving the sorted indices
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     */
+    private static void mergeSort(long[] timestamps, int[] source, int[] destination, int from, int to) {
+
+        if (to - from < 2) {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+
+        mergeSort(timestamps, destination, source, from, middle);
+        mergeSort(timestamps, destination, source, middle, to);
+
+        for (int i = from, left = from, right = middle; i < to; i++) {
+
+            if (right >= to || (left < middle && timestamps[source[left]] <= timestamps[source[right]])) {
+                destination[i] = source[left++];
+            } else {
+                destination[i] = source[right++];
+            }
         }
     }
     
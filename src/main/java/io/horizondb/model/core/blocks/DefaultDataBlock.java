@@ -15,6 +15,7 @@ package io.horizondb.model.core.blocks;
 
 import io.horizondb.io.ByteWriter;
 import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Record;
 import io.horizondb.model.core.RecordUtils;
@@ -40,6 +41,11 @@ public final class DefaultDataBlock extends AbstractDataBlock {
      */
     private final ReadableBuffer data;
 
+    /**
+     * The block bloom filters.
+     */
+    private final ReadableBuffer bloomFilters;
+
     /**
      * Creates a new <code>DataBlock</code> with the specified header and data.
      *
@@ -47,7 +53,19 @@ public final class DefaultDataBlock extends AbstractDataBlock {
      * @param data the block data
      */
     public DefaultDataBlock(Record header, ReadableBuffer data) {
+        this(header, Buffers.EMPTY_BUFFER, data);
+    }
+
+    /**
+     * Creates a new <code>DataBlock</code> with the specified header, bloom filters and data.
+     *
+     * @param header the block header
+     * @param bloomFilters the block bloom filters
+     * @param data the block data
+     */
+    public DefaultDataBlock(Record header, ReadableBuffer bloomFilters, ReadableBuffer data) {
         this.header = header;
+        this.bloomFilters = bloomFilters.readerIndex(0);
         this.data = data.readerIndex(0);
     }
 
@@ -67,6 +85,14 @@ public final class DefaultDataBlock extends AbstractDataBlock {
         return this.data.duplicate();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ReadableBuffer getBloomFilters() {
+        return this.bloomFilters.duplicate();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -83,6 +109,7 @@ public final class DefaultDataBlock extends AbstractDataBlock {
     @Override
     public int computeSerializedSize() throws IOException {
         return RecordUtils.computeSerializedSize(this.header)
+                + this.bloomFilters.readableBytes()
                 + this.data.readableBytes();
     }
 
@@ -92,6 +119,7 @@ public final class DefaultDataBlock extends AbstractDataBlock {
     @Override
     public void writeTo(ByteWriter writer) throws IOException {
         RecordUtils.writeRecord(writer, getHeader());
+        writer.transfer(getBloomFilters());
         writer.transfer(getData());
     }
 }
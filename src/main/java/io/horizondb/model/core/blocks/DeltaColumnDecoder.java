@@ -0,0 +1,58 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+/**
+ * <code>ColumnDecoder</code> for the chunks written by a <code>DeltaColumnEncoder</code>.
+ */
+final class DeltaColumnDecoder implements ColumnDecoder {
+
+    /**
+     * The reader containing the column chunk.
+     */
+    private final ByteReader reader;
+
+    /**
+     * The previous value.
+     */
+    private final Field previous;
+
+    /**
+     * Creates a new <code>DeltaColumnDecoder</code> that read the values from the specified chunk.
+     * 
+     * @param prototype a field of the column type
+     * @param reader the reader containing the column chunk
+     */
+    public DeltaColumnDecoder(Field prototype, ByteReader reader) {
+
+        this.reader = reader;
+        this.previous = prototype.newInstance().setValueToZero();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readNext(Field field) throws IOException {
+
+        field.readFrom(this.reader);
+        this.previous.add(field);
+        this.previous.copyTo(field);
+    }
+}
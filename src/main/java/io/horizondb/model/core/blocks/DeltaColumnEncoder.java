@@ -0,0 +1,102 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.BufferAllocator;
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.buffers.CompositeBuffer;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+/**
+ * <code>ColumnEncoder</code> that stores each value as the delta with the previous one, using the field
+ * own serialization format. The first value of the column is stored as is.
+ */
+final class DeltaColumnEncoder implements ColumnEncoder {
+
+    /**
+     * The buffer allocator.
+     */
+    private final BufferAllocator allocator;
+
+    /**
+     * The previous value.
+     */
+    private final Field previous;
+
+    /**
+     * The field used to compute the deltas.
+     */
+    private final Field delta;
+
+    /**
+     * The buffer containing the encoded values.
+     */
+    private final CompositeBuffer buffer = new CompositeBuffer();
+
+    /**
+     * The size in bytes of the encoded values.
+     */
+    private int size;
+
+    /**
+     * Creates a new <code>DeltaColumnEncoder</code> for the specified type of field.
+     * 
+     * @param allocator the buffer allocator
+     * @param prototype a field of the column type
+     */
+    public DeltaColumnEncoder(BufferAllocator allocator, Field prototype) {
+
+        this.allocator = allocator;
+        this.previous = prototype.newInstance().setValueToZero();
+        this.delta = prototype.newInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void append(Field value) throws IOException {
+
+        value.copyTo(this.delta);
+        this.delta.subtract(this.previous);
+        value.copyTo(this.previous);
+
+        int fieldSize = this.delta.computeSerializedSize();
+
+        Buffer bytes = this.allocator.allocate(fieldSize);
+        this.delta.writeTo(bytes);
+
+        this.buffer.addBytes(bytes);
+        this.size += fieldSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+        writer.transfer(this.buffer.readerIndex(0));
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>ColumnDecoder</code> for the chunks written by a <code>DeltaOfDeltaColumnEncoder</code>.
+ */
+final class DeltaOfDeltaColumnDecoder implements ColumnDecoder {
+
+    /**
+     * The reader containing the column chunk.
+     */
+    private final ByteReader reader;
+
+    /**
+     * The unit of the timestamps.
+     */
+    private final TimeUnit unit;
+
+    /**
+     * The packed bits or <code>null</code> if the chunk has been written in the regular mode.
+     */
+    private BitReader bits;
+
+    /**
+     * <code>true</code> if no value has been read yet.
+     */
+    private boolean first = true;
+
+    /**
+     * The previous timestamp.
+     */
+    private long previous;
+
+    /**
+     * The previous delta.
+     */
+    private long delta;
+
+    /**
+     * Creates a new <code>DeltaOfDeltaColumnDecoder</code> that read the timestamps from the specified chunk.
+     * 
+     * @param unit the unit of the timestamps
+     * @param reader the reader containing the column chunk
+     */
+    public DeltaOfDeltaColumnDecoder(TimeUnit unit, ByteReader reader) {
+
+        this.unit = unit;
+        this.reader = reader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readNext(Field field) throws IOException {
+
+        if (this.first) {
+
+            readFirst();
+
+        } else if (this.bits == null) {
+
+            this.previous += this.delta;
+
+        } else {
+
+            this.delta += readDeltaOfDelta();
+            this.previous += this.delta;
+        }
+
+        field.setTimestamp(this.previous, this.unit);
+    }
+
+    /**
+     * Reads the chunk mode and the first timestamp.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void readFirst() throws IOException {
+
+        int mode = this.reader.readByte();
+
+        if (mode == DeltaOfDeltaColumnEncoder.REGULAR_MODE) {
+
+            this.previous = VarInts.readLong(this.reader);
+            this.delta = VarInts.readLong(this.reader);
+
+        } else {
+
+            this.bits = new BitReader(this.reader);
+            this.previous = this.bits.readBits(64);
+        }
+
+        this.first = false;
+    }
+
+    /**
+     * Reads the next delta of delta from the packed bits.
+     * 
+     * @return the next delta of delta
+     * @throws IOException if an I/O problem occurs
+     */
+    private long readDeltaOfDelta() throws IOException {
+
+        if (!this.bits.readBit()) {
+            return 0;
+        }
+
+        if (!this.bits.readBit()) {
+            return readSigned(7);
+        }
+
+        if (!this.bits.readBit()) {
+            return readSigned(9);
+        }
+
+        if (!this.bits.readBit()) {
+            return readSigned(12);
+        }
+
+        if (!this.bits.readBit()) {
+            return readSigned(32);
+        }
+
+        return this.bits.readBits(64);
+    }
+
+    /**
+     * Reads a two's complement number of the specified number of bits.
+     * 
+     * @param length the number of bits
+     * @return the number read
+     * @throws IOException if an I/O problem occurs
+     */
+    private long readSigned(int length) throws IOException {
+
+        int shift = 64 - length;
+        return (this.bits.readBits(length) << shift) >> shift;
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>ColumnEncoder</code> for timestamps, storing the difference between the successive deltas.
+ * <p>
+ * If all the deltas are equal, the chunk is written in the regular mode: a <code>0</code> byte followed by 
+ * the first timestamp and the delta as signed varints. No bits are spent on the following timestamps.
+ * </p>
+ * <p>
+ * Otherwise the chunk is written in the packed mode: a <code>1</code> byte followed by the first timestamp 
+ * (64 bits) and, for each of the next timestamps, the delta of delta stored in the first bucket that can hold it:
+ * <ul>
+ * <li><code>0</code> if the delta of delta is zero</li>
+ * <li><code>10</code> followed by 7 bits</li>
+ * <li><code>110</code> followed by 9 bits</li>
+ * <li><code>1110</code> followed by 12 bits</li>
+ * <li><code>11110</code> followed by 32 bits</li>
+ * <li><code>11111</code> followed by 64 bits</li>
+ * </ul>
+ * The delta preceding the first one is considered to be zero.
+ * </p>
+ */
+final class DeltaOfDeltaColumnEncoder implements ColumnEncoder {
+
+    /**
+     * The mode used when all the deltas are equal.
+     */
+    static final int REGULAR_MODE = 0;
+
+    /**
+     * The mode used when the deltas vary.
+     */
+    static final int PACKED_MODE = 1;
+
+    /**
+     * The unit of the timestamps.
+     */
+    private final TimeUnit unit;
+
+    /**
+     * The bits of the packed mode.
+     */
+    private final BitWriter bits = new BitWriter();
+
+    /**
+     * The number of timestamps appended so far.
+     */
+    private int count;
+
+    /**
+     * The first timestamp.
+     */
+    private long first;
+
+    /**
+     * The first delta.
+     */
+    private long firstDelta;
+
+    /**
+     * <code>true</code> if all the deltas appended so far are equal.
+     */
+    private boolean regular = true;
+
+    /**
+     * The previous timestamp.
+     */
+    private long previous;
+
+    /**
+     * The previous delta.
+     */
+    private long previousDelta;
+
+    /**
+     * Creates a new <code>DeltaOfDeltaColumnEncoder</code> for timestamps of the specified unit.
+     * 
+     * @param unit the unit of the timestamps
+     */
+    public DeltaOfDeltaColumnEncoder(TimeUnit unit) {
+
+        this.unit = unit;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void append(Field value) throws IOException {
+
+        long timestamp = value.getTimestampIn(this.unit);
+
+        if (this.count == 0) {
+
+            this.first = timestamp;
+            this.bits.writeBits(timestamp, 64);
+
+        } else {
+
+            long delta = timestamp - this.previous;
+
+            if (this.count == 1) {
+                this.firstDelta = delta;
+            } else if (delta != this.firstDelta) {
+                this.regular = false;
+            }
+
+            appendDeltaOfDelta(delta - this.previousDelta);
+            this.previousDelta = delta;
+        }
+
+        this.previous = timestamp;
+        this.count++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+
+        if (this.regular) {
+            return 1 + VarInts.computeLongSize(this.first) + VarInts.computeLongSize(this.firstDelta);
+        }
+
+        return 1 + this.bits.computeSerializedSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+
+        if (this.regular) {
+
+            writer.writeByte(REGULAR_MODE);
+            VarInts.writeLong(writer, this.first);
+            VarInts.writeLong(writer, this.firstDelta);
+
+        } else {
+
+            writer.writeByte(PACKED_MODE);
+            this.bits.writeTo(writer);
+        }
+    }
+
+    /**
+     * Appends the specified delta of delta to the packed bits.
+     * 
+     * @param deltaOfDelta the delta of delta
+     */
+    private void appendDeltaOfDelta(long deltaOfDelta) {
+
+        if (deltaOfDelta == 0) {
+
+            this.bits.writeBit(false);
+
+        } else if (fits(deltaOfDelta, 7)) {
+
+            this.bits.writeBits(0b10, 2);
+            this.bits.writeBits(deltaOfDelta, 7);
+
+        } else if (fits(deltaOfDelta, 9)) {
+
+            this.bits.writeBits(0b110, 3);
+            this.bits.writeBits(deltaOfDelta, 9);
+
+        } else if (fits(deltaOfDelta, 12)) {
+
+            this.bits.writeBits(0b1110, 4);
+            this.bits.writeBits(deltaOfDelta, 12);
+
+        } else if (fits(deltaOfDelta, 32)) {
+
+            this.bits.writeBits(0b11110, 5);
+            this.bits.writeBits(deltaOfDelta, 32);
+
+        } else {
+
+            this.bits.writeBits(0b11111, 5);
+            this.bits.writeBits(deltaOfDelta, 64);
+        }
+    }
+
+    /**
+     * Checks if the specified value can be stored as a two's complement number of the specified number of bits.
+     * 
+     * @param value the value
+     * @param length the number of bits
+     * @return <code>true</code> if the value can be stored in the specified number of bits.
+     */
+    private static boolean fits(long value, int length) {
+
+        long limit = 1L << (length - 1);
+        return value >= -limit && value < limit;
+    }
+}
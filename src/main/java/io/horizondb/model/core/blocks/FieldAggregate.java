@@ -0,0 +1,145 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.fields.ImmutableField;
+import io.horizondb.model.schema.FieldType;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.newSumField;
+
+/**
+ * The number of values, the sum, the minimum and the maximum of the values of a field.
+ */
+public final class FieldAggregate {
+
+    /**
+     * The number of values.
+     */
+    private long count;
+
+    /**
+     * The sum of the values.
+     */
+    private final Field sum;
+
+    /**
+     * The minimum value.
+     */
+    private final Field min;
+
+    /**
+     * The maximum value.
+     */
+    private final Field max;
+
+    /**
+     * Creates a new empty <code>FieldAggregate</code> for the fields of the specified type.
+     * 
+     * @param type the field type
+     */
+    public FieldAggregate(FieldType type) {
+
+        this.sum = newSumField(type);
+        this.min = type.newField();
+        this.max = type.newField();
+    }
+
+    /**
+     * Adds the specified value to this aggregate.
+     * 
+     * @param value the value to add
+     */
+    public void add(Field value) {
+
+        add(1, value, value, value);
+    }
+
+    /**
+     * Adds the specified aggregated values to this aggregate.
+     * 
+     * @param count the number of values
+     * @param sum the sum of the values
+     * @param min the minimum value
+     * @param max the maximum value
+     */
+    public void add(long count, Field sum, Field min, Field max) {
+
+        if (count == 0) {
+            return;
+        }
+
+        if (this.count == 0 || min.compareTo(this.min) < 0) {
+            min.copyTo(this.min);
+        }
+
+        if (this.count == 0 || max.compareTo(this.max) > 0) {
+            max.copyTo(this.max);
+        }
+
+        this.sum.add(sum);
+        this.count += count;
+    }
+
+    /**
+     * Returns the number of values.
+     * 
+     * @return the number of values.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the sum of the values.
+     * 
+     * @return the sum of the values.
+     */
+    public Field getSum() {
+        return ImmutableField.of(this.sum);
+    }
+
+    /**
+     * Returns the minimum value.
+     * 
+     * @return the minimum value or <code>null</code> if no values have been aggregated.
+     */
+    public Field getMinimum() {
+        return this.count == 0 ? null : ImmutableField.of(this.min);
+    }
+
+    /**
+     * Returns the maximum value.
+     * 
+     * @return the maximum value or <code>null</code> if no values have been aggregated.
+     */
+    public Field getMaximum() {
+        return this.count == 0 ? null : ImmutableField.of(this.max);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("count", this.count)
+                                                                          .append("sum", this.sum)
+                                                                          .append("min", getMinimum())
+                                                                          .append("max", getMaximum())
+                                                                          .toString();
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.schema.FieldType;
+
+import java.io.IOException;
+
+/**
+ * <code>ColumnDecoder</code> for the chunks written by a <code>FrameOfReferenceColumnEncoder</code>.
+ * <p>
+ * The values are unpacked a whole batch at a time, so that reading a value only requires to set the field. 
+ * The <code>ColumnarBlockReader</code> copies the fields as they are into the records that it returns, so the
+ * unpacked values reach the scan and the filters without being serialized and parsed again.
+ * </p>
+ */
+final class FrameOfReferenceColumnDecoder implements ColumnDecoder {
+
+    /**
+     * The reader containing the column chunk.
+     */
+    private final ByteReader reader;
+
+    /**
+     * <code>true</code> if the column contains integer fields, <code>false</code> if it contains long fields.
+     */
+    private final boolean integer;
+
+    /**
+     * The values of the current batch.
+     */
+    private final long[] values = new long[FrameOfReferenceColumnEncoder.BATCH_SIZE];
+
+    /**
+     * The number of values within the current batch.
+     */
+    private int count;
+
+    /**
+     * The index of the next value within the current batch.
+     */
+    private int index;
+
+    /**
+     * Creates a new <code>FrameOfReferenceColumnDecoder</code> that read the values from the specified chunk.
+     * 
+     * @param prototype a field of the column type
+     * @param reader the reader containing the column chunk
+     */
+    public FrameOfReferenceColumnDecoder(Field prototype, ByteReader reader) {
+
+        this.reader = reader;
+        this.integer = prototype.getType() == FieldType.INTEGER;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readNext(Field field) throws IOException {
+
+        if (this.index == this.count) {
+            readBatch();
+        }
+
+        long value = this.values[this.index++];
+
+        if (this.integer) {
+            field.setInt((int) value);
+        } else {
+            field.setLong(value);
+        }
+    }
+
+    /**
+     * Reads and unpacks the next batch.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void readBatch() throws IOException {
+
+        this.count = this.reader.readByte() & 0xFF;
+        this.index = 0;
+
+        long min = VarInts.readLong(this.reader);
+        int bitWidth = this.reader.readByte();
+
+        BitReader bits = new BitReader(this.reader);
+
+        for (int i = 0; i < this.count; i++) {
+            this.values[i] = min + bits.readBits(bitWidth);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.BufferAllocator;
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.buffers.CompositeBuffer;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+/**
+ * <code>ColumnEncoder</code> for integer values, storing the values by batches using frame-of-reference 
+ * and bit-packing.
+ * <p>
+ * Each batch of up to {@link #BATCH_SIZE} values is stored as: the number of values (1 byte), 
+ * the minimum value (signed varint), the number of bits per value (1 byte) followed by the difference between 
+ * each value and the minimum packed on that number of bits.
+ * </p>
+ */
+final class FrameOfReferenceColumnEncoder implements ColumnEncoder {
+
+    /**
+     * The maximum number of values per batch.
+     */
+    static final int BATCH_SIZE = 128;
+
+    /**
+     * The buffer allocator.
+     */
+    private final BufferAllocator allocator;
+
+    /**
+     * The buffer containing the complete batches.
+     */
+    private final CompositeBuffer buffer = new CompositeBuffer();
+
+    /**
+     * The size in bytes of the complete batches.
+     */
+    private int size;
+
+    /**
+     * The values of the current batch.
+     */
+    private final long[] values = new long[BATCH_SIZE];
+
+    /**
+     * The number of values within the current batch.
+     */
+    private int count;
+
+    /**
+     * The minimum value of the current batch.
+     */
+    private long min;
+
+    /**
+     * The maximum value of the current batch.
+     */
+    private long max;
+
+    /**
+     * Creates a new <code>FrameOfReferenceColumnEncoder</code>.
+     * 
+     * @param allocator the buffer allocator
+     */
+    public FrameOfReferenceColumnEncoder(BufferAllocator allocator) {
+
+        this.allocator = allocator;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void append(Field value) throws IOException {
+
+        long l = value.getLong();
+
+        if (this.count == 0) {
+
+            this.min = l;
+            this.max = l;
+
+        } else {
+
+            this.min = Math.min(this.min, l);
+            this.max = Math.max(this.max, l);
+        }
+
+        this.values[this.count++] = l;
+
+        if (this.count == BATCH_SIZE) {
+
+            int batchSize = computeBatchSize();
+
+            Buffer bytes = this.allocator.allocate(batchSize);
+            writeBatch(bytes);
+
+            this.buffer.addBytes(bytes);
+            this.size += batchSize;
+            this.count = 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+
+        if (this.count == 0) {
+            return this.size;
+        }
+
+        return this.size + computeBatchSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+
+        writer.transfer(this.buffer.readerIndex(0));
+
+        if (this.count != 0) {
+            writeBatch(writer);
+        }
+    }
+
+    /**
+     * Computes the size in bytes of the current batch.
+     * 
+     * @return the size in bytes of the current batch.
+     */
+    private int computeBatchSize() {
+
+        return 2 + VarInts.computeLongSize(this.min) + ((this.count * computeBitWidth() + 7) >>> 3);
+    }
+
+    /**
+     * Returns the number of bits needed to store the difference between the values of the current batch and 
+     * its minimum.
+     * 
+     * @return the number of bits needed to store the values of the current batch.
+     */
+    private int computeBitWidth() {
+
+        return 64 - Long.numberOfLeadingZeros(this.max - this.min);
+    }
+
+    /**
+     * Writes the current batch to the specified writer.
+     * 
+     * @param writer the writer to write to
+     * @throws IOException if an I/O problem occurs
+     */
+    private void writeBatch(ByteWriter writer) throws IOException {
+
+        int bitWidth = computeBitWidth();
+
+        writer.writeByte(this.count);
+        VarInts.writeLong(writer, this.min);
+        writer.writeByte(bitWidth);
+
+        BitWriter bits = new BitWriter();
+
+        for (int i = 0; i < this.count; i++) {
+            bits.writeBits(this.values[i] - this.min, bitWidth);
+        }
+
+        bits.writeTo(writer);
+    }
+}
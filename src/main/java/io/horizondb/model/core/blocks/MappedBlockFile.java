@@ -0,0 +1,425 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.core.iterators.AbstractResourceIterator;
+import io.horizondb.model.core.records.BlockHeaderUtils;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.BlockPosition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+/**
+ * A file of blocks mapped in memory. The blocks are located through an index of <code>BlockIndexEntry</code> 
+ * and are exposed as slices of the mapped buffer, so that only the pages of the blocks being read 
+ * are loaded from the disk.
+ */
+public final class MappedBlockFile implements Closeable {
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The mapped file content.
+     */
+    private ReadableBuffer buffer;
+
+    /**
+     * The index of the blocks.
+     */
+    private final List<BlockIndexEntry> index;
+
+    /**
+     * The maximum last timestamp of the blocks up to each index entry. Unlike the last timestamps themselves, 
+     * those values are ordered even if some blocks overlap, so they can be searched with a binary search.
+     */
+    private final long[] maximumLastTimestamps;
+
+    /**
+     * The minimum first timestamp of the blocks from each index entry.
+     */
+    private final long[] minimumFirstTimestamps;
+
+    /**
+     * Creates a new <code>MappedBlockFile</code>.
+     * 
+     * @param definition the time series definition
+     * @param buffer the mapped file content
+     * @param index the index of the blocks
+     */
+    private MappedBlockFile(TimeSeriesDefinition definition, ReadableBuffer buffer, List<BlockIndexEntry> index) {
+
+        this.definition = definition;
+        this.buffer = buffer;
+        this.index = Collections.unmodifiableList(index);
+
+        int numberOfBlocks = index.size();
+
+        this.maximumLastTimestamps = new long[numberOfBlocks];
+        this.minimumFirstTimestamps = new long[numberOfBlocks];
+
+        for (int i = 0; i < numberOfBlocks; i++) {
+
+            long lastTimestamp = index.get(i).getLastTimestamp();
+            this.maximumLastTimestamps[i] = (i == 0) ? lastTimestamp 
+                                                     : Math.max(this.maximumLastTimestamps[i - 1], lastTimestamp);
+        }
+
+        for (int i = numberOfBlocks - 1; i >= 0; i--) {
+
+            long firstTimestamp = index.get(i).getFirstTimestamp();
+            this.minimumFirstTimestamps[i] = (i == numberOfBlocks - 1) 
+                    ? firstTimestamp : Math.min(this.minimumFirstTimestamps[i + 1], firstTimestamp);
+        }
+    }
+
+    /**
+     * Maps the specified file of blocks in memory and builds its index by reading the block headers.
+     * 
+     * @param definition the time series definition
+     * @param path the path of the file
+     * @return the mapped file
+     * @throws IOException if an I/O problem occurs
+     */
+    public static MappedBlockFile open(TimeSeriesDefinition definition, Path path) throws IOException {
+
+        ReadableBuffer buffer = map(path);
+        ReadableBuffer input = buffer.duplicate();
+        BinaryDataBlock block = new BinaryDataBlock(definition);
+
+        List<BlockIndexEntry> index = new ArrayList<>();
+
+        while (input.isReadable()) {
+
+            int offset = input.readerIndex();
+            block.fill(input);
+            BlockPosition position = new BlockPosition(offset, input.readerIndex() - offset);
+            index.add(BlockIndexEntry.newInstance(position, block.getHeader()));
+        }
+
+        return new MappedBlockFile(definition, buffer, index);
+    }
+
+    /**
+     * Maps the specified file of blocks in memory using the specified index.
+     * 
+     * @param definition the time series definition
+     * @param path the path of the file
+     * @param index the index of the blocks of the file
+     * @return the mapped file
+     * @throws IOException if an I/O problem occurs
+     */
+    public static MappedBlockFile open(TimeSeriesDefinition definition, 
+                                       Path path, 
+                                       List<BlockIndexEntry> index) throws IOException {
+
+        notNull(index, "the index parameter must not be null.");
+
+        ReadableBuffer buffer = map(path);
+
+        for (int i = 0, m = index.size(); i < m; i++) {
+
+            BlockPosition position = index.get(i).getPosition();
+            isTrue(position.getOffset() + position.getLength() <= buffer.readableBytes(), 
+                   "The block " + i + " is located outside of the file: " + position);
+        }
+
+        return new MappedBlockFile(definition, buffer, new ArrayList<>(index));
+    }
+
+    /**
+     * Returns the index of the blocks.
+     * 
+     * @return the index of the blocks.
+     */
+    public List<BlockIndexEntry> getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns the number of blocks within the file.
+     * 
+     * @return the number of blocks within the file.
+     */
+    public int getNumberOfBlocks() {
+        return this.index.size();
+    }
+
+    /**
+     * Returns the block with the specified index. The block data is not copied from the mapped buffer.
+     * 
+     * @param blockIndex the index of the block 
+     * @return the block with the specified index
+     * @throws IOException if an I/O problem occurs
+     */
+    public DataBlock getBlock(int blockIndex) throws IOException {
+
+        return readBlock(new BinaryDataBlock(this.definition), blockIndex);
+    }
+
+    /**
+     * Returns an iterator over all the blocks of the file.
+     * 
+     * @return an iterator over all the blocks of the file.
+     */
+    public ResourceIterator<DataBlock> iterator() {
+        return iterator(TimestampField.ALL);
+    }
+
+    /**
+     * Returns an iterator over the blocks of the file which contains data within the specified time ranges.
+     * The blocks are selected using the index so the pages of the other blocks are never loaded.
+     * 
+     * @param rangeSet the time ranges for which the blocks must be returned
+     * @return an iterator over the blocks of the file which contains data within the specified time ranges.
+     */
+    public ResourceIterator<DataBlock> iterator(RangeSet<Field> rangeSet) {
+        return iterator(rangeSet, ChecksumVerification.ALWAYS);
+    }
+
+    /**
+     * Returns an iterator over the blocks of the file which contains data within the specified time ranges.
+     * The blocks are selected using the index so the pages of the other blocks are never loaded. The first and 
+     * last index entries that can overlap the time ranges are found with a binary search.
+     * The checksums of the returned blocks are verified as specified.
+     * 
+     * @param rangeSet the time ranges for which the blocks must be returned
+     * @param verification the way the block checksums must be verified
+     * @return an iterator over the blocks of the file which contains data within the specified time ranges.
+     */
+    public ResourceIterator<DataBlock> iterator(final RangeSet<Field> rangeSet, 
+                                                final ChecksumVerification verification) {
+
+        checkOpen();
+
+        return new AbstractResourceIterator<DataBlock>() {
+
+            /**
+             * The block used to read the data.
+             */
+            private final BinaryDataBlock block = new BinaryDataBlock(MappedBlockFile.this.definition);
+
+            /**
+             * The header used to compute the time ranges of the index entries.
+             */
+            private final TimeSeriesRecord summary = MappedBlockFile.this.definition.newBlockHeader();
+
+            /**
+             * The number of blocks returned.
+             */
+            private long numberOfBlocks;
+
+            /**
+             * The index of the next block to check.
+             */
+            private int blockIndex = findFirstBlock(this.summary, rangeSet);
+
+            /**
+             * The index of the first block after the ones that can overlap the time ranges.
+             */
+            private final int endIndex = findEndBlock(this.summary, rangeSet);
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void close() {
+                // Do nothing
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            protected void computeNext() throws IOException {
+
+                while (this.blockIndex < this.endIndex) {
+
+                    int current = this.blockIndex++;
+                    BlockIndexEntry entry = MappedBlockFile.this.index.get(current);
+
+                    BlockHeaderUtils.setFirstTimestamp(this.summary, entry.getFirstTimestamp());
+                    BlockHeaderUtils.setLastTimestamp(this.summary, entry.getLastTimestamp());
+
+                    if (!rangeSet.subRangeSet(BlockHeaderUtils.getRange(this.summary)).isEmpty()) {
+                        DataBlock next = readBlock(this.block, current);
+                        verification.verify(next, this.numberOfBlocks++);
+                        setNext(next);
+                        return;
+                    }
+                }
+
+                done();
+            }
+        };
+    }
+
+    /**
+     * Releases the reference to the mapped buffer. The JDK does not provide any way to unmap a file 
+     * deterministically: the memory is only unmapped once the mapped buffer, and the blocks sliced from it, 
+     * have been garbage collected. Until then the pages stay mapped and, on some platforms, the file cannot 
+     * be deleted.
+     */
+    @Override
+    public void close() {
+        this.buffer = null;
+    }
+
+    /**
+     * Fills the specified block with the block located at the specified index.
+     * 
+     * @param block the block to fill
+     * @param blockIndex the index of the block
+     * @return the filled block
+     * @throws IOException if an I/O problem occurs
+     */
+    private DataBlock readBlock(BinaryDataBlock block, int blockIndex) throws IOException {
+
+        checkOpen();
+
+        BlockPosition position = this.index.get(blockIndex).getPosition();
+        return block.fill(this.buffer.slice((int) position.getOffset(), (int) position.getLength()));
+    }
+
+    /**
+     * Returns the index of the first block whose data can be after the lower bound of the specified time ranges.
+     * 
+     * @param probe the header used to convert the index timestamps into fields
+     * @param rangeSet the time ranges
+     * @return the index of the first block whose data can be after the lower bound of the time ranges
+     */
+    private int findFirstBlock(TimeSeriesRecord probe, RangeSet<Field> rangeSet) {
+
+        if (rangeSet.isEmpty()) {
+            return this.index.size();
+        }
+
+        Range<Field> span = rangeSet.span();
+
+        if (!span.hasLowerBound()) {
+            return 0;
+        }
+
+        return search(this.maximumLastTimestamps, probe, span.lowerEndpoint(), false);
+    }
+
+    /**
+     * Returns the index of the first block whose data is entirely after the upper bound of the specified time 
+     * ranges, as well as the data of all the following blocks.
+     * 
+     * @param probe the header used to convert the index timestamps into fields
+     * @param rangeSet the time ranges
+     * @return the index of the first block after the blocks that can overlap the time ranges
+     */
+    private int findEndBlock(TimeSeriesRecord probe, RangeSet<Field> rangeSet) {
+
+        if (rangeSet.isEmpty()) {
+            return this.index.size();
+        }
+
+        Range<Field> span = rangeSet.span();
+
+        if (!span.hasUpperBound()) {
+            return this.index.size();
+        }
+
+        return search(this.minimumFirstTimestamps, probe, span.upperEndpoint(), true);
+    }
+
+    /**
+     * Returns the index of the first of the specified ordered timestamps which is greater than, or equal to if 
+     * <code>strict</code> is <code>false</code>, the specified bound.
+     * 
+     * @param timestamps the ordered timestamps
+     * @param probe the header used to convert the timestamps into fields
+     * @param bound the bound
+     * @param strict <code>true</code> if the timestamp must be strictly greater than the bound
+     * @return the index of the first matching timestamp or the number of timestamps if none match
+     */
+    private static int search(long[] timestamps, TimeSeriesRecord probe, Field bound, boolean strict) {
+
+        Field field = probe.getField(Record.TIMESTAMP_FIELD_INDEX);
+
+        int low = 0;
+        int high = timestamps.length;
+
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            BlockHeaderUtils.setFirstTimestamp(probe, timestamps[middle]);
+            int comparison = field.compareTo(bound);
+
+            if (comparison > 0 || (comparison == 0 && !strict)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Checks that this file has not been closed.
+     */
+    private void checkOpen() {
+        if (this.buffer == null) {
+            throw new IllegalStateException("The file has been closed.");
+        }
+    }
+
+    /**
+     * Maps the specified file in memory.
+     * 
+     * @param path the path of the file
+     * @return the mapped file content
+     * @throws IOException if an I/O problem occurs
+     */
+    private static ReadableBuffer map(Path path) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+
+            isTrue(size <= Integer.MAX_VALUE, "The file " + path + " is too large to be mapped in memory.");
+
+            return Buffers.wrap(channel.map(MapMode.READ_ONLY, 0, size));
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.horizondb.model.core.iterators.BlockIterators.singleton;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setOverlapping;
+import static java.lang.String.format;
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+/**
+ * Appender that builds the blocks of a time series from records which may arrive out of order. 
+ * <p>
+ * The records arriving in time order are appended directly to the current block. The late records, whose 
+ * timestamp is before the one of the last record appended, are kept in a side buffer until the current block 
+ * is sealed. They are then either merged in time order with the records of the block or written to separate 
+ * blocks flagged as overlapping, depending on the {@link LateRecordHandling}.
+ * </p>
+ */
+public final class OutOfOrderRecordAppender {
+
+    /**
+     * The possible ways to handle the late records when a block is sealed.
+     */
+    public static enum LateRecordHandling {
+
+        /**
+         * The late records are merged in time order with the records of the block being sealed. The resulting
+         * blocks are flagged as overlapping if some late records are older than the first record of the block.
+         */
+        MERGE,
+
+        /**
+         * The late records are written, sorted by time, to separate blocks flagged as overlapping.
+         */
+        SEPARATE_BLOCKS
+    }
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The way the late records are handled.
+     */
+    private final LateRecordHandling handling;
+
+    /**
+     * The maximum number of late records kept in the side buffer before the current block is sealed.
+     */
+    private final int maximumLateRecords;
+
+    /**
+     * The late records.
+     */
+    private final List<TimeSeriesRecord> lateRecords = new ArrayList<>();
+
+    /**
+     * The sealed blocks which have not yet been returned.
+     */
+    private final List<DataBlock> blocks = new ArrayList<>();
+
+    /**
+     * The appender used to append the records arriving in time order to the current block.
+     */
+    private RecordAppender appender;
+
+    /**
+     * The timestamp in nanoseconds of the first record of the current block.
+     */
+    private long firstTimestamp;
+
+    /**
+     * The timestamp in nanoseconds of the last record appended in time order.
+     */
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    /**
+     * The total number of late records.
+     */
+    private long numberOfLateRecords;
+
+    /**
+     * Creates a new <code>OutOfOrderRecordAppender</code> for the specified time series.
+     * 
+     * @param definition the time series definition
+     * @param handling the way the late records must be handled
+     * @param maximumLateRecords the maximum number of late records kept in the side buffer before 
+     * the current block is sealed
+     */
+    public OutOfOrderRecordAppender(TimeSeriesDefinition definition, 
+                                    LateRecordHandling handling, 
+                                    int maximumLateRecords) {
+
+        notNull(definition, "the definition parameter must not be null.");
+        notNull(handling, "the handling parameter must not be null.");
+        isTrue(maximumLateRecords > 0, "the maximumLateRecords parameter must be strictly positive.");
+
+        this.definition = definition;
+        this.handling = handling;
+        this.maximumLateRecords = maximumLateRecords;
+    }
+
+    /**
+     * Appends the specified record. 
+     * 
+     * @param record the full record to append
+     * @throws IOException if an I/O problem occurs
+     */
+    public void append(Record record) throws IOException {
+
+        isTrue(!record.isDelta(), "only full records can be appended.");
+
+        long timestamp = record.getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+
+        if (timestamp < this.lastTimestamp) {
+
+            this.lateRecords.add(record.toTimeSeriesRecord());
+            this.numberOfLateRecords++;
+
+            if (this.lateRecords.size() >= this.maximumLateRecords) {
+                seal();
+            }
+
+            return;
+        }
+
+        if (this.appender != null && !this.appender.append(record)) {
+            seal();
+        }
+
+        if (this.appender == null) {
+
+            this.appender = newAppender(record);
+            this.firstTimestamp = timestamp;
+        }
+
+        this.lastTimestamp = timestamp;
+    }
+
+    /**
+     * Returns the total number of records that have been received out of order.
+     * 
+     * @return the total number of records that have been received out of order.
+     */
+    public long getNumberOfLateRecords() {
+        return this.numberOfLateRecords;
+    }
+
+    /**
+     * Seals the current block and returns all the blocks sealed since the last call to this method.
+     * 
+     * @return the blocks sealed since the last call to this method.
+     * @throws IOException if an I/O problem occurs
+     */
+    public List<DataBlock> flush() throws IOException {
+
+        seal();
+
+        List<DataBlock> sealed = new ArrayList<>(this.blocks);
+        this.blocks.clear();
+        return sealed;
+    }
+
+    /**
+     * Seals the current block and writes the late records.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void seal() throws IOException {
+
+        DataBlock block = null;
+
+        if (this.appender != null) {
+            block = this.appender.getDataBlock();
+            this.appender = null;
+        }
+
+        if (this.lateRecords.isEmpty()) {
+
+            if (block != null) {
+                this.blocks.add(block);
+            }
+            return;
+        }
+
+        int[] order = DataBlockBuilder.sortByTimestamp(this.lateRecords);
+
+        if (block == null || this.handling == LateRecordHandling.SEPARATE_BLOCKS) {
+
+            if (block != null) {
+                this.blocks.add(block);
+            }
+
+            writeLateRecords(order);
+
+        } else {
+
+            merge(block, order);
+        }
+
+        this.lateRecords.clear();
+    }
+
+    /**
+     * Writes the late records to separate blocks flagged as overlapping.
+     * 
+     * @param order the indices of the late records sorted by timestamp
+     * @throws IOException if an I/O problem occurs
+     */
+    private void writeLateRecords(int[] order) throws IOException {
+
+        RecordAppender appender = null;
+
+        for (int index : order) {
+            appender = append(appender, this.lateRecords.get(index), true);
+        }
+
+        addBlock(appender, true);
+    }
+
+    /**
+     * Merges the late records with the records of the specified block.
+     * 
+     * @param block the block containing the records received in time order
+     * @param order the indices of the late records sorted by timestamp
+     * @throws IOException if an I/O problem occurs
+     */
+    private void merge(DataBlock block, int[] order) throws IOException {
+
+        List<TimeSeriesRecord> late = this.lateRecords;
+        boolean overlapping = getTimestamp(late, order, 0) < this.firstTimestamp;
+
+        RecordAppender appender = null;
+        TimeSeriesRecord[] records = this.definition.newRecords();
+        int next = 0;
+
+        try (BinaryTimeSeriesRecordIterator iterator = new BinaryTimeSeriesRecordIterator(this.definition, 
+                                                                                           singleton(block))) {
+            while (iterator.hasNext()) {
+
+                Record record = iterator.next();
+                Record current = record.inflate(records[record.getType()]);
+                long timestamp = current.getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+
+                // For the same timestamp the records received in time order are kept first
+                for (; next < order.length && getTimestamp(late, order, next) < timestamp; next++) {
+                    appender = append(appender, late.get(order[next]), overlapping);
+                }
+
+                appender = append(appender, current, overlapping);
+            }
+        }
+
+        for (; next < order.length; next++) {
+            appender = append(appender, late.get(order[next]), overlapping);
+        }
+
+        addBlock(appender, overlapping);
+    }
+
+    /**
+     * Appends the specified record to the block of the specified appender. If the block is full it is 
+     * sealed and the record is appended to a new block.
+     * 
+     * @param appender the appender or <code>null</code> if no block has been started yet
+     * @param record the record to append
+     * @param overlapping <code>true</code> if the sealed blocks must be flagged as overlapping
+     * @return the appender to use for the next records
+     * @throws IOException if an I/O problem occurs
+     */
+    private RecordAppender append(RecordAppender appender, 
+                                  Record record, 
+                                  boolean overlapping) throws IOException {
+
+        if (appender != null && appender.append(record)) {
+            return appender;
+        }
+
+        addBlock(appender, overlapping);
+
+        return newAppender(record);
+    }
+
+    /**
+     * Adds the block of the specified appender to the sealed blocks.
+     * 
+     * @param appender the appender or <code>null</code> if no block has been started
+     * @param overlapping <code>true</code> if the block must be flagged as overlapping
+     * @throws IOException if an I/O problem occurs
+     */
+    private void addBlock(RecordAppender appender, boolean overlapping) throws IOException {
+
+        if (appender == null) {
+            return;
+        }
+
+        DataBlock block = appender.getDataBlock();
+
+        if (overlapping) {
+
+            TimeSeriesRecord header = block.getHeader().toTimeSeriesRecord();
+            setOverlapping(header, true);
+            block = new DefaultDataBlock(header, block.getBloomFilters(), block.getData());
+        }
+
+        this.blocks.add(block);
+    }
+
+    /**
+     * Creates a new appender and appends the specified record to it.
+     * 
+     * @param record the first record of the new block
+     * @return the new appender
+     * @throws IOException if an I/O problem occurs
+     */
+    private RecordAppender newAppender(Record record) throws IOException {
+
+        RecordAppender appender = new RecordAppender(this.definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     this.definition.newRecords());
+
+        if (!appender.append(record)) {
+            throw new BlockOverflowException(format("The record %s cannot be appended to an empty block.", 
+                                                    record));
+        }
+
+        return appender;
+    }
+
+    /**
+     * Returns the timestamp in nanoseconds of the late record at the specified position in the sorted order.
+     * 
+     * @param records the late records
+     * @param order the indices of the late records sorted by timestamp
+     * @param position the position within the sorted order
+     * @return the timestamp in nanoseconds of the record
+     */
+    private static long getTimestamp(List<TimeSeriesRecord> records, int[] order, int position) {
+        return records.get(order[position]).getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+    }
+}
@@ -15,35 +15,87 @@ package io.horizondb.model.core.blocks;
 
 import io.horizondb.io.Buffer;
 import io.horizondb.io.BufferAllocator;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
 import io.horizondb.io.buffers.CompositeBuffer;
+import io.horizondb.io.compression.Compressor;
 import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Record;
+import io.horizondb.model.core.filters.Filters;
 import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.BufferPool;
+import io.horizondb.model.core.util.PooledBuffer;
+import io.horizondb.model.schema.BlockLayout;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import static io.horizondb.io.encoding.VarInts.computeUnsignedIntSize;
 import static io.horizondb.io.encoding.VarInts.writeByte;
 import static io.horizondb.io.encoding.VarInts.writeUnsignedInt;
+import static io.horizondb.model.core.records.BlockHeaderUtils.addKeyframe;
+import static io.horizondb.model.core.records.BlockHeaderUtils.computeChecksum;
+import static io.horizondb.model.core.records.BlockHeaderUtils.hasBloomFilters;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setBloomFilters;
 import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressedBlockSize;
 import static io.horizondb.model.core.records.BlockHeaderUtils.getRecordCount;
-import static io.horizondb.model.core.records.BlockHeaderUtils.incrementRecordCount;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getSegmentOffset;
+import static io.horizondb.model.core.records.BlockHeaderUtils.isKeyframeIndexFull;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setChecksum;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setCompressedBlockSize;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setFirstTimestamp;
-import static io.horizondb.model.core.records.BlockHeaderUtils.getFirstTimestamp;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setLastTimestamp;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setRecordCount;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setSegmentOffset;
+import static io.horizondb.model.core.records.BlockHeaderUtils.updateBloomFilters;
+import static io.horizondb.model.core.records.BlockHeaderUtils.updateFieldIndices;
+import static org.apache.commons.lang.Validate.isTrue;
 
 /**
  * Utility class to append records to the end of a {@link DataBlock}.
  */
 public final class RecordAppender {
 
+    /**
+     * The maximum number of bytes that a field can take once serialized (a decimal mantissa stored as a 
+     * varlong followed by its exponent).
+     */
+    private static final int MAXIMUM_FIELD_SIZE = 11;
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
     /**
      * The maximum block size in bytes.
      */
     private final int blockSizeInBytes;
 
+    /**
+     * The maximum size in bytes of the uncompressed block data. It is larger than the maximum block size if 
+     * the blocks are sized by their estimated compressed size.
+     */
+    private int maximumSize;
+
+    /**
+     * The estimator used to size the block by its compressed size or <code>null</code> if the block must be 
+     * sized by its uncompressed size.
+     */
+    private final CompressionRatioEstimator estimator;
+
+    /**
+     * The compressor used for the trial compression if the block is sized by its compressed size.
+     */
+    private final Compressor compressor;
+
+    /**
+     * <code>true</code> if the trial compression has been performed.
+     */
+    private boolean trialCompressionDone;
+
     /**
      * The buffer allocator.
      */
@@ -60,10 +112,79 @@ public final class RecordAppender {
     private final TimeSeriesRecord[] lastRecords;
 
     /**
-     * The buffer containing the data.
+     * The buffer containing the data if the block use the row layout.
      */
     private final CompositeBuffer buffer;
 
+    /**
+     * The buffer containing the data if the block use the row layout and the records are serialized 
+     * directly within a single buffer.
+     */
+    private final Buffer singleBuffer;
+
+    /**
+     * The pooled buffer backing the single buffer if it has been acquired from a pool.
+     */
+    private PooledBuffer pooledBuffer;
+
+    /**
+     * The bytes used to move the records whose length does not fit within the byte reserved for it within 
+     * the single buffer, allocated on first use.
+     */
+    private byte[] movedRecord;
+
+    /**
+     * The writer used to build the data if the block use the columnar layout.
+     */
+    private final ColumnarBlockWriter columns;
+
+    /**
+     * The buffers containing the records of each type if the block use the segmented layout.
+     */
+    private final CompositeBuffer[] segments;
+
+    /**
+     * The number of records appended since the last keyframe.
+     */
+    private int recordsSinceKeyframe;
+
+    /**
+     * <code>true</code> if a keyframe has been started but its first record has not yet been written.
+     */
+    private boolean keyframePending;
+
+    /**
+     * The record types for which the next record must be written as a full record.
+     */
+    private final boolean[] fullRecordRequired;
+
+    /**
+     * The number of records of each type within the block. The header counters are only updated 
+     * once per batch.
+     */
+    private final int[] recordCounts;
+
+    /**
+     * The bloom filters of the block. The array is empty if the time series does not define any bloom filter or 
+     * if the records are appended to a block that was written without bloom filters.
+     */
+    private final byte[] bloomFilters;
+
+    /**
+     * The size of the block data. The header block size is only updated once per batch.
+     */
+    private int blockSize;
+
+    /**
+     * The timestamp of the last record appended.
+     */
+    private final Field lastTimestamp;
+
+    /**
+     * <code>true</code> if some records have been appended since the last header update.
+     */
+    private boolean headerOutdated;
+
     /**
      * @param blockSizeInBytes
      * @param allocator
@@ -77,22 +198,230 @@ public final class RecordAppender {
                           TimeSeriesRecord[] lastRecords,
                           DataBlock block) throws IOException {
 
+        this(definition, allocator, lastRecords, block, false);
+    }
+
+    /**
+     * Creates a <code>RecordAppender</code> that append records to the specified block.
+     * 
+     * @param definition the time series definition
+     * @param allocator the buffer allocator
+     * @param lastRecords the last records of each type
+     * @param block the block to which the records must be appended
+     * @param singleBuffer <code>true</code> if the records of a block using the row layout must be serialized 
+     * directly within a single buffer allocated upfront, <code>false</code> if a new buffer must be allocated 
+     * for each record.
+     * @throws IOException if an I/O problem occurs
+     */
+    public RecordAppender(TimeSeriesDefinition definition,
+                          BufferAllocator allocator,
+                          TimeSeriesRecord[] lastRecords,
+                          DataBlock block,
+                          boolean singleBuffer) throws IOException {
+
+        this.definition = definition;
         this.blockSizeInBytes = definition.getBlockSizeInBytes();
+        this.maximumSize = this.blockSizeInBytes;
+        this.estimator = null;
+        this.compressor = null;
         this.allocator = allocator;
         this.header = block.getHeader().toTimeSeriesRecord();
         this.lastRecords = lastRecords;
-        this.buffer = (CompositeBuffer) block.getData();
+
+        if (definition.getBlockLayout() == BlockLayout.COLUMNAR) {
+
+            this.buffer = null;
+            this.singleBuffer = null;
+            this.columns = toColumnarBlockWriter(definition, allocator, block);
+            this.segments = null;
+
+        } else if (definition.getBlockLayout() == BlockLayout.SEGMENTED) {
+
+            this.buffer = null;
+            this.singleBuffer = null;
+            this.columns = null;
+            this.segments = toSegments(definition, block);
+
+        } else if (singleBuffer) {
+
+            this.buffer = null;
+            this.singleBuffer = allocateSingleBuffer(definition, allocator).transfer(block.getData().duplicate());
+            this.columns = null;
+            this.segments = null;
+
+        } else {
+
+            this.buffer = (CompositeBuffer) block.getData();
+            this.singleBuffer = null;
+            this.columns = null;
+            this.segments = null;
+        }
+
+        this.fullRecordRequired = new boolean[lastRecords.length];
+        this.recordCounts = new int[lastRecords.length];
+
+        for (int i = 0; i < this.recordCounts.length; i++) {
+            this.recordCounts[i] = getRecordCount(this.header, i);
+        }
+
+        if (hasBloomFilters(this.header)) {
+
+            this.bloomFilters = new byte[definition.getBloomFiltersLength()];
+            block.getBloomFilters().readBytes(this.bloomFilters);
+
+        } else {
+
+            this.bloomFilters = new byte[0];
+        }
+
+        this.blockSize = getCompressedBlockSize(this.header);
+        this.lastTimestamp = this.header.getField(Record.TIMESTAMP_FIELD_INDEX).newInstance();
     }
     
     public RecordAppender(TimeSeriesDefinition definition,
                           BufferAllocator allocator,
                           TimeSeriesRecord[] lastRecords) {
 
+        this(definition, allocator, lastRecords, false);
+    }
+
+    /**
+     * Creates a <code>RecordAppender</code> that append records to a new block.
+     * 
+     * @param definition the time series definition
+     * @param allocator the buffer allocator
+     * @param lastRecords the last records of each type
+     * @param singleBuffer <code>true</code> if the records of a block using the row layout must be serialized 
+     * directly within a single buffer allocated upfront, <code>false</code> if a new buffer must be allocated 
+     * for each record.
+     */
+    public RecordAppender(TimeSeriesDefinition definition,
+                          BufferAllocator allocator,
+                          TimeSeriesRecord[] lastRecords,
+                          boolean singleBuffer) {
+
+        this(definition, allocator, lastRecords, singleBuffer, null, null);
+    }
+
+    /**
+     * Creates a <code>RecordAppender</code> that append records to a new block sized by its estimated 
+     * compressed size. The block is filled until its size, once compressed with the compression type of the 
+     * time series, is expected to reach the configured block size. A trial compression is performed before 
+     * sealing the block to check the estimate.
+     * 
+     * @param definition the time series definition
+     * @param allocator the buffer allocator
+     * @param lastRecords the last records of each type
+     * @param estimator the estimator of the compression ratio of the time series blocks
+     */
+    public RecordAppender(TimeSeriesDefinition definition,
+                          BufferAllocator allocator,
+                          TimeSeriesRecord[] lastRecords,
+                          CompressionRatioEstimator estimator) {
+
+        this(definition, allocator, lastRecords, false, estimator, null);
+    }
+
+    /**
+     * Creates a <code>RecordAppender</code> that serializes the records of a new block within a single buffer 
+     * acquired from the specified pool. The buffer must be returned to the pool by calling {@link #release()} 
+     * once the block is no longer used. Blocks using the columnar layout do not use the pool.
+     * 
+     * @param definition the time series definition
+     * @param pool the pool from which the buffer must be acquired
+     * @param lastRecords the last records of each type
+     * @param estimator the estimator of the compression ratio or <code>null</code> if the block must be sized 
+     * by its uncompressed size
+     */
+    public RecordAppender(TimeSeriesDefinition definition,
+                          BufferPool pool,
+                          TimeSeriesRecord[] lastRecords,
+                          CompressionRatioEstimator estimator) {
+
+        this(definition, Buffers.getDefaultAllocator(), lastRecords, true, estimator, pool);
+    }
+
+    /**
+     * Creates a <code>RecordAppender</code> that append records to a new block.
+     * 
+     * @param definition the time series definition
+     * @param allocator the buffer allocator
+     * @param lastRecords the last records of each type
+     * @param singleBuffer <code>true</code> if the records of a block using the row layout must be serialized 
+     * directly within a single buffer allocated upfront, <code>false</code> if a new buffer must be allocated 
+     * for each record.
+     * @param estimator the estimator of the compression ratio or <code>null</code> if the block must be sized 
+     * by its uncompressed size
+     * @param pool the pool from which the single buffer must be acquired or <code>null</code> if it must be 
+     * allocated
+     */
+    private RecordAppender(TimeSeriesDefinition definition,
+                           BufferAllocator allocator,
+                           TimeSeriesRecord[] lastRecords,
+                           boolean singleBuffer,
+                           CompressionRatioEstimator estimator,
+                           BufferPool pool) {
+
+        this.definition = definition;
         this.blockSizeInBytes = definition.getBlockSizeInBytes();
+        this.estimator = estimator;
+
+        if (estimator == null) {
+
+            this.maximumSize = this.blockSizeInBytes;
+            this.compressor = null;
+
+        } else {
+
+            this.maximumSize = estimator.getUncompressedSize(this.blockSizeInBytes);
+            this.compressor = definition.getCompressionType().newCompressor();
+        }
+
         this.allocator = allocator;
         this.header = definition.newBlockHeader();
         this.lastRecords = lastRecords;
-        this.buffer = new CompositeBuffer();
+
+        if (definition.getBlockLayout() == BlockLayout.COLUMNAR) {
+
+            this.buffer = null;
+            this.singleBuffer = null;
+            this.columns = new ColumnarBlockWriter(definition, allocator);
+            this.segments = null;
+
+        } else if (definition.getBlockLayout() == BlockLayout.SEGMENTED) {
+
+            this.buffer = null;
+            this.singleBuffer = null;
+            this.columns = null;
+            this.segments = newSegments(definition.getNumberOfRecordTypes());
+
+        } else if (pool != null) {
+
+            this.buffer = null;
+            this.pooledBuffer = pool.acquire(computeSingleBufferCapacity(definition, this.maximumSize));
+            this.singleBuffer = this.pooledBuffer.getBuffer();
+            this.columns = null;
+            this.segments = null;
+
+        } else if (singleBuffer) {
+
+            this.buffer = null;
+            this.singleBuffer = allocator.allocate(computeSingleBufferCapacity(definition, this.maximumSize));
+            this.columns = null;
+            this.segments = null;
+
+        } else {
+
+            this.buffer = new CompositeBuffer();
+            this.singleBuffer = null;
+            this.columns = null;
+            this.segments = null;
+        }
+
+        this.fullRecordRequired = new boolean[lastRecords.length];
+        this.recordCounts = new int[lastRecords.length];
+        this.bloomFilters = new byte[definition.getBloomFiltersLength()];
+        this.lastTimestamp = this.header.getField(Record.TIMESTAMP_FIELD_INDEX).newInstance();
     }
 
     /**
@@ -104,6 +433,51 @@ public final class RecordAppender {
      */
     public boolean append(Record record) throws IOException {
 
+        boolean appended = appendRecord(record);
+        updateHeader();
+        return appended;
+    }
+
+    /**
+     * Appends the specified records to the block until the block is full. The block header counters, 
+     * timestamps and size are only updated once for the whole batch.
+     *
+     * @param records the records to append
+     * @param offset the index of the first record to append
+     * @param length the number of records to append
+     * @return the number of records that have been appended. If it is lower than the specified length, the 
+     * block is full and the remaining records must be appended to a new block.
+     * @throws IOException if an I/O error occurs
+     */
+    public int append(Record[] records, int offset, int length) throws IOException {
+
+        isTrue(offset >= 0 && length >= 0 && offset + length <= records.length, 
+               "the offset and length must be within the array bounds.");
+
+        int count = 0;
+
+        while (count < length && appendRecord(records[offset + count])) {
+            count++;
+        }
+
+        updateHeader();
+        return count;
+    }
+
+    /**
+     * Appends the specified record to the block without updating the block header counters, timestamps 
+     * and size.
+     *
+     * @param record the record to append
+     * @return <code>true</code> if their was enough space left to append the record, <code>false</code> otherwise.
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean appendRecord(Record record) throws IOException {
+
+        if (isKeyframeRequired()) {
+            startKeyframe();
+        }
+
         if (record.isDelta()) {
             return appendDelta(record);
         }
@@ -122,7 +496,7 @@ public final class RecordAppender {
 
         int type = record.getType();
 
-        if (getRecordCount(this.header, type) == 0) {
+        if (this.recordCounts[type] == 0 || this.fullRecordRequired[type]) {
             this.lastRecords[type] = record.toTimeSeriesRecord();
             return doAppend(record);
         }
@@ -144,18 +518,154 @@ public final class RecordAppender {
 
         this.lastRecords[type].add(record);
 
-        if (getRecordCount(this.header, type) == 0) {
+        if (this.recordCounts[type] == 0 || this.fullRecordRequired[type]) {
             return doAppend(this.lastRecords[type]);
         }
         return doAppend(record);
     }
 
+    /**
+     * Checks if a new keyframe must be started before appending the next record.
+     * 
+     * @return <code>true</code> if a new keyframe must be started, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    private boolean isKeyframeRequired() throws IOException {
+
+        int interval = this.definition.getKeyframeInterval();
+
+        return this.columns == null 
+                && this.segments == null
+                && interval > 0 
+                && this.recordsSinceKeyframe >= interval 
+                && !isKeyframeIndexFull(this.header, this.definition.getKeyframeIndex());
+    }
+
+    /**
+     * Starts a new keyframe: the next record of each type will be written as a full record.
+     */
+    private void startKeyframe() {
+
+        Arrays.fill(this.fullRecordRequired, true);
+        this.keyframePending = true;
+        this.recordsSinceKeyframe = 0;
+    }
+
+    /**
+     * Updates the block header counters, timestamps and size with the records appended since the last update.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void updateHeader() throws IOException {
+
+        if (!this.headerOutdated) {
+            return;
+        }
+
+        setLastTimestamp(this.header, this.lastTimestamp);
+
+        for (int i = 0; i < this.recordCounts.length; i++) {
+            setRecordCount(this.header, i, this.recordCounts[i]);
+        }
+
+        if (this.segments != null) {
+
+            int offset = 0;
+
+            for (int i = 0; i < this.segments.length; i++) {
+                setSegmentOffset(this.header, this.definition.getSegmentOffsetIndex(), i, offset);
+                offset += this.segments[i].readableBytes();
+            }
+        }
+
+        setCompressedBlockSize(this.header, this.blockSize);
+        this.headerOutdated = false;
+    }
+
     /**
      * Returns the data block to which the delta have been appended.
      * @return the data block to which the delta have been appended.
+     * @throws IOException if an I/O problem occurs
+     */
+    public DataBlock getDataBlock() throws IOException {
+
+        ReadableBuffer data = getData();
+        ReadableBuffer filters = Buffers.wrap(this.bloomFilters);
+
+        setBloomFilters(this.header, this.bloomFilters.length > 0);
+        setChecksum(this.header, computeChecksum(filters, data));
+
+        return new DefaultDataBlock(this.header, filters, data);
+    }
+
+    /**
+     * Returns the block data.
+     * 
+     * @return the block data.
+     * @throws IOException if an I/O problem occurs
+     */
+    private ReadableBuffer getData() throws IOException {
+
+        if (this.columns != null) {
+            return this.columns.getData();
+        }
+
+        if (this.singleBuffer != null) {
+            return this.singleBuffer.slice(0, this.blockSize);
+        }
+
+        if (this.segments != null) {
+
+            CompositeBuffer data = new CompositeBuffer();
+
+            for (int i = 0; i < this.segments.length; i++) {
+                data.addBytes(this.segments[i].duplicate());
+            }
+
+            return data;
+        }
+
+        return this.buffer;
+    }
+
+    /**
+     * Checks if the specified number of bytes can still be appended to the block. If the block is sized by its 
+     * compressed size, a trial compression is performed the first time that the estimated limit is reached and 
+     * the limit is adjusted to the compression ratio actually observed on the block. If the records are 
+     * serialized within a single buffer, the limit never exceeds what that buffer can hold.
+     * 
+     * @param size the number of bytes to append
+     * @return <code>true</code> if the bytes can be appended, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs
      */
-    public DataBlock getDataBlock() {
-        return new DefaultDataBlock(this.header, this.buffer);
+    private boolean hasSpaceFor(int size) throws IOException {
+
+        if (this.blockSize + size <= this.maximumSize) {
+            return true;
+        }
+
+        if (this.estimator == null || this.trialCompressionDone || this.blockSize == 0) {
+            return false;
+        }
+
+        this.trialCompressionDone = true;
+
+        int compressedSize = this.compressor.compress(getData().duplicate()).readableBytes();
+
+        this.estimator.update(this.blockSize, compressedSize);
+
+        double ratio = (double) this.blockSize / Math.max(1, compressedSize);
+        ratio = Math.min(CompressionRatioEstimator.MAXIMUM_RATIO, Math.max(1.0, ratio));
+
+        this.maximumSize = (int) Math.min(Integer.MAX_VALUE, this.blockSizeInBytes * ratio);
+
+        if (this.singleBuffer != null) {
+
+            int capacity = this.singleBuffer.capacity() - computeMaximumRecordSize(this.definition);
+            this.maximumSize = Math.min(this.maximumSize, capacity);
+        }
+
+        return this.blockSize + size <= this.maximumSize;
     }
 
     /**
@@ -181,30 +691,267 @@ public final class RecordAppender {
      */
     private boolean doAppend(Record record) throws IOException {
 
-        int recordSize = record.computeSerializedSize();
-        int totalSize = 1 + computeUnsignedIntSize(recordSize) + recordSize;
+        int recordSize = 0;
+        int totalSize;
 
-        if (getCompressedBlockSize(this.header) + totalSize > this.blockSizeInBytes) {
-            return false;
-        }
+        if (this.singleBuffer != null) {
+
+            totalSize = writeToSingleBuffer(record);
+
+            if (totalSize < 0) {
+                return false;
+            }
+
+        } else {
+
+            recordSize = record.computeSerializedSize();
+            totalSize = 1 + computeUnsignedIntSize(recordSize) + recordSize;
 
-        Buffer bytes = serializeRecord(this.allocator.allocate(totalSize), record, recordSize);
+            // For the columnar layout the size of the record in the row layout is used as an estimate
+            // of the space that the record will take within the columns.
+            if (!hasSpaceFor(totalSize)) {
+                return false;
+            }
+        }
 
         int type = record.getType();
 
-        if (getFirstTimestamp(this.header) == 0) {
+        if (this.blockSize == 0) {
             setFirstTimestamp(this.header, this.lastRecords[type]);
         }
 
-        setLastTimestamp(this.header, this.lastRecords[type]);
-        incrementRecordCount(this.header, type);
+        if (this.keyframePending) {
+
+            addKeyframe(this.header, 
+                        this.definition.getKeyframeIndex(), 
+                        this.lastRecords[type].getField(Record.TIMESTAMP_FIELD_INDEX), 
+                        this.blockSize);
+
+            this.keyframePending = false;
+        }
+
+        this.fullRecordRequired[type] = false;
+        this.recordsSinceKeyframe++;
 
-        this.buffer.addBytes(bytes);
+        this.lastRecords[type].getField(Record.TIMESTAMP_FIELD_INDEX).copyTo(this.lastTimestamp);
+        this.headerOutdated = true;
+        this.recordCounts[type]++;
+        updateFieldIndices(this.definition, this.header, this.lastRecords[type], this.recordCounts[type] == 1);
+
+        if (this.bloomFilters.length > 0) {
+            updateBloomFilters(this.definition, this.bloomFilters, this.lastRecords[type]);
+        }
+
+        if (this.columns != null) {
+
+            this.columns.append(this.lastRecords[type]);
+            this.blockSize = this.columns.computeSerializedSize();
+
+        } else if (this.singleBuffer != null) {
+
+            this.blockSize += totalSize;
+
+        } else {
+
+            Buffer bytes = serializeRecord(this.allocator.allocate(totalSize), record, recordSize);
+
+            if (this.segments != null) {
+                this.segments[type].addBytes(bytes);
+            } else {
+                this.buffer.addBytes(bytes);
+            }
+
+            this.blockSize += totalSize;
+        }
 
-        setCompressedBlockSize(this.header, getCompressedBlockSize(this.header) + totalSize);
         return true; 
     }
 
+    /**
+     * Serializes the specified record at the end of the single buffer in one pass. One byte is reserved for 
+     * the length of the record, which is back-patched once the record has been written. If the length needs 
+     * more bytes, the record bytes are moved forward to make room for it.
+     * 
+     * @param record the record to write
+     * @return the number of bytes written or -1 if the record could not be appended because the block 
+     * would exceed its maximum size.
+     * @throws IOException if an I/O problem occurs
+     */
+    private int writeToSingleBuffer(Record record) throws IOException {
+
+        int start = this.singleBuffer.writerIndex();
+
+        writeByte(this.singleBuffer, record.getType());
+        this.singleBuffer.writeByte(0);
+        record.writeTo(this.singleBuffer);
+
+        int end = this.singleBuffer.writerIndex();
+        int recordSize = end - start - 2;
+        int lengthSize = computeUnsignedIntSize(recordSize);
+        int totalSize = 1 + lengthSize + recordSize;
+
+        if (!hasSpaceFor(totalSize)) {
+
+            this.singleBuffer.writerIndex(start);
+            return -1;
+        }
+
+        if (lengthSize == 1) {
+
+            this.singleBuffer.writerIndex(start + 1);
+            writeUnsignedInt(this.singleBuffer, recordSize);
+            this.singleBuffer.writerIndex(end);
+
+        } else {
+
+            if (this.movedRecord == null || this.movedRecord.length < recordSize) {
+                this.movedRecord = new byte[recordSize];
+            }
+
+            this.singleBuffer.slice(start + 2, recordSize).readBytes(this.movedRecord, 0, recordSize);
+            this.singleBuffer.writerIndex(start + 1);
+            writeUnsignedInt(this.singleBuffer, recordSize);
+            this.singleBuffer.writeBytes(this.movedRecord, 0, recordSize);
+        }
+
+        return totalSize;
+    }
+
+    /**
+     * Releases the pooled buffer used by this appender, if any. The data block returned by this appender must not 
+     * be used afterward.
+     */
+    public void release() {
+
+        if (this.pooledBuffer != null) {
+            this.pooledBuffer.release();
+            this.pooledBuffer = null;
+        }
+    }
+
+    /**
+     * Creates the empty segments of a block using the segmented layout.
+     * 
+     * @param numberOfTypes the number of record types
+     * @return the empty segments
+     */
+    private static CompositeBuffer[] newSegments(int numberOfTypes) {
+
+        CompositeBuffer[] segments = new CompositeBuffer[numberOfTypes];
+
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new CompositeBuffer();
+        }
+
+        return segments;
+    }
+
+    /**
+     * Splits the data of the specified block, which use the segmented layout, into its segments.
+     * 
+     * @param definition the time series definition
+     * @param block the block
+     * @return the segments of the block
+     * @throws IOException if an I/O problem occurs
+     */
+    private static CompositeBuffer[] toSegments(TimeSeriesDefinition definition, 
+                                                DataBlock block) throws IOException {
+
+        CompositeBuffer[] segments = newSegments(definition.getNumberOfRecordTypes());
+
+        Record header = block.getHeader();
+        ReadableBuffer data = block.getData();
+        int segmentOffsetIndex = definition.getSegmentOffsetIndex();
+        int start = data.readerIndex();
+
+        for (int i = 0; i < segments.length; i++) {
+
+            int offset = getSegmentOffset(header, segmentOffsetIndex, i);
+            int end = (i == segments.length - 1) ? data.readableBytes() 
+                                                 : getSegmentOffset(header, segmentOffsetIndex, i + 1);
+
+            if (end > offset) {
+                segments[i].addBytes(data.slice(start + offset, end - offset));
+            }
+        }
+
+        return segments;
+    }
+
+    /**
+     * Allocates a buffer large enough to contain a full block and the record that will overflow it.
+     * 
+     * @param definition the time series definition
+     * @param allocator the buffer allocator
+     * @return a buffer large enough to contain a full block and the record that will overflow it.
+     */
+    private static Buffer allocateSingleBuffer(TimeSeriesDefinition definition, BufferAllocator allocator) {
+
+        return allocator.allocate(computeSingleBufferCapacity(definition, definition.getBlockSizeInBytes()));
+    }
+
+    /**
+     * Computes the capacity of a buffer large enough to contain a block of the specified size and the record 
+     * that will overflow it.
+     * 
+     * @param definition the time series definition
+     * @param maximumSize the maximum size of the block data
+     * @return the capacity of a buffer large enough to contain the block and the record that will overflow it.
+     */
+    private static int computeSingleBufferCapacity(TimeSeriesDefinition definition, int maximumSize) {
+
+        return maximumSize + computeMaximumRecordSize(definition);
+    }
+
+    /**
+     * Computes the maximum number of bytes that a serialized record of the specified time series can take.
+     * 
+     * @param definition the time series definition
+     * @return the maximum number of bytes that a serialized record can take, including its type and length.
+     */
+    private static int computeMaximumRecordSize(TimeSeriesDefinition definition) {
+
+        int maximumNumberOfFields = 0;
+
+        for (int i = 0, m = definition.getNumberOfRecordTypes(); i < m; i++) {
+            maximumNumberOfFields = Math.max(maximumNumberOfFields, 
+                                             definition.getRecordType(i).getNumberOfFields() + 1);
+        }
+
+        // type + length + bit set + fields
+        return 1 + 5 + 10 + maximumNumberOfFields * MAXIMUM_FIELD_SIZE;
+    }
+
+    /**
+     * Creates a <code>ColumnarBlockWriter</code> containing the records of the specified block.
+     * 
+     * @param definition the time series definition
+     * @param allocator the buffer allocator
+     * @param block the block using the columnar layout
+     * @return a <code>ColumnarBlockWriter</code> containing the records of the specified block
+     * @throws IOException if an I/O problem occurs
+     */
+    private static ColumnarBlockWriter toColumnarBlockWriter(TimeSeriesDefinition definition,
+                                                             BufferAllocator allocator,
+                                                             DataBlock block) throws IOException {
+
+        ColumnarBlockWriter writer = new ColumnarBlockWriter(definition, allocator);
+        ColumnarBlockReader reader = new ColumnarBlockReader(definition, 
+                                                             Filters.<String>noop(), 
+                                                             Filters.<String>noop());
+        reader.fill(block);
+
+        TimeSeriesRecord[] records = definition.newRecords();
+
+        while (reader.hasNext()) {
+
+            Record record = reader.next();
+            writer.append(record.inflate(records[record.getType()]));
+        }
+
+        return writer;
+    }
+
     /**
      * Serializes the specified record.
      * 
@@ -0,0 +1,236 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.buffers.CompositeBuffer;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+
+import static io.horizondb.io.encoding.VarInts.computeUnsignedIntSize;
+import static io.horizondb.io.encoding.VarInts.writeByte;
+import static io.horizondb.io.encoding.VarInts.writeUnsignedInt;
+import static io.horizondb.model.core.records.BlockHeaderUtils.computeChecksum;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setBloomFilters;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setChecksum;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setCompressedBlockSize;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setLastTimestamp;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setRecordCount;
+import static io.horizondb.model.core.records.BlockHeaderUtils.updateBloomFilters;
+import static io.horizondb.model.core.records.BlockHeaderUtils.updateFieldIndices;
+
+/**
+ * Writer used to build a block using the row layout from records that have already been serialized.
+ * The serialized records are copied as is, the caller is responsible for making sure that the first record 
+ * of each type is a full record. The records are added to the block header through {@link #add(Record, Field)}
+ * and their bytes, which can span several records, through {@link #addBytes(ReadableBuffer)}.
+ */
+final class RowBlockWriter {
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The block header.
+     */
+    private final TimeSeriesRecord header;
+
+    /**
+     * The block data.
+     */
+    private final CompositeBuffer buffer = new CompositeBuffer();
+
+    /**
+     * The bloom filters of the block.
+     */
+    private final byte[] bloomFilters;
+
+    /**
+     * The number of records of each type within the block.
+     */
+    private final int[] recordCounts;
+
+    /**
+     * <code>true</code> for the record types having some fields indexed within the block header.
+     */
+    private final boolean[] indexedTypes;
+
+    /**
+     * The timestamp of the last record.
+     */
+    private final Field lastTimestamp;
+
+    /**
+     * The total number of records within the block.
+     */
+    private int numberOfRecords;
+
+    /**
+     * The size of the block data.
+     */
+    private int size;
+
+    /**
+     * Creates a new <code>RowBlockWriter</code> for the specified time series.
+     * 
+     * @param definition the time series definition
+     */
+    public RowBlockWriter(TimeSeriesDefinition definition) {
+
+        this.definition = definition;
+        this.header = definition.newBlockHeader();
+        this.recordCounts = new int[definition.getNumberOfRecordTypes()];
+        this.bloomFilters = new byte[definition.getBloomFiltersLength()];
+        this.lastTimestamp = this.header.getField(Record.TIMESTAMP_FIELD_INDEX).newInstance();
+        this.indexedTypes = new boolean[this.recordCounts.length];
+
+        for (int type = 0; type < this.indexedTypes.length; type++) {
+            this.indexedTypes[type] = hasIndexedFields(definition, type);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if some fields of the specified record type are indexed within the block header,
+     * in which case the full field values must be passed to {@link #add(Record, Field)}.
+     * 
+     * @param type the record type
+     * @return <code>true</code> if some fields of the specified record type are indexed within the block header.
+     */
+    public boolean hasIndexedFields(int type) {
+        return this.indexedTypes[type];
+    }
+
+    /**
+     * Returns the number of records of the specified type within the block.
+     * 
+     * @param type the record type
+     * @return the number of records of the specified type within the block.
+     */
+    public int getRecordCount(int type) {
+        return this.recordCounts[type];
+    }
+
+    /**
+     * Serializes the specified full record at the end of the block.
+     * 
+     * @param record the full record
+     * @throws IOException if an I/O problem occurs
+     */
+    public void append(TimeSeriesRecord record) throws IOException {
+
+        int recordSize = record.computeSerializedSize();
+        Buffer bytes = Buffers.allocate(1 + computeUnsignedIntSize(recordSize) + recordSize);
+
+        writeByte(bytes, record.getType());
+        writeUnsignedInt(bytes, recordSize);
+        record.writeTo(bytes);
+
+        add(record, record.getField(Record.TIMESTAMP_FIELD_INDEX));
+        addBytes(bytes);
+    }
+
+    /**
+     * Adds the specified record to the block header. The record bytes must be added through 
+     * {@link #addBytes(ReadableBuffer)}.
+     * 
+     * @param record the record, which must contain the full field values if its type has some indexed fields
+     * @param timestamp the timestamp of the record
+     * @throws IOException if an I/O problem occurs
+     */
+    public void add(Record record, Field timestamp) throws IOException {
+
+        int type = record.getType();
+
+        if (this.numberOfRecords == 0) {
+            timestamp.copyTo(this.header.getField(Record.TIMESTAMP_FIELD_INDEX));
+        }
+
+        timestamp.copyTo(this.lastTimestamp);
+        this.numberOfRecords++;
+        this.recordCounts[type]++;
+
+        if (this.indexedTypes[type]) {
+            updateFieldIndices(this.definition, this.header, record, this.recordCounts[type] == 1);
+            updateBloomFilters(this.definition, this.bloomFilters, record);
+        }
+    }
+
+    /**
+     * Copies the specified serialized records at the end of the block.
+     * 
+     * @param bytes the serialized records: <code>type | length | bitset | fields</code>
+     */
+    public void addBytes(ReadableBuffer bytes) {
+
+        if (bytes.isReadable()) {
+            this.size += bytes.readableBytes();
+            this.buffer.addBytes(bytes);
+        }
+    }
+
+    /**
+     * Returns the block that has been built.
+     * 
+     * @return the block that has been built.
+     * @throws IOException if an I/O problem occurs
+     */
+    public DataBlock getDataBlock() throws IOException {
+
+        if (this.numberOfRecords > 0) {
+            setLastTimestamp(this.header, this.lastTimestamp);
+        }
+
+        for (int i = 0; i < this.recordCounts.length; i++) {
+            setRecordCount(this.header, i, this.recordCounts[i]);
+        }
+
+        ReadableBuffer filters = Buffers.wrap(this.bloomFilters);
+
+        setBloomFilters(this.header, this.bloomFilters.length > 0);
+        setCompressedBlockSize(this.header, this.size);
+        setChecksum(this.header, computeChecksum(filters, this.buffer));
+
+        return new DefaultDataBlock(this.header, filters, this.buffer);
+    }
+
+    /**
+     * Checks if some fields of the specified record type are indexed within the block header.
+     * 
+     * @param definition the time series definition
+     * @param type the record type
+     * @return <code>true</code> if some fields of the specified record type are indexed within the block header.
+     */
+    private static boolean hasIndexedFields(TimeSeriesDefinition definition, int type) {
+
+        // The timestamp field, at index 0, is never indexed.
+        for (int i = 1, m = definition.getRecordType(type).getNumberOfFields(); i <= m; i++) {
+
+            if (definition.getZoneMapIndex(type, i) >= 0 
+                    || definition.getSumIndex(type, i) >= 0 
+                    || definition.getBloomFilterOffset(type, i) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
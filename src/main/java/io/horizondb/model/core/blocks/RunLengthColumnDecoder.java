@@ -0,0 +1,70 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+import static io.horizondb.io.encoding.VarInts.readUnsignedInt;
+
+/**
+ * <code>ColumnDecoder</code> for the chunks written by a <code>RunLengthColumnEncoder</code>.
+ */
+final class RunLengthColumnDecoder implements ColumnDecoder {
+
+    /**
+     * The reader containing the column chunk.
+     */
+    private final ByteReader reader;
+
+    /**
+     * The value of the current run.
+     */
+    private final Field value;
+
+    /**
+     * The number of values remaining within the current run.
+     */
+    private int remaining;
+
+    /**
+     * Creates a new <code>RunLengthColumnDecoder</code> that read the values from the specified chunk.
+     * 
+     * @param prototype a field of the column type
+     * @param reader the reader containing the column chunk
+     */
+    public RunLengthColumnDecoder(Field prototype, ByteReader reader) {
+
+        this.reader = reader;
+        this.value = prototype.newInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readNext(Field field) throws IOException {
+
+        if (this.remaining == 0) {
+
+            this.remaining = readUnsignedInt(this.reader);
+            this.value.readFrom(this.reader);
+        }
+
+        this.remaining--;
+        this.value.copyTo(field);
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.BufferAllocator;
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.buffers.CompositeBuffer;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+import static io.horizondb.io.encoding.VarInts.computeUnsignedIntSize;
+import static io.horizondb.io.encoding.VarInts.writeUnsignedInt;
+
+/**
+ * <code>ColumnEncoder</code> that stores the runs of identical values as the length of the run (unsigned varint)
+ * followed by the value, using the field own serialization format.
+ */
+final class RunLengthColumnEncoder implements ColumnEncoder {
+
+    /**
+     * The buffer allocator.
+     */
+    private final BufferAllocator allocator;
+
+    /**
+     * The buffer containing the complete runs.
+     */
+    private final CompositeBuffer buffer = new CompositeBuffer();
+
+    /**
+     * The size in bytes of the complete runs.
+     */
+    private int size;
+
+    /**
+     * The value of the current run.
+     */
+    private final Field value;
+
+    /**
+     * The length of the current run.
+     */
+    private int length;
+
+    /**
+     * Creates a new <code>RunLengthColumnEncoder</code> for the specified type of field.
+     * 
+     * @param allocator the buffer allocator
+     * @param prototype a field of the column type
+     */
+    public RunLengthColumnEncoder(BufferAllocator allocator, Field prototype) {
+
+        this.allocator = allocator;
+        this.value = prototype.newInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void append(Field value) throws IOException {
+
+        if (this.length > 0) {
+
+            if (this.value.equals(value)) {
+
+                this.length++;
+                return;
+            }
+
+            int runSize = computeRunSize();
+
+            Buffer bytes = this.allocator.allocate(runSize);
+            writeRun(bytes);
+
+            this.buffer.addBytes(bytes);
+            this.size += runSize;
+        }
+
+        value.copyTo(this.value);
+        this.length = 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+
+        if (this.length == 0) {
+            return this.size;
+        }
+
+        return this.size + computeRunSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+
+        writer.transfer(this.buffer.readerIndex(0));
+
+        if (this.length > 0) {
+            writeRun(writer);
+        }
+    }
+
+    /**
+     * Computes the size in bytes of the current run.
+     * 
+     * @return the size in bytes of the current run.
+     */
+    private int computeRunSize() {
+        return computeUnsignedIntSize(this.length) + this.value.computeSerializedSize();
+    }
+
+    /**
+     * Writes the current run to the specified writer.
+     * 
+     * @param writer the writer to write to
+     * @throws IOException if an I/O problem occurs
+     */
+    private void writeRun(ByteWriter writer) throws IOException {
+
+        writeUnsignedInt(writer, this.length);
+        this.value.writeTo(writer);
+    }
+}
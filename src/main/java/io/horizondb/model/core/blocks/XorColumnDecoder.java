@@ -0,0 +1,99 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+/**
+ * <code>ColumnDecoder</code> for the chunks written by a <code>XorColumnEncoder</code>.
+ */
+final class XorColumnDecoder implements ColumnDecoder {
+
+    /**
+     * The encoded bits.
+     */
+    private final BitReader bits;
+
+    /**
+     * <code>true</code> if no value has been read yet.
+     */
+    private boolean first = true;
+
+    /**
+     * The previous mantissa.
+     */
+    private long previousMantissa;
+
+    /**
+     * The previous exponent.
+     */
+    private int previousExponent;
+
+    /**
+     * The number of leading zeros of the current window.
+     */
+    private int leadingZeros;
+
+    /**
+     * The number of trailing zeros of the current window.
+     */
+    private int trailingZeros;
+
+    /**
+     * Creates a new <code>XorColumnDecoder</code> that read the values from the specified chunk.
+     * 
+     * @param reader the reader containing the column chunk
+     */
+    public XorColumnDecoder(ByteReader reader) {
+
+        this.bits = new BitReader(reader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readNext(Field field) throws IOException {
+
+        if (this.first) {
+
+            this.previousExponent = (byte) this.bits.readBits(8);
+            this.previousMantissa = this.bits.readBits(64);
+            this.first = false;
+
+        } else {
+
+            if (this.bits.readBit()) {
+                this.previousExponent = (byte) this.bits.readBits(8);
+            }
+
+            if (this.bits.readBit()) {
+
+                if (this.bits.readBit()) {
+
+                    this.leadingZeros = (int) this.bits.readBits(6);
+                    this.trailingZeros = 64 - this.leadingZeros - ((int) this.bits.readBits(6) + 1);
+                }
+
+                long xor = this.bits.readBits(64 - this.leadingZeros - this.trailingZeros) << this.trailingZeros;
+                this.previousMantissa ^= xor;
+            }
+        }
+
+        field.setDecimal(this.previousMantissa, this.previousExponent);
+    }
+}
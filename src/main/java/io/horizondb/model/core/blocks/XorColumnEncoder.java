@@ -0,0 +1,170 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.ByteWriter;
+import io.horizondb.model.core.Field;
+
+import java.io.IOException;
+
+/**
+ * <code>ColumnEncoder</code> for decimal values, storing the XOR of each mantissa with the previous one.
+ * <p>
+ * The first value is stored as its exponent (8 bits) followed by its mantissa (64 bits). 
+ * For the next values:
+ * <ul>
+ * <li>a <code>0</code> bit is written if the exponent did not change, otherwise a <code>1</code> bit 
+ * followed by the new exponent (8 bits)</li>
+ * <li>a <code>0</code> bit is written if the mantissa did not change, otherwise a <code>1</code> bit 
+ * followed by:
+ * <ul>
+ * <li>a <code>0</code> bit and the meaningful bits of the XOR if they fit within the window of 
+ * the previous XOR</li>
+ * <li>a <code>1</code> bit, the number of leading zeros (6 bits), the number of meaningful bits minus one 
+ * (6 bits) and the meaningful bits of the XOR otherwise</li>
+ * </ul>
+ * </li>
+ * </ul>
+ * </p>
+ */
+final class XorColumnEncoder implements ColumnEncoder {
+
+    /**
+     * The encoded bits.
+     */
+    private final BitWriter bits = new BitWriter();
+
+    /**
+     * <code>true</code> if no value has been appended yet.
+     */
+    private boolean first = true;
+
+    /**
+     * The previous mantissa.
+     */
+    private long previousMantissa;
+
+    /**
+     * The previous exponent.
+     */
+    private int previousExponent;
+
+    /**
+     * The number of leading zeros of the current window (-1 if no window has been defined yet).
+     */
+    private int leadingZeros = -1;
+
+    /**
+     * The number of trailing zeros of the current window.
+     */
+    private int trailingZeros;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void append(Field value) throws IOException {
+
+        long mantissa = value.getDecimalMantissa();
+        int exponent = value.getDecimalExponent();
+
+        if (this.first) {
+
+            this.bits.writeBits(exponent, 8);
+            this.bits.writeBits(mantissa, 64);
+            this.first = false;
+
+        } else {
+
+            appendExponent(exponent);
+            appendMantissa(mantissa);
+        }
+
+        this.previousMantissa = mantissa;
+        this.previousExponent = exponent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+        return this.bits.computeSerializedSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+        this.bits.writeTo(writer);
+    }
+
+    /**
+     * Appends the specified exponent.
+     * 
+     * @param exponent the exponent to append
+     */
+    private void appendExponent(int exponent) {
+
+        if (exponent == this.previousExponent) {
+
+            this.bits.writeBit(false);
+
+        } else {
+
+            this.bits.writeBit(true);
+            this.bits.writeBits(exponent, 8);
+        }
+    }
+
+    /**
+     * Appends the specified mantissa.
+     * 
+     * @param mantissa the mantissa to append
+     */
+    private void appendMantissa(long mantissa) {
+
+        long xor = mantissa ^ this.previousMantissa;
+
+        if (xor == 0) {
+
+            this.bits.writeBit(false);
+            return;
+        }
+
+        this.bits.writeBit(true);
+
+        int leading = Long.numberOfLeadingZeros(xor);
+        int trailing = Long.numberOfTrailingZeros(xor);
+
+        if (this.leadingZeros >= 0 && leading >= this.leadingZeros && trailing >= this.trailingZeros) {
+
+            this.bits.writeBit(false);
+            this.bits.writeBits(xor >>> this.trailingZeros, 64 - this.leadingZeros - this.trailingZeros);
+
+        } else {
+
+            int meaningfulBits = 64 - leading - trailing;
+
+            this.bits.writeBit(true);
+            this.bits.writeBits(leading, 6);
+            this.bits.writeBits(meaningfulBits - 1, 6);
+            this.bits.writeBits(xor >>> trailing, meaningfulBits);
+
+            this.leadingZeros = leading;
+            this.trailingZeros = trailing;
+        }
+    }
+}
@@ -42,6 +42,16 @@ public final class FieldRecordFilter implements Filter<Record> {
      * The filter used to filter records.
      */
     protected final Filter<Field> filter;
+
+    /**
+     * The last verdict of the filter per record type.
+     */
+    private final boolean[] verdicts;
+
+    /**
+     * <code>true</code> if a verdict has already been computed for the record type.
+     */
+    private final boolean[] hasVerdict;
         
     /**
      * Creates a new <code>BaseFieldRecordFilter</code>.
@@ -61,6 +71,8 @@ public final class FieldRecordFilter implements Filter<Record> {
         
         this.fieldIndices = new int[numberOfRecordTypes];
         this.fields = new Field[numberOfRecordTypes];
+        this.verdicts = new boolean[numberOfRecordTypes];
+        this.hasVerdict = new boolean[numberOfRecordTypes];
         
         for (int i = 0; i < numberOfRecordTypes; i++) {
             
@@ -79,12 +91,26 @@ public final class FieldRecordFilter implements Filter<Record> {
     @Override
     public boolean accept(Record record) throws IOException {
         
-        if (!updateField(record)) {
+        int type = record.getType();
+
+        if (this.fields[type] == null) {
             
             return false;
         }
-        
-        return this.filter.accept(this.fields[record.getType()]);
+
+        // Within a run of identical values the verdict cannot change, so the field filter
+        // is only called once per run.
+        if (isUnchanged(record) && this.hasVerdict[type]) {
+
+            return this.verdicts[type];
+        }
+
+        updateField(record);
+
+        this.verdicts[type] = this.filter.accept(this.fields[type]);
+        this.hasVerdict[type] = true;
+
+        return this.verdicts[type];
     }
     
     /**    
@@ -95,23 +121,29 @@ public final class FieldRecordFilter implements Filter<Record> {
         return this.filter.isDone();
     }
 
+    /**
+     * Returns <code>true</code> if the specified record is a delta that does not change the field value.
+     * 
+     * @param record the record
+     * @return <code>true</code> if the specified record is a delta that does not change the field value.
+     * @throws IOException if an I/O problem occurs
+     */
+    private boolean isUnchanged(Record record) throws IOException {
+
+        return record.isDelta() && record.getField(this.fieldIndices[record.getType()]).isZero();
+    }
+
     /**
      * Updates the field value.
      * 
      * @param record the new record
-     * @return <code>true</code> if the field has been updated, <code>false</code> otherwise.
      * @throws IOException if an I/O problem occurs
      */
-    private final boolean updateField(Record record) throws IOException {
+    private final void updateField(Record record) throws IOException {
         
         int type = record.getType();
         Field field = this.fields[type];
         
-        if (field == null) {
-            
-            return false;
-        }
-        
         Field recordField = record.getField(this.fieldIndices[type]);
         
         if (record.isDelta()) {
@@ -122,7 +154,5 @@ public final class FieldRecordFilter implements Filter<Record> {
         
             recordField.copyTo(field);
         }
-
-        return true;
     }
 }
@@ -15,12 +15,20 @@ package io.horizondb.model.core.iterators;
 
 import io.horizondb.io.ByteReader;
 import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Predicate;
 import io.horizondb.model.core.blocks.BinaryDataBlock;
+import io.horizondb.model.core.blocks.ChecksumVerification;
+import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.core.predicates.Predicates;
+import io.horizondb.model.core.util.BufferPool;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.Closeable;
 import java.io.IOException;
 
+import com.google.common.collect.RangeSet;
+
 /**
  * Utility to convert a <code>SeekableFileDataInput</code> into a <code>DataBlock</code> iterator.
  *
@@ -37,10 +45,102 @@ final class BinaryBlockIterator extends AbstractResourceIterator<DataBlock> {
      */
     private final ByteReader input;
 
+    /**
+     * The way the block checksums must be verified.
+     */
+    private final ChecksumVerification verification;
+
+    /**
+     * The pool from which the buffers holding the block data are acquired or <code>null</code> if the block data 
+     * must be sliced from the input.
+     */
+    private final BufferPool pool;
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The ranges of times for which the blocks must be returned.
+     */
+    private final RangeSet<Field> rangeSet;
+
+    /**
+     * The predicate that the records of the returned blocks may match.
+     */
+    private final Predicate predicate;
+
+    /**
+     * The number of blocks read.
+     */
+    private long numberOfBlocks;
+
     public BinaryBlockIterator(TimeSeriesDefinition definition, ByteReader input) {
 
-        this.block = new BinaryDataBlock(definition.newBinaryBlockHeader());
+        this(definition, input, ChecksumVerification.ALWAYS);
+    }
+
+    /**
+     * Creates a <code>BinaryBlockIterator</code> that read the blocks from the specified input.
+     * 
+     * @param definition the time series definition
+     * @param input the input to read the blocks from
+     * @param verification the way the block checksums must be verified
+     */
+    public BinaryBlockIterator(TimeSeriesDefinition definition, 
+                               ByteReader input, 
+                               ChecksumVerification verification) {
+
+        this(definition, input, verification, null);
+    }
+
+    /**
+     * Creates a <code>BinaryBlockIterator</code> that read the blocks from the specified input into buffers 
+     * acquired from the specified pool. The buffer holding the data of a block is released when the next block
+     * is read, so the blocks returned by this iterator must not be used after the next call to <code>next</code>.
+     * 
+     * @param definition the time series definition
+     * @param input the input to read the blocks from
+     * @param verification the way the block checksums must be verified
+     * @param pool the pool from which the buffers holding the block data must be acquired or <code>null</code> 
+     * if the block data must be sliced from the input
+     */
+    public BinaryBlockIterator(TimeSeriesDefinition definition, 
+                               ByteReader input, 
+                               ChecksumVerification verification,
+                               BufferPool pool) {
+
+        this(definition, input, verification, pool, TimestampField.ALL, Predicates.noop());
+    }
+
+    /**
+     * Creates a <code>BinaryBlockIterator</code> that read the blocks from the specified input, header first. 
+     * The data of the blocks for which the header shows that they are not within the specified time ranges or 
+     * that none of their records can match the specified predicate is skipped without being read.
+     * 
+     * @param definition the time series definition
+     * @param input the input to read the blocks from
+     * @param verification the way the block checksums must be verified
+     * @param pool the pool from which the buffers holding the block data must be acquired or <code>null</code> 
+     * if the block data must be sliced from the input
+     * @param rangeSet the ranges of time for which the blocks must be returned
+     * @param predicate the predicate that the records of the returned blocks may match
+     */
+    public BinaryBlockIterator(TimeSeriesDefinition definition, 
+                               ByteReader input, 
+                               ChecksumVerification verification,
+                               BufferPool pool,
+                               RangeSet<Field> rangeSet,
+                               Predicate predicate) {
+
+        this.block = new BinaryDataBlock(definition);
         this.input = input;
+        this.verification = verification;
+        this.pool = pool;
+        this.definition = definition;
+        this.rangeSet = rangeSet;
+        this.predicate = predicate;
     }
 
     /**
@@ -48,6 +148,7 @@ final class BinaryBlockIterator extends AbstractResourceIterator<DataBlock> {
      */
     @Override
     public void close() throws IOException {
+        this.block.release();
         if (this.input instanceof Closeable) {
             ((Closeable) this.input).close();
         }
@@ -58,12 +159,41 @@ final class BinaryBlockIterator extends AbstractResourceIterator<DataBlock> {
      */
     @Override
     protected void computeNext() throws IOException {
-        if (this.input.isReadable()) {
-            this.block.fill(this.input);
+        while (this.input.isReadable()) {
+
+            this.block.readHeader(this.input);
+
+            if (!isSelected()) {
+                this.block.skipData(this.input);
+                continue;
+            }
+
+            if (this.pool == null) {
+                this.block.readData(this.input);
+            } else {
+                this.block.readData(this.input, this.pool);
+            }
+            this.verification.verify(this.block, this.numberOfBlocks++);
             setNext(this.block);
-        } else {
-            done();
+            return;
         }
+        this.block.release();
+        done();
+    }
+
+    /**
+     * Checks, using only the header of the current block, if the block must be returned.
+     * 
+     * @return <code>true</code> if the block must be returned, <code>false</code> if its data can be skipped.
+     * @throws IOException if an I/O problem occurs
+     */
+    private boolean isSelected() throws IOException {
+
+        if (this.rangeSet == TimestampField.ALL && this.predicate == Predicates.noop()) {
+            return true;
+        }
+
+        return BlockFilteringIterator.mayMatch(this.rangeSet, this.definition, this.predicate, this.block);
     }
 
 }
@@ -24,21 +24,32 @@ import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Filter;
 import io.horizondb.model.core.Record;
 import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.ChecksumVerification;
+import io.horizondb.model.core.blocks.ColumnarBlockReader;
 import io.horizondb.model.core.fields.TimestampField;
 import io.horizondb.model.core.filters.Filters;
 import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.schema.BlockLayout;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
+import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
 
 import static io.horizondb.model.core.iterators.BlockIterators.decompress;
 
-import static io.horizondb.model.core.iterators.BlockIterators.filter;
-
 import static io.horizondb.model.core.iterators.BlockIterators.iterator;
 
+import static io.horizondb.model.core.records.BlockHeaderUtils.getKeyframeEndOffset;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.getKeyframeOffset;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRange;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.getSegmentOffset;
+
 import static org.apache.commons.lang.Validate.notNull;
 
 /**
@@ -64,6 +75,43 @@ public final class BinaryTimeSeriesRecordIterator extends AbstractResourceIterat
      */
     private ReadableBuffer buffer = Buffers.EMPTY_BUFFER;
 
+    /**
+     * The reader used to read the blocks using the columnar layout or <code>null</code> if the blocks use
+     * the row layout.
+     */
+    private final ColumnarBlockReader columnarReader;
+
+    /**
+     * The index within the block headers of the keyframe index or -1 if the blocks do not contain keyframes.
+     */
+    private final int keyframeIndex;
+
+    /**
+     * The time ranges of the records that must be returned.
+     */
+    private final RangeSet<Field> rangeSet;
+
+    /**
+     * The index within the block headers of the segment offsets or -1 if the blocks do not use the segmented 
+     * layout.
+     */
+    private final int segmentOffsetIndex;
+
+    /**
+     * The segments of the current block if the blocks use the segmented layout.
+     */
+    private final ReadableBuffer[] segments;
+
+    /**
+     * The timestamps in nanoseconds of the last records read from each segment.
+     */
+    private final long[] timestamps;
+
+    /**
+     * <code>true</code> for the segments whose last record read has not yet been returned.
+     */
+    private final boolean[] loaded;
+
     public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, ByteReader reader) {
         
         this(definition, reader, TimestampField.ALL);
@@ -84,15 +132,238 @@ public final class BinaryTimeSeriesRecordIterator extends AbstractResourceIterat
                                           RangeSet<Field> rangeSet, 
                                           Filter<String> filter) {
 
-        this(definition, filter(rangeSet, iterator(definition, reader)), filter);
+        this(definition, reader, rangeSet, filter, Filters.<String>noop());
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will only decode the fields accepted by
+     * the specified field filter if the blocks use the columnar layout. The fields which have not been 
+     * decoded will be returned as zero. If the blocks use the row layout all the fields will be returned.
+     * 
+     * @param definition the time series definition
+     * @param reader the reader containing the blocks
+     * @param rangeSet the time ranges of the records that must be returned
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ByteReader reader, 
+                                          RangeSet<Field> rangeSet, 
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter) {
+
+        this(definition, reader, rangeSet, filter, fieldFilter, ChecksumVerification.ALWAYS);
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will verify the block checksums as specified 
+     * while reading the blocks. The checksums are only verified once, when the blocks are read from the reader.
+     * 
+     * @param definition the time series definition
+     * @param reader the reader containing the blocks
+     * @param rangeSet the time ranges of the records that must be returned
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     * @param verification the way the block checksums must be verified
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ByteReader reader, 
+                                          RangeSet<Field> rangeSet, 
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter,
+                                          ChecksumVerification verification) {
+
+        this(definition, reader, rangeSet, filter, fieldFilter, verification, null, 0);
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will uncompress the next blocks on the 
+     * threads of the specified executor while the records of the current block are being read.
+     * 
+     * @param definition the time series definition
+     * @param reader the reader containing the blocks
+     * @param rangeSet the time ranges of the records that must be returned
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     * @param executor the executor used to uncompress the blocks
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed ahead
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ByteReader reader, 
+                                          RangeSet<Field> rangeSet, 
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter,
+                                          Executor executor,
+                                          int numberOfBlocksToReadAhead) {
+
+        this(definition, 
+             reader, 
+             rangeSet, 
+             filter, 
+             fieldFilter, 
+             ChecksumVerification.ALWAYS, 
+             executor, 
+             numberOfBlocksToReadAhead);
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will uncompress the next blocks on the 
+     * threads of the specified executor, if any, while the records of the current block are being read.
+     * The block checksums are only verified once, when the blocks are read from the reader.
+     * 
+     * @param definition the time series definition
+     * @param reader the reader containing the blocks
+     * @param rangeSet the time ranges of the records that must be returned
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     * @param verification the way the block checksums must be verified
+     * @param executor the executor used to uncompress the blocks or <code>null</code> if the blocks must be 
+     * uncompressed by the thread reading the records
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed ahead, ignored if no 
+     * executor is specified
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ByteReader reader, 
+                                          RangeSet<Field> rangeSet, 
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter,
+                                          ChecksumVerification verification,
+                                          Executor executor,
+                                          int numberOfBlocksToReadAhead) {
+
+        this(definition, 
+             iterator(definition, reader, verification, rangeSet), 
+             rangeSet, 
+             filter, 
+             fieldFilter, 
+             ChecksumVerification.OFF,
+             executor, 
+             numberOfBlocksToReadAhead);
     }
 
     public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
                                           ResourceIterator<DataBlock> iterator, 
                                           Filter<String> filter) {
 
+        this(definition, iterator, filter, Filters.<String>noop());
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will only decode the fields accepted by
+     * the specified field filter if the blocks use the columnar layout. The fields which have not been 
+     * decoded will be returned as zero. If the blocks use the row layout all the fields will be returned.
+     * 
+     * @param definition the time series definition
+     * @param iterator the block iterator
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ResourceIterator<DataBlock> iterator, 
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter) {
+
+        this(definition, iterator, TimestampField.ALL, filter, fieldFilter);
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will, if the blocks use the row layout and 
+     * contain keyframes, start reading each block from the last keyframe before the lower bound of the 
+     * specified time ranges. Records before that lower bound can still be returned.
+     * 
+     * @param definition the time series definition
+     * @param iterator the block iterator
+     * @param rangeSet the time ranges of the records that must be returned
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ResourceIterator<DataBlock> iterator, 
+                                          RangeSet<Field> rangeSet,
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter) {
+
+        this(definition, iterator, rangeSet, filter, fieldFilter, null, 0);
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will, if an executor is specified, uncompress 
+     * the next blocks on the threads of that executor while the records of the current block are being read.
+     * The block checksums are not verified again: it is the responsibility of the iterator reading the blocks.
+     * 
+     * @param definition the time series definition
+     * @param iterator the block iterator
+     * @param rangeSet the time ranges of the records that must be returned
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     * @param executor the executor used to uncompress the blocks or <code>null</code> if the blocks must be 
+     * uncompressed by the thread reading the records
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed ahead, ignored if no 
+     * executor is specified
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ResourceIterator<DataBlock> iterator, 
+                                          RangeSet<Field> rangeSet,
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter,
+                                          Executor executor,
+                                          int numberOfBlocksToReadAhead) {
+
+        this(definition, 
+             iterator, 
+             rangeSet, 
+             filter, 
+             fieldFilter, 
+             ChecksumVerification.OFF, 
+             executor, 
+             numberOfBlocksToReadAhead);
+    }
+
+    /**
+     * Creates a new <code>BinaryTimeSeriesRecordIterator</code> that will, if an executor is specified, uncompress 
+     * the next blocks on the threads of that executor while the records of the current block are being read.
+     * 
+     * @param definition the time series definition
+     * @param iterator the block iterator
+     * @param rangeSet the time ranges of the records that must be returned
+     * @param filter the filter used to select the record types
+     * @param fieldFilter the filter used to select the fields that must be decoded
+     * @param verification the way the block checksums must be verified before uncompressing the blocks, 
+     * <code>OFF</code> if they have already been verified by the iterator reading the blocks
+     * @param executor the executor used to uncompress the blocks or <code>null</code> if the blocks must be 
+     * uncompressed by the thread reading the records
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed ahead, ignored if no 
+     * executor is specified
+     */
+    public BinaryTimeSeriesRecordIterator(TimeSeriesDefinition definition, 
+                                          ResourceIterator<DataBlock> iterator, 
+                                          RangeSet<Field> rangeSet,
+                                          Filter<String> filter,
+                                          Filter<String> fieldFilter,
+                                          ChecksumVerification verification,
+                                          Executor executor,
+                                          int numberOfBlocksToReadAhead) {
+
+        this.keyframeIndex = definition.getKeyframeIndex();
+        this.segmentOffsetIndex = definition.getSegmentOffsetIndex();
+        this.rangeSet = rangeSet;
         this.records = definition.newBinaryRecords(filter);
-        this.iterator = decompress(iterator);
+
+        if (executor == null) {
+            this.iterator = decompress(iterator, verification);
+        } else {
+            this.iterator = decompress(iterator, verification, executor, numberOfBlocksToReadAhead);
+        }
+
+        this.segments = new ReadableBuffer[this.records.length];
+        this.timestamps = new long[this.records.length];
+        this.loaded = new boolean[this.records.length];
+
+        if (definition.getBlockLayout() == BlockLayout.COLUMNAR) {
+            this.columnarReader = new ColumnarBlockReader(definition, filter, fieldFilter);
+        } else {
+            this.columnarReader = null;
+        }
     }
     
     /**    
@@ -101,6 +372,16 @@ public final class BinaryTimeSeriesRecordIterator extends AbstractResourceIterat
     @Override
     protected void computeNext() throws IOException {
         
+        if (this.columnarReader != null) {
+            computeNextFromColumns();
+            return;
+        }
+
+        if (this.segmentOffsetIndex >= 0) {
+            computeNextFromSegments();
+            return;
+        }
+
         while (this.iterator.hasNext() || this.buffer.isReadable()) {
 
             while (this.buffer.isReadable()) {
@@ -118,13 +399,172 @@ public final class BinaryTimeSeriesRecordIterator extends AbstractResourceIterat
 
             if (this.iterator.hasNext()) {
                 
-                DataBlock block = this.iterator.next();
-                this.buffer = block.getData();
+                this.buffer = getKeyframeRange(this.iterator.next());
             }
         }
         done();
     }
 
+    /**
+     * Returns the data of the specified block that lies between the last keyframe preceding the time ranges 
+     * and the first keyframe following them.
+     * 
+     * @param block the block being read
+     * @return the data of the block that can contain records within the time ranges
+     * @throws IOException if an I/O problem occurs
+     */
+    private ReadableBuffer getKeyframeRange(DataBlock block) throws IOException {
+
+        ReadableBuffer data = block.getData();
+
+        if (this.keyframeIndex < 0) {
+            return data;
+        }
+
+        Record header = block.getHeader();
+        RangeSet<Field> ranges = this.rangeSet.subRangeSet(getRange(header));
+
+        // The blocks outside of the time ranges are normally dropped by the block iterators. If they were not, 
+        // the full ranges are used to find the keyframes.
+        if (ranges.isEmpty()) {
+            ranges = this.rangeSet;
+        }
+
+        if (ranges.isEmpty()) {
+            return data;
+        }
+
+        Range<Field> span = ranges.span();
+
+        int start = 0;
+
+        if (span.hasLowerBound()) {
+            start = getKeyframeOffset(header, this.keyframeIndex, span.lowerEndpoint());
+        }
+
+        int end = -1;
+
+        if (span.hasUpperBound()) {
+            end = getKeyframeEndOffset(header, this.keyframeIndex, span.upperEndpoint());
+        }
+
+        if (end < 0) {
+            end = data.readableBytes();
+        }
+
+        return data.slice(data.readerIndex() + start, end - start);
+    }
+
+    /**
+     * Computes the next record when the blocks use the columnar layout.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void computeNextFromColumns() throws IOException {
+
+        while (!this.columnarReader.hasNext()) {
+
+            if (!this.iterator.hasNext()) {
+                done();
+                return;
+            }
+
+            this.columnarReader.fill(this.iterator.next());
+        }
+
+        setNext(this.columnarReader.next());
+    }
+
+    /**
+     * Computes the next record when the blocks use the segmented layout. Only the segments of the selected 
+     * record types are read and the records are merged by timestamp.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void computeNextFromSegments() throws IOException {
+
+        while (true) {
+
+            int next = -1;
+
+            for (int type = 0; type < this.records.length; type++) {
+
+                BinaryTimeSeriesRecord record = this.records[type];
+
+                if (record == null) {
+                    continue;
+                }
+
+                if (!this.loaded[type] && this.segments[type] != null && this.segments[type].isReadable()) {
+                    loadNextRecord(type);
+                }
+
+                if (this.loaded[type] && (next < 0 || this.timestamps[type] < this.timestamps[next])) {
+                    next = type;
+                }
+            }
+
+            if (next >= 0) {
+                this.loaded[next] = false;
+                setNext(this.records[next]);
+                return;
+            }
+
+            if (!this.iterator.hasNext()) {
+                done();
+                return;
+            }
+
+            fillSegments(this.iterator.next());
+        }
+    }
+
+    /**
+     * Reads the next record from the segment of the specified type.
+     * 
+     * @param type the record type
+     * @throws IOException if an I/O problem occurs
+     */
+    private void loadNextRecord(int type) throws IOException {
+
+        ReadableBuffer segment = this.segments[type];
+
+        segment.readByte();
+        int length = VarInts.readUnsignedInt(segment);
+
+        BinaryTimeSeriesRecord record = this.records[type].fill(segment.slice(length));
+        long timestamp = record.getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+
+        this.timestamps[type] = record.isDelta() ? this.timestamps[type] + timestamp : timestamp;
+        this.loaded[type] = true;
+    }
+
+    /**
+     * Splits the data of the specified block into the segments of the selected record types.
+     * 
+     * @param block the block
+     * @throws IOException if an I/O problem occurs
+     */
+    private void fillSegments(DataBlock block) throws IOException {
+
+        Record header = block.getHeader();
+        ReadableBuffer data = block.getData();
+        int start = data.readerIndex();
+
+        for (int type = 0; type < this.records.length; type++) {
+
+            if (this.records[type] == null) {
+                continue;
+            }
+
+            int offset = getSegmentOffset(header, this.segmentOffsetIndex, type);
+            int end = (type == this.records.length - 1) ? data.readableBytes() 
+                                                        : getSegmentOffset(header, this.segmentOffsetIndex, type + 1);
+
+            this.segments[type] = data.slice(start + offset, end - offset);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -15,8 +15,11 @@ package io.horizondb.model.core.iterators;
 
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Predicate;
 import io.horizondb.model.core.Record;
 import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.predicates.Predicates;
+import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
 
@@ -26,7 +29,8 @@ import static io.horizondb.model.core.records.BlockHeaderUtils.getRange;
 
 /**
  * <code>DataBlock</code>s iterator that filter out the blocks of the iterator that it decorates if they
- * do not contains data within a specific set of time ranges.
+ * do not contains data within a specific set of time ranges or if their headers show that none of their 
+ * records can match a specific predicate.
  */
 final class BlockFilteringIterator extends AbstractResourceIterator<DataBlock> {
 
@@ -35,6 +39,16 @@ final class BlockFilteringIterator extends AbstractResourceIterator<DataBlock> {
      */
     private final RangeSet<Field> rangeSet;
 
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The predicate that the records of the returned blocks may match.
+     */
+    private final Predicate predicate;
+
     /**
      * The blocks to filter.
      */
@@ -47,6 +61,25 @@ final class BlockFilteringIterator extends AbstractResourceIterator<DataBlock> {
      */
     public BlockFilteringIterator(RangeSet<Field> rangeSet, ResourceIterator<DataBlock> iterator) {
         this.rangeSet = rangeSet;
+        this.definition = null;
+        this.predicate = Predicates.noop();
+        this.iterator = iterator;
+    }
+
+    /**
+     * Creates a <code>BlockFilteringIterator</code> that filter out the blocks for which none of the records 
+     * can match the specified predicate.
+     * 
+     * @param definition the time series definition
+     * @param predicate the predicate that the records must match
+     * @param iterator the iterator for which the blocks must be filtered out.
+     */
+    public BlockFilteringIterator(TimeSeriesDefinition definition, 
+                                  Predicate predicate, 
+                                  ResourceIterator<DataBlock> iterator) {
+        this.rangeSet = predicate.getTimestampRanges();
+        this.definition = definition;
+        this.predicate = predicate;
         this.iterator = iterator;
     }
 
@@ -72,11 +105,31 @@ final class BlockFilteringIterator extends AbstractResourceIterator<DataBlock> {
             }
 
             DataBlock block = this.iterator.next();
-            Record header = block.getHeader();
-            if (!this.rangeSet.subRangeSet(getRange(header)).isEmpty()) {
+            if (mayMatch(this.rangeSet, this.definition, this.predicate, block)) {
                 setNext(block);
                 break;
             }
         }
     }
+
+    /**
+     * Checks, using only its header, if the specified block may contain records within the specified time ranges 
+     * matching the specified predicate.
+     * 
+     * @param rangeSet the ranges of time for which the blocks must be returned
+     * @param definition the time series definition
+     * @param predicate the predicate that the records of the block may match
+     * @param block the block to check
+     * @return <code>true</code> if the block may contain matching records, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    static boolean mayMatch(RangeSet<Field> rangeSet, 
+                            TimeSeriesDefinition definition, 
+                            Predicate predicate, 
+                            DataBlock block) throws IOException {
+
+        Record header = block.getHeader();
+
+        return !rangeSet.subRangeSet(getRange(header)).isEmpty() && predicate.mayMatch(definition, block);
+    }
 }
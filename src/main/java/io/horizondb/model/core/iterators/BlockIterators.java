@@ -17,10 +17,17 @@ import io.horizondb.io.ByteReader;
 import io.horizondb.io.compression.CompressionType;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Predicate;
 import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.ChecksumVerification;
 import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.core.predicates.Predicates;
+import io.horizondb.model.core.util.BufferPool;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
 import com.google.common.collect.RangeSet;
 
 /**
@@ -39,6 +46,98 @@ public final class BlockIterators {
         return new BinaryBlockIterator(definition, input);
     }
 
+    /**
+     * Creates a <code>ResourceIterator</code> to iterate over the blocks read from the specified input.
+     *
+     * @param definition the time series definition
+     * @param input the input to read the blocks from.
+     * @param verification the way the block checksums must be verified
+     * @return a <code>ResourceIterator</code> to iterate over the blocks read from the specified input.
+     */
+    public static ResourceIterator<DataBlock> iterator(TimeSeriesDefinition definition, 
+                                                       ByteReader input, 
+                                                       ChecksumVerification verification) {
+        return new BinaryBlockIterator(definition, input, verification);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> to iterate over the blocks read from the specified input. 
+     * The block data is copied into buffers acquired from the specified pool and the buffer of a block is 
+     * released as soon as the next block is read.
+     *
+     * @param definition the time series definition
+     * @param input the input to read the blocks from.
+     * @param verification the way the block checksums must be verified
+     * @param pool the pool from which the buffers holding the block data must be acquired
+     * @return a <code>ResourceIterator</code> to iterate over the blocks read from the specified input.
+     */
+    public static ResourceIterator<DataBlock> iterator(TimeSeriesDefinition definition, 
+                                                       ByteReader input, 
+                                                       ChecksumVerification verification,
+                                                       BufferPool pool) {
+        return new BinaryBlockIterator(definition, input, verification, pool);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> to iterate over the blocks read from the specified input which are 
+     * within the specified time ranges. The headers are read first and the data of the blocks which are not 
+     * within the time ranges is skipped without being read.
+     *
+     * @param definition the time series definition
+     * @param input the input to read the blocks from.
+     * @param rangeSet the ranges of time for which the blocks must be returned
+     * @return a <code>ResourceIterator</code> to iterate over the blocks read from the specified input.
+     */
+    public static ResourceIterator<DataBlock> iterator(TimeSeriesDefinition definition, 
+                                                       ByteReader input, 
+                                                       RangeSet<Field> rangeSet) {
+        return iterator(definition, input, ChecksumVerification.ALWAYS, rangeSet);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> to iterate over the blocks read from the specified input which are 
+     * within the specified time ranges. The headers are read first and the data of the blocks which are not 
+     * within the time ranges is skipped without being read nor verified.
+     *
+     * @param definition the time series definition
+     * @param input the input to read the blocks from.
+     * @param verification the way the block checksums must be verified
+     * @param rangeSet the ranges of time for which the blocks must be returned
+     * @return a <code>ResourceIterator</code> to iterate over the blocks read from the specified input.
+     */
+    public static ResourceIterator<DataBlock> iterator(TimeSeriesDefinition definition, 
+                                                       ByteReader input, 
+                                                       ChecksumVerification verification,
+                                                       RangeSet<Field> rangeSet) {
+        return new BinaryBlockIterator(definition, 
+                                       input, 
+                                       verification, 
+                                       null, 
+                                       rangeSet, 
+                                       Predicates.noop());
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> to iterate over the blocks read from the specified input for which 
+     * some records may match the specified predicate. The headers are read first and the data of the blocks 
+     * for which the header shows that none of the records can match the predicate is skipped without being read.
+     *
+     * @param definition the time series definition
+     * @param input the input to read the blocks from.
+     * @param predicate the predicate that the records must match
+     * @return a <code>ResourceIterator</code> to iterate over the blocks read from the specified input.
+     */
+    public static ResourceIterator<DataBlock> iterator(TimeSeriesDefinition definition, 
+                                                       ByteReader input, 
+                                                       Predicate predicate) {
+        return new BinaryBlockIterator(definition, 
+                                       input, 
+                                       ChecksumVerification.ALWAYS, 
+                                       null, 
+                                       predicate.getTimestampRanges(), 
+                                       predicate);
+    }
+
     /**
      * Creates a <code>ResourceIterator</code> to iterate over the specified blocks.
      *
@@ -80,6 +179,54 @@ public final class BlockIterators {
         return new CompressingIterator(compressionType, blocks);
     }
 
+    /**
+     * Creates a <code>ResourceIterator</code> that compress the block returned by the specified iterator only if 
+     * their compression ratio reaches the specified minimum. The other blocks are stored uncompressed and the 
+     * compression type of each block is recorded within its header.
+     *
+     * @param compressionType the type of compression to use
+     * @param blocks the blocks to compress
+     * @param minimumCompressionRatio the minimum ratio between the uncompressed and compressed sizes for a 
+     * block to be stored compressed
+     * @return a <code>ResourceIterator</code> that compress the block returned by the specified iterator.
+     */
+    public static ResourceIterator<DataBlock> compress(CompressionType compressionType,
+                                                       ResourceIterator<DataBlock> blocks,
+                                                       double minimumCompressionRatio) {
+        return new CompressingIterator(compressionType, blocks, minimumCompressionRatio);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> that compress in parallel the block returned by the specified 
+     * iterator. The blocks are returned in the order in which they have been read from the specified iterator.
+     * <p>
+     * The header and data of each block are copied before being submitted to the executor, so the specified 
+     * iterator can reuse its block instance. The pooled buffers holding the data of the blocks read from a 
+     * <code>BinaryBlockIterator</code> are retained until the blocks have been compressed.
+     * </p>
+     *
+     * @param compressionType the type of compression to use
+     * @param blocks the blocks to compress
+     * @param executor the executor used to compress the blocks
+     * @param maximumInFlightBlocks the maximum number of blocks being compressed or waiting to be returned
+     * @param maximumInFlightBytes the maximum number of uncompressed bytes being compressed or waiting to be 
+     * returned
+     * @return a <code>ResourceIterator</code> that compress in parallel the block returned by the specified 
+     * iterator.
+     */
+    public static ResourceIterator<DataBlock> compress(CompressionType compressionType,
+                                                       ResourceIterator<DataBlock> blocks,
+                                                       Executor executor,
+                                                       int maximumInFlightBlocks,
+                                                       long maximumInFlightBytes) {
+
+        return new ParallelCompressingIterator(compressionType, 
+                                               blocks, 
+                                               executor, 
+                                               maximumInFlightBlocks, 
+                                               maximumInFlightBytes);
+    }
+
     /**
      * Creates a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator.
      *
@@ -90,6 +237,78 @@ public final class BlockIterators {
         return new DecompressingIterator(blocks);
     }
 
+    /**
+     * Creates a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator.
+     *
+     * @param blocks the blocks to uncompress
+     * @param verification the way the checksums of the compressed blocks must be verified
+     * @return a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator.
+     */
+    public static ResourceIterator<DataBlock> decompress(ResourceIterator<DataBlock> blocks, 
+                                                         ChecksumVerification verification) {
+        return new DecompressingIterator(blocks, verification);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator into 
+     * buffers acquired from the specified pool. The uncompressed data of a block is only valid until the next 
+     * block is read or the iterator is closed.
+     *
+     * @param blocks the blocks to uncompress
+     * @param verification the way the checksums of the compressed blocks must be verified
+     * @param pool the pool from which the buffers receiving the uncompressed data must be acquired
+     * @return a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator.
+     */
+    public static ResourceIterator<DataBlock> decompress(ResourceIterator<DataBlock> blocks, 
+                                                         ChecksumVerification verification,
+                                                         BufferPool pool) {
+        return new DecompressingIterator(blocks, verification, pool);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator on the
+     * threads of the specified executor. The next blocks are uncompressed while the current one is being used.
+     *
+     * @param blocks the blocks to uncompress
+     * @param verification the way the checksums of the compressed blocks must be verified
+     * @param executor the executor used to uncompress the blocks
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed or waiting to be returned
+     * @return a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator.
+     */
+    public static ResourceIterator<DataBlock> decompress(ResourceIterator<DataBlock> blocks, 
+                                                         ChecksumVerification verification,
+                                                         Executor executor,
+                                                         int numberOfBlocksToReadAhead) {
+
+        return new ReadAheadDecompressingIterator(blocks, verification, executor, numberOfBlocksToReadAhead);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator into 
+     * buffers acquired from the specified pool on the threads of the specified executor. The next blocks are 
+     * uncompressed while the current one is being used. The uncompressed data of a block is only valid until 
+     * the next block is read or the iterator is closed.
+     *
+     * @param blocks the blocks to uncompress
+     * @param verification the way the checksums of the compressed blocks must be verified
+     * @param executor the executor used to uncompress the blocks
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed or waiting to be returned
+     * @param pool the pool from which the buffers receiving the uncompressed data must be acquired
+     * @return a <code>ResourceIterator</code> that uncompress the block returned by the specified iterator.
+     */
+    public static ResourceIterator<DataBlock> decompress(ResourceIterator<DataBlock> blocks, 
+                                                         ChecksumVerification verification,
+                                                         Executor executor,
+                                                         int numberOfBlocksToReadAhead,
+                                                         BufferPool pool) {
+
+        return new ReadAheadDecompressingIterator(blocks, 
+                                                  verification, 
+                                                  executor, 
+                                                  numberOfBlocksToReadAhead, 
+                                                  pool);
+    }
+
     /**
      * Creates a <code>ResourceIterator</code> to filter out the blocks that are not within the specified time ranges.
      *
@@ -105,6 +324,39 @@ public final class BlockIterators {
         return new BlockFilteringIterator(rangeSet, iterator);
     }
 
+    /**
+     * Creates a <code>ResourceIterator</code> to filter out the blocks for which the header shows that none of 
+     * the records can match the specified predicate.
+     *
+     * @param definition the time series definition
+     * @param predicate the predicate that the records must match
+     * @param iterator the iterator for which the blocks must be filtered out.
+     * @return an iterator that return only the blocks that may contain records matching the predicate.
+     */
+    public static ResourceIterator<DataBlock> filter(TimeSeriesDefinition definition, 
+                                                     Predicate predicate,
+                                                     ResourceIterator<DataBlock> iterator) {
+        return new BlockFilteringIterator(definition, predicate, iterator);
+    }
+
+    /**
+     * Creates a <code>ResourceIterator</code> that compacts the specified blocks into full, time ordered and 
+     * non overlapping blocks compressed with the compression type of the time series.
+     *
+     * @param definition the time series definition
+     * @param blocks the blocks to compact, in the order in which they have been written
+     * @param deduplicate <code>true</code> if only the last written record must be kept when multiple records 
+     * have the same timestamp and the same type, <code>false</code> otherwise.
+     * @return an iterator returning the compacted blocks
+     * @throws IOException if an I/O problem occurs
+     */
+    public static ResourceIterator<DataBlock> compact(TimeSeriesDefinition definition, 
+                                                      Iterable<DataBlock> blocks,
+                                                      boolean deduplicate) throws IOException {
+
+        return compress(definition.getCompressionType(), new CompactingIterator(definition, blocks, deduplicate));
+    }
+
     /**
      * Combines multiple iterators into a single iterator.
      *
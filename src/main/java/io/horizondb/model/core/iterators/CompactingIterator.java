@@ -0,0 +1,470 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.iterators;
+
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.BlockOverflowException;
+import io.horizondb.model.core.blocks.CompressionRatioEstimator;
+import io.horizondb.model.core.blocks.RecordAppender;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static io.horizondb.model.core.iterators.BlockIterators.singleton;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getFirstTimestampField;
+import static java.lang.String.format;
+
+/**
+ * A {@link DataBlock} iterator that merges the records of a set of possibly overlapping blocks into full, 
+ * time ordered and non overlapping blocks.
+ * <p>
+ * The records are merged with a k-way merge. The blocks are only decoded once the merge reaches their first 
+ * timestamp, so only the blocks overlapping the current position of the merge are held in memory.
+ * </p>
+ */
+final class CompactingIterator extends AbstractResourceIterator<DataBlock> {
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The blocks to compact sorted by first timestamp.
+     */
+    private final List<SourceBlock> blocks;
+
+    /**
+     * The index of the next block to open.
+     */
+    private int nextBlock;
+
+    /**
+     * The sources being merged ordered by the timestamp of their current record.
+     */
+    private final PriorityQueue<Source> sources;
+
+    /**
+     * <code>true</code> if the records with the same timestamp and the same type must be deduplicated.
+     */
+    private final boolean deduplicate;
+
+    /**
+     * The estimator used to size the new blocks by their compressed size.
+     */
+    private final CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+
+    /**
+     * The records waiting to be appended if the records must be deduplicated: the last record of each type 
+     * having the timestamp of the group.
+     */
+    private final TimeSeriesRecord[] group;
+
+    /**
+     * The types of the records of the group in the order in which they have been received.
+     */
+    private final int[] groupTypes;
+
+    /**
+     * The number of records within the group.
+     */
+    private int groupSize;
+
+    /**
+     * The timestamp in nanoseconds of the records within the group.
+     */
+    private long groupTimestamp;
+
+    /**
+     * The appender used to build the current block.
+     */
+    private RecordAppender appender;
+
+    /**
+     * <code>true</code> if records have been appended to the current block.
+     */
+    private boolean blockNotEmpty;
+
+    /**
+     * Creates a <code>CompactingIterator</code> that compacts the specified blocks.
+     * 
+     * @param definition the time series definition
+     * @param blocks the blocks to compact, in the order in which they have been written
+     * @param deduplicate <code>true</code> if only the last written record must be kept when multiple records 
+     * have the same timestamp and the same type, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    public CompactingIterator(TimeSeriesDefinition definition, 
+                              Iterable<DataBlock> blocks, 
+                              boolean deduplicate) throws IOException {
+
+        this.definition = definition;
+        this.deduplicate = deduplicate;
+        this.blocks = new ArrayList<>();
+
+        for (DataBlock block : blocks) {
+            this.blocks.add(new SourceBlock(this.blocks.size(), block));
+        }
+
+        // The sort is stable: the blocks with the same first timestamp stay in write order
+        Collections.sort(this.blocks);
+
+        this.sources = new PriorityQueue<>(Math.max(1, this.blocks.size()), new Comparator<Source>() {
+
+            @Override
+            public int compare(Source left, Source right) {
+
+                int comparison = Long.compare(left.timestamp, right.timestamp);
+
+                if (comparison == 0) {
+                    return Integer.compare(left.index, right.index);
+                }
+
+                return comparison;
+            }
+        });
+
+        this.group = definition.newRecords();
+        this.groupTypes = new int[this.group.length];
+        this.appender = newAppender();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void computeNext() throws IOException {
+
+        openOverlappingBlocks();
+
+        while (!this.sources.isEmpty()) {
+
+            Source source = this.sources.poll();
+            DataBlock block = add(source.current);
+
+            if (source.advance()) {
+                this.sources.add(source);
+            }
+
+            openOverlappingBlocks();
+
+            if (block != null) {
+                setNext(block);
+                return;
+            }
+        }
+
+        DataBlock block = flushGroup();
+
+        if (block != null) {
+
+            setNext(block);
+
+        } else if (this.blockNotEmpty) {
+
+            setNext(this.appender.getDataBlock());
+            this.blockNotEmpty = false;
+
+        } else {
+
+            done();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        IOException ioe = null;
+
+        for (Source source : this.sources) {
+
+            try {
+                source.close();
+            } catch (IOException e) {
+                if (ioe == null) {
+                    ioe = e;
+                }
+            }
+        }
+
+        this.sources.clear();
+        this.nextBlock = this.blocks.size();
+
+        if (ioe != null) {
+            throw ioe;
+        }
+    }
+
+    /**
+     * Opens the blocks starting before the current record of the merge.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void openOverlappingBlocks() throws IOException {
+
+        while (this.nextBlock < this.blocks.size()) {
+
+            SourceBlock block = this.blocks.get(this.nextBlock);
+
+            if (!this.sources.isEmpty() && block.firstTimestamp > this.sources.peek().timestamp) {
+                return;
+            }
+
+            Source source = new Source(this.definition, block);
+
+            if (source.advance()) {
+                this.sources.add(source);
+            }
+
+            this.nextBlock++;
+        }
+    }
+
+    /**
+     * Adds the specified record to the compacted blocks.
+     * 
+     * @param record the full record
+     * @return the block that has been completed or <code>null</code>.
+     * @throws IOException if an I/O problem occurs
+     */
+    private DataBlock add(TimeSeriesRecord record) throws IOException {
+
+        if (!this.deduplicate) {
+            return append(record);
+        }
+
+        long timestamp = record.getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+        DataBlock block = null;
+
+        if (this.groupSize > 0 && timestamp != this.groupTimestamp) {
+            block = flushGroup();
+        }
+
+        int type = record.getType();
+
+        // As the records with the same timestamp are merged in write order, the last one replaces the others.
+        if (!isInGroup(type)) {
+            this.groupTypes[this.groupSize++] = type;
+        }
+
+        record.copyTo(this.group[type]);
+        this.groupTimestamp = timestamp;
+
+        return block;
+    }
+
+    /**
+     * Checks if the group contains a record of the specified type.
+     * 
+     * @param type the record type
+     * @return <code>true</code> if the group contains a record of the specified type.
+     */
+    private boolean isInGroup(int type) {
+
+        for (int i = 0; i < this.groupSize; i++) {
+            if (this.groupTypes[i] == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the records of the group to the compacted blocks.
+     * 
+     * @return the block that has been completed or <code>null</code>.
+     * @throws IOException if an I/O problem occurs
+     */
+    private DataBlock flushGroup() throws IOException {
+
+        DataBlock block = null;
+
+        for (int i = 0; i < this.groupSize; i++) {
+
+            DataBlock completed = append(this.group[this.groupTypes[i]]);
+
+            if (completed != null) {
+                block = completed;
+            }
+        }
+
+        this.groupSize = 0;
+        return block;
+    }
+
+    /**
+     * Appends the specified record to the current block. If the block is full a new block is started.
+     * 
+     * @param record the full record to append
+     * @return the block that has been completed or <code>null</code>.
+     * @throws IOException if an I/O problem occurs
+     */
+    private DataBlock append(TimeSeriesRecord record) throws IOException {
+
+        if (this.appender.append(record)) {
+            this.blockNotEmpty = true;
+            return null;
+        }
+
+        DataBlock block = this.appender.getDataBlock();
+        this.appender = newAppender();
+
+        if (!this.appender.append(record)) {
+            throw new BlockOverflowException(format("The record %s is larger than a block.", record));
+        }
+
+        return block;
+    }
+
+    /**
+     * Creates a new appender to build the next block.
+     * 
+     * @return a new appender to build the next block.
+     */
+    private RecordAppender newAppender() {
+
+        return new RecordAppender(this.definition, 
+                                  Buffers.getDefaultAllocator(), 
+                                  this.definition.newRecords(), 
+                                  this.estimator);
+    }
+
+    /**
+     * A block to compact.
+     */
+    private static final class SourceBlock implements Comparable<SourceBlock> {
+
+        /**
+         * The position of the block in write order.
+         */
+        private final int index;
+
+        /**
+         * The block.
+         */
+        private final DataBlock block;
+
+        /**
+         * The timestamp in nanoseconds of the first record of the block.
+         */
+        private final long firstTimestamp;
+
+        /**
+         * Creates a new <code>SourceBlock</code>.
+         * 
+         * @param index the position of the block in write order
+         * @param block the block
+         * @throws IOException if an I/O problem occurs
+         */
+        public SourceBlock(int index, DataBlock block) throws IOException {
+            this.index = index;
+            this.block = block;
+            this.firstTimestamp = getFirstTimestampField(block.getHeader()).getTimestampInNanos();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compareTo(SourceBlock other) {
+            return Long.compare(this.firstTimestamp, other.firstTimestamp);
+        }
+    }
+
+    /**
+     * The records of a block being merged.
+     */
+    private static final class Source {
+
+        /**
+         * The position of the block in write order.
+         */
+        private final int index;
+
+        /**
+         * The iterator over the records of the block.
+         */
+        private final ResourceIterator<? extends Record> iterator;
+
+        /**
+         * The last full records of each type.
+         */
+        private final TimeSeriesRecord[] records;
+
+        /**
+         * The full version of the current record.
+         */
+        private TimeSeriesRecord current;
+
+        /**
+         * The timestamp in nanoseconds of the current record.
+         */
+        private long timestamp;
+
+        /**
+         * Creates a new <code>Source</code> for the specified block.
+         * 
+         * @param definition the time series definition
+         * @param block the block
+         * @throws IOException if an I/O problem occurs
+         */
+        public Source(TimeSeriesDefinition definition, SourceBlock block) throws IOException {
+
+            this.index = block.index;
+            this.iterator = new BinaryTimeSeriesRecordIterator(definition, singleton(block.block));
+            this.records = definition.newRecords();
+        }
+
+        /**
+         * Moves to the next record of the block.
+         * 
+         * @return <code>true</code> if the block has more records, <code>false</code> otherwise.
+         * @throws IOException if an I/O problem occurs
+         */
+        public boolean advance() throws IOException {
+
+            if (!this.iterator.hasNext()) {
+                this.iterator.close();
+                return false;
+            }
+
+            Record record = this.iterator.next();
+            this.current = (TimeSeriesRecord) record.inflate(this.records[record.getType()]);
+            this.timestamp = this.current.getTimestampInNanos(Record.TIMESTAMP_FIELD_INDEX);
+
+            return true;
+        }
+
+        /**
+         * Closes the iterator over the records of the block.
+         * 
+         * @throws IOException if an I/O problem occurs
+         */
+        public void close() throws IOException {
+            this.iterator.close();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.compression.CompressionType;
 import io.horizondb.io.compression.Compressor;
 import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Record;
 import io.horizondb.model.core.ResourceIterator;
 import io.horizondb.model.core.blocks.DefaultDataBlock;
 import io.horizondb.model.core.records.BlockHeaderUtils;
@@ -24,21 +25,39 @@ import io.horizondb.model.core.records.TimeSeriesRecord;
 
 import java.io.IOException;
 
+import static io.horizondb.model.core.records.BlockHeaderUtils.computeChecksum;
+import static io.horizondb.model.core.records.BlockHeaderUtils.setChecksum;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setCompressedBlockSize;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setCompressionType;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setUncompressedBlockSize;
+import static org.apache.commons.lang.Validate.isTrue;
 
 /**
  * A {@link DataBlock} iterator that compress the data of the blocks. 
- *
+ * <p>
+ * In adaptive mode, the blocks which do not compress well enough are stored uncompressed. The decision is first 
+ * taken on a sample of the block data so that the CPU is not spent on compressing the whole block if the sample 
+ * does not reach the minimum compression ratio.
+ * </p>
  */
 final class CompressingIterator extends ForwardingResourceIterator<DataBlock> {
 
+    /**
+     * The number of bytes used to trial-compress a sample of the block data in adaptive mode.
+     */
+    static final int SAMPLE_SIZE = 4096;
+
     /**
      * The compressor used to compress the data.
      */
     private final Compressor compressor;
 
+    /**
+     * The minimum ratio between the uncompressed and compressed sizes for a block to be stored compressed 
+     * or 0 if all the blocks must be compressed.
+     */
+    private final double minimumCompressionRatio;
+
     /**
      * The iterator to which are delegated the calls.
      */
@@ -52,8 +71,28 @@ final class CompressingIterator extends ForwardingResourceIterator<DataBlock> {
      * @param delegate the decorated iterator 
      */
     public CompressingIterator(CompressionType compressionType, ResourceIterator<DataBlock> delegate) {
+         this(compressionType, delegate, 0);
+    }
+
+    /**
+     * Creates a <code>CompressingIterator</code> that compress the data of the blocks returned by the specified 
+     * iterator only if the compression ratio reaches the specified minimum. The other blocks are stored 
+     * uncompressed.
+     * 
+     * @param compressionType the type of compression to use
+     * @param delegate the decorated iterator 
+     * @param minimumCompressionRatio the minimum ratio between the uncompressed and compressed sizes for a 
+     * block to be stored compressed or 0 if all the blocks must be compressed
+     */
+    public CompressingIterator(CompressionType compressionType, 
+                               ResourceIterator<DataBlock> delegate, 
+                               double minimumCompressionRatio) {
+
+         isTrue(minimumCompressionRatio >= 0, "the minimum compression ratio must not be negative.");
+
          this.compressor = compressionType.newCompressor();
          this.delegate = delegate;
+         this.minimumCompressionRatio = minimumCompressionRatio;
     }
 
     /**
@@ -72,15 +111,102 @@ final class CompressingIterator extends ForwardingResourceIterator<DataBlock> {
 
         DataBlock block = this.delegate.next();
 
+        if (this.minimumCompressionRatio == 0 || this.compressor.getType() == CompressionType.NONE) {
+            return compress(this.compressor, block);
+        }
+
+        return compressIfWorthIt(block);
+    }
+
+    /**
+     * Compresses the data of the specified block if its compression ratio reaches the minimum compression ratio, 
+     * stores it uncompressed otherwise.
+     * 
+     * @param block the block to compress
+     * @return the compressed or uncompressed block
+     * @throws IOException if an I/O problem occurs
+     */
+    private DataBlock compressIfWorthIt(DataBlock block) throws IOException {
+
+        ReadableBuffer data = block.getData();
+        int size = data.readableBytes();
+
+        if (size > SAMPLE_SIZE) {
+
+            ReadableBuffer sample = data.slice(data.readerIndex(), SAMPLE_SIZE);
+
+            if (!isWorthCompressing(SAMPLE_SIZE, this.compressor.compress(sample).readableBytes())) {
+                return store(block.getHeader(), block.getBloomFilters(), data.duplicate());
+            }
+        }
+
+        DataBlock compressedBlock = compress(this.compressor, new DefaultDataBlock(block.getHeader(), 
+                                                                                   block.getBloomFilters(),
+                                                                                   data.duplicate()));
+
+        if (!isWorthCompressing(size, compressedBlock.getData().readableBytes())) {
+            return store(block.getHeader(), block.getBloomFilters(), data.duplicate());
+        }
+
+        return compressedBlock;
+    }
+
+    /**
+     * Checks if the specified sizes reach the minimum compression ratio.
+     * 
+     * @param uncompressedSize the uncompressed size
+     * @param compressedSize the compressed size
+     * @return <code>true</code> if the minimum compression ratio is reached, <code>false</code> otherwise.
+     */
+    private boolean isWorthCompressing(int uncompressedSize, int compressedSize) {
+
+        return uncompressedSize >= this.minimumCompressionRatio * compressedSize;
+    }
+
+    /**
+     * Returns a block containing the specified data uncompressed.
+     * 
+     * @param blockHeader the header of the block
+     * @param bloomFilters the bloom filters of the block
+     * @param data the block data
+     * @return a block containing the specified data uncompressed
+     * @throws IOException if an I/O problem occurs
+     */
+    private static DataBlock store(Record blockHeader, 
+                                   ReadableBuffer bloomFilters, 
+                                   ReadableBuffer data) throws IOException {
+
+        TimeSeriesRecord header = blockHeader.toTimeSeriesRecord();
+        int blockSize = data.readableBytes();
+
+        setCompressionType(header, CompressionType.NONE);
+        setCompressedBlockSize(header, blockSize);
+        setUncompressedBlockSize(header, blockSize);
+        setChecksum(header, computeChecksum(bloomFilters, data));
+
+        return new DefaultDataBlock(header, bloomFilters, data);
+    }
+
+    /**
+     * Compresses the data of the specified block.
+     * 
+     * @param compressor the compressor used to compress the data
+     * @param block the block to compress
+     * @return the compressed block
+     * @throws IOException if an I/O problem occurs
+     */
+    static DataBlock compress(Compressor compressor, DataBlock block) throws IOException {
+
         TimeSeriesRecord header = block.getHeader().toTimeSeriesRecord();
         int blockSize = BlockHeaderUtils.getCompressedBlockSize(header);
 
-        ReadableBuffer compressedData = this.compressor.compress(block.getData());
+        ReadableBuffer compressedData = compressor.compress(block.getData());
 
-        setCompressionType(header, this.compressor.getType());
+        setCompressionType(header, compressor.getType());
         setCompressedBlockSize(header, compressedData.readableBytes());
         setUncompressedBlockSize(header, blockSize);
+        setChecksum(header, computeChecksum(block.getBloomFilters(), compressedData));
 
-        return new DefaultDataBlock(header, compressedData);
+        return new DefaultDataBlock(header, block.getBloomFilters(), compressedData);
     }
 }
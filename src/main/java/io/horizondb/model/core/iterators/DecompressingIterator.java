@@ -13,25 +13,34 @@
  */
 package io.horizondb.model.core.iterators;
 
+import io.horizondb.io.Buffer;
 import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.compression.CompressionType;
 import io.horizondb.io.compression.Decompressor;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.ChecksumVerification;
 import io.horizondb.model.core.blocks.DefaultDataBlock;
 import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.BufferDecompressor;
+import io.horizondb.model.core.util.BufferPool;
+import io.horizondb.model.core.util.PooledBuffer;
 
 import java.io.IOException;
 
 import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressionType;
 import static io.horizondb.model.core.records.BlockHeaderUtils.getUncompressedBlockSize;
 
+import static io.horizondb.model.core.records.BlockHeaderUtils.setChecksum;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setCompressedBlockSize;
 import static io.horizondb.model.core.records.BlockHeaderUtils.setCompressionType;
 
 /**
  * A {@link DataBlock} iterator that uncompress the data of the blocks. 
- *
+ * <p>
+ * If a pool is specified, the uncompressed data of each block is written into a buffer acquired from that pool, 
+ * which is released when the next block is read or when the iterator is closed.
+ * </p>
  */
 final class DecompressingIterator extends ForwardingResourceIterator<DataBlock> {
 
@@ -45,6 +54,28 @@ final class DecompressingIterator extends ForwardingResourceIterator<DataBlock>
      */
     private final ResourceIterator<DataBlock> delegate;
 
+    /**
+     * The way the checksums of the compressed blocks must be verified.
+     */
+    private final ChecksumVerification verification;
+
+    /**
+     * The pool from which the buffers receiving the uncompressed data are acquired or <code>null</code> if a 
+     * new buffer must be allocated for each block.
+     */
+    private final BufferPool pool;
+
+    /**
+     * The pooled buffer holding the uncompressed data of the last block returned or <code>null</code> if 
+     * the data of that block is not pooled.
+     */
+    private PooledBuffer buffer;
+
+    /**
+     * The number of blocks read.
+     */
+    private long numberOfBlocks;
+
     /**
      * Creates a <code>CompressingIterator</code> that compress the data of the blocks
      * returned by the specified iterator.
@@ -53,7 +84,35 @@ final class DecompressingIterator extends ForwardingResourceIterator<DataBlock>
      * @param delegate the decorated iterator 
      */
     public DecompressingIterator(ResourceIterator<DataBlock> delegate) {
+         this(delegate, ChecksumVerification.ALWAYS);
+    }
+
+    /**
+     * Creates a <code>DecompressingIterator</code> that uncompress the data of the blocks
+     * returned by the specified iterator.
+     * 
+     * @param delegate the decorated iterator 
+     * @param verification the way the checksums of the compressed blocks must be verified
+     */
+    public DecompressingIterator(ResourceIterator<DataBlock> delegate, ChecksumVerification verification) {
+         this(delegate, verification, null);
+    }
+
+    /**
+     * Creates a <code>DecompressingIterator</code> that uncompress the data of the blocks returned by the 
+     * specified iterator into buffers acquired from the specified pool.
+     * 
+     * @param delegate the decorated iterator 
+     * @param verification the way the checksums of the compressed blocks must be verified
+     * @param pool the pool from which the buffers receiving the uncompressed data must be acquired or 
+     * <code>null</code> if a new buffer must be allocated for each block
+     */
+    public DecompressingIterator(ResourceIterator<DataBlock> delegate, 
+                                 ChecksumVerification verification, 
+                                 BufferPool pool) {
          this.delegate = delegate;
+         this.verification = verification;
+         this.pool = pool;
     }
 
     /**
@@ -70,32 +129,138 @@ final class DecompressingIterator extends ForwardingResourceIterator<DataBlock>
     @Override
     public DataBlock next() throws IOException {
 
+        releaseBuffer();
+
         DataBlock block = this.delegate.next();
 
+        this.verification.verify(block, this.numberOfBlocks++);
+
         TimeSeriesRecord header = block.getHeader().toTimeSeriesRecord();
+        CompressionType compressionType = getCompressionType(header);
+
+        if (compressionType == CompressionType.NONE) {
+            return decompress(null, header, block.getBloomFilters(), block.getData());
+        }
+
+        createDecompressorIfNeeded(compressionType);
 
-        ReadableBuffer uncompressedData = decompress(header, block.getData());
+        Buffer destination = null;
+
+        if (this.pool != null) {
+            this.buffer = this.pool.acquire(getUncompressedBlockSize(header));
+            destination = this.buffer.getBuffer();
+        }
+
+        return decompress(this.decompressor, header, block.getBloomFilters(), block.getData(), destination);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        releaseBuffer();
+        super.close();
+    }
+
+    /**
+     * Uncompress the specified block data. If the data is not compressed it is passed through to avoid copying 
+     * it into a new buffer.
+     * 
+     * @param decompressor the decompressor matching the compression type of the block, ignored if the data is 
+     * not compressed
+     * @param header a copy of the block header that will be updated
+     * @param bloomFilters the block bloom filters, which are never compressed
+     * @param data the block data
+     * @return the uncompressed block
+     * @throws IOException if an I/O problem occurs.
+     */
+    static DataBlock decompress(Decompressor decompressor, 
+                                TimeSeriesRecord header, 
+                                ReadableBuffer bloomFilters,
+                                ReadableBuffer data) throws IOException {
+
+        return decompress(decompressor, header, bloomFilters, data, null);
+    }
+
+    /**
+     * Uncompress the specified block data into the specified buffer. If the data is not compressed it is passed 
+     * through and the buffer is not used.
+     * 
+     * @param decompressor the decompressor matching the compression type of the block, ignored if the data is 
+     * not compressed
+     * @param header a copy of the block header that will be updated
+     * @param bloomFilters the block bloom filters, which are never compressed
+     * @param data the block data
+     * @param destination the empty buffer receiving the uncompressed data or <code>null</code> if the 
+     * decompressor must allocate a new buffer
+     * @return the uncompressed block
+     * @throws IOException if an I/O problem occurs.
+     */
+    static DataBlock decompress(Decompressor decompressor, 
+                                TimeSeriesRecord header, 
+                                ReadableBuffer bloomFilters,
+                                ReadableBuffer data,
+                                Buffer destination) throws IOException {
+
+        if (getCompressionType(header) == CompressionType.NONE) {
+            return new DefaultDataBlock(header, bloomFilters, data);
+        }
+
+        // The checksum applies to the compressed data
+        setChecksum(header, 0);
+
+        ReadableBuffer uncompressedData = decompress(decompressor, 
+                                                     data, 
+                                                     getUncompressedBlockSize(header), 
+                                                     destination);
 
         setCompressionType(header, CompressionType.NONE);
         setCompressedBlockSize(header, uncompressedData.readableBytes());
 
-        return new DefaultDataBlock(header, uncompressedData);
+        return new DefaultDataBlock(header, bloomFilters, uncompressedData);
     }
-    
+
     /**
-     * Uncompress the specified block.
+     * Uncompress the specified data into the specified buffer, if any. The decompressors which cannot write into 
+     * a provided buffer allocate their own buffer, whose content is then copied.
      * 
-     * @param header the block header
-     * @param compressedBlock the compressed block
+     * @param decompressor the decompressor matching the compression type of the data
+     * @param data the compressed data
+     * @param uncompressedSize the size of the uncompressed data
+     * @param destination the empty buffer receiving the uncompressed data or <code>null</code> if the 
+     * decompressor must allocate a new buffer
      * @return the uncompressed data
      * @throws IOException if an I/O problem occurs.
      */
-    private ReadableBuffer decompress(TimeSeriesRecord header, ReadableBuffer compressedBlock) 
-            throws IOException {
+    private static ReadableBuffer decompress(Decompressor decompressor, 
+                                             ReadableBuffer data, 
+                                             int uncompressedSize,
+                                             Buffer destination) throws IOException {
+
+        if (destination == null) {
+            return decompressor.decompress(data, uncompressedSize);
+        }
 
-        createDecompressorIfNeeded(getCompressionType(header));
-        return this.decompressor.decompress(compressedBlock, 
-                                            getUncompressedBlockSize(header));
+        if (decompressor instanceof BufferDecompressor) {
+            ((BufferDecompressor) decompressor).decompress(data, destination);
+        } else {
+            destination.transfer(decompressor.decompress(data, uncompressedSize));
+        }
+
+        return destination.slice(0, destination.writerIndex());
+    }
+
+    /**
+     * Releases the pooled buffer holding the uncompressed data of the last block returned, if any.
+     */
+    private void releaseBuffer() {
+
+        if (this.buffer != null) {
+            this.buffer.release();
+            this.buffer = null;
+        }
     }
 
     /**
@@ -0,0 +1,364 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.iterators;
+
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.io.compression.Compressor;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.BinaryDataBlock;
+import io.horizondb.model.core.blocks.DefaultDataBlock;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.PooledBuffer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressedBlockSize;
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+/**
+ * A {@link DataBlock} iterator that compress the data of the blocks in parallel. The blocks are read ahead from 
+ * the decorated iterator and compressed by the specified executor but are returned in their original order.
+ * <p>
+ * The number of blocks read ahead is bounded by a maximum number of blocks and a maximum number of uncompressed 
+ * bytes. The bytes limit is checked before reading a block, so it can be exceeded by at most one block. 
+ * </p>
+ * <p>
+ * The header and data of each block are captured when the block is read ahead, so the decorated iterator can 
+ * reuse its block instance. If the data is held by a pooled buffer, the buffer is retained until the block has 
+ * been compressed or until the iterator is closed. Otherwise, the data must stay valid once the next block has 
+ * been read.
+ * </p>
+ */
+final class ParallelCompressingIterator implements ResourceIterator<DataBlock> {
+
+    /**
+     * The type of compression to use.
+     */
+    private final CompressionType compressionType;
+
+    /**
+     * The iterator returning the blocks to compress.
+     */
+    private final ResourceIterator<DataBlock> delegate;
+
+    /**
+     * The executor used to compress the blocks.
+     */
+    private final Executor executor;
+
+    /**
+     * The maximum number of blocks being compressed or waiting to be returned.
+     */
+    private final int maximumInFlightBlocks;
+
+    /**
+     * The maximum number of uncompressed bytes being compressed or waiting to be returned.
+     */
+    private final long maximumInFlightBytes;
+
+    /**
+     * The compressors which are not currently used by a compression task.
+     */
+    private final Queue<Compressor> compressors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The blocks being compressed or waiting to be returned, in their original order.
+     */
+    private final Deque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+
+    /**
+     * The number of uncompressed bytes of the pending blocks.
+     */
+    private long inFlightBytes;
+
+    /**
+     * Creates a <code>ParallelCompressingIterator</code> that compress the data of the blocks returned by the 
+     * specified iterator using the specified executor.
+     * 
+     * @param compressionType the type of compression to use
+     * @param delegate the decorated iterator
+     * @param executor the executor used to compress the blocks
+     * @param maximumInFlightBlocks the maximum number of blocks being compressed or waiting to be returned
+     * @param maximumInFlightBytes the maximum number of uncompressed bytes being compressed or waiting to be 
+     * returned
+     */
+    public ParallelCompressingIterator(CompressionType compressionType, 
+                                       ResourceIterator<DataBlock> delegate,
+                                       Executor executor,
+                                       int maximumInFlightBlocks,
+                                       long maximumInFlightBytes) {
+
+        notNull(executor, "the executor parameter must not be null.");
+        isTrue(maximumInFlightBlocks > 0, "the maximum number of in flight blocks must be greater than zero.");
+        isTrue(maximumInFlightBytes > 0, "the maximum number of in flight bytes must be greater than zero.");
+
+        this.compressionType = compressionType;
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maximumInFlightBlocks = maximumInFlightBlocks;
+        this.maximumInFlightBytes = maximumInFlightBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() throws IOException {
+
+        readAhead();
+        return !this.pendingBlocks.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataBlock next() throws IOException {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more blocks are available.");
+        }
+
+        PendingBlock pending = this.pendingBlocks.poll();
+        this.inFlightBytes -= pending.size;
+
+        DataBlock block = pending.get();
+
+        readAhead();
+
+        return block;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        for (PendingBlock pending : this.pendingBlocks) {
+            pending.cancel();
+        }
+
+        this.pendingBlocks.clear();
+        this.inFlightBytes = 0;
+        this.delegate.close();
+    }
+
+    /**
+     * Reads blocks from the decorated iterator and submits them for compression until one of the limits 
+     * is reached.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void readAhead() throws IOException {
+
+        while (this.pendingBlocks.size() < this.maximumInFlightBlocks 
+                && this.inFlightBytes < this.maximumInFlightBytes
+                && this.delegate.hasNext()) {
+
+            DataBlock block = this.delegate.next();
+
+            PooledBuffer buffer = null;
+
+            if (block instanceof BinaryDataBlock) {
+                buffer = ((BinaryDataBlock) block).retainBuffer();
+            }
+
+            TimeSeriesRecord header = block.getHeader().toTimeSeriesRecord();
+            ReadableBuffer data = block.getData().duplicate();
+            int size = getCompressedBlockSize(header);
+
+            PendingBlock pending = new PendingBlock(new DefaultDataBlock(header, block.getBloomFilters(), data), 
+                                                    size,
+                                                    buffer);
+
+            this.pendingBlocks.add(pending);
+            this.inFlightBytes += size;
+            this.executor.execute(pending.task);
+        }
+    }
+
+    /**
+     * Compress the specified block.
+     * 
+     * @param block the block to compress
+     * @return the compressed block
+     * @throws IOException if an I/O problem occurs
+     */
+    private DataBlock compress(DataBlock block) throws IOException {
+
+        Compressor compressor = acquireCompressor();
+
+        try {
+
+            return CompressingIterator.compress(compressor, block);
+
+        } finally {
+
+            this.compressors.offer(compressor);
+        }
+    }
+
+    /**
+     * Returns a compressor which is not used by another task.
+     * 
+     * @return a compressor which is not used by another task.
+     */
+    private Compressor acquireCompressor() {
+
+        Compressor compressor = this.compressors.poll();
+
+        if (compressor == null) {
+            return this.compressionType.newCompressor();
+        }
+
+        return compressor;
+    }
+
+    /**
+     * A block being compressed or waiting to be returned.
+     */
+    private final class PendingBlock {
+
+        /**
+         * The compression task.
+         */
+        private final FutureTask<DataBlock> task;
+
+        /**
+         * The uncompressed size of the block.
+         */
+        private final int size;
+
+        /**
+         * The pooled buffer holding the uncompressed data or <code>null</code> if the data is not pooled.
+         */
+        private final PooledBuffer buffer;
+
+        /**
+         * <code>true</code> once the task has been started or cancelled.
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * Creates a new <code>PendingBlock</code> for the specified block.
+         * 
+         * @param block the block to compress
+         * @param size the uncompressed size of the block
+         * @param buffer the pooled buffer holding the uncompressed data or <code>null</code> if the data is not 
+         * pooled
+         */
+        public PendingBlock(final DataBlock block, int size, PooledBuffer buffer) {
+
+            this.size = size;
+            this.buffer = buffer;
+            this.task = new FutureTask<>(new Callable<DataBlock>() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public DataBlock call() throws Exception {
+
+                    if (!PendingBlock.this.claimed.compareAndSet(false, true)) {
+                        return null;
+                    }
+
+                    try {
+
+                        return compress(block);
+
+                    } finally {
+
+                        releaseBuffer();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Cancels the task and releases the pooled buffer if the task has not yet started. A running task 
+         * releases the buffer once the block has been compressed.
+         */
+        public void cancel() {
+
+            this.task.cancel(false);
+
+            if (this.claimed.compareAndSet(false, true)) {
+                releaseBuffer();
+            }
+        }
+
+        /**
+         * Releases the pooled buffer holding the uncompressed data, if any.
+         */
+        private void releaseBuffer() {
+
+            if (this.buffer != null) {
+                this.buffer.release();
+            }
+        }
+
+        /**
+         * Waits for the compression of the block to complete and returns the compressed block.
+         * 
+         * @return the compressed block
+         * @throws IOException if the compression failed or if the thread was interrupted
+         */
+        public DataBlock get() throws IOException {
+
+            try {
+
+                return this.task.get();
+
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the compression of a block.");
+
+            } catch (ExecutionException e) {
+
+                Throwable cause = e.getCause();
+
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw new IOException(cause);
+            }
+        }
+    }
+}
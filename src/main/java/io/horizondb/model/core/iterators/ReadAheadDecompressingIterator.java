@@ -0,0 +1,454 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.iterators;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.io.compression.Decompressor;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.BinaryDataBlock;
+import io.horizondb.model.core.blocks.ChecksumVerification;
+import io.horizondb.model.core.blocks.DefaultDataBlock;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.BufferPool;
+import io.horizondb.model.core.util.PooledBuffer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressionType;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getUncompressedBlockSize;
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+/**
+ * A {@link DataBlock} iterator that uncompress the data of the next blocks on the threads of an executor while 
+ * the current block is being used. The blocks are returned in their original order.
+ * <p>
+ * The header and data of each block are captured when the block is read ahead, so the decorated iterator can 
+ * reuse its block instance. If the data is held by a pooled buffer, the buffer is retained until the block 
+ * returned by this iterator is no longer used, i.e. until the next call to <code>next</code> or the closing 
+ * of this iterator. Otherwise, the data must stay valid once the next block has been read. Closing the iterator 
+ * cancels the tasks that have not yet started and waits for the running ones.
+ * </p>
+ * <p>
+ * If a pool is specified, the uncompressed data of each block is written into a buffer acquired from that pool, 
+ * which is released at the same time as the buffer holding the compressed data.
+ * </p>
+ */
+final class ReadAheadDecompressingIterator implements ResourceIterator<DataBlock> {
+
+    /**
+     * The iterator returning the blocks to uncompress.
+     */
+    private final ResourceIterator<DataBlock> delegate;
+
+    /**
+     * The way the checksums of the compressed blocks must be verified.
+     */
+    private final ChecksumVerification verification;
+
+    /**
+     * The executor used to uncompress the blocks.
+     */
+    private final Executor executor;
+
+    /**
+     * The maximum number of blocks being uncompressed or waiting to be returned.
+     */
+    private final int numberOfBlocksToReadAhead;
+
+    /**
+     * The pool from which the buffers receiving the uncompressed data are acquired or <code>null</code> if a 
+     * new buffer must be allocated for each block.
+     */
+    private final BufferPool pool;
+
+    /**
+     * The decompressors which are not currently used by a task, per compression type.
+     */
+    private final Map<CompressionType, Queue<Decompressor>> decompressors = new EnumMap<>(CompressionType.class);
+
+    /**
+     * The blocks being uncompressed or waiting to be returned, in their original order.
+     */
+    private final Deque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+
+    /**
+     * The pooled buffer holding the data of the last block returned or <code>null</code> if the data of 
+     * that block is not pooled.
+     */
+    private PooledBuffer lastBuffer;
+
+    /**
+     * The pooled buffer holding the uncompressed data of the last block returned or <code>null</code> if 
+     * the uncompressed data of that block is not pooled.
+     */
+    private PooledBuffer lastUncompressedBuffer;
+
+    /**
+     * The number of blocks read.
+     */
+    private long numberOfBlocks;
+
+    /**
+     * Creates a <code>ReadAheadDecompressingIterator</code> that uncompress the data of the blocks returned by 
+     * the specified iterator using the specified executor.
+     * 
+     * @param delegate the decorated iterator
+     * @param verification the way the checksums of the compressed blocks must be verified
+     * @param executor the executor used to uncompress the blocks
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed or waiting to be returned
+     */
+    public ReadAheadDecompressingIterator(ResourceIterator<DataBlock> delegate,
+                                          ChecksumVerification verification,
+                                          Executor executor,
+                                          int numberOfBlocksToReadAhead) {
+
+        this(delegate, verification, executor, numberOfBlocksToReadAhead, null);
+    }
+
+    /**
+     * Creates a <code>ReadAheadDecompressingIterator</code> that uncompress the data of the blocks returned by 
+     * the specified iterator into buffers acquired from the specified pool using the specified executor.
+     * 
+     * @param delegate the decorated iterator
+     * @param verification the way the checksums of the compressed blocks must be verified
+     * @param executor the executor used to uncompress the blocks
+     * @param numberOfBlocksToReadAhead the maximum number of blocks being uncompressed or waiting to be returned
+     * @param pool the pool from which the buffers receiving the uncompressed data must be acquired or 
+     * <code>null</code> if a new buffer must be allocated for each block
+     */
+    public ReadAheadDecompressingIterator(ResourceIterator<DataBlock> delegate,
+                                          ChecksumVerification verification,
+                                          Executor executor,
+                                          int numberOfBlocksToReadAhead,
+                                          BufferPool pool) {
+
+        notNull(executor, "the executor parameter must not be null.");
+        isTrue(numberOfBlocksToReadAhead > 0, "the number of blocks to read ahead must be greater than zero.");
+
+        this.delegate = delegate;
+        this.verification = verification;
+        this.executor = executor;
+        this.numberOfBlocksToReadAhead = numberOfBlocksToReadAhead;
+        this.pool = pool;
+
+        for (CompressionType compressionType : CompressionType.values()) {
+            this.decompressors.put(compressionType, new ConcurrentLinkedQueue<Decompressor>());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() throws IOException {
+
+        readAhead();
+        return !this.pendingBlocks.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataBlock next() throws IOException {
+
+        releaseLastBuffer();
+
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more blocks are available.");
+        }
+
+        PendingBlock pending = this.pendingBlocks.poll();
+        this.lastBuffer = pending.buffer;
+
+        DataBlock block = pending.get();
+        this.lastUncompressedBuffer = pending.uncompressedBuffer;
+
+        readAhead();
+
+        return block;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        releaseLastBuffer();
+
+        for (PendingBlock pending : this.pendingBlocks) {
+            pending.cancel();
+        }
+
+        this.pendingBlocks.clear();
+        this.delegate.close();
+    }
+
+    /**
+     * Reads blocks from the decorated iterator and submits them for decompression until the maximum number 
+     * of blocks has been read ahead.
+     * 
+     * @throws IOException if an I/O problem occurs
+     */
+    private void readAhead() throws IOException {
+
+        while (this.pendingBlocks.size() < this.numberOfBlocksToReadAhead && this.delegate.hasNext()) {
+
+            DataBlock block = this.delegate.next();
+
+            PooledBuffer buffer = null;
+
+            if (block instanceof BinaryDataBlock) {
+                buffer = ((BinaryDataBlock) block).retainBuffer();
+            }
+
+            TimeSeriesRecord header = block.getHeader().toTimeSeriesRecord();
+            ReadableBuffer data = block.getData().duplicate();
+
+            PendingBlock pending = new PendingBlock(new DefaultDataBlock(header, 
+                                                                          block.getBloomFilters(), 
+                                                                          data), 
+                                                    this.numberOfBlocks++, 
+                                                    buffer);
+
+            this.pendingBlocks.add(pending);
+            this.executor.execute(pending.task);
+        }
+    }
+
+    /**
+     * Releases the pooled buffers holding the compressed and uncompressed data of the last block returned, if any.
+     */
+    private void releaseLastBuffer() {
+
+        if (this.lastBuffer != null) {
+            this.lastBuffer.release();
+            this.lastBuffer = null;
+        }
+
+        if (this.lastUncompressedBuffer != null) {
+            this.lastUncompressedBuffer.release();
+            this.lastUncompressedBuffer = null;
+        }
+    }
+
+    /**
+     * Uncompress the specified block.
+     * 
+     * @param block the block to uncompress
+     * @param index the index of the block within the iteration
+     * @param pending the pending block holding the pooled buffer receiving the uncompressed data
+     * @return the uncompressed block
+     * @throws IOException if an I/O problem occurs
+     */
+    private DataBlock decompress(DataBlock block, long index, PendingBlock pending) throws IOException {
+
+        this.verification.verify(block, index);
+
+        TimeSeriesRecord header = block.getHeader().toTimeSeriesRecord();
+        CompressionType compressionType = getCompressionType(header);
+
+        if (compressionType == CompressionType.NONE) {
+            return DecompressingIterator.decompress(null, header, block.getBloomFilters(), block.getData());
+        }
+
+        Buffer destination = null;
+
+        if (this.pool != null) {
+            pending.uncompressedBuffer = this.pool.acquire(getUncompressedBlockSize(header));
+            destination = pending.uncompressedBuffer.getBuffer();
+        }
+
+        Decompressor decompressor = acquireDecompressor(compressionType);
+
+        try {
+
+            return DecompressingIterator.decompress(decompressor, 
+                                                    header, 
+                                                    block.getBloomFilters(), 
+                                                    block.getData(),
+                                                    destination);
+
+        } catch (IOException | RuntimeException e) {
+
+            pending.releaseUncompressedBuffer();
+            throw e;
+
+        } finally {
+
+            this.decompressors.get(compressionType).offer(decompressor);
+        }
+    }
+
+    /**
+     * Returns a decompressor of the specified type which is not used by another task.
+     * 
+     * @param compressionType the compression type
+     * @return a decompressor of the specified type which is not used by another task.
+     * @throws IOException if an I/O problem occurs
+     */
+    private Decompressor acquireDecompressor(CompressionType compressionType) throws IOException {
+
+        Decompressor decompressor = this.decompressors.get(compressionType).poll();
+
+        if (decompressor == null) {
+            return compressionType.newDecompressor();
+        }
+
+        return decompressor;
+    }
+
+    /**
+     * A block being uncompressed or waiting to be returned.
+     */
+    private final class PendingBlock {
+
+        /**
+         * The decompression task.
+         */
+        private final FutureTask<DataBlock> task;
+
+        /**
+         * The pooled buffer holding the compressed data or <code>null</code> if the data is not pooled.
+         */
+        private final PooledBuffer buffer;
+
+        /**
+         * The pooled buffer receiving the uncompressed data or <code>null</code> if the uncompressed data is not 
+         * pooled. It is set by the task and must only be read once the task has completed.
+         */
+        private PooledBuffer uncompressedBuffer;
+
+        /**
+         * <code>true</code> once the task has been started or cancelled.
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * Creates a new <code>PendingBlock</code> for the specified block.
+         * 
+         * @param block the block to uncompress
+         * @param index the index of the block within the iteration
+         * @param buffer the pooled buffer holding the compressed data or <code>null</code> if the data is not 
+         * pooled
+         */
+        public PendingBlock(final DataBlock block, final long index, PooledBuffer buffer) {
+
+            this.buffer = buffer;
+            this.task = new FutureTask<>(new Callable<DataBlock>() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public DataBlock call() throws Exception {
+
+                    if (!PendingBlock.this.claimed.compareAndSet(false, true)) {
+                        return null;
+                    }
+
+                    return decompress(block, index, PendingBlock.this);
+                }
+            });
+        }
+
+        /**
+         * Cancels the task if it has not yet started or waits for its completion otherwise, then releases 
+         * the pooled buffers.
+         */
+        public void cancel() {
+
+            if (!this.claimed.compareAndSet(false, true)) {
+
+                try {
+                    get();
+                } catch (IOException | RuntimeException e) {
+                    // The result of the task is discarded.
+                }
+            }
+
+            if (this.buffer != null) {
+                this.buffer.release();
+            }
+
+            releaseUncompressedBuffer();
+        }
+
+        /**
+         * Releases the pooled buffer receiving the uncompressed data, if any.
+         */
+        public void releaseUncompressedBuffer() {
+
+            if (this.uncompressedBuffer != null) {
+                this.uncompressedBuffer.release();
+                this.uncompressedBuffer = null;
+            }
+        }
+
+        /**
+         * Waits for the decompression of the block to complete and returns the uncompressed block.
+         * 
+         * @return the uncompressed block
+         * @throws IOException if the decompression failed or if the thread was interrupted
+         */
+        public DataBlock get() throws IOException {
+
+            try {
+
+                return this.task.get();
+
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the decompression of a block.");
+
+            } catch (ExecutionException e) {
+
+                Throwable cause = e.getCause();
+
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@ package io.horizondb.model.core.predicates;
 import io.horizondb.io.ByteReader;
 import io.horizondb.io.serialization.Parser;
 import io.horizondb.model.core.Predicate;
+import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Filter;
 import io.horizondb.model.core.Record;
@@ -122,6 +123,14 @@ final class AndPredicate extends LogicalPredicate {
     public Filter<Record> toFilter(TimeSeriesDefinition definition) {
         return Filters.and(this.left.toFilter(definition), this.right.toFilter(definition));
     }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean mayMatch(TimeSeriesDefinition definition, DataBlock block) throws IOException {
+        return this.left.mayMatch(definition, block) && this.right.mayMatch(definition, block);
+    }
     
     /**
      * {@inheritDoc}
@@ -126,6 +126,15 @@ final class BetweenPredicate extends FieldPredicate {
             return TimestampField.ALL;
         }
 
+        return getValueRanges();
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    protected RangeSet<Field> getValueRanges() {
+
         if (this.max.compareTo(this.min) < 0) {
             return ImmutableRangeSet.of();
         }
@@ -18,10 +18,13 @@ import java.util.TimeZone;
 
 import io.horizondb.io.ByteReader;
 import io.horizondb.io.ByteWriter;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Predicate;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Record;
 import io.horizondb.model.core.fields.ImmutableField;
+import io.horizondb.model.schema.FieldDefinition;
 import io.horizondb.model.schema.FieldType;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 import org.apache.commons.lang.builder.EqualsBuilder;
@@ -29,6 +32,13 @@ import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 
+import com.google.common.collect.RangeSet;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRange;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRecordCount;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getZoneMap;
+import static io.horizondb.model.core.records.BlockHeaderUtils.hasBloomFilters;
+
 /**
  * Base class for predicate applying to one field.
  */
@@ -67,6 +77,83 @@ public abstract class FieldPredicate implements Predicate {
         return Record.TIMESTAMP_FIELD_NAME.equals(this.fieldName);
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean mayMatch(TimeSeriesDefinition definition, DataBlock block) throws IOException {
+
+        Record header = block.getHeader();
+        RangeSet<Field> ranges = getValueRanges();
+        ReadableBuffer bloomFilters = null;
+
+        if (isTimestamp()) {
+            return !ranges.subRangeSet(getRange(header)).isEmpty();
+        }
+
+        for (int type = 0, m = definition.getNumberOfRecordTypes(); type < m; type++) {
+
+            int fieldIndex = definition.getFieldIndex(type, this.fieldName);
+
+            if (fieldIndex < 0 || getRecordCount(header, type) == 0) {
+                continue;
+            }
+
+            int zoneMapIndex = definition.getZoneMapIndex(type, fieldIndex);
+
+            if (zoneMapIndex >= 0 && ranges.subRangeSet(getZoneMap(header, zoneMapIndex)).isEmpty()) {
+                continue;
+            }
+
+            int bloomFilterOffset = definition.getBloomFilterOffset(type, fieldIndex);
+
+            if (bloomFilterOffset < 0 || !hasBloomFilters(header)) {
+                return true;
+            }
+
+            if (bloomFilters == null) {
+                bloomFilters = block.getBloomFilters();
+            }
+
+            if (mayMatchBloomFilter(bloomFilters, bloomFilterOffset, definition.getBloomFilterLength())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks, using the bloom filter stored at the specified offset of the block bloom filters, if some records 
+     * of the block may satisfy this predicate.
+     * 
+     * @param bloomFilters the bloom filters of the block
+     * @param offset the offset of the bloom filter within the bloom filters of the block
+     * @param length the length in bytes of the bloom filter
+     * @return <code>false</code> if none of the records of the block can satisfy this predicate, 
+     * <code>true</code> otherwise.
+     */
+    protected boolean mayMatchBloomFilter(ReadableBuffer bloomFilters, int offset, int length) {
+        return true;
+    }
+
+    /**
+     * Checks if the specified value can be looked up within the bloom filters.
+     * 
+     * @param value the value
+     * @return <code>true</code> if the specified value can be looked up within the bloom filters.
+     */
+    protected static final boolean isBloomFilterCompatible(Field value) {
+        return FieldDefinition.supportsBloomFilter(value.getType());
+    }
+
+    /**
+     * Returns the ranges of values accepted by this predicate.
+     * 
+     * @return the ranges of values accepted by this predicate.
+     */
+    protected abstract RangeSet<Field> getValueRanges();
+
     /**
      * Returns a new field instance. 
      * 
@@ -15,6 +15,7 @@ package io.horizondb.model.core.predicates;
 
 import io.horizondb.io.ByteReader;
 import io.horizondb.io.ByteWriter;
+import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.encoding.VarInts;
 import io.horizondb.io.serialization.Parser;
 import io.horizondb.model.core.Field;
@@ -37,6 +38,7 @@ import com.google.common.collect.RangeSet;
 import static io.horizondb.model.core.filters.Filters.in;
 import static io.horizondb.model.core.filters.Filters.not;
 import static io.horizondb.model.core.filters.Filters.toRecordFilter;
+import static io.horizondb.model.core.records.BlockHeaderUtils.mightContain;
 
 /**
  * An IN predicate.
@@ -126,6 +128,15 @@ final class InPredicate extends FieldPredicate {
             return TimestampField.ALL;
         }
         
+        return getValueRanges();
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    protected RangeSet<Field> getValueRanges() {
+        
         ImmutableRangeSet.Builder<Field> builder = ImmutableRangeSet.builder();
  
         for (Field field : this.values) {
@@ -142,6 +153,26 @@ final class InPredicate extends FieldPredicate {
         return rangeSet;
     }
 
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean mayMatchBloomFilter(ReadableBuffer bloomFilters, int offset, int length) {
+
+        if (this.notIn) {
+            return true;
+        }
+
+        for (Field field : this.values) {
+
+            if (!isBloomFilterCompatible(field) || mightContain(bloomFilters, offset, length, field.getLong())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**    
      * {@inheritDoc}
      */
@@ -16,6 +16,7 @@ package io.horizondb.model.core.predicates;
 import io.horizondb.io.ByteReader;
 import io.horizondb.io.ByteWriter;
 import io.horizondb.io.serialization.Parser;
+import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Filter;
 import io.horizondb.model.core.Predicate;
@@ -105,6 +106,14 @@ final class NoopPredicate implements Predicate {
         return Filters.noop();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean mayMatch(TimeSeriesDefinition definition, DataBlock block) {
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -15,6 +15,7 @@ package io.horizondb.model.core.predicates;
 
 import io.horizondb.io.ByteReader;
 import io.horizondb.io.serialization.Parser;
+import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Filter;
 import io.horizondb.model.core.Predicate;
@@ -114,6 +115,14 @@ final class OrPredicate extends LogicalPredicate {
         return Filters.or(this.left.toFilter(definition), this.right.toFilter(definition));
     }
 
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean mayMatch(TimeSeriesDefinition definition, DataBlock block) throws IOException {
+        return this.left.mayMatch(definition, block) || this.right.mayMatch(definition, block);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -15,6 +15,7 @@ package io.horizondb.model.core.predicates;
 
 import io.horizondb.io.ByteReader;
 import io.horizondb.io.ByteWriter;
+import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.encoding.VarInts;
 import io.horizondb.io.serialization.Parser;
 import io.horizondb.model.core.Field;
@@ -32,6 +33,8 @@ import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import com.google.common.collect.RangeSet;
 
+import static io.horizondb.model.core.records.BlockHeaderUtils.mightContain;
+
 /**
  * A simple predicate used to compare a field to given value.
  */
@@ -120,9 +123,31 @@ final class SimplePredicate extends FieldPredicate {
             return TimestampField.ALL;
         }
         
+        return getValueRanges();
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    protected RangeSet<Field> getValueRanges() {
+        
         return this.operator.getRangeSet(this.value);
     }
 
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean mayMatchBloomFilter(ReadableBuffer bloomFilters, int offset, int length) {
+
+        if (this.operator != Operator.EQ || !isBloomFilterCompatible(this.value)) {
+            return true;
+        }
+
+        return mightContain(bloomFilters, offset, length, this.value.getLong());
+    }
+
     /**    
      * {@inheritDoc}
      */
@@ -16,8 +16,10 @@
 package io.horizondb.model.core.records;
 
 import io.horizondb.io.BitSet;
+import io.horizondb.io.Buffer;
 import io.horizondb.io.ByteWriter;
 import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
 import io.horizondb.io.encoding.VarInts;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.schema.FieldType;
@@ -44,9 +46,26 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
     private boolean delta;
 
     /**
-     * The index marking the position of the next non-deserialized field.
+     * The number of fields for which the position within the buffer is known.
      */
-    private int deserializationIndex;
+    private int scanIndex;
+
+    /**
+     * The fields which are present within the buffer, one bit per field. The fields which are not present 
+     * have a zero value. A record has at most 63 fields as the bit set is stored as a varlong with the delta flag.
+     */
+    private long presentFields;
+
+    /**
+     * The fields which have been deserialized, one bit per field.
+     */
+    private long deserializedFields;
+
+    /**
+     * <code>true</code> if this record has been filled with already decoded fields which have not yet been 
+     * serialized into the buffer.
+     */
+    private boolean serializationPending;
 
     /**
      * The binary data to read from.
@@ -100,11 +119,18 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
 
         this.bitSetDeserialized = record.bitSetDeserialized;
         this.delta = record.delta;
-        this.deserializationIndex = record.deserializationIndex;
-        this.buffer = record.buffer.duplicate();
-        this.buffer.readerIndex(record.buffer.readerIndex());
-        this.bufferSize = record.bufferSize;
-        this.fieldPositions = new int[record.fields.length];
+        this.scanIndex = record.scanIndex;
+        this.presentFields = record.presentFields;
+        this.deserializedFields = record.deserializedFields;
+        this.serializationPending = record.serializationPending;
+
+        if (!record.serializationPending) {
+            this.buffer = record.buffer.duplicate();
+            this.buffer.readerIndex(record.buffer.readerIndex());
+            this.bufferSize = record.bufferSize;
+        }
+
+        this.fieldPositions = record.fieldPositions.clone();
     }
 
     /**
@@ -118,7 +144,9 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
     public BinaryTimeSeriesRecord fill(ReadableBuffer reader) {
 
         this.bitSetDeserialized = false;
-        this.deserializationIndex = 0;
+        this.scanIndex = 0;
+        this.deserializedFields = 0;
+        this.serializationPending = false;
 
         this.buffer = reader;
         this.bufferSize = reader.readableBytes();
@@ -126,6 +154,28 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
         return this;
     }
 
+    /**
+     * Fills this record with the values of the specified record. The field values are copied as they are and 
+     * the binary representation of this record is only computed if it is requested.
+     * 
+     * @param record the record containing the decoded values
+     * @return this record
+     * @throws IOException if an I/O problem occurs
+     */
+    public BinaryTimeSeriesRecord fill(TimeSeriesRecord record) throws IOException {
+
+        for (int i = 0; i < this.fields.length; i++) {
+            record.getField(i).copyTo(this.fields[i]);
+        }
+
+        this.delta = record.isDelta();
+        this.bitSetDeserialized = true;
+        this.deserializedFields = -1L;
+        this.serializationPending = true;
+
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -151,7 +201,8 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
      */
     @Override
     public int getFieldLengthInBytes(int index) throws IOException {
-        deserializedFieldIfNeeded(index);
+        serializeIfNeeded();
+        scanFieldsIfNeeded(index);
         return getFieldPosition(index + 1) - getFieldPosition(index);
     }
 
@@ -163,7 +214,8 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
      * @throws IOException if the <code>Field</code> bytes cannot be read
      */
     public ReadableBuffer getFieldBytes(int index) throws IOException {
-        deserializedFieldIfNeeded(index);
+        serializeIfNeeded();
+        scanFieldsIfNeeded(index);
         return this.buffer.slice(getFieldPosition(index), getFieldLengthInBytes(index));
     }
 
@@ -181,7 +233,9 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
     @Override
     public Field[] getFields() throws IOException {
 
-        deserializedFieldIfNeeded(this.fields.length - 1);
+        for (int i = 0; i < this.fields.length; i++) {
+            deserializedFieldIfNeeded(i);
+        }
 
         return this.fields;
     }
@@ -192,8 +246,11 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
     @Override
     public void writeTo(ByteWriter writer) throws IOException {
 
+        serializeIfNeeded();
+
         this.bitSetDeserialized = false;
-        this.deserializationIndex = 0;
+        this.scanIndex = 0;
+        this.deserializedFields = 0;
 
         this.buffer.readerIndex(0);
 
@@ -231,7 +288,15 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
     @Override
     public int computeSerializedSize() {
 
-        return this.bufferSize;
+        try {
+
+            serializeIfNeeded();
+            return this.bufferSize;
+
+        } catch (IOException e) {
+            // Should never happen as the fields are serialized within a heap buffer.
+            throw new IllegalStateException(e);
+        }
     }
 
     /**    
@@ -240,6 +305,7 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
     @Override
     public BitSet getBitSet() throws IOException {   
         
+        serializeIfNeeded();
         deserializedBitSetIfNeeded();
         return this.bitSet;
     }
@@ -252,6 +318,7 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
      */
     public int getBitSetLengthInBytes() throws IOException  {
         
+        serializeIfNeeded();
         deserializedBitSetIfNeeded();
         return this.fieldPositions[0];
     }
@@ -260,30 +327,123 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
      * Returns the underlying buffer.
      * 
      * @return the underlying buffer.
+     * @throws IOException if a problem occurs while serializing the fields.
      */
-    ReadableBuffer getBuffer() {
+    ReadableBuffer getBuffer() throws IOException {
+        serializeIfNeeded();
         return this.buffer;
     }
+
+    /**
+     * Serializes the decoded fields into a new buffer if this record has been filled with decoded fields and 
+     * its binary representation has not been computed yet.
+     * 
+     * @throws IOException if a problem occurs while serializing the fields.
+     */
+    private void serializeIfNeeded() throws IOException {
+
+        if (!this.serializationPending) {
+            return;
+        }
+
+        this.bitSet.reset();
+        this.bitSet.writeBit(this.delta);
+
+        for (int i = 0; i < this.fields.length; i++) {
+            this.bitSet.writeBit(!this.fields[i].isZero());
+        }
+
+        this.bitSet.readBit(); // skip isDelta
+        long bits = this.bitSet.toLong();
+
+        int size = VarInts.computeUnsignedLongSize(bits);
+
+        for (int i = 0; i < this.fields.length; i++) {
+            if (!this.fields[i].isZero()) {
+                size += this.fields[i].computeSerializedSize();
+            }
+        }
+
+        Buffer serialized = Buffers.allocate(size);
+        VarInts.writeUnsignedLong(serialized, bits);
+
+        for (int i = 0; i < this.fields.length; i++) {
+            if (!this.fields[i].isZero()) {
+                this.fields[i].writeTo(serialized);
+            }
+        }
+
+        this.buffer = serialized;
+        this.bufferSize = size;
+        this.bitSetDeserialized = false;
+        this.scanIndex = 0;
+        this.serializationPending = false;
+    }
     
     /**
-     * Deserializes the specified <code>Field</code> if it has not already been deserialized.
+     * Deserializes the specified <code>Field</code> if it has not already been deserialized. The preceding 
+     * fields are skipped without being deserialized.
      * 
      * @param index the field index
      * @throws IOException if a problem occurs while deserializing the <code>Field</code>.
      */
     private void deserializedFieldIfNeeded(int index) throws IOException {
 
+        long mask = 1L << index;
+
+        if ((this.deserializedFields & mask) != 0) {
+            return;
+        }
+
+        scanFieldsIfNeeded(index - 1);
+
+        Field field = this.fields[index];
+        int position = this.fieldPositions[index];
+
+        if ((this.presentFields & mask) != 0) {
+
+            this.buffer.readerIndex(position);
+            field.readFrom(this.buffer);
+            position = this.buffer.readerIndex();
+
+        } else {
+
+            field.setValueToZero();
+        }
+
+        if (this.scanIndex == index) {
+            this.scanIndex++;
+            this.fieldPositions[this.scanIndex] = position;
+        }
+
+        this.deserializedFields |= mask;
+    }
+
+    /**
+     * Computes the positions within the buffer of the fields up to the specified one, if they are not already 
+     * known, by skipping the serialized fields without deserializing them.
+     * 
+     * @param index the index of the last field for which the position must be known
+     * @throws IOException if a problem occurs while reading the buffer.
+     */
+    private void scanFieldsIfNeeded(int index) throws IOException {
+
         deserializedBitSetIfNeeded();
-        while (this.deserializationIndex <= index) {
 
-            if (this.bitSet.readBit()) {
-                this.fields[this.deserializationIndex].readFrom(this.buffer);
-            } else {
-                this.fields[this.deserializationIndex].setValueToZero();
+        if (this.scanIndex > index) {
+            return;
+        }
+
+        this.buffer.readerIndex(this.fieldPositions[this.scanIndex]);
+
+        while (this.scanIndex <= index) {
+
+            if ((this.presentFields & (1L << this.scanIndex)) != 0) {
+                this.fields[this.scanIndex].getType().skip(this.buffer);
             }
 
-            this.deserializationIndex++;
-            this.fieldPositions[this.deserializationIndex] = this.buffer.readerIndex();
+            this.scanIndex++;
+            this.fieldPositions[this.scanIndex] = this.buffer.readerIndex();
         }
     }
 
@@ -299,6 +459,15 @@ public class BinaryTimeSeriesRecord extends AbstractTimeSeriesRecord {
             this.buffer.readerIndex(0);
             this.bitSet.fill(VarInts.readUnsignedLong(this.buffer));
             this.delta = this.bitSet.readBit();
+
+            this.presentFields = 0;
+
+            for (int i = 0; i < this.fields.length; i++) {
+                if (this.bitSet.getBit(i + 1)) {
+                    this.presentFields |= 1L << i;
+                }
+            }
+
             this.fieldPositions[0] = this.buffer.readerIndex();
             this.bitSetDeserialized = true;
         }
@@ -103,6 +103,18 @@ public final class BlockHeaderBuilder {
         return this;
     }
     
+    /**
+     * Sets the checksum of the block data. 
+     *     
+     * @param checksum the checksum of the block data
+     * @return this <code>BlockHeaderBuilder</code>.
+     */
+    public BlockHeaderBuilder checksum(int checksum) {
+        
+        BlockHeaderUtils.setChecksum(this.header, checksum);
+        return this;
+    }
+    
     /**
      * Sets the number of records of the specified type. 
      *     
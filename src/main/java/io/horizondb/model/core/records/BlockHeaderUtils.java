@@ -13,14 +13,21 @@
  */
 package io.horizondb.model.core.records;
 
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
 import io.horizondb.io.compression.CompressionType;
 import io.horizondb.model.core.Counter;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Record;
+import io.horizondb.model.core.fields.DecimalField;
 import io.horizondb.model.core.fields.ImmutableField;
+import io.horizondb.model.core.fields.LongField;
 import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
+import java.util.zip.CRC32;
 
 import com.google.common.collect.Range;
 
@@ -28,6 +35,14 @@ import static io.horizondb.model.core.Record.TIMESTAMP_FIELD_INDEX;
 
 /**
  * Utility methods to work with block header.
+ * <p>
+ * The positions of the header fields are part of the storage format: the first timestamp, the last timestamp, 
+ * the compressed size, the uncompressed size and the compression type are followed by the record counters, 
+ * by the optional segment offsets, zone maps, sums and keyframe index and, as last fields, by the checksum and 
+ * the flags. The fields missing from the headers written before a field was appended are read as 0, which is why 
+ * 0 means that the block has no checksum and that none of the flags is set. Any new field must be appended, 
+ * the existing positions must not change.
+ * </p>
  */
 public final class BlockHeaderUtils {
 
@@ -52,10 +67,41 @@ public final class BlockHeaderUtils {
     public static final int COMPRESSION_TYPE_INDEX = 4;
 
     /**
-     * The offset of the counter indices.
+     * The offset of the counter indices. Changing it changes the storage format of the blocks.
      */
     public static final int RECORD_COUNTERS_OFFSET = 5;
 
+    /**
+     * The maximum number of entries of the keyframe index.
+     */
+    public static final int KEYFRAME_INDEX_LENGTH = 8;
+
+    /**
+     * The flag marking the blocks whose time range may overlap the one of the blocks written before them.
+     */
+    private static final int OVERLAPPING_FLAG = 1;
+
+    /**
+     * The flag marking the blocks whose header is followed by the bloom filters of the block.
+     */
+    private static final int BLOOM_FILTERS_FLAG = 2;
+
+    /**
+     * The size of the chunks in which the data is read to compute the checksums.
+     */
+    private static final int CHECKSUM_CHUNK_SIZE = 4096;
+
+    /**
+     * The false positive rate targeted by the bloom filters once they hold the expected number of values.
+     */
+    private static final double BLOOM_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * The number of hash functions used by the bloom filters (the optimal number for the targeted false 
+     * positive rate).
+     */
+    private static final int BLOOM_FILTER_HASHES = 7;
+
     /**
      * Sets the first timestamp of the block.
      * 
@@ -133,11 +179,22 @@ public final class BlockHeaderUtils {
         if (record.isDelta()) {
             header.getField(LAST_TIMESTAMP_INDEX).add(record.getField(TIMESTAMP_FIELD_INDEX));
         } else {
-            record.getField(TIMESTAMP_FIELD_INDEX).copyTo(header.getField(1));
-            header.getField(LAST_TIMESTAMP_INDEX).subtract(header.getField(TIMESTAMP_FIELD_INDEX));
+            setLastTimestamp(header, record.getField(TIMESTAMP_FIELD_INDEX));
         }
     }
 
+    /**
+     * Sets the last timestamp of the block. This method must be called after the first timestamp has been set.
+     * 
+     * @param header the block header
+     * @param timestamp the timestamp field of the new last record of the block
+     */
+    public static void setLastTimestamp(TimeSeriesRecord header, Field timestamp) {
+
+        timestamp.copyTo(header.getField(LAST_TIMESTAMP_INDEX));
+        header.getField(LAST_TIMESTAMP_INDEX).subtract(header.getField(TIMESTAMP_FIELD_INDEX));
+    }
+
     /**
      * Sets the last timestamp of the block. This method must be called after the first timestamp has been set.
      * 
@@ -251,6 +308,460 @@ public final class BlockHeaderUtils {
         return CompressionType.toCompressionType(header.getByte(COMPRESSION_TYPE_INDEX));
     }
 
+    /**
+     * Sets the checksum of the block data.
+     * 
+     * @param header the block header
+     * @param checksum the checksum of the block data as returned by {@link #computeChecksum(ReadableBuffer)}
+     */
+    public static void setChecksum(TimeSeriesRecord header, int checksum) {
+        header.setInt(getChecksumIndex(header.getNumberOfFields()), checksum);
+    }
+
+    /**
+     * Returns the checksum of the block data.
+     * 
+     * @param header the block header
+     * @return the checksum of the block data or 0 if no checksum has been computed for the block.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static int getChecksum(Record header) throws IOException {
+        return header.getInt(getChecksumIndex(header.getNumberOfFields()));
+    }
+
+    /**
+     * Returns the index of the checksum within a block header. The checksum is followed by the flags at the end 
+     * of the header, the headers written before its introduction do not contain it and it is read as 0 from them.
+     * 
+     * @param numberOfHeaderFields the number of fields of the block header
+     * @return the index of the checksum within a block header.
+     */
+    public static int getChecksumIndex(int numberOfHeaderFields) {
+        return numberOfHeaderFields - 2;
+    }
+
+    /**
+     * Returns the index of the flags within a block header. The flags are the last field of the header, 
+     * the headers written before their introduction do not contain them and they are read as 0 from them.
+     * 
+     * @param numberOfHeaderFields the number of fields of the block header
+     * @return the index of the flags within a block header.
+     */
+    public static int getFlagsIndex(int numberOfHeaderFields) {
+        return numberOfHeaderFields - 1;
+    }
+
+    /**
+     * Marks the block as overlapping or not the time range of the blocks written before it.
+     * 
+     * @param header the block header
+     * @param overlapping <code>true</code> if the block may overlap the blocks written before it, 
+     * <code>false</code> otherwise.
+     */
+    public static void setOverlapping(TimeSeriesRecord header, boolean overlapping) {
+
+        int index = getFlagsIndex(header.getNumberOfFields());
+        int flags = header.getByte(index);
+        header.setByte(index, overlapping ? flags | OVERLAPPING_FLAG : flags & ~OVERLAPPING_FLAG);
+    }
+
+    /**
+     * Checks if the block may overlap the time range of the blocks written before it.
+     * 
+     * @param header the block header
+     * @return <code>true</code> if the block may overlap the blocks written before it, <code>false</code> 
+     * otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static boolean isOverlapping(Record header) throws IOException {
+        return (header.getByte(getFlagsIndex(header.getNumberOfFields())) & OVERLAPPING_FLAG) != 0;
+    }
+
+    /**
+     * Marks the block header as followed or not by the bloom filters of the block.
+     * 
+     * @param header the block header
+     * @param bloomFilters <code>true</code> if the header is followed by the bloom filters of the block, 
+     * <code>false</code> otherwise.
+     */
+    public static void setBloomFilters(TimeSeriesRecord header, boolean bloomFilters) {
+
+        int index = getFlagsIndex(header.getNumberOfFields());
+        int flags = header.getByte(index);
+        header.setByte(index, bloomFilters ? flags | BLOOM_FILTERS_FLAG : flags & ~BLOOM_FILTERS_FLAG);
+    }
+
+    /**
+     * Checks if the block header is followed by the bloom filters of the block.
+     * 
+     * @param header the block header
+     * @return <code>true</code> if the header is followed by the bloom filters of the block, <code>false</code> 
+     * otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static boolean hasBloomFilters(Record header) throws IOException {
+        return (header.getByte(getFlagsIndex(header.getNumberOfFields())) & BLOOM_FILTERS_FLAG) != 0;
+    }
+
+    /**
+     * Computes the CRC32 checksum of the specified data. As 0 is used to mark the blocks without checksum, 
+     * a checksum of 0 is returned as 1.
+     * 
+     * @param data the block data
+     * @return the checksum of the specified data
+     * @throws IOException if an I/O problem occurs
+     */
+    public static int computeChecksum(ReadableBuffer data) throws IOException {
+
+        return computeChecksum(Buffers.EMPTY_BUFFER, data);
+    }
+
+    /**
+     * Computes the CRC32 checksum of the specified bloom filters followed by the specified data. As 0 is used 
+     * to mark the blocks without checksum, a checksum of 0 is returned as 1.
+     * 
+     * @param bloomFilters the bloom filters of the block
+     * @param data the block data
+     * @return the checksum of the specified bloom filters and data
+     * @throws IOException if an I/O problem occurs
+     */
+    public static int computeChecksum(ReadableBuffer bloomFilters, ReadableBuffer data) throws IOException {
+
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[Math.min(CHECKSUM_CHUNK_SIZE, bloomFilters.readableBytes() + data.readableBytes())];
+
+        updateChecksum(crc, bytes, bloomFilters.duplicate());
+        updateChecksum(crc, bytes, data.duplicate());
+
+        int checksum = (int) crc.getValue();
+
+        return checksum == 0 ? 1 : checksum;
+    }
+
+    /**
+     * Updates the specified checksum with the readable bytes of the specified buffer.
+     * 
+     * @param crc the checksum to update
+     * @param bytes the array used to read the buffer by chunks
+     * @param buffer the buffer
+     * @throws IOException if an I/O problem occurs
+     */
+    private static void updateChecksum(CRC32 crc, byte[] bytes, ReadableBuffer buffer) throws IOException {
+
+        while (buffer.isReadable()) {
+
+            int length = Math.min(bytes.length, buffer.readableBytes());
+            buffer.readBytes(bytes, 0, length);
+            crc.update(bytes, 0, length);
+        }
+    }
+
+    /**
+     * Updates the zone maps and the aggregates of the block header with the field values of the specified record.
+     * 
+     * @param definition the time series definition
+     * @param header the block header
+     * @param record the full record that has been appended to the block
+     * @param first <code>true</code> if the record is the first one of its type within the block
+     * @throws IOException if an I/O problem occurs
+     */
+    public static void updateFieldIndices(TimeSeriesDefinition definition, 
+                                          TimeSeriesRecord header, 
+                                          Record record, 
+                                          boolean first) throws IOException {
+
+        int type = record.getType();
+
+        for (int i = 0, m = record.getNumberOfFields(); i < m; i++) {
+
+            int index = definition.getZoneMapIndex(type, i);
+
+            if (index >= 0) {
+                updateZoneMap(header, index, record.getField(i), first);
+            }
+
+            index = definition.getSumIndex(type, i);
+
+            if (index >= 0) {
+                addToSum(header, index, record.getField(i));
+            }
+        }
+    }
+
+    /**
+     * Adds the field values of the specified record to the bloom filters of the block.
+     * 
+     * @param definition the time series definition
+     * @param bloomFilters the bloom filters of the block
+     * @param record the full record that has been appended to the block
+     * @throws IOException if an I/O problem occurs
+     */
+    public static void updateBloomFilters(TimeSeriesDefinition definition, 
+                                          byte[] bloomFilters, 
+                                          Record record) throws IOException {
+
+        int type = record.getType();
+
+        for (int i = 0, m = record.getNumberOfFields(); i < m; i++) {
+
+            int offset = definition.getBloomFilterOffset(type, i);
+
+            if (offset >= 0) {
+                addToBloomFilter(bloomFilters, offset, definition.getBloomFilterLength(), record.getLong(i));
+            }
+        }
+    }
+
+    /**
+     * Computes the length in bytes of a bloom filter able to hold the specified number of values with the 
+     * targeted false positive rate.
+     * 
+     * @param expectedNumberOfValues the expected number of values
+     * @return the length in bytes of the bloom filter
+     */
+    public static int computeBloomFilterLength(int expectedNumberOfValues) {
+
+        double bits = -expectedNumberOfValues * Math.log(BLOOM_FILTER_FALSE_POSITIVE_RATE) 
+                / (Math.log(2) * Math.log(2));
+
+        return ((int) Math.ceil(bits / Long.SIZE)) * (Long.SIZE / Byte.SIZE);
+    }
+
+    /**
+     * Updates the zone map stored at the specified index with the specified value.
+     * 
+     * @param header the block header
+     * @param index the index of the zone map minimum within the header
+     * @param value the new value
+     * @param first <code>true</code> if the value is the first one of the zone map
+     */
+    public static void updateZoneMap(TimeSeriesRecord header, int index, Field value, boolean first) {
+
+        Field min = header.getField(index);
+        Field max = header.getField(index + 1);
+
+        if (first || value.compareTo(min) < 0) {
+            value.copyTo(min);
+        }
+
+        if (first || value.compareTo(max) > 0) {
+            value.copyTo(max);
+        }
+    }
+
+    /**
+     * Returns the range of values stored within the zone map at the specified index.
+     * 
+     * @param header the block header
+     * @param index the index of the zone map minimum within the header
+     * @return the range of values stored within the zone map.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static Range<Field> getZoneMap(Record header, int index) throws IOException {
+
+        return Range.closed(ImmutableField.of(header.getField(index)), ImmutableField.of(header.getField(index + 1)));
+    }
+
+    /**
+     * Returns a new field that can be used to store the sum of the values of the fields of the specified type.
+     * 
+     * @param type the type of the summed fields
+     * @return a new field that can be used to store the sum of the values of the fields of the specified type.
+     */
+    public static Field newSumField(FieldType type) {
+
+        if (type == FieldType.DECIMAL) {
+            return new DecimalField();
+        }
+
+        return new LongField();
+    }
+
+    /**
+     * Adds the specified value to the sum stored at the specified index.
+     * 
+     * @param header the block header
+     * @param index the index of the sum within the header
+     * @param value the value to add
+     */
+    public static void addToSum(TimeSeriesRecord header, int index, Field value) {
+
+        header.getField(index).add(value);
+    }
+
+    /**
+     * Adds the specified value to the bloom filter stored at the specified offset.
+     * 
+     * @param bloomFilters the bloom filters of the block
+     * @param offset the offset of the bloom filter within the bloom filters of the block
+     * @param length the length in bytes of the bloom filter
+     * @param value the value to add
+     */
+    public static void addToBloomFilter(byte[] bloomFilters, int offset, int length, long value) {
+
+        long hash = hash(value);
+
+        for (int i = 1; i <= BLOOM_FILTER_HASHES; i++) {
+
+            int bit = getBloomFilterBit(hash, i, length);
+            bloomFilters[offset + (bit >>> 3)] |= 1 << (bit & 7);
+        }
+    }
+
+    /**
+     * Checks if the specified value might have been added to the bloom filter stored at the specified offset.
+     * 
+     * @param bloomFilters the bloom filters of the block
+     * @param offset the offset of the bloom filter within the bloom filters of the block
+     * @param length the length in bytes of the bloom filter
+     * @param value the value to check
+     * @return <code>false</code> if the value has not been added to the bloom filter, <code>true</code> if 
+     * it might have been.
+     */
+    public static boolean mightContain(ReadableBuffer bloomFilters, int offset, int length, long value) {
+
+        long hash = hash(value);
+
+        for (int i = 1; i <= BLOOM_FILTER_HASHES; i++) {
+
+            int bit = getBloomFilterBit(hash, i, length);
+
+            if ((bloomFilters.getByte(offset + (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the bit of a bloom filter set by the specified hash function.
+     * 
+     * @param hash the hash of the value
+     * @param i the index of the hash function
+     * @param length the length in bytes of the bloom filter
+     * @return the bit of the bloom filter set by the specified hash function.
+     */
+    private static int getBloomFilterBit(long hash, int i, int length) {
+
+        int combinedHash = (int) hash + i * (int) (hash >>> 32);
+
+        if (combinedHash < 0) {
+            combinedHash = ~combinedHash;
+        }
+
+        return combinedHash % (length * Byte.SIZE);
+    }
+
+    /**
+     * Mixes the bits of the specified value (finalization step of MurmurHash3).
+     * 
+     * @param value the value to hash
+     * @return the hash of the specified value
+     */
+    private static long hash(long value) {
+
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Checks if the keyframe index stored at the specified index has no more free entries.
+     * 
+     * @param header the block header
+     * @param index the index of the keyframe index within the header
+     * @return <code>true</code> if the keyframe index has no more free entries, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static boolean isKeyframeIndexFull(Record header, int index) throws IOException {
+
+        return header.getInt(index + 2 * KEYFRAME_INDEX_LENGTH - 1) != 0;
+    }
+
+    /**
+     * Adds a keyframe to the keyframe index stored at the specified index. The keyframe index must not be full.
+     * 
+     * @param header the block header
+     * @param index the index of the keyframe index within the header
+     * @param timestamp the timestamp of the first record of the keyframe
+     * @param offset the offset in bytes of the keyframe within the uncompressed block data
+     */
+    public static void addKeyframe(TimeSeriesRecord header, int index, Field timestamp, int offset) {
+
+        int entry = index;
+
+        while (header.getInt(entry + 1) != 0) {
+            entry += 2;
+        }
+
+        timestamp.copyTo(header.getField(entry));
+        header.setInt(entry + 1, offset);
+    }
+
+    /**
+     * Returns the offset of the last keyframe from which all the records with a timestamp greater or equals 
+     * to the specified one can be read.
+     * 
+     * @param header the block header
+     * @param index the index of the keyframe index within the header
+     * @param timestamp the timestamp of the first record that must be read
+     * @return the offset in bytes of the keyframe within the uncompressed block data or 0 if the data must be 
+     * read from the beginning.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static int getKeyframeOffset(Record header, int index, Field timestamp) throws IOException {
+
+        int offset = 0;
+
+        for (int entry = index, m = index + 2 * KEYFRAME_INDEX_LENGTH; entry < m; entry += 2) {
+
+            int keyframeOffset = header.getInt(entry + 1);
+
+            // Records with the same timestamp than the keyframe one can be located before the keyframe. 
+            if (keyframeOffset == 0 || header.getField(entry).compareTo(timestamp) >= 0) {
+                break;
+            }
+
+            offset = keyframeOffset;
+        }
+
+        return offset;
+    }
+
+    /**
+     * Returns the offset of the first keyframe from which all the records have a timestamp greater than the 
+     * specified one.
+     * 
+     * @param header the block header
+     * @param index the index of the keyframe index within the header
+     * @param timestamp the timestamp of the last record that must be read
+     * @return the offset in bytes of the keyframe within the uncompressed block data or -1 if the data must be 
+     * read until the end.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static int getKeyframeEndOffset(Record header, int index, Field timestamp) throws IOException {
+
+        for (int entry = index, m = index + 2 * KEYFRAME_INDEX_LENGTH; entry < m; entry += 2) {
+
+            int keyframeOffset = header.getInt(entry + 1);
+
+            if (keyframeOffset == 0) {
+                break;
+            }
+
+            if (header.getField(entry).compareTo(timestamp) > 0) {
+                return keyframeOffset;
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * Sets the number of records from the specified type.
      * 
@@ -262,4 +773,31 @@ public final class BlockHeaderUtils {
 
         header.setInt(RECORD_COUNTERS_OFFSET + type, count);
     }
+
+    /**
+     * Sets the offset within the block data of the segment containing the records of the specified type.
+     * 
+     * @param header the block header
+     * @param index the index within the header of the offset of the first segment
+     * @param type the record type
+     * @param offset the segment offset
+     */
+    public static void setSegmentOffset(TimeSeriesRecord header, int index, int type, int offset) {
+
+        header.setInt(index + type, offset);
+    }
+
+    /**
+     * Returns the offset within the block data of the segment containing the records of the specified type.
+     * 
+     * @param header the block header
+     * @param index the index within the header of the offset of the first segment
+     * @param type the record type
+     * @return the offset within the block data of the segment containing the records of the specified type
+     * @throws IOException if an I/O problem occurs
+     */
+    public static int getSegmentOffset(Record header, int index, int type) throws IOException {
+
+        return header.getInt(index + type);
+    }
 }
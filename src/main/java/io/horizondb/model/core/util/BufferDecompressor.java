@@ -0,0 +1,36 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.util;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.compression.Decompressor;
+
+import java.io.IOException;
+
+/**
+ * A <code>Decompressor</code> that can write the uncompressed data into a buffer provided by the caller, such as 
+ * a buffer acquired from a <code>BufferPool</code>, instead of allocating a new buffer for each block.
+ */
+public interface BufferDecompressor extends Decompressor {
+
+    /**
+     * Uncompress the specified data into the specified buffer.
+     * 
+     * @param data the compressed data
+     * @param destination the buffer to which the uncompressed data must be written
+     * @throws IOException if an I/O problem occurs
+     */
+    void decompress(ReadableBuffer data, Buffer destination) throws IOException;
+}
@@ -0,0 +1,254 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.util;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.apache.commons.lang.Validate.isTrue;
+
+/**
+ * A pool of buffers organized by size classes. The buffers are acquired as <code>PooledBuffer</code> and return 
+ * to the pool once all their references have been released. The size classes are the powers of two between
+ * {@link #MINIMUM_SIZE_CLASS} and {@link #MAXIMUM_SIZE_CLASS}. Larger buffers are allocated on demand and are 
+ * never pooled.
+ */
+public final class BufferPool {
+
+    /**
+     * The size of the smallest size class.
+     */
+    public static final int MINIMUM_SIZE_CLASS = 4 * 1024;
+
+    /**
+     * The size of the largest size class.
+     */
+    public static final int MAXIMUM_SIZE_CLASS = 8 * 1024 * 1024;
+
+    /**
+     * The number of size classes.
+     */
+    private static final int NUMBER_OF_SIZE_CLASSES = Integer.numberOfTrailingZeros(MAXIMUM_SIZE_CLASS) 
+            - Integer.numberOfTrailingZeros(MINIMUM_SIZE_CLASS) + 1;
+
+    /**
+     * <code>true</code> if the pool contains direct buffers, <code>false</code> if it contains heap buffers.
+     */
+    private final boolean direct;
+
+    /**
+     * The maximum number of idle buffers kept per size class.
+     */
+    private final int maximumIdleBuffers;
+
+    /**
+     * The idle buffers of each size class.
+     */
+    private final Deque<PooledBuffer>[] idleBuffers;
+
+    /**
+     * The number of buffers acquired from the idle buffers.
+     */
+    private long hitCount;
+
+    /**
+     * The number of buffers that had to be allocated.
+     */
+    private long missCount;
+
+    /**
+     * Creates a new pool of heap buffers.
+     * 
+     * @param maximumIdleBuffers the maximum number of idle buffers kept per size class
+     * @return a new pool of heap buffers.
+     */
+    public static BufferPool newHeapPool(int maximumIdleBuffers) {
+        return new BufferPool(false, maximumIdleBuffers);
+    }
+
+    /**
+     * Creates a new pool of direct buffers.
+     * 
+     * @param maximumIdleBuffers the maximum number of idle buffers kept per size class
+     * @return a new pool of direct buffers.
+     */
+    public static BufferPool newDirectPool(int maximumIdleBuffers) {
+        return new BufferPool(true, maximumIdleBuffers);
+    }
+
+    /**
+     * Creates a new <code>BufferPool</code>.
+     * 
+     * @param direct <code>true</code> if the pool must contain direct buffers, <code>false</code> otherwise.
+     * @param maximumIdleBuffers the maximum number of idle buffers kept per size class
+     */
+    @SuppressWarnings("unchecked")
+    private BufferPool(boolean direct, int maximumIdleBuffers) {
+
+        isTrue(maximumIdleBuffers >= 0, "the maximum number of idle buffers must not be negative.");
+
+        this.direct = direct;
+        this.maximumIdleBuffers = maximumIdleBuffers;
+        this.idleBuffers = new Deque[NUMBER_OF_SIZE_CLASSES];
+
+        for (int i = 0; i < NUMBER_OF_SIZE_CLASSES; i++) {
+            this.idleBuffers[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Checks if this pool contains direct buffers.
+     * 
+     * @return <code>true</code> if the pool contains direct buffers, <code>false</code> otherwise.
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    /**
+     * Acquires an empty buffer with at least the specified capacity. The returned buffer has a reference 
+     * count of one.
+     * 
+     * @param capacity the minimum capacity of the buffer
+     * @return an empty buffer with at least the specified capacity.
+     */
+    public PooledBuffer acquire(int capacity) {
+
+        isTrue(capacity >= 0, "the capacity must not be negative.");
+
+        int sizeClass = getSizeClass(capacity);
+
+        if (sizeClass < 0) {
+            
+            synchronized (this) {
+                this.missCount++;
+            }
+            return new PooledBuffer(this, allocate(capacity), sizeClass);
+        }
+
+        PooledBuffer buffer;
+
+        synchronized (this) {
+
+            buffer = this.idleBuffers[sizeClass].pollFirst();
+
+            if (buffer == null) {
+                this.missCount++;
+            } else {
+                this.hitCount++;
+            }
+        }
+
+        if (buffer == null) {
+            return new PooledBuffer(this, allocate(MINIMUM_SIZE_CLASS << sizeClass), sizeClass);
+        }
+
+        return buffer.reset();
+    }
+
+    /**
+     * Returns the number of buffers that have been acquired from the idle buffers of this pool.
+     * 
+     * @return the number of buffers that have been acquired from the idle buffers of this pool.
+     */
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of buffers that had to be allocated because no idle buffer was available.
+     * 
+     * @return the number of buffers that had to be allocated because no idle buffer was available.
+     */
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of idle buffers within this pool.
+     * 
+     * @return the number of idle buffers within this pool.
+     */
+    public synchronized int getNumberOfIdleBuffers() {
+
+        int count = 0;
+
+        for (Deque<PooledBuffer> buffers : this.idleBuffers) {
+            count += buffers.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the specified buffer to the pool once all its references have been released.
+     * 
+     * @param buffer the buffer that is no longer used
+     */
+    void recycle(PooledBuffer buffer) {
+
+        int sizeClass = buffer.getSizeClass();
+
+        if (sizeClass < 0) {
+            return;
+        }
+
+        synchronized (this) {
+
+            Deque<PooledBuffer> buffers = this.idleBuffers[sizeClass];
+
+            if (buffers.size() < this.maximumIdleBuffers) {
+                buffers.offerFirst(buffer);
+            }
+        }
+    }
+
+    /**
+     * Allocates a new buffer with the specified capacity.
+     * 
+     * @param capacity the buffer capacity
+     * @return a new buffer with the specified capacity
+     */
+    private Buffer allocate(int capacity) {
+
+        if (this.direct) {
+            return Buffers.allocateDirect(capacity);
+        }
+
+        return Buffers.allocate(capacity);
+    }
+
+    /**
+     * Returns the index of the smallest size class that can hold the specified number of bytes or -1 if the 
+     * number of bytes exceed the largest size class.
+     * 
+     * @param capacity the number of bytes
+     * @return the index of the size class or -1 if the buffer must not be pooled.
+     */
+    private static int getSizeClass(int capacity) {
+
+        if (capacity > MAXIMUM_SIZE_CLASS) {
+            return -1;
+        }
+
+        if (capacity <= MINIMUM_SIZE_CLASS) {
+            return 0;
+        }
+
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - Integer.numberOfTrailingZeros(MINIMUM_SIZE_CLASS);
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.util;
+
+import io.horizondb.io.Buffer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference-counted buffer acquired from a <code>BufferPool</code>. The buffer returns to the pool when its
+ * last reference is released and must not be used afterward.
+ */
+public final class PooledBuffer {
+
+    /**
+     * The pool to which the buffer belongs.
+     */
+    private final BufferPool pool;
+
+    /**
+     * The underlying buffer.
+     */
+    private final Buffer buffer;
+
+    /**
+     * The index of the size class of the buffer or -1 if the buffer is not pooled.
+     */
+    private final int sizeClass;
+
+    /**
+     * The number of references to the buffer.
+     */
+    private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+    /**
+     * Creates a new <code>PooledBuffer</code> with a reference count of one.
+     * 
+     * @param pool the pool to which the buffer belongs
+     * @param buffer the underlying buffer
+     * @param sizeClass the index of the size class of the buffer or -1 if the buffer is not pooled
+     */
+    PooledBuffer(BufferPool pool, Buffer buffer, int sizeClass) {
+        this.pool = pool;
+        this.buffer = buffer;
+        this.sizeClass = sizeClass;
+    }
+
+    /**
+     * Returns the underlying buffer.
+     * 
+     * @return the underlying buffer.
+     */
+    public Buffer getBuffer() {
+
+        if (this.referenceCount.get() <= 0) {
+            throw new IllegalStateException("The buffer has been released.");
+        }
+
+        return this.buffer;
+    }
+
+    /**
+     * Returns the number of references to this buffer.
+     * 
+     * @return the number of references to this buffer.
+     */
+    public int getReferenceCount() {
+        return this.referenceCount.get();
+    }
+
+    /**
+     * Adds a reference to this buffer.
+     * 
+     * @return this <code>PooledBuffer</code>
+     */
+    public PooledBuffer retain() {
+
+        while (true) {
+
+            int count = this.referenceCount.get();
+
+            if (count <= 0) {
+                throw new IllegalStateException("The buffer has been released.");
+            }
+
+            if (this.referenceCount.compareAndSet(count, count + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Releases a reference to this buffer. The buffer returns to the pool when its last reference is released.
+     * 
+     * @return <code>true</code> if the last reference has been released, <code>false</code> otherwise.
+     */
+    public boolean release() {
+
+        int count = this.referenceCount.decrementAndGet();
+
+        if (count < 0) {
+            this.referenceCount.incrementAndGet();
+            throw new IllegalStateException("The buffer has already been released.");
+        }
+
+        if (count == 0) {
+            this.pool.recycle(this);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the index of the size class of the buffer.
+     * 
+     * @return the index of the size class of the buffer or -1 if the buffer is not pooled.
+     */
+    int getSizeClass() {
+        return this.sizeClass;
+    }
+
+    /**
+     * Clears the buffer and resets the reference count to one before the buffer is handed out again.
+     * 
+     * @return this <code>PooledBuffer</code>
+     */
+    PooledBuffer reset() {
+        this.buffer.clear();
+        this.referenceCount.set(1);
+        return this;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.schema;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.serialization.Parser;
+import io.horizondb.io.serialization.Serializable;
+
+import java.io.IOException;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The possible way to lay out the records within the data blocks of a time series.
+ */
+@Immutable
+public enum BlockLayout implements Serializable {
+
+    /**
+     * The records are stored one after the other as: <code>type | length | bitset | fields</code>.
+     * All the records except the first one of each type are stored as delta.
+     */
+    ROW(0),
+
+    /**
+     * The records are stored by columns: the block data start with a directory containing the length
+     * of each column chunk followed by one chunk per field and per record type.
+     */
+    COLUMNAR(1),
+
+    /**
+     * The records are stored as in the row layout but grouped by type: the block data contains one contiguous
+     * segment per record type, in the order of the types. The offset of each segment is stored within the 
+     * block header next to the record counters.
+     */
+    SEGMENTED(2);
+
+    /**
+     * The parser instance.
+     */
+    private static final Parser<BlockLayout> PARSER = new Parser<BlockLayout>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockLayout parseFrom(ByteReader reader) throws IOException {
+
+            byte code = reader.readByte();
+
+            BlockLayout[] values = BlockLayout.values();
+
+            for (int i = 0; i < values.length; i++) {
+
+                BlockLayout layout = values[i];
+
+                if (layout.b == code) {
+
+                    return layout;
+                }
+            }
+
+            throw new IllegalStateException("The byte " + code + " does not match any block layout");
+        }
+    };
+
+    /**
+     * The layout binary representation.
+     */
+    private final int b;
+
+    /**
+     * Creates a new <code>BlockLayout</code> with the specified binary representation.
+     *
+     * @param b the byte representing the <code>BlockLayout</code>.
+     */
+    private BlockLayout(int b) {
+
+        this.b = b;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+
+        return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+
+        writer.writeByte(this.b);
+    }
+
+    /**
+     * Returns the parser that can be used to deserialize <code>BlockLayout</code> instances.
+     *
+     * @return the parser that can be used to deserialize <code>BlockLayout</code> instances.
+     */
+    public static Parser<BlockLayout> getParser() {
+
+        return PARSER;
+    }
+
+    /**
+     * Returns the block layout represented by the next readable byte in the specified reader.
+     *
+     * @param reader the buffer to read from.
+     * @return the block layout represented by the next readable byte in the specified buffer.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static BlockLayout parseFrom(ByteReader reader) throws IOException {
+
+        return getParser().parseFrom(reader);
+    }
+}
@@ -450,6 +450,19 @@ public final class DefaultRecordSetDefinition implements RecordSetDefinition {
     public String getFieldName(int recordTypeIndex, int fieldIndex) {
         return this.recordTypes.get(recordTypeIndex).fieldName(fieldIndex);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FieldEncoding getFieldEncoding(int recordTypeIndex, int fieldIndex) {
+
+        if (0 == fieldIndex) {
+            return FieldEncoding.DEFAULT;
+        }
+
+        return this.recordTypes.get(recordTypeIndex).getFieldEncoding(fieldIndex);
+    }
     
     /**
      * Checks that the specified name is accepted by the specified filter.
@@ -30,6 +30,7 @@ import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 
+import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notEmpty;
 import static org.apache.commons.lang.Validate.notNull;
 
@@ -41,6 +42,30 @@ import static org.apache.commons.lang.Validate.notNull;
 @Immutable
 public final class FieldDefinition implements Serializable {
 
+    /**
+     * The option flag specifying that the minimum and maximum values of the field must be stored 
+     * within the block headers.
+     */
+    private static final int ZONE_MAP = 1;
+
+    /**
+     * The option flag specifying that a bloom filter of the field values must be stored after the block headers.
+     */
+    private static final int BLOOM_FILTER = 2;
+
+    /**
+     * The option flag specifying that the sum, minimum and maximum values of the field must be stored 
+     * within the block headers.
+     */
+    private static final int AGGREGATES = 4;
+
+    /**
+     * The bit set on the serialized field type when the encoding and the options of the field follow it. They are 
+     * only serialized when they differ from their default values, so that the fields serialized before they 
+     * existed can still be parsed.
+     */
+    private static final int ENCODING_AND_OPTIONS_FLAG = 0x80;
+
     /**
      * The parser instance.
      */
@@ -52,7 +77,19 @@ public final class FieldDefinition implements Serializable {
         @Override
         public FieldDefinition parseFrom(ByteReader reader) throws IOException {
 
-            return new FieldDefinition(VarInts.readString(reader), FieldType.parseFrom(reader));
+            String name = VarInts.readString(reader);
+            int code = reader.readByte() & 0xFF;
+            FieldType type = FieldType.toFieldType(code & ~ENCODING_AND_OPTIONS_FLAG);
+            FieldEncoding encoding = FieldEncoding.DEFAULT;
+            int options = 0;
+
+            if ((code & ENCODING_AND_OPTIONS_FLAG) != 0) {
+
+                encoding = FieldEncoding.parseFrom(reader);
+                options = reader.readByte();
+            }
+
+            return new FieldDefinition(name, type, encoding, options);
         }
     };
 
@@ -66,6 +103,16 @@ public final class FieldDefinition implements Serializable {
      */
     private final FieldType type;
 
+    /**
+     * The encoding used to store the field values within the columnar blocks.
+     */
+    private final FieldEncoding encoding;
+
+    /**
+     * The field options flags.
+     */
+    private final int options;
+
     /**
      * Creates a new <code>FieldDefinition</code> instance with the specified name and type.
      * 
@@ -75,7 +122,32 @@ public final class FieldDefinition implements Serializable {
      */
     public static FieldDefinition newInstance(String name, FieldType type) {
 
-        return new FieldDefinition(name, type);
+        return new FieldDefinition(name, type, FieldEncoding.DEFAULT, 0);
+    }
+
+    /**
+     * Creates a new <code>FieldDefinition</code> instance with the specified name, type and encoding.
+     * 
+     * @param name the field name
+     * @param type the field type
+     * @param encoding the encoding used to store the field values within the columnar blocks
+     * @return a new <code>FieldDefinition</code> instance.
+     */
+    public static FieldDefinition newInstance(String name, FieldType type, FieldEncoding encoding) {
+
+        return new FieldDefinition(name, type, encoding, 0);
+    }
+
+    /**
+     * Creates a new <code>Builder</code> instance.
+     * 
+     * @param name the field name
+     * @param type the field type
+     * @return a new <code>Builder</code> instance.
+     */
+    public static Builder newBuilder(String name, FieldType type) {
+
+        return new Builder(name, type);
     }
 
     /**
@@ -117,6 +189,46 @@ public final class FieldDefinition implements Serializable {
         return this.type;
     }
 
+    /**
+     * Returns the encoding used to store the field values within the columnar blocks.
+     * 
+     * @return the encoding used to store the field values within the columnar blocks.
+     */
+    public FieldEncoding getEncoding() {
+        return this.encoding;
+    }
+
+    /**
+     * Returns <code>true</code> if the minimum and maximum values of the field must be stored within 
+     * the block headers.
+     * 
+     * @return <code>true</code> if the minimum and maximum values of the field must be stored within 
+     * the block headers.
+     */
+    public boolean hasZoneMap() {
+        return (this.options & (ZONE_MAP | AGGREGATES)) != 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the sum, minimum and maximum values of the field must be stored within 
+     * the block headers.
+     * 
+     * @return <code>true</code> if the sum, minimum and maximum values of the field must be stored within 
+     * the block headers.
+     */
+    public boolean hasAggregates() {
+        return (this.options & AGGREGATES) != 0;
+    }
+
+    /**
+     * Returns <code>true</code> if a bloom filter of the field values must be stored after the block headers.
+     * 
+     * @return <code>true</code> if a bloom filter of the field values must be stored after the block headers.
+     */
+    public boolean hasBloomFilter() {
+        return (this.options & BLOOM_FILTER) != 0;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -130,7 +242,10 @@ public final class FieldDefinition implements Serializable {
         }
         FieldDefinition rhs = (FieldDefinition) object;
 
-        return new EqualsBuilder().append(this.name, rhs.name).append(this.type, rhs.type).isEquals();
+        return new EqualsBuilder().append(this.name, rhs.name).append(this.type, rhs.type)
+                                  .append(this.encoding, rhs.encoding)
+                                  .append(this.options, rhs.options)
+                                  .isEquals();
     }
 
     /**
@@ -139,7 +254,11 @@ public final class FieldDefinition implements Serializable {
     @Override
     public int hashCode() {
 
-        return new HashCodeBuilder(-424505767, -612153919).append(this.name).append(this.type).toHashCode();
+        return new HashCodeBuilder(-424505767, -612153919).append(this.name)
+                                                           .append(this.type)
+                                                           .append(this.encoding)
+                                                           .append(this.options)
+                                                           .toHashCode();
     }
 
     /**
@@ -149,6 +268,10 @@ public final class FieldDefinition implements Serializable {
     public String toString() {
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("name", this.name)
                                                                           .append("type", this.type)
+                                                                          .append("encoding", this.encoding)
+                                                                          .append("zoneMap", hasZoneMap())
+                                                                          .append("bloomFilter", hasBloomFilter())
+                                                                          .append("aggregates", hasAggregates())
                                                                           .toString();
     }
 
@@ -158,7 +281,13 @@ public final class FieldDefinition implements Serializable {
     @Override
     public int computeSerializedSize() {
 
-        return VarInts.computeStringSize(this.name) + this.type.computeSerializedSize();
+        int size = VarInts.computeStringSize(this.name) + this.type.computeSerializedSize();
+
+        if (hasDefaultEncodingAndOptions()) {
+            return size;
+        }
+
+        return size + this.encoding.computeSerializedSize() + 1;
     }
 
     /**
@@ -168,7 +297,26 @@ public final class FieldDefinition implements Serializable {
     public void writeTo(ByteWriter writer) throws IOException {
 
         VarInts.writeString(writer, this.name);
-        this.type.writeTo(writer);
+
+        if (hasDefaultEncodingAndOptions()) {
+
+            this.type.writeTo(writer);
+            return;
+        }
+
+        writer.writeByte(this.type.toByte() | ENCODING_AND_OPTIONS_FLAG);
+        this.encoding.writeTo(writer);
+        writer.writeByte(this.options);
+    }
+
+    /**
+     * Checks if the encoding and the options of this field have their default values.
+     * 
+     * @return <code>true</code> if the encoding and the options of this field have their default values.
+     */
+    private boolean hasDefaultEncodingAndOptions() {
+
+        return this.encoding == FieldEncoding.DEFAULT && this.options == 0;
     }
 
     /**
@@ -185,13 +333,156 @@ public final class FieldDefinition implements Serializable {
      * 
      * @param name the field name.
      * @param type the field type.
+     * @param encoding the field encoding.
+     * @param options the field options flags.
      */
-    private FieldDefinition(String name, FieldType type) {
+    private FieldDefinition(String name, FieldType type, FieldEncoding encoding, int options) {
 
         notEmpty(name, "the name parameter must not be empty.");
         notNull(type, "the type parameter must not be null.");
+        notNull(encoding, "the encoding parameter must not be null.");
+        isTrue(encoding.supports(type), "the " + encoding + " encoding cannot be used for " + type + " fields.");
+        isTrue((options & BLOOM_FILTER) == 0 || supportsBloomFilter(type), 
+               "bloom filters cannot be used for " + type + " fields.");
+        isTrue((options & AGGREGATES) == 0 || supportsAggregates(type), 
+               "aggregates cannot be computed for " + type + " fields.");
 
         this.name = name;
         this.type = type;
+        this.encoding = encoding;
+        this.options = options;
+    }
+
+    /**
+     * Checks if a bloom filter can be maintained for the fields of the specified type.
+     * 
+     * @param type the field type
+     * @return <code>true</code> if a bloom filter can be maintained for the fields of the specified type.
+     */
+    public static boolean supportsBloomFilter(FieldType type) {
+
+        return type == FieldType.BYTE || type == FieldType.INTEGER || type == FieldType.LONG;
+    }
+
+    /**
+     * Checks if the aggregates can be maintained for the fields of the specified type.
+     * 
+     * @param type the field type
+     * @return <code>true</code> if the aggregates can be maintained for the fields of the specified type.
+     */
+    public static boolean supportsAggregates(FieldType type) {
+
+        return supportsBloomFilter(type) || type == FieldType.DECIMAL;
+    }
+
+    /**
+     * Builds instance of <code>FieldDefinition</code>.
+     */
+    public static class Builder {
+
+        /**
+         * The field name.
+         */
+        private final String name;
+
+        /**
+         * The field type.
+         */
+        private final FieldType type;
+
+        /**
+         * The encoding used to store the field values within the columnar blocks.
+         */
+        private FieldEncoding encoding = FieldEncoding.DEFAULT;
+
+        /**
+         * The field options flags.
+         */
+        private int options;
+
+        /**
+         * Sets the encoding used to store the field values within the columnar blocks.
+         * 
+         * @param encoding the field encoding.
+         * @return this <code>Builder</code>.
+         */
+        public Builder encoding(FieldEncoding encoding) {
+
+            this.encoding = encoding;
+            return this;
+        }
+
+        /**
+         * Specifies if the minimum and maximum values of the field must be stored within the block headers.
+         * 
+         * @param zoneMap <code>true</code> if the minimum and maximum values of the field must be stored 
+         * within the block headers.
+         * @return this <code>Builder</code>.
+         */
+        public Builder zoneMap(boolean zoneMap) {
+
+            return option(ZONE_MAP, zoneMap);
+        }
+
+        /**
+         * Specifies if a bloom filter of the field values must be stored after the block headers.
+         * 
+         * @param bloomFilter <code>true</code> if a bloom filter of the field values must be stored within 
+         * the block headers.
+         * @return this <code>Builder</code>.
+         */
+        public Builder bloomFilter(boolean bloomFilter) {
+
+            return option(BLOOM_FILTER, bloomFilter);
+        }
+
+        /**
+         * Specifies if the sum, minimum and maximum values of the field must be stored within the block headers.
+         * 
+         * @param aggregates <code>true</code> if the sum, minimum and maximum values of the field must be 
+         * stored within the block headers.
+         * @return this <code>Builder</code>.
+         */
+        public Builder aggregates(boolean aggregates) {
+
+            return option(AGGREGATES, aggregates);
+        }
+
+        /**
+         * Creates a new <code>FieldDefinition</code> instance.
+         * 
+         * @return a new <code>FieldDefinition</code> instance.
+         */
+        public FieldDefinition build() {
+
+            return new FieldDefinition(this.name, this.type, this.encoding, this.options);
+        }
+
+        /**
+         * Sets or clears the specified option flag.
+         * 
+         * @param flag the option flag
+         * @param value <code>true</code> to set the flag, <code>false</code> to clear it.
+         * @return this <code>Builder</code>.
+         */
+        private Builder option(int flag, boolean value) {
+
+            if (value) {
+                this.options |= flag;
+            } else {
+                this.options &= ~flag;
+            }
+
+            return this;
+        }
+
+        /**
+         * Must not be called from outside the enclosing class.
+         */
+        private Builder(String name, FieldType type) {
+
+            this.name = name;
+            this.type = type;
+        }
     }
 }
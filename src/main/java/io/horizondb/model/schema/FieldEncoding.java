@@ -0,0 +1,184 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.schema;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.serialization.Parser;
+import io.horizondb.io.serialization.Serializable;
+
+import java.io.IOException;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The possible ways to encode the values of a field within the column chunks of the blocks using the 
+ * {@link BlockLayout#COLUMNAR} layout. The encoding is ignored by the blocks using the {@link BlockLayout#ROW} 
+ * layout.
+ */
+@Immutable
+public enum FieldEncoding implements Serializable {
+
+    /**
+     * The values are stored as the delta with the previous value, using the field own serialization format.
+     */
+    DEFAULT(0),
+
+    /**
+     * The mantissa of each decimal value is XORed with the previous one and only the meaningful bits of 
+     * the result are stored. The exponent is only stored when it changes. 
+     */
+    XOR(1) {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean supports(FieldType type) {
+            return type == FieldType.DECIMAL;
+        }
+    },
+
+    /**
+     * The timestamps are stored as the difference between the successive deltas, bit-packed into variable 
+     * length buckets. If all the deltas within a block are equal only the first timestamp and the delta are stored.
+     */
+    DELTA_OF_DELTA(2) {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean supports(FieldType type) {
+            return type == FieldType.NANOSECONDS_TIMESTAMP 
+                    || type == FieldType.MICROSECONDS_TIMESTAMP
+                    || type == FieldType.MILLISECONDS_TIMESTAMP
+                    || type == FieldType.SECONDS_TIMESTAMP;
+        }
+    },
+
+    /**
+     * The values are stored by batches of 128: each batch contains its minimum value followed by 
+     * the difference between each value and the minimum, packed on the smallest possible number of bits.
+     */
+    FRAME_OF_REFERENCE(3) {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean supports(FieldType type) {
+            return type == FieldType.INTEGER || type == FieldType.LONG;
+        }
+    },
+
+    /**
+     * The runs of identical values are stored as the length of the run followed by the value. 
+     */
+    RUN_LENGTH(4);
+
+    /**
+     * The parser instance.
+     */
+    private static final Parser<FieldEncoding> PARSER = new Parser<FieldEncoding>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public FieldEncoding parseFrom(ByteReader reader) throws IOException {
+
+            byte code = reader.readByte();
+
+            FieldEncoding[] values = FieldEncoding.values();
+
+            for (int i = 0; i < values.length; i++) {
+
+                FieldEncoding encoding = values[i];
+
+                if (encoding.b == code) {
+
+                    return encoding;
+                }
+            }
+
+            throw new IllegalStateException("The byte " + code + " does not match any field encoding");
+        }
+    };
+
+    /**
+     * The encoding binary representation.
+     */
+    private final int b;
+
+    /**
+     * Creates a new <code>FieldEncoding</code> with the specified binary representation.
+     *
+     * @param b the byte representing the <code>FieldEncoding</code>.
+     */
+    private FieldEncoding(int b) {
+
+        this.b = b;
+    }
+
+    /**
+     * Returns <code>true</code> if this encoding can be used for the fields of the specified type.
+     * 
+     * @param type the field type
+     * @return <code>true</code> if this encoding can be used for the fields of the specified type.
+     */
+    public boolean supports(FieldType type) {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+
+        return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+
+        writer.writeByte(this.b);
+    }
+
+    /**
+     * Returns the parser that can be used to deserialize <code>FieldEncoding</code> instances.
+     *
+     * @return the parser that can be used to deserialize <code>FieldEncoding</code> instances.
+     */
+    public static Parser<FieldEncoding> getParser() {
+
+        return PARSER;
+    }
+
+    /**
+     * Returns the field encoding represented by the next readable byte in the specified reader.
+     *
+     * @param reader the buffer to read from.
+     * @return the field encoding represented by the next readable byte in the specified buffer.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static FieldEncoding parseFrom(ByteReader reader) throws IOException {
+
+        return getParser().parseFrom(reader);
+    }
+}
@@ -94,6 +94,14 @@ public enum FieldType implements Serializable {
         public Field newField() {
             return new ByteField();
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void skip(ByteReader reader) throws IOException {
+            reader.skipBytes(1);
+        }
     },
 
     INTEGER(5) {
@@ -127,6 +135,16 @@ public enum FieldType implements Serializable {
         public Field newField() {
             return new DecimalField();
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void skip(ByteReader reader) throws IOException {
+            // mantissa as a varlong followed by the exponent byte
+            skipVarInt(reader);
+            reader.skipBytes(1);
+        }
     };
 
     /**
@@ -140,21 +158,7 @@ public enum FieldType implements Serializable {
         @Override
         public FieldType parseFrom(ByteReader reader) throws IOException {
 
-            byte code = reader.readByte();
-
-            FieldType[] values = FieldType.values();
-
-            for (int i = 0; i < values.length; i++) {
-
-                FieldType fieldType = values[i];
-
-                if (fieldType.b == code) {
-
-                    return fieldType;
-                }
-            }
-
-            throw new IllegalStateException("The byte " + code + " does not match any field type");
+            return toFieldType(reader.readByte());
         }
     };
 
@@ -174,6 +178,29 @@ public enum FieldType implements Serializable {
     }
 
     public abstract Field newField();
+
+    /**
+     * Skips the bytes of a serialized field of this type without deserializing its value.
+     * 
+     * @param reader the reader positioned at the start of the serialized field
+     * @throws IOException if an I/O problem occurs
+     */
+    public void skip(ByteReader reader) throws IOException {
+        skipVarInt(reader);
+    }
+
+    /**
+     * Skips a variable length integer by only checking the continuation bit of its bytes.
+     * 
+     * @param reader the reader positioned at the start of the variable length integer
+     * @throws IOException if an I/O problem occurs
+     */
+    private static void skipVarInt(ByteReader reader) throws IOException {
+
+        while ((reader.readByte() & 0x80) != 0) {
+            // skip the continuation bytes
+        }
+    }
     
     /**
      * Creates a new field instance with the specified value.
@@ -237,6 +264,39 @@ public enum FieldType implements Serializable {
         writer.writeByte(this.b);
     }
 
+    /**
+     * Returns the binary representation of this <code>FieldType</code>.
+     * 
+     * @return the binary representation of this <code>FieldType</code>.
+     */
+    int toByte() {
+
+        return this.b;
+    }
+
+    /**
+     * Returns the type of field represented by the specified byte.
+     * 
+     * @param code the binary representation of the field type
+     * @return the type of field represented by the specified byte.
+     */
+    static FieldType toFieldType(int code) {
+
+        FieldType[] values = FieldType.values();
+
+        for (int i = 0; i < values.length; i++) {
+
+            FieldType fieldType = values[i];
+
+            if (fieldType.b == code) {
+
+                return fieldType;
+            }
+        }
+
+        throw new IllegalStateException("The byte " + code + " does not match any field type");
+    }
+
     public static Parser<FieldType> getParser() {
 
         return PARSER;
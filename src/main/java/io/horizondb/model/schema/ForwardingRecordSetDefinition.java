@@ -174,6 +174,14 @@ abstract class ForwardingRecordSetDefinition implements RecordSetDefinition {
         return delegate().getFieldName(recordTypeIndex, fieldIndex);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FieldEncoding getFieldEncoding(int recordTypeIndex, int fieldIndex) {
+        return delegate().getFieldEncoding(recordTypeIndex, fieldIndex);
+    }
+
     /**
      * {@inheritDoc}
      */
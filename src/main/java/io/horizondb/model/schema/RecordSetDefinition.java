@@ -144,6 +144,15 @@ public interface RecordSetDefinition extends Iterable<RecordTypeDefinition>, Ser
      */
     String getFieldName(int recordTypeIndex, int fieldIndex);
 
+    /**
+     * Returns the encoding of the specified field of the specified record type.
+     * 
+     * @param recordTypeIndex the index of the record type
+     * @param fieldIndex the index of the field
+     * @return the encoding of the specified field of the specified record type
+     */
+    FieldEncoding getFieldEncoding(int recordTypeIndex, int fieldIndex);
+
     /**
      * Returns the definition of the record type with the specified index.
      * 
@@ -256,6 +256,21 @@ public class RecordTypeDefinition implements Iterable<FieldDefinition>, Serializ
         
         return this.fields.get(fieldIndex - 1).getType().newField();
     } 
+
+    /**
+     * Returns the encoding of the specified field.
+     * 
+     * @param fieldIndex the field index
+     * @return the encoding of the specified field
+     */
+    FieldEncoding getFieldEncoding(int fieldIndex) {
+
+        Validate.isTrue(fieldIndex > 0 && fieldIndex <= this.fields.size(), 
+                "No field has been defined with the index: " + fieldIndex 
+                + " fot the record type: " + this.name);
+
+        return this.fields.get(fieldIndex - 1).getEncoding();
+    }
     
     /**
      * Creates a new <code>RecordTypeDefinition</code> instance using the specified <code>Builder</code>.
@@ -348,6 +363,18 @@ public class RecordTypeDefinition implements Iterable<FieldDefinition>, Serializ
             return addField(name, FieldType.DECIMAL);
         }
 
+        /**
+         * Adds the specified decimal field to the list of fields of the record type.
+         * 
+         * @param name the field name.
+         * @param encoding the encoding used to store the field values within the columnar blocks.
+         * @return this <code>Builder</code>.
+         */
+        public Builder addDecimalField(String name, FieldEncoding encoding) {
+
+            return addField(name, FieldType.DECIMAL, encoding);
+        }
+
         /**
          * Adds the specified long field to the list of fields of the record type.
          * 
@@ -436,6 +463,28 @@ public class RecordTypeDefinition implements Iterable<FieldDefinition>, Serializ
             return addField(FieldDefinition.newInstance(name, type));
         }
 
+        /**
+         * Adds the specified field to the list of fields of the record type.
+         * 
+         * @param name the field name.
+         * @param type the field type.
+         * @param encoding the encoding used to store the field values within the columnar blocks.
+         * @return this <code>Builder</code>.
+         */
+        public Builder addField(String name, FieldType type, FieldEncoding encoding) {
+            return addField(FieldDefinition.newInstance(name, type, encoding));
+        }
+
+        /**
+         * Adds the specified field definition to the list of fields of the record type.
+         * 
+         * @param builder the builder of the field definition.
+         * @return this <code>Builder</code>.
+         */
+        public Builder addField(FieldDefinition.Builder builder) {
+            return addField(builder.build());
+        }
+
         /**
          * Adds the specified field definition to the list of fields of the record type.
          * 
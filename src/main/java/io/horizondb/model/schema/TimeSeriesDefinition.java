@@ -46,10 +46,16 @@ import static io.horizondb.io.files.FileUtils.ONE_KB;
 import static io.horizondb.model.core.Record.TIMESTAMP_FIELD_INDEX;
 import static io.horizondb.model.core.records.BlockHeaderUtils.COMPRESSED_BLOCK_SIZE_INDEX;
 import static io.horizondb.model.core.records.BlockHeaderUtils.COMPRESSION_TYPE_INDEX;
+import static io.horizondb.model.core.records.BlockHeaderUtils.KEYFRAME_INDEX_LENGTH;
 import static io.horizondb.model.core.records.BlockHeaderUtils.LAST_TIMESTAMP_INDEX;
 import static io.horizondb.model.core.records.BlockHeaderUtils.RECORD_COUNTERS_OFFSET;
 import static io.horizondb.model.core.records.BlockHeaderUtils.UNCOMPRESSED_BLOCK_SIZE_INDEX;
+import static io.horizondb.model.core.records.BlockHeaderUtils.computeBloomFilterLength;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getChecksumIndex;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getFlagsIndex;
+import static io.horizondb.model.core.records.BlockHeaderUtils.newSumField;
 import static org.apache.commons.lang.SystemUtils.LINE_SEPARATOR;
+import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
 
 /**
@@ -58,6 +64,24 @@ import static org.apache.commons.lang.Validate.notNull;
 @Immutable
 public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
 
+    /**
+     * The maximum number of fields of a block header.
+     */
+    private static final int MAXIMUM_NUMBER_OF_HEADER_FIELDS = 63;
+
+    /**
+     * The size in bytes of the smallest records that are expected within the blocks (a delta of a few bytes). 
+     * It is used to estimate the number of values that the bloom filters of a block must be able to hold.
+     */
+    private static final int MINIMUM_EXPECTED_RECORD_SIZE = 16;
+
+    /**
+     * The bit set on the serialized compression type when the block layout, the timestamp encoding and the 
+     * keyframe interval follow it. They are only serialized when they differ from their default values, so that 
+     * the definitions serialized before they existed can still be parsed.
+     */
+    private static final int BLOCK_FORMAT_FLAG = 0x80;
+
     /**
      * The parser instance.
      */
@@ -74,14 +98,28 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
             RecordSetDefinition recordSetDefinition = DefaultRecordSetDefinition.parseFrom(reader);
             PartitionType partitionType = PartitionType.parseFrom(reader);
             int blockSize = VarInts.readUnsignedInt(reader);
-            CompressionType compressionType = CompressionType.parseFrom(reader);
+            int code = reader.readByte() & 0xFF;
+            CompressionType compressionType = CompressionType.toCompressionType(code & ~BLOCK_FORMAT_FLAG);
+            BlockLayout blockLayout = BlockLayout.ROW;
+            FieldEncoding timestampEncoding = FieldEncoding.DEFAULT;
+            int keyframeInterval = 0;
+
+            if ((code & BLOCK_FORMAT_FLAG) != 0) {
+
+                blockLayout = BlockLayout.parseFrom(reader);
+                timestampEncoding = FieldEncoding.parseFrom(reader);
+                keyframeInterval = VarInts.readUnsignedInt(reader);
+            }
 
             return new TimeSeriesDefinition(name,
                                             timestamp,
                                             recordSetDefinition,
                                             partitionType,
                                             blockSize,
-                                            compressionType);
+                                            compressionType,
+                                            blockLayout,
+                                            timestampEncoding,
+                                            keyframeInterval);
         }
     };
 
@@ -115,18 +153,86 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
      */
     private final CompressionType compressionType;
 
+    /**
+     * The way the records are laid out within the blocks of this time series.
+     */
+    private final BlockLayout blockLayout;
+
+    /**
+     * The encoding used to store the record timestamps within the columnar blocks.
+     */
+    private final FieldEncoding timestampEncoding;
+
+    /**
+     * The number of records between two keyframes within the blocks using the row layout (0 if no keyframes 
+     * must be written).
+     */
+    private final int keyframeInterval;
+
+    /**
+     * The index within the block header of the minimum value of each field per record type 
+     * (-1 if the field does not have a zone map). 
+     */
+    private final int[][] zoneMapIndices;
+
+    /**
+     * The offset within the bloom filters of a block of the bloom filter of each field per record type 
+     * (-1 if the field does not have a bloom filter). 
+     */
+    private final int[][] bloomFilterOffsets;
+
+    /**
+     * The length in bytes of the bloom filter of a field.
+     */
+    private final int bloomFilterLength;
+
+    /**
+     * The total length in bytes of the bloom filters of a block (0 if none of the fields has a bloom filter).
+     */
+    private final int bloomFiltersLength;
+
+    /**
+     * The index within the block header of the sum of each field per record type 
+     * (-1 if the field does not have aggregates). 
+     */
+    private final int[][] sumIndices;
+
+    /**
+     * The index within the block header of the keyframe index (-1 if no keyframes are written).
+     */
+    private final int keyframeIndex;
+
+    /**
+     * The index within the block header of the segment offsets (-1 if the blocks do not use the segmented layout).
+     */
+    private final int segmentOffsetIndex;
+
+    /**
+     * The number of fields of the block header.
+     */
+    private final int numberOfHeaderFields;
+
     /**
      * {@inheritDoc}
      */
     @Override
     public int computeSerializedSize() throws IOException {
 
-        return VarInts.computeStringSize(this.name)
+        int size = VarInts.computeStringSize(this.name)
                 + VarInts.computeLongSize(this.timestamp)
                 + super.computeSerializedSize()
                 + this.partitionType.computeSerializedSize()
                 + VarInts.computeUnsignedIntSize(this.blockSizeInBytes)
                 + this.compressionType.computeSerializedSize();
+
+        if (hasDefaultBlockFormat()) {
+            return size;
+        }
+
+        return size
+                + this.blockLayout.computeSerializedSize()
+                + this.timestampEncoding.computeSerializedSize()
+                + VarInts.computeUnsignedIntSize(this.keyframeInterval);
     }
 
     /**
@@ -140,7 +246,30 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
         super.writeTo(writer);
         this.partitionType.writeTo(writer);
         VarInts.writeUnsignedInt(writer, this.blockSizeInBytes);
-        this.compressionType.writeTo(writer);
+
+        if (hasDefaultBlockFormat()) {
+
+            this.compressionType.writeTo(writer);
+            return;
+        }
+
+        writer.writeByte(this.compressionType.toByte() | BLOCK_FORMAT_FLAG);
+        this.blockLayout.writeTo(writer);
+        this.timestampEncoding.writeTo(writer);
+        VarInts.writeUnsignedInt(writer, this.keyframeInterval);
+    }
+
+    /**
+     * Checks if the block layout, the timestamp encoding and the keyframe interval have their default values.
+     * 
+     * @return <code>true</code> if the block layout, the timestamp encoding and the keyframe interval have their 
+     * default values.
+     */
+    private boolean hasDefaultBlockFormat() {
+
+        return this.blockLayout == BlockLayout.ROW 
+                && this.timestampEncoding == FieldEncoding.DEFAULT 
+                && this.keyframeInterval == 0;
     }
 
     /**
@@ -196,6 +325,125 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
         return this.compressionType;
     }
 
+    /**
+     * Returns the way the records are laid out within the blocks of the time series.
+     * 
+     * @return the way the records are laid out within the blocks of the time series
+     */
+    public BlockLayout getBlockLayout() {
+        return this.blockLayout;
+    }
+
+    /**
+     * Returns the encoding used to store the record timestamps within the columnar blocks.
+     * 
+     * @return the encoding used to store the record timestamps within the columnar blocks
+     */
+    public FieldEncoding getTimestampEncoding() {
+        return this.timestampEncoding;
+    }
+
+    /**
+     * Returns the number of records between two keyframes within the blocks using the row layout.
+     * 
+     * @return the number of records between two keyframes or 0 if no keyframes must be written.
+     */
+    public int getKeyframeInterval() {
+        return this.keyframeInterval;
+    }
+
+    /**
+     * Returns the index within the block header of the first entry of the keyframe index. 
+     * 
+     * @return the index within the block header of the first entry of the keyframe index or -1 if 
+     * no keyframes are written.
+     */
+    public int getKeyframeIndex() {
+        return this.keyframeIndex;
+    }
+
+    /**
+     * Returns the index within the block header of the offset of the segment of the first record type. 
+     * The offsets of the segments of the other types are stored at the following indices.
+     * 
+     * @return the index within the block header of the offset of the segment of the first record type or -1 if 
+     * the blocks do not use the segmented layout.
+     */
+    public int getSegmentOffsetIndex() {
+        return this.segmentOffsetIndex;
+    }
+
+    /**
+     * Returns the index within the block header of the minimum value of the specified field. The maximum value
+     * is stored at the next index.
+     * 
+     * @param recordTypeIndex the index of the record type
+     * @param fieldIndex the index of the field
+     * @return the index within the block header of the minimum value of the specified field or -1 if no 
+     * zone map is maintained for the field.
+     */
+    public int getZoneMapIndex(int recordTypeIndex, int fieldIndex) {
+        return this.zoneMapIndices[recordTypeIndex][fieldIndex];
+    }
+
+    /**
+     * Returns the offset of the bloom filter of the specified field within the bloom filters of a block.
+     * The bloom filters are stored after the block header as they do not fit within it. 
+     * 
+     * @param recordTypeIndex the index of the record type
+     * @param fieldIndex the index of the field
+     * @return the offset of the bloom filter of the specified field within the bloom filters of a block 
+     * or -1 if no bloom filter is maintained for the field.
+     */
+    public int getBloomFilterOffset(int recordTypeIndex, int fieldIndex) {
+        return this.bloomFilterOffsets[recordTypeIndex][fieldIndex];
+    }
+
+    /**
+     * Returns the length in bytes of the bloom filter of a field. The filters are sized to hold the number of 
+     * records expected within a block with a false positive rate of 1%.
+     * 
+     * @return the length in bytes of the bloom filter of a field.
+     */
+    public int getBloomFilterLength() {
+        return this.bloomFilterLength;
+    }
+
+    /**
+     * Returns the total length in bytes of the bloom filters of a block.
+     * 
+     * @return the total length in bytes of the bloom filters of a block or 0 if none of the fields has 
+     * a bloom filter.
+     */
+    public int getBloomFiltersLength() {
+        return this.bloomFiltersLength;
+    }
+
+    /**
+     * Returns the index within the block header of the sum of the values of the specified field. 
+     * 
+     * @param recordTypeIndex the index of the record type
+     * @param fieldIndex the index of the field
+     * @return the index within the block header of the sum of the values of the specified field
+     * or -1 if no aggregates are maintained for the field.
+     */
+    public int getSumIndex(int recordTypeIndex, int fieldIndex) {
+        return this.sumIndices[recordTypeIndex][fieldIndex];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FieldEncoding getFieldEncoding(int recordTypeIndex, int fieldIndex) {
+
+        if (fieldIndex == TIMESTAMP_FIELD_INDEX) {
+            return this.timestampEncoding;
+        }
+
+        return super.getFieldEncoding(recordTypeIndex, fieldIndex);
+    }
+
     /**
      * Creates a new <code>TimeSeriesMetaData</code> by reading the data from the specified reader.
      * 
@@ -279,6 +527,9 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
                                   .append(this.partitionType, rhs.partitionType)
                                   .append(this.blockSizeInBytes, rhs.blockSizeInBytes)
                                   .append(this.compressionType, rhs.compressionType)
+                                  .append(this.blockLayout, rhs.blockLayout)
+                                  .append(this.timestampEncoding, rhs.timestampEncoding)
+                                  .append(this.keyframeInterval, rhs.keyframeInterval)
                                   .isEquals();
     }
 
@@ -292,6 +543,9 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
                                                           .append(this.partitionType)
                                                           .append(this.blockSizeInBytes)
                                                           .append(this.compressionType)
+                                                          .append(this.blockLayout)
+                                                          .append(this.timestampEncoding)
+                                                          .append(this.keyframeInterval)
                                                           .toHashCode();
     }
 
@@ -306,6 +560,9 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
                                         .append("partitionType", this.partitionType)
                                         .append("compressionType", this.compressionType)
                                         .append("blockSizeInBytes", this.blockSizeInBytes)
+                                        .append("blockLayout", this.blockLayout)
+                                        .append("timestampEncoding", this.timestampEncoding)
+                                        .append("keyframeInterval", this.keyframeInterval)
                                         .toString();
     }
 
@@ -320,7 +577,10 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
                                         this.recordSetDefinition,
                                         this.partitionType,
                                         this.blockSizeInBytes,
-                                        this.compressionType);
+                                        this.compressionType,
+                                        this.blockLayout,
+                                        this.timestampEncoding,
+                                        this.keyframeInterval);
     }
     
     /**
@@ -335,7 +595,10 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
              builder.builder.build(),
              builder.partitionType,
              builder.blockSize,
-             builder.compressionType);
+             builder.compressionType,
+             builder.blockLayout,
+             builder.timestampEncoding,
+             builder.keyframeInterval);
     }
 
     private TimeSeriesDefinition(String name,
@@ -343,7 +606,10 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
                                  RecordSetDefinition recordSetDefinition,
                                  PartitionType partitionType,
                                  int blockSize,
-                                 CompressionType compressionType) {
+                                 CompressionType compressionType,
+                                 BlockLayout blockLayout,
+                                 FieldEncoding timestampEncoding,
+                                 int keyframeInterval) {
 
         this.name = name;
         this.timestamp = timestamp;
@@ -351,6 +617,100 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
         this.partitionType = partitionType;
         this.blockSizeInBytes = blockSize;
         this.compressionType = compressionType;
+        this.blockLayout = blockLayout;
+        this.timestampEncoding = timestampEncoding;
+        this.keyframeInterval = keyframeInterval;
+        this.zoneMapIndices = new int[recordSetDefinition.getNumberOfRecordTypes()][];
+        this.bloomFilterOffsets = new int[recordSetDefinition.getNumberOfRecordTypes()][];
+        this.bloomFilterLength = computeBloomFilterLength(blockSize / MINIMUM_EXPECTED_RECORD_SIZE);
+        this.sumIndices = new int[recordSetDefinition.getNumberOfRecordTypes()][];
+
+        int index = RECORD_COUNTERS_OFFSET + recordSetDefinition.getNumberOfRecordTypes();
+        int bloomFilterOffset = 0;
+
+        if (blockLayout == BlockLayout.SEGMENTED) {
+
+            this.segmentOffsetIndex = index;
+            index += recordSetDefinition.getNumberOfRecordTypes();
+
+        } else {
+
+            this.segmentOffsetIndex = -1;
+        }
+
+        for (int type = 0; type < this.zoneMapIndices.length; type++) {
+
+            RecordTypeDefinition recordType = recordSetDefinition.getRecordType(type);
+
+            int[] indices = new int[recordType.getNumberOfFields() + 1];
+            indices[TIMESTAMP_FIELD_INDEX] = -1;
+
+            int[] bloomFilters = new int[indices.length];
+            bloomFilters[TIMESTAMP_FIELD_INDEX] = -1;
+
+            int[] sums = new int[indices.length];
+            sums[TIMESTAMP_FIELD_INDEX] = -1;
+
+            int fieldIndex = 1;
+
+            for (FieldDefinition field : recordType) {
+
+                if (field.hasZoneMap()) {
+
+                    indices[fieldIndex] = index;
+                    index += 2;
+
+                } else {
+
+                    indices[fieldIndex] = -1;
+                }
+
+                if (field.hasAggregates()) {
+
+                    sums[fieldIndex] = index;
+                    index++;
+
+                } else {
+
+                    sums[fieldIndex] = -1;
+                }
+
+                if (field.hasBloomFilter()) {
+
+                    bloomFilters[fieldIndex] = bloomFilterOffset;
+                    bloomFilterOffset += this.bloomFilterLength;
+
+                } else {
+
+                    bloomFilters[fieldIndex] = -1;
+                }
+
+                fieldIndex++;
+            }
+
+            this.zoneMapIndices[type] = indices;
+            this.bloomFilterOffsets[type] = bloomFilters;
+            this.sumIndices[type] = sums;
+        }
+
+        if (keyframeInterval > 0) {
+
+            this.keyframeIndex = index;
+            index += 2 * KEYFRAME_INDEX_LENGTH;
+
+        } else {
+
+            this.keyframeIndex = -1;
+        }
+
+        // The checksum and the flags are the last fields of the header
+        index += 2;
+
+        isTrue(index <= MAXIMUM_NUMBER_OF_HEADER_FIELDS, 
+               "the block header cannot contain more than " + MAXIMUM_NUMBER_OF_HEADER_FIELDS + " fields.");
+
+        this.numberOfHeaderFields = index;
+        this.bloomFiltersLength = bloomFilterOffset;
     }
 
     /**
@@ -396,16 +756,47 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
      */
     private Field[] getBlockHeaderFields() {
         
-        Field[] fields = new Field[RECORD_COUNTERS_OFFSET + getNumberOfRecordTypes()];
+        Field[] fields = new Field[this.numberOfHeaderFields];
         fields[TIMESTAMP_FIELD_INDEX] = new TimestampField(getTimeUnit());
         fields[LAST_TIMESTAMP_INDEX] = new TimestampField(getTimeUnit());
         fields[COMPRESSED_BLOCK_SIZE_INDEX] = new IntegerField();
         fields[UNCOMPRESSED_BLOCK_SIZE_INDEX] = new IntegerField();
         fields[COMPRESSION_TYPE_INDEX] = new ByteField();
+        fields[getChecksumIndex(fields.length)] = new IntegerField();
+        fields[getFlagsIndex(fields.length)] = new ByteField();
         
-        for (int i = RECORD_COUNTERS_OFFSET, m = fields.length; i < m; i++) {
+        for (int i = RECORD_COUNTERS_OFFSET, m = RECORD_COUNTERS_OFFSET + getNumberOfRecordTypes(); i < m; i++) {
             fields[i] = new IntegerField();
         }
+
+        for (int i = 0; this.segmentOffsetIndex >= 0 && i < getNumberOfRecordTypes(); i++) {
+            fields[this.segmentOffsetIndex + i] = new IntegerField();
+        }
+
+        for (int type = 0; type < this.zoneMapIndices.length; type++) {
+
+            int[] indices = this.zoneMapIndices[type];
+
+            for (int i = 0; i < indices.length; i++) {
+
+                if (indices[i] >= 0) {
+                    fields[indices[i]] = newField(type, i);
+                    fields[indices[i] + 1] = newField(type, i);
+                }
+
+                int sumIndex = this.sumIndices[type][i];
+
+                if (sumIndex >= 0) {
+                    fields[sumIndex] = newSumField(newField(type, i).getType());
+                }
+
+            }
+        }
+
+        for (int i = 0; this.keyframeIndex >= 0 && i < KEYFRAME_INDEX_LENGTH; i++) {
+            fields[this.keyframeIndex + 2 * i] = new TimestampField(getTimeUnit());
+            fields[this.keyframeIndex + 2 * i + 1] = new IntegerField();
+        }
         return fields;
     }
 
@@ -434,6 +825,21 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
          */
         private CompressionType compressionType = CompressionType.LZ4;
 
+        /**
+         * The way the records are laid out within the blocks.
+         */
+        private BlockLayout blockLayout = BlockLayout.ROW;
+
+        /**
+         * The encoding used to store the record timestamps within the columnar blocks.
+         */
+        private FieldEncoding timestampEncoding = FieldEncoding.DEFAULT;
+
+        /**
+         * The number of records between two keyframes.
+         */
+        private int keyframeInterval;
+
         /**
          * The record set definition builder.
          */
@@ -510,6 +916,53 @@ public final class TimeSeriesDefinition extends ForwardingRecordSetDefinition {
             this.compressionType = compressionType;
             return this;
         }
+
+        /**
+         * Sets the way the records must be laid out within the blocks of the time series.
+         * 
+         * @param blockLayout the way the records must be laid out within the blocks.
+         * @return this <code>Builder</code>.
+         */
+        public Builder blockLayout(BlockLayout blockLayout) {
+
+            notNull(blockLayout, "the blockLayout parameter must not be null.");
+
+            this.blockLayout = blockLayout;
+            return this;
+        }
+
+        /**
+         * Sets the encoding used to store the record timestamps within the columnar blocks.
+         * 
+         * @param timestampEncoding the encoding used to store the record timestamps.
+         * @return this <code>Builder</code>.
+         */
+        public Builder timestampEncoding(FieldEncoding timestampEncoding) {
+
+            notNull(timestampEncoding, "the timestampEncoding parameter must not be null.");
+            isTrue(timestampEncoding.supports(FieldType.NANOSECONDS_TIMESTAMP), 
+                   "the " + timestampEncoding + " encoding cannot be used for timestamps.");
+
+            this.timestampEncoding = timestampEncoding;
+            return this;
+        }
+
+        /**
+         * Sets the number of records after which a keyframe must be written within the blocks using the row
+         * layout. After a keyframe, the next record of each type is stored as a full record and its position 
+         * is added to the keyframe index of the block header, allowing readers to start decoding from there.
+         * 
+         * @param keyframeInterval the number of records between two keyframes or 0 if no keyframes must 
+         * be written.
+         * @return this <code>Builder</code>.
+         */
+        public Builder keyframeInterval(int keyframeInterval) {
+
+            isTrue(keyframeInterval >= 0, "the keyframeInterval parameter must not be negative.");
+
+            this.keyframeInterval = keyframeInterval;
+            return this;
+        }
         
         /**
          * Adds the specified record type to the type of records that will be composing the time series.
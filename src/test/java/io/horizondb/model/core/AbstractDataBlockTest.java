@@ -13,6 +13,8 @@
  */
 package io.horizondb.model.core;
 
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.compression.CompressionType;
 import io.horizondb.model.core.blocks.DataBlockBuilder;
 import io.horizondb.model.core.util.TimeUtils;
 import io.horizondb.model.schema.PartitionType;
@@ -29,8 +31,12 @@ import org.junit.Test;
 
 import com.google.common.collect.Range;
 
+import static io.horizondb.model.core.iterators.BlockIterators.compress;
+import static io.horizondb.model.core.iterators.BlockIterators.iterator;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressionType;
 import static io.horizondb.model.core.records.BlockHeaderUtils.getRecordCount;
 import static io.horizondb.model.schema.FieldType.MILLISECONDS_TIMESTAMP;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -168,4 +174,75 @@ public class AbstractDataBlockTest {
         assertEquals(1, getRecordCount(map.get(third).getHeader(), 0));
         assertEquals(0, getRecordCount(map.get(third).getHeader(), 1));
     }
+
+    @Test
+    public void testSplitRebaseTheFirstRecordOfEachTypeAfterTheBoundary() throws IOException {
+
+        Range<Field> first = MILLISECONDS_TIMESTAMP.range("'2013-11-26 00:00:00.000'", "'2013-11-27 00:00:00.000'");
+        Range<Field> second = MILLISECONDS_TIMESTAMP.range("'2013-11-27 00:00:00.000'", "'2013-11-28 00:00:00.000'");
+
+        long timestamp = TimeUtils.parseDateTime("2013-11-26 23:59:59.000");
+        long timestamp2 = TimeUtils.parseDateTime("2013-11-27 00:00:00.000");
+
+        DataBlock block = addRecords(addRecords(new DataBlockBuilder(this.def), timestamp), timestamp2).build();
+
+        DataBlock expectedFirst = addRecords(new DataBlockBuilder(this.def), timestamp).build();
+        DataBlock expectedSecond = addRecords(new DataBlockBuilder(this.def), timestamp2).build();
+
+        Map<Range<Field>, DataBlock> map = block.split(this.def).asMapOfRanges();
+        assertEquals(2, map.size());
+
+        assertEquals(expectedFirst.getHeader(), map.get(first).getHeader());
+        assertArrayEquals(Buffers.toBytes(expectedFirst.getData()), Buffers.toBytes(map.get(first).getData()));
+
+        assertEquals(expectedSecond.getHeader(), map.get(second).getHeader());
+        assertArrayEquals(Buffers.toBytes(expectedSecond.getData()), Buffers.toBytes(map.get(second).getData()));
+    }
+
+    @Test
+    public void testSplitWithCompressedBlock() throws IOException {
+
+        Range<Field> first = MILLISECONDS_TIMESTAMP.range("'2013-11-26 00:00:00.000'", "'2013-11-27 00:00:00.000'");
+        Range<Field> second = MILLISECONDS_TIMESTAMP.range("'2013-11-27 00:00:00.000'", "'2013-11-28 00:00:00.000'");
+
+        long timestamp = TimeUtils.parseDateTime("2013-11-26 23:59:59.000");
+        long timestamp2 = TimeUtils.parseDateTime("2013-11-27 00:00:00.000");
+
+        DataBlock block = addRecords(addRecords(new DataBlockBuilder(this.def), timestamp), timestamp2).build();
+        DataBlock compressed = compress(CompressionType.LZ4, iterator(block)).next();
+
+        assertEquals(CompressionType.LZ4, getCompressionType(compressed.getHeader()));
+
+        DataBlock expectedFirst = addRecords(new DataBlockBuilder(this.def), timestamp).build();
+        DataBlock expectedSecond = addRecords(new DataBlockBuilder(this.def), timestamp2).build();
+
+        Map<Range<Field>, DataBlock> map = compressed.split(this.def).asMapOfRanges();
+        assertEquals(2, map.size());
+
+        assertEquals(expectedFirst.getHeader(), map.get(first).getHeader());
+        assertArrayEquals(Buffers.toBytes(expectedFirst.getData()), Buffers.toBytes(map.get(first).getData()));
+
+        assertEquals(expectedSecond.getHeader(), map.get(second).getHeader());
+        assertArrayEquals(Buffers.toBytes(expectedSecond.getData()), Buffers.toBytes(map.get(second).getData()));
+    }
+
+    private static DataBlockBuilder addRecords(DataBlockBuilder builder, long timestamp) {
+
+        return builder.newRecord("exchangeState")
+                      .setTimestampInMillis(0, timestamp)
+                      .setTimestampInMillis(1, timestamp)
+                      .setByte(2, 10)
+                      .newRecord("trade")
+                      .setTimestampInMillis(0, timestamp + 100)
+                      .setTimestampInMillis(1, timestamp + 100)
+                      .setDecimal(2, 125, 1)
+                      .newRecord("exchangeState")
+                      .setTimestampInMillis(0, timestamp + 200)
+                      .setTimestampInMillis(1, timestamp + 200)
+                      .setByte(2, 5)
+                      .newRecord("trade")
+                      .setTimestampInMillis(0, timestamp + 300)
+                      .setTimestampInMillis(1, timestamp + 300)
+                      .setDecimal(2, 130, 1);
+    }
 }
@@ -139,6 +139,14 @@ public class AbstractDataBlockTest {
             throw new UnsupportedOperationException();
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ReadableBuffer getBloomFilters() {
+            throw new UnsupportedOperationException();
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -0,0 +1,151 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import static io.horizondb.model.core.iterators.BlockIterators.iterator;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newTradeType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BlockAggregatorTest {
+
+    @Test
+    public void testAggregateWithAggregatesInHeaders() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(true));
+
+        FieldAggregate aggregate = aggregate(definition, "volume", 150, 450);
+
+        assertEquals(5, aggregate.getCount());
+        assertEquals(10 + 20 + 30 + 40 + 50, aggregate.getSum().getLong());
+        assertEquals(10, aggregate.getMinimum().getInt());
+        assertEquals(50, aggregate.getMaximum().getInt());
+
+        aggregate = aggregate(definition, "price", 150, 450);
+
+        assertEquals(5, aggregate.getCount());
+        assertEquals(15.0, aggregate.getSum().getDouble(), 0.0);
+        assertEquals(1.0, aggregate.getMinimum().getDouble(), 0.0);
+        assertEquals(5.0, aggregate.getMaximum().getDouble(), 0.0);
+    }
+
+    @Test
+    public void testAggregateWithoutAggregatesInHeaders() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+
+        FieldAggregate aggregate = aggregate(definition, "volume", 150, 450);
+
+        assertEquals(5, aggregate.getCount());
+        assertEquals(10 + 20 + 30 + 40 + 50, aggregate.getSum().getLong());
+        assertEquals(10, aggregate.getMinimum().getInt());
+        assertEquals(50, aggregate.getMaximum().getInt());
+    }
+
+    @Test
+    public void testAggregateWithPartiallyCoveredBlocks() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(true));
+
+        FieldAggregate aggregate = aggregate(definition, "volume", 250, 350);
+
+        assertEquals(2, aggregate.getCount());
+        assertEquals(30 + 40, aggregate.getSum().getLong());
+        assertEquals(30, aggregate.getMinimum().getInt());
+        assertEquals(40, aggregate.getMaximum().getInt());
+    }
+
+    @Test
+    public void testAggregateWithNoRecordsWithinRange() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(true));
+
+        FieldAggregate aggregate = aggregate(definition, "volume", 1000, 2000);
+
+        assertEquals(0, aggregate.getCount());
+        assertEquals(0, aggregate.getSum().getLong());
+        assertNull(aggregate.getMinimum());
+        assertNull(aggregate.getMaximum());
+    }
+
+    private static FieldAggregate aggregate(TimeSeriesDefinition definition, 
+                                            String fieldName, 
+                                            long from, 
+                                            long to) throws IOException {
+
+        Range<Field> range = Range.closedOpen(toTimestampField(from), toTimestampField(to));
+
+        try (ResourceIterator<DataBlock> blocks = iterator(newBlocks(definition))) {
+            return new BlockAggregator(definition, "trade", fieldName).aggregate(range, blocks);
+        }
+    }
+
+    private static Field toTimestampField(long timestampInMillis) {
+
+        return FieldType.MILLISECONDS_TIMESTAMP.newField().setTimestampInMillis(timestampInMillis);
+    }
+
+
+    private static DataBlock[] newBlocks(TimeSeriesDefinition definition) throws IOException {
+
+        DataBlock first = new DataBlockBuilder(definition).newRecord("trade")
+                                                          .setTimestampInMillis(0, 100)
+                                                          .setDecimal(2, 5, -1)
+                                                          .setInt(1, 5)
+                                                          .newRecord("trade")
+                                                          .setTimestampInMillis(0, 150)
+                                                          .setDecimal(2, 1, 0)
+                                                          .setInt(1, 10)
+                                                          .build();
+
+        DataBlock second = new DataBlockBuilder(definition).newRecord("trade")
+                                                           .setTimestampInMillis(0, 200)
+                                                           .setDecimal(2, 2, 0)
+                                                           .setInt(1, 20)
+                                                           .newRecord("trade")
+                                                           .setTimestampInMillis(0, 300)
+                                                           .setDecimal(2, 3, 0)
+                                                           .setInt(1, 30)
+                                                           .newRecord("trade")
+                                                           .setTimestampInMillis(0, 320)
+                                                           .setDecimal(2, 4, 0)
+                                                           .setInt(1, 40)
+                                                           .build();
+
+        DataBlock third = new DataBlockBuilder(definition).newRecord("trade")
+                                                          .setTimestampInMillis(0, 400)
+                                                          .setDecimal(2, 5, 0)
+                                                          .setInt(1, 50)
+                                                          .newRecord("trade")
+                                                          .setTimestampInMillis(0, 500)
+                                                          .setDecimal(2, 6, 0)
+                                                          .setInt(1, 60)
+                                                          .build();
+
+        return new DataBlock[] { first, second, third };
+    }
+}
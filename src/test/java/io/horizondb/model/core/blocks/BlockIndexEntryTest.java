@@ -0,0 +1,49 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.schema.BlockPosition;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlockIndexEntryTest {
+
+    @Test
+    public void testParseFrom() throws IOException {
+
+        BlockIndexEntry entry = new BlockIndexEntry(new BlockPosition(1024, 32), 1400000000000L, 1400000001500L);
+
+        Buffer buffer = Buffers.allocate(100);
+        entry.writeTo(buffer);
+
+        assertEquals(entry, BlockIndexEntry.parseFrom(buffer));
+    }
+
+    @Test
+    public void testComputeSerializedSize() throws IOException {
+
+        BlockIndexEntry entry = new BlockIndexEntry(new BlockPosition(1024, 32), 1400000000000L, 1400000001500L);
+
+        Buffer buffer = Buffers.allocate(100);
+        entry.writeTo(buffer);
+
+        assertEquals(buffer.readableBytes(), entry.computeSerializedSize());
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.core.filters.Filters;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getChecksum;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newExchangeStateType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChecksumVerificationTest {
+
+    @Test
+    public void testVerifyWithValidBlock() throws Exception {
+
+        DataBlock block = newBlock();
+
+        assertTrue(getChecksum(block.getHeader()) != 0);
+
+        ChecksumVerification.ALWAYS.verify(block, 0);
+        ChecksumVerification.SAMPLED.verify(block, 0);
+    }
+
+    @Test
+    public void testVerifyWithCorruptedBlock() throws Exception {
+
+        DataBlock corrupted = corrupt(newBlock());
+
+        try {
+
+            ChecksumVerification.ALWAYS.verify(corrupted, 1);
+            fail();
+
+        } catch (CorruptedBlockException e) {
+            assertTrue(true);
+        }
+
+        try {
+
+            ChecksumVerification.SAMPLED.verify(corrupted, ChecksumVerification.SAMPLING_INTERVAL);
+            fail();
+
+        } catch (CorruptedBlockException e) {
+            assertTrue(true);
+        }
+
+        ChecksumVerification.SAMPLED.verify(corrupted, 1);
+        ChecksumVerification.OFF.verify(corrupted, 0);
+    }
+
+    @Test
+    public void testRecordIteratorWithCorruptedBlock() throws Exception {
+
+        DataBlock corrupted = corrupt(newBlock());
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        Buffer buffer = Buffers.allocate(corrupted.computeSerializedSize());
+        corrupted.writeTo(buffer);
+
+        try (BinaryTimeSeriesRecordIterator iterator = new BinaryTimeSeriesRecordIterator(definition, 
+                                                                                          buffer.duplicate())) {
+            iterator.hasNext();
+            fail();
+
+        } catch (CorruptedBlockException e) {
+            assertTrue(true);
+        }
+
+        try (BinaryTimeSeriesRecordIterator iterator = new BinaryTimeSeriesRecordIterator(definition, 
+                                                                                          buffer.duplicate(),
+                                                                                          TimestampField.ALL,
+                                                                                          Filters.<String>noop(),
+                                                                                          Filters.<String>noop(),
+                                                                                          ChecksumVerification.OFF)) {
+            int count = 0;
+
+            while (iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+
+            assertEquals(5, count);
+        }
+    }
+
+    private static DataBlock corrupt(DataBlock block) throws Exception {
+
+        byte[] bytes = toBytes(block.getData());
+        bytes[bytes.length - 1] ^= 1;
+
+        return new DefaultDataBlock(block.getHeader(), Buffers.wrap(bytes));
+    }
+
+    private static DataBlock newBlock() throws Exception {
+
+        DataBlockBuilder builder = new DataBlockBuilder(newDefinition(newExchangeStateType()));
+
+        for (int i = 1; i <= 5; i++) {
+            builder.newRecord("exchangeState")
+                   .setTimestampInMillis(0, i * 100)
+                   .setTimestampInMillis(1, i * 100 + 5)
+                   .setByte(2, i % 2);
+        }
+
+        return builder.build();
+    }
+}
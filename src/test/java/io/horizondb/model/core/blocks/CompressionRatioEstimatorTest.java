@@ -0,0 +1,69 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompressionRatioEstimatorTest {
+
+    @Test
+    public void testUpdate() {
+
+        CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+
+        assertEquals(1.0, estimator.getRatio(), 0.0);
+        assertEquals(100, estimator.getUncompressedSize(100));
+
+        estimator.update(400, 100);
+
+        assertEquals(2.5, estimator.getRatio(), 0.0);
+        assertEquals(250, estimator.getUncompressedSize(100));
+
+        estimator.update(200, 100);
+
+        assertEquals(2.25, estimator.getRatio(), 0.0);
+    }
+
+    @Test
+    public void testUpdateWithEmptyBlock() {
+
+        CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+
+        estimator.update(0, 0);
+
+        assertEquals(1.0, estimator.getRatio(), 0.0);
+    }
+
+    @Test
+    public void testUpdateWithRatioAboveMaximum() {
+
+        CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+
+        estimator.update(10000, 1);
+
+        assertEquals((CompressionRatioEstimator.MAXIMUM_RATIO + 1) / 2, estimator.getRatio(), 0.0);
+    }
+
+    @Test
+    public void testUpdateWithIncompressibleData() {
+
+        CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+
+        estimator.update(100, 110);
+
+        assertEquals(1.0, estimator.getRatio(), 0.0);
+    }
+}
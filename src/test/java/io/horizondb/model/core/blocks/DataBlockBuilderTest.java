@@ -0,0 +1,92 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newExchangeStateType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DataBlockBuilderTest {
+
+    @Test
+    public void testBuildWithUnorderedRecords() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        DataBlock expected = addRecords(new DataBlockBuilder(definition), 1, 2, 3, 4, 5).build();
+        DataBlock actual = addRecords(new DataBlockBuilder(definition), 3, 1, 5, 2, 4).build();
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    @Test
+    public void testBuildInStreamingMode() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        DataBlock expected = addRecords(new DataBlockBuilder(definition), 1, 2, 3, 4, 5, 5, 6).build();
+        DataBlock actual = addRecords(new DataBlockBuilder(definition, 0), 1, 2, 3, 4, 5, 5, 6).build();
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    @Test
+    public void testBuildInStreamingModeWithRecordsWithinTheReorderWindow() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        DataBlock expected = addRecords(new DataBlockBuilder(definition), 2, 1, 3, 6, 4, 5, 7).build();
+        DataBlock actual = addRecords(new DataBlockBuilder(definition, 2), 2, 1, 3, 6, 4, 5, 7).build();
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    @Test
+    public void testBuildInStreamingModeWithRecordsOutsideTheReorderWindow() throws Exception {
+
+        DataBlockBuilder builder = addRecords(new DataBlockBuilder(newDefinition(newExchangeStateType()), 1), 2, 3, 4);
+
+        try {
+
+            addRecords(builder, 1).build();
+            fail();
+
+        } catch (IllegalStateException e) {
+            assertEquals(true, e.getMessage().contains("reorder window"));
+        }
+    }
+
+    private static DataBlockBuilder addRecords(DataBlockBuilder builder, int... timestamps) {
+
+        for (int timestamp : timestamps) {
+            builder.newRecord("exchangeState")
+                   .setTimestampInMillis(0, timestamp * 100)
+                   .setTimestampInMillis(1, timestamp * 100 + 5)
+                   .setByte(2, timestamp % 2);
+        }
+
+        return builder;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.fields.TimestampField;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DeltaOfDeltaColumnEncoderTest {
+
+    @Test
+    public void testEncodeAndDecodeRegularTimestamps() throws IOException {
+
+        long[] timestamps = new long[1000];
+
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = 1396569600000L + i * 100;
+        }
+
+        DeltaOfDeltaColumnEncoder encoder = encode(timestamps);
+
+        assertTrue(encoder.computeSerializedSize() < 20);
+        assertDecodedTimestampsEquals(timestamps, encoder);
+    }
+
+    @Test
+    public void testEncodeAndDecodeIrregularTimestamps() throws IOException {
+
+        long[] timestamps = { 1396569600000L, 1396569601000L, 1396569602000L, 1396569603001L, 1396569603999L,
+                1396569604100L, 1396569604100L, 1396569700000L, 1396569700010L, 1399999999999L, 1396569800000L,
+                Long.MAX_VALUE, 0 };
+
+        DeltaOfDeltaColumnEncoder encoder = encode(timestamps);
+
+        assertDecodedTimestampsEquals(timestamps, encoder);
+    }
+
+    @Test
+    public void testEncodeAndDecodeSingleTimestamp() throws IOException {
+
+        long[] timestamps = { 1396569600000L };
+
+        assertDecodedTimestampsEquals(timestamps, encode(timestamps));
+    }
+
+    private static DeltaOfDeltaColumnEncoder encode(long[] timestamps) throws IOException {
+
+        DeltaOfDeltaColumnEncoder encoder = new DeltaOfDeltaColumnEncoder(TimeUnit.MILLISECONDS);
+        Field field = new TimestampField(TimeUnit.MILLISECONDS);
+
+        for (long timestamp : timestamps) {
+            encoder.append(field.setTimestampInMillis(timestamp));
+        }
+
+        return encoder;
+    }
+
+    private static void assertDecodedTimestampsEquals(long[] expected, DeltaOfDeltaColumnEncoder encoder) 
+            throws IOException {
+
+        Buffer buffer = Buffers.allocate(encoder.computeSerializedSize());
+        encoder.writeTo(buffer);
+
+        assertEquals(encoder.computeSerializedSize(), buffer.readableBytes());
+
+        DeltaOfDeltaColumnDecoder decoder = new DeltaOfDeltaColumnDecoder(TimeUnit.MILLISECONDS, buffer);
+        Field field = new TimestampField(TimeUnit.MILLISECONDS);
+
+        for (long timestamp : expected) {
+
+            decoder.readNext(field);
+            assertEquals(timestamp, field.getTimestampInMillis());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.fields.IntegerField;
+import io.horizondb.model.core.fields.LongField;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameOfReferenceColumnEncoderTest {
+
+    @Test
+    public void testEncodeAndDecodeIntegers() throws IOException {
+
+        FrameOfReferenceColumnEncoder encoder = new FrameOfReferenceColumnEncoder(Buffers.getDefaultAllocator());
+        DeltaColumnEncoder deltaEncoder = new DeltaColumnEncoder(Buffers.getDefaultAllocator(), new IntegerField());
+
+        int[] values = new int[300];
+
+        for (int i = 0; i < values.length; i++) {
+
+            values[i] = 1000 + ((i * 37) % 200);
+
+            Field field = new IntegerField().setInt(values[i]);
+            encoder.append(field);
+            deltaEncoder.append(field);
+        }
+
+        assertTrue(encoder.computeSerializedSize() < deltaEncoder.computeSerializedSize());
+
+        Buffer buffer = Buffers.allocate(encoder.computeSerializedSize());
+        encoder.writeTo(buffer);
+
+        assertEquals(encoder.computeSerializedSize(), buffer.readableBytes());
+
+        Field field = new IntegerField();
+        FrameOfReferenceColumnDecoder decoder = new FrameOfReferenceColumnDecoder(field, buffer);
+
+        for (int i = 0; i < values.length; i++) {
+
+            decoder.readNext(field);
+            assertEquals(values[i], field.getInt());
+        }
+    }
+
+    @Test
+    public void testEncodeAndDecodeLongs() throws IOException {
+
+        FrameOfReferenceColumnEncoder encoder = new FrameOfReferenceColumnEncoder(Buffers.getDefaultAllocator());
+
+        long[] values = { 0, Long.MAX_VALUE, Long.MIN_VALUE, -1, 1, 5, 5, 5 };
+
+        for (int i = 0; i < values.length; i++) {
+            encoder.append(new LongField().setLong(values[i]));
+        }
+
+        Buffer buffer = Buffers.allocate(encoder.computeSerializedSize());
+        encoder.writeTo(buffer);
+
+        Field field = new LongField();
+        FrameOfReferenceColumnDecoder decoder = new FrameOfReferenceColumnDecoder(field, buffer);
+
+        for (int i = 0; i < values.length; i++) {
+
+            decoder.readNext(field);
+            assertEquals(values[i], field.getLong());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getFirstTimestamp;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedBlockFileTest {
+
+    private TimeSeriesDefinition definition;
+
+    private DataBlock[] blocks;
+
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        this.definition = TimeSeriesDefinition.newBuilder("test")
+                                              .timeUnit(TimeUnit.MILLISECONDS)
+                                              .addRecordType(recordTypeDefinition)
+                                              .build();
+
+        this.blocks = new DataBlock[] { newBlock(1000), newBlock(2000), newBlock(3000) };
+
+        int size = 0;
+
+        for (DataBlock block : this.blocks) {
+            size += block.computeSerializedSize();
+        }
+
+        Buffer buffer = Buffers.allocate(size);
+
+        for (DataBlock block : this.blocks) {
+            block.writeTo(buffer);
+        }
+
+        this.path = Files.createTempFile("blocks", ".bin");
+        Files.write(this.path, toBytes(buffer));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(this.path);
+    }
+
+    @Test
+    public void testOpenWithoutIndex() throws Exception {
+
+        try (MappedBlockFile file = MappedBlockFile.open(this.definition, this.path)) {
+
+            assertEquals(3, file.getNumberOfBlocks());
+
+            List<BlockIndexEntry> index = file.getIndex();
+
+            assertEquals(0, index.get(0).getPosition().getOffset());
+            assertEquals(this.blocks[0].computeSerializedSize(), index.get(0).getPosition().getLength());
+            assertEquals(this.blocks[0].computeSerializedSize(), index.get(1).getPosition().getOffset());
+            assertEquals(2000, index.get(1).getFirstTimestamp());
+            assertEquals(2400, index.get(1).getLastTimestamp());
+
+            for (int i = 0; i < this.blocks.length; i++) {
+                assertBlockEquals(this.blocks[i], file.getBlock(i));
+            }
+        }
+    }
+
+    @Test
+    public void testOpenWithIndex() throws Exception {
+
+        List<BlockIndexEntry> index;
+
+        try (MappedBlockFile file = MappedBlockFile.open(this.definition, this.path)) {
+            index = file.getIndex();
+        }
+
+        try (MappedBlockFile file = MappedBlockFile.open(this.definition, this.path, index.subList(1, 3))) {
+
+            assertEquals(2, file.getNumberOfBlocks());
+            assertBlockEquals(this.blocks[1], file.getBlock(0));
+            assertBlockEquals(this.blocks[2], file.getBlock(1));
+        }
+    }
+
+    @Test
+    public void testIteratorWithRangeSet() throws Exception {
+
+        Field from = FieldType.MILLISECONDS_TIMESTAMP.newField().setTimestampInMillis(2300);
+        Field to = FieldType.MILLISECONDS_TIMESTAMP.newField().setTimestampInMillis(2800);
+
+        RangeSet<Field> rangeSet = ImmutableRangeSet.of(Range.closed(from, to));
+
+        try (MappedBlockFile file = MappedBlockFile.open(this.definition, this.path);
+             ResourceIterator<DataBlock> iterator = file.iterator(rangeSet)) {
+
+            assertTrue(iterator.hasNext());
+            assertEquals(2000, getFirstTimestamp(iterator.next().getHeader()));
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testIteratorWithRangeSetOnBlockBoundaries() throws Exception {
+
+        try (MappedBlockFile file = MappedBlockFile.open(this.definition, this.path)) {
+
+            assertFirstTimestamps(file, Range.closed(toField(1400), toField(3000)), 1000, 2000, 3000);
+            assertFirstTimestamps(file, Range.closed(toField(500), toField(900)));
+            assertFirstTimestamps(file, Range.closed(toField(3500), toField(4000)));
+            assertFirstTimestamps(file, Range.atLeast(toField(2400)), 2000, 3000);
+            assertFirstTimestamps(file, Range.lessThan(toField(2000)), 1000);
+        }
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+
+        try (MappedBlockFile file = MappedBlockFile.open(this.definition, this.path);
+             ResourceIterator<DataBlock> iterator = file.iterator()) {
+
+            for (int i = 0; i < this.blocks.length; i++) {
+                assertTrue(iterator.hasNext());
+                assertBlockEquals(this.blocks[i], iterator.next());
+            }
+
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    private static void assertFirstTimestamps(MappedBlockFile file, 
+                                              Range<Field> range, 
+                                              long... expected) throws Exception {
+
+        try (ResourceIterator<DataBlock> iterator = file.iterator(ImmutableRangeSet.of(range))) {
+
+            for (long timestamp : expected) {
+                assertTrue(iterator.hasNext());
+                assertEquals(timestamp, getFirstTimestamp(iterator.next().getHeader()));
+            }
+
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    private static Field toField(long timestampInMillis) {
+        return FieldType.MILLISECONDS_TIMESTAMP.newField().setTimestampInMillis(timestampInMillis);
+    }
+
+    private static void assertBlockEquals(DataBlock expected, DataBlock actual) throws Exception {
+
+        assertEquals(expected.getHeader().toTimeSeriesRecord(), actual.getHeader().toTimeSeriesRecord());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    private DataBlock newBlock(long start) throws Exception {
+
+        DataBlockBuilder builder = new DataBlockBuilder(this.definition);
+
+        for (int i = 0; i < 5; i++) {
+            builder.newRecord("exchangeState")
+                   .setTimestampInMillis(0, start + i * 100)
+                   .setTimestampInMillis(1, start + i * 100 + 5)
+                   .setByte(2, i % 2);
+        }
+
+        return builder.build();
+    }
+}
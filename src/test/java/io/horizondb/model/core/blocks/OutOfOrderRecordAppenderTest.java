@@ -0,0 +1,145 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.blocks.OutOfOrderRecordAppender.LateRecordHandling;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.records.BlockHeaderUtils.isOverlapping;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newExchangeStateType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OutOfOrderRecordAppenderTest {
+
+    @Test
+    public void testAppendWithRecordsInOrder() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        OutOfOrderRecordAppender appender = new OutOfOrderRecordAppender(definition, LateRecordHandling.MERGE, 10);
+        List<DataBlock> blocks = appendRecords(definition, appender, 1, 2, 3, 3, 4).flush();
+
+        assertEquals(1, blocks.size());
+        assertBlockEquals(addRecords(new DataBlockBuilder(definition), 1, 2, 3, 3, 4).build(), blocks.get(0));
+        assertFalse(isOverlapping(blocks.get(0).getHeader()));
+        assertEquals(0, appender.getNumberOfLateRecords());
+    }
+
+    @Test
+    public void testAppendWithLateRecordsMerged() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        OutOfOrderRecordAppender appender = new OutOfOrderRecordAppender(definition, LateRecordHandling.MERGE, 10);
+        List<DataBlock> blocks = appendRecords(definition, appender, 2, 4, 3, 6, 5, 2, 7).flush();
+
+        assertEquals(1, blocks.size());
+        assertBlockEquals(addRecords(new DataBlockBuilder(definition), 2, 2, 3, 4, 5, 6, 7).build(), blocks.get(0));
+        assertFalse(isOverlapping(blocks.get(0).getHeader()));
+        assertEquals(3, appender.getNumberOfLateRecords());
+    }
+
+    @Test
+    public void testAppendWithLateRecordsOlderThanTheBlockMerged() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        OutOfOrderRecordAppender appender = new OutOfOrderRecordAppender(definition, LateRecordHandling.MERGE, 10);
+        List<DataBlock> blocks = appendRecords(definition, appender, 2, 3, 1).flush();
+
+        assertEquals(1, blocks.size());
+        assertEquals(addRecords(new DataBlockBuilder(definition), 1, 2, 3).build().getFirstTimestamp(), 
+                     blocks.get(0).getFirstTimestamp());
+        assertTrue(isOverlapping(blocks.get(0).getHeader()));
+    }
+
+    @Test
+    public void testAppendWithLateRecordsInSeparateBlocks() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        OutOfOrderRecordAppender appender = new OutOfOrderRecordAppender(definition, 
+                                                                         LateRecordHandling.SEPARATE_BLOCKS, 
+                                                                         10);
+        List<DataBlock> blocks = appendRecords(definition, appender, 2, 4, 3, 6, 5, 1, 7).flush();
+
+        assertEquals(2, blocks.size());
+        assertBlockEquals(addRecords(new DataBlockBuilder(definition), 2, 4, 6, 7).build(), blocks.get(0));
+        assertFalse(isOverlapping(blocks.get(0).getHeader()));
+        assertEquals(addRecords(new DataBlockBuilder(definition), 1, 3, 5).build().getLastTimestamp(), 
+                     blocks.get(1).getLastTimestamp());
+        assertTrue(isOverlapping(blocks.get(1).getHeader()));
+    }
+
+    @Test
+    public void testAppendWithSideBufferFull() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(newExchangeStateType());
+
+        OutOfOrderRecordAppender appender = new OutOfOrderRecordAppender(definition, LateRecordHandling.MERGE, 2);
+        List<DataBlock> blocks = appendRecords(definition, appender, 5, 3, 4, 6, 7).flush();
+
+        assertEquals(2, blocks.size());
+        assertEquals(3, blocks.get(0).getFirstTimestamp() / 100);
+        assertEquals(5, blocks.get(0).getLastTimestamp() / 100);
+        assertEquals(6, blocks.get(1).getFirstTimestamp() / 100);
+        assertTrue(appender.flush().isEmpty());
+    }
+
+    private static void assertBlockEquals(DataBlock expected, DataBlock actual) throws Exception {
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    private static OutOfOrderRecordAppender appendRecords(TimeSeriesDefinition definition, 
+                                                          OutOfOrderRecordAppender appender, 
+                                                          int... timestamps) throws Exception {
+
+        for (int timestamp : timestamps) {
+
+            TimeSeriesRecord record = definition.newRecord("exchangeState");
+            record.setTimestampInMillis(0, timestamp * 100);
+            record.setTimestampInMillis(1, timestamp * 100 + 5);
+            record.setByte(2, timestamp % 2);
+
+            appender.append(record);
+        }
+
+        return appender;
+    }
+
+    private static DataBlockBuilder addRecords(DataBlockBuilder builder, int... timestamps) {
+
+        for (int timestamp : timestamps) {
+            builder.newRecord("exchangeState")
+                   .setTimestampInMillis(0, timestamp * 100)
+                   .setTimestampInMillis(1, timestamp * 100 + 5)
+                   .setByte(2, timestamp % 2);
+        }
+
+        return builder;
+    }
+}
@@ -0,0 +1,424 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.BufferPool;
+import io.horizondb.model.schema.BlockLayout;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressedBlockSize;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRecordCount;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getSegmentOffset;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecordAppenderTest {
+
+    @Test
+    public void testAppendWithSingleBuffer() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(1024);
+
+        DataBlock expected = appendRecords(definition, false, 0, 20);
+        DataBlock actual = appendRecords(definition, true, 0, 20);
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    @Test
+    public void testAppendWithSingleBufferAndLargeRecords() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(1024);
+
+        DataBlock expected = appendRecords(definition, false, Long.MAX_VALUE / 3, 5);
+        DataBlock actual = appendRecords(definition, true, Long.MAX_VALUE / 3, 5);
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    @Test
+    public void testAppendWithSingleBufferAndFullBlock() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(100);
+
+        RecordAppender expected = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords(), 
+                                                     false);
+
+        RecordAppender actual = new RecordAppender(definition, 
+                                                   Buffers.getDefaultAllocator(), 
+                                                   definition.newRecords(), 
+                                                   true);
+
+        boolean appended = true;
+
+        for (int i = 0; appended; i++) {
+
+            TimeSeriesRecord record = newRecord(definition, i, Long.MAX_VALUE / 3);
+            appended = expected.append(record);
+            assertEquals(appended, actual.append(record));
+        }
+
+        assertEquals(expected.getDataBlock().getHeader(), actual.getDataBlock().getHeader());
+        assertArrayEquals(toBytes(expected.getDataBlock().getData()), toBytes(actual.getDataBlock().getData()));
+    }
+
+    @Test
+    public void testAppendToExistingBlockWithSingleBuffer() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(1024);
+
+        TimeSeriesRecord[] lastRecords = definition.newRecords();
+        RecordAppender appender = new RecordAppender(definition, Buffers.getDefaultAllocator(), lastRecords, true);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(appender.append(newRecord(definition, i, 0)));
+        }
+
+        appender = new RecordAppender(definition, 
+                                      Buffers.getDefaultAllocator(), 
+                                      lastRecords, 
+                                      appender.getDataBlock(),
+                                      true);
+
+        for (int i = 5; i < 10; i++) {
+            assertTrue(appender.append(newRecord(definition, i, 0)));
+        }
+
+        DataBlock expected = appendRecords(definition, false, 0, 10);
+        DataBlock actual = appender.getDataBlock();
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    @Test
+    public void testAppendBatch() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(1024);
+
+        Record[] records = new Record[20];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = newRecord(definition, i, 0);
+        }
+
+        RecordAppender appender = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords());
+
+        assertEquals(5, appender.append(records, 0, 5));
+        assertEquals(15, appender.append(records, 5, 15));
+
+        DataBlock expected = appendRecords(definition, false, 0, 20);
+        DataBlock actual = appender.getDataBlock();
+
+        assertEquals(expected.getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getData()), toBytes(actual.getData()));
+    }
+
+    @Test
+    public void testAppendBatchWithFullBlock() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(100);
+
+        Record[] records = new Record[50];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = newRecord(definition, i, Long.MAX_VALUE / 3);
+        }
+
+        RecordAppender expected = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords());
+
+        int count = 0;
+
+        while (expected.append(records[count])) {
+            count++;
+        }
+
+        RecordAppender actual = new RecordAppender(definition, 
+                                                   Buffers.getDefaultAllocator(), 
+                                                   definition.newRecords(), 
+                                                   true);
+
+        assertTrue(count < records.length);
+        assertEquals(count, actual.append(records, 0, records.length));
+        assertEquals(expected.getDataBlock().getHeader(), actual.getDataBlock().getHeader());
+        assertArrayEquals(toBytes(expected.getDataBlock().getData()), toBytes(actual.getDataBlock().getData()));
+    }
+
+    @Test
+    public void testAppendWithCompressionRatioEstimator() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(200, CompressionType.NONE);
+
+        CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+        estimator.update(3000, 1000);
+
+        assertEquals(2.0, estimator.getRatio(), 0.0);
+
+        int firstBlockSize = fillBlock(definition, estimator);
+
+        assertTrue(firstBlockSize > 200);
+        assertTrue(firstBlockSize <= 400);
+        assertEquals(1.5, estimator.getRatio(), 0.0);
+
+        int secondBlockSize = fillBlock(definition, estimator);
+
+        assertTrue(secondBlockSize > 200);
+        assertTrue(secondBlockSize < firstBlockSize);
+        assertEquals(1.25, estimator.getRatio(), 0.0);
+    }
+
+    @Test
+    public void testAppendWithCompressionRatioEstimatorWithoutHistory() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(200, CompressionType.NONE);
+
+        CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+
+        RecordAppender expected = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords());
+
+        RecordAppender actual = new RecordAppender(definition, 
+                                                   Buffers.getDefaultAllocator(), 
+                                                   definition.newRecords(), 
+                                                   estimator);
+
+        boolean appended = true;
+
+        for (int i = 0; appended; i++) {
+
+            TimeSeriesRecord record = newRecord(definition, i, 0);
+            appended = expected.append(record);
+            assertEquals(appended, actual.append(record));
+        }
+
+        assertEquals(expected.getDataBlock().getHeader(), actual.getDataBlock().getHeader());
+        assertEquals(1.0, estimator.getRatio(), 0.0);
+    }
+
+    @Test
+    public void testAppendWithPooledBuffer() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(200);
+
+        BufferPool pool = BufferPool.newHeapPool(1);
+
+        RecordAppender expected = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords(), 
+                                                     true);
+
+        for (int n = 0; n < 2; n++) {
+
+            RecordAppender actual = new RecordAppender(definition, pool, definition.newRecords(), null);
+
+            for (int i = 0; i < 5; i++) {
+
+                TimeSeriesRecord record = newRecord(definition, i, 0);
+
+                if (n == 0) {
+                    assertTrue(expected.append(record));
+                }
+
+                assertTrue(actual.append(record));
+            }
+
+            DataBlock block = actual.getDataBlock();
+
+            assertEquals(expected.getDataBlock().getHeader(), block.getHeader());
+            assertArrayEquals(toBytes(expected.getDataBlock().getData()), toBytes(block.getData()));
+
+            actual.release();
+        }
+
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.getHitCount());
+    }
+
+    @Test
+    public void testAppendWithPooledBufferAndCompressionRatioEstimator() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(8192);
+
+        BufferPool pool = BufferPool.newHeapPool(1);
+        CompressionRatioEstimator estimator = new CompressionRatioEstimator();
+
+        RecordAppender appender = new RecordAppender(definition, pool, definition.newRecords(), estimator);
+
+        int numberOfRecords = 0;
+
+        while (appender.append(newRecord(definition, numberOfRecords, 0))) {
+            numberOfRecords++;
+        }
+
+        DataBlock block = appender.getDataBlock();
+
+        assertTrue(numberOfRecords > 0);
+        assertEquals(numberOfRecords, getRecordCount(block.getHeader(), 0));
+        assertEquals(getCompressedBlockSize(block.getHeader()), toBytes(block.getData()).length);
+        assertTrue(getCompressedBlockSize(block.getHeader()) <= 8192 * CompressionRatioEstimator.MAXIMUM_RATIO);
+
+        appender.release();
+
+        assertEquals(1, pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testAppendToExistingBlockWithSegmentedLayout() throws IOException {
+
+        TimeSeriesDefinition definition = newSegmentedDefinition();
+
+        TimeSeriesRecord[] lastRecords = definition.newRecords();
+        RecordAppender appender = new RecordAppender(definition, Buffers.getDefaultAllocator(), lastRecords);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(appender.append(newSegmentedRecord(definition, i)));
+        }
+
+        appender = new RecordAppender(definition, Buffers.getDefaultAllocator(), lastRecords, appender.getDataBlock());
+
+        for (int i = 5; i < 10; i++) {
+            assertTrue(appender.append(newSegmentedRecord(definition, i)));
+        }
+
+        RecordAppender expected = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(expected.append(newSegmentedRecord(definition, i)));
+        }
+
+        DataBlock actual = appender.getDataBlock();
+
+        assertEquals(expected.getDataBlock().getHeader(), actual.getHeader());
+        assertArrayEquals(toBytes(expected.getDataBlock().getData()), toBytes(actual.getData()));
+        assertEquals(0, getSegmentOffset(actual.getHeader(), definition.getSegmentOffsetIndex(), 0));
+        assertTrue(getSegmentOffset(actual.getHeader(), definition.getSegmentOffsetIndex(), 1) > 0);
+    }
+
+    private static int fillBlock(TimeSeriesDefinition definition, 
+                                 CompressionRatioEstimator estimator) throws IOException {
+
+        RecordAppender appender = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords(), 
+                                                     estimator);
+
+        for (int i = 0; appender.append(newRecord(definition, i, 0)); i++) {
+            // Fill the block
+        }
+
+        return getCompressedBlockSize(appender.getDataBlock().getHeader());
+    }
+
+    private static DataBlock appendRecords(TimeSeriesDefinition definition, 
+                                           boolean singleBuffer, 
+                                           long offset,
+                                           int numberOfRecords) throws IOException {
+
+        RecordAppender appender = new RecordAppender(definition, 
+                                                     Buffers.getDefaultAllocator(), 
+                                                     definition.newRecords(), 
+                                                     singleBuffer);
+
+        for (int i = 0; i < numberOfRecords; i++) {
+            assertTrue(appender.append(newRecord(definition, i, offset)));
+        }
+
+        return appender.getDataBlock();
+    }
+
+    private static TimeSeriesRecord newRecord(TimeSeriesDefinition definition, int i, long offset) {
+
+        TimeSeriesRecord record = definition.newRecord("data");
+        record.setTimestampInMillis(0, 1000 + i * 10);
+
+        for (int j = 1; j < record.getNumberOfFields(); j++) {
+            record.setLong(j, offset + i * j);
+        }
+
+        return record;
+    }
+
+    private static TimeSeriesRecord newSegmentedRecord(TimeSeriesDefinition definition, int i) {
+
+        TimeSeriesRecord record = definition.newRecord(i % 3 == 0 ? "quote" : "trade");
+        record.setTimestampInMillis(0, 1000 + i * 10);
+        record.setLong(1, i * 100);
+
+        return record;
+    }
+
+    private static TimeSeriesDefinition newSegmentedDefinition() {
+
+        RecordTypeDefinition quote = RecordTypeDefinition.newBuilder("quote")
+                                                         .addField("bid", FieldType.LONG)
+                                                         .build();
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("trade")
+                                                         .addField("price", FieldType.LONG)
+                                                         .build();
+
+        return TimeSeriesDefinition.newBuilder("test")
+                                   .timeUnit(TimeUnit.MILLISECONDS)
+                                   .blockLayout(BlockLayout.SEGMENTED)
+                                   .addRecordType(quote)
+                                   .addRecordType(trade)
+                                   .build();
+    }
+
+    private static TimeSeriesDefinition newDefinition(int blockSize) {
+
+        return newDefinition(blockSize, CompressionType.LZ4);
+    }
+
+    private static TimeSeriesDefinition newDefinition(int blockSize, CompressionType compressionType) {
+
+        RecordTypeDefinition.Builder builder = RecordTypeDefinition.newBuilder("data");
+
+        for (int i = 0; i < 15; i++) {
+            builder.addField("value" + i, FieldType.LONG);
+        }
+
+        return TimeSeriesDefinition.newBuilder("test")
+                                   .timeUnit(TimeUnit.MILLISECONDS)
+                                   .blockSize(blockSize)
+                                   .compressionType(compressionType)
+                                   .addRecordType(builder)
+                                   .build();
+    }
+}
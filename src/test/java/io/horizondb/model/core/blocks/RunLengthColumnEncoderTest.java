@@ -0,0 +1,58 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.fields.ByteField;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RunLengthColumnEncoderTest {
+
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+
+        RunLengthColumnEncoder encoder = new RunLengthColumnEncoder(Buffers.getDefaultAllocator(), new ByteField());
+
+        int[] values = new int[2500];
+
+        for (int i = 0; i < values.length; i++) {
+
+            values[i] = (i < 1000) ? 3 : (i < 1001) ? 1 : 2;
+            encoder.append(new ByteField().setByte(values[i]));
+        }
+
+        assertEquals(2 + 1 + 1 + 1 + 2 + 1, encoder.computeSerializedSize());
+
+        Buffer buffer = Buffers.allocate(encoder.computeSerializedSize());
+        encoder.writeTo(buffer);
+
+        assertEquals(encoder.computeSerializedSize(), buffer.readableBytes());
+
+        Field field = new ByteField();
+        RunLengthColumnDecoder decoder = new RunLengthColumnDecoder(field, buffer);
+
+        for (int i = 0; i < values.length; i++) {
+
+            decoder.readNext(field);
+            assertEquals(values[i], field.getByte());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.blocks;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.fields.DecimalField;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class XorColumnEncoderTest {
+
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+
+        long[] mantissas = { 2153, 2154, 2154, 2160, 2149, 215, -3, 0, Long.MAX_VALUE, Long.MIN_VALUE, 2153 };
+        int[] exponents = { -2, -2, -2, -2, -2, -1, -1, 0, 5, -128, -2 };
+
+        XorColumnEncoder encoder = new XorColumnEncoder();
+
+        for (int i = 0; i < mantissas.length; i++) {
+            encoder.append(new DecimalField().setDecimal(mantissas[i], exponents[i]));
+        }
+
+        Buffer buffer = Buffers.allocate(encoder.computeSerializedSize());
+        encoder.writeTo(buffer);
+
+        assertEquals(encoder.computeSerializedSize(), buffer.readableBytes());
+
+        XorColumnDecoder decoder = new XorColumnDecoder(buffer);
+        Field field = new DecimalField();
+
+        for (int i = 0; i < mantissas.length; i++) {
+
+            decoder.readNext(field);
+            assertEquals(mantissas[i], field.getDecimalMantissa());
+            assertEquals(exponents[i], field.getDecimalExponent());
+        }
+    }
+
+    @Test
+    public void testEncodeSlowlyChangingValues() throws IOException {
+
+        XorColumnEncoder encoder = new XorColumnEncoder();
+        DeltaColumnEncoder deltaEncoder = new DeltaColumnEncoder(Buffers.getDefaultAllocator(), new DecimalField());
+
+        for (int i = 0; i < 100; i++) {
+
+            Field value = new DecimalField().setDecimal(2153 + (i % 4), -2);
+            encoder.append(value);
+            deltaEncoder.append(value);
+        }
+
+        assertTrue(encoder.computeSerializedSize() < deltaEncoder.computeSerializedSize());
+    }
+}
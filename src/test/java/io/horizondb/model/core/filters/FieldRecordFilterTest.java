@@ -30,6 +30,7 @@ import org.junit.Test;
 import com.google.common.collect.Range;
 
 import static io.horizondb.model.core.util.TimeUtils.EUROPE_BERLIN_TIMEZONE;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -87,6 +88,67 @@ public class FieldRecordFilterTest {
         assertTrue(recordFilter.accept(record));
     }
     
+    @Test
+    public void testAcceptWithRunOfIdenticalValues() throws IOException {
+        
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("Trade")
+                                                         .addDecimalField("price")
+                                                         .addByteField("status")
+                                                         .build();
+        
+        TimeSeriesDefinition tsDefinition = TimeSeriesDefinition.newBuilder("DAX")
+                                                                .addRecordType(trade)
+                                                                .build();
+        
+        Field field = tsDefinition.newField("status");
+        field.setValueFromString(EUROPE_BERLIN_TIMEZONE, "1");
+        
+        final EqualityFilter<Field> equalityFilter = new EqualityFilter<Field>(ImmutableField.of(field));
+        final int[] calls = new int[1];
+
+        Filter<Field> filter = new Filter<Field>() {
+
+            @Override
+            public boolean accept(Field value) throws IOException {
+                calls[0]++;
+                return equalityFilter.accept(value);
+            }
+
+            @Override
+            public boolean isDone() {
+                return equalityFilter.isDone();
+            }
+        };
+        
+        FieldRecordFilter recordFilter = new FieldRecordFilter(tsDefinition, "status", filter);
+    
+        TimeSeriesRecord record = tsDefinition.newRecord("Trade");
+        record.setTimestampInMillis(0, 1000);
+        record.setDecimal(1, 12, 0);
+        record.setByte(2, 1);
+        
+        assertTrue(recordFilter.accept(record));
+        
+        record.setDelta(true);
+        record.setTimestampInMillis(0, 1000);
+        record.setDecimal(1, 1, 0);
+        record.setByte(2, 0);
+        
+        assertTrue(recordFilter.accept(record));
+        assertTrue(recordFilter.accept(record));
+        assertEquals(1, calls[0]);
+        
+        record.setByte(2, 1);
+        
+        assertFalse(recordFilter.accept(record));
+        
+        record.setByte(2, 0);
+        
+        assertFalse(recordFilter.accept(record));
+        assertFalse(recordFilter.accept(record));
+        assertEquals(2, calls[0]);
+    }
+    
     @Test
     public void testAcceptWithTwoRecordTypeAndFieldInBoth() throws IOException {
         
@@ -21,9 +21,14 @@ import io.horizondb.model.core.Record;
 import io.horizondb.model.core.RecordListBuilder;
 import io.horizondb.model.core.RecordUtils;
 import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.blocks.ChecksumVerification;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.predicates.Predicates;
 import io.horizondb.model.core.records.BlockHeaderBuilder;
 import io.horizondb.model.core.records.BlockHeaderUtils;
 import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.BufferPool;
 import io.horizondb.model.core.util.TimeUtils;
 import io.horizondb.model.schema.FieldType;
 import io.horizondb.model.schema.RecordTypeDefinition;
@@ -36,6 +41,12 @@ import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -130,4 +141,151 @@ public class BinaryBlockIteratorTest {
         }
     }
 
+    @Test
+    public void testNextWithPooledBuffers() throws IOException {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        RecordTypeDefinition tradeDefinition = RecordTypeDefinition.newBuilder("trade")
+                                                                   .addField("timestampInMillis",
+                                                                             FieldType.MILLISECONDS_TIMESTAMP)
+                                                                   .addField("price", FieldType.DECIMAL)
+                                                                   .build();
+
+        TimeSeriesDefinition def = TimeSeriesDefinition.newBuilder("test")
+                                                       .timeUnit(TimeUnit.NANOSECONDS)
+                                                       .addRecordType(recordTypeDefinition)
+                                                       .addRecordType(tradeDefinition)
+                                                       .build();
+
+        List<TimeSeriesRecord> records = new RecordListBuilder(def).newRecord("exchangeState")
+                                                                   .setTimestampInNanos(0, TIME_IN_NANOS + 12000700)
+                                                                   .setTimestampInMillis(1, TIME_IN_MILLIS + 12)
+                                                                   .setByte(2, 3)
+                                                                   .newRecord("exchangeState")
+                                                                   .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                                                   .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                                   .setByte(2, 3)
+                                                                   .newRecord("trade")
+                                                                   .setTimestampInNanos(0, TIME_IN_NANOS + 13001000)
+                                                                   .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                                   .setDouble(2, 10.0)
+                                                                   .newRecord("exchangeState")
+                                                                   .setTimestampInNanos(0, TIME_IN_NANOS + 13004400)
+                                                                   .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                                   .setByte(2, 1)
+                                                                   .newRecord("trade")
+                                                                   .setTimestampInNanos(0, TIME_IN_NANOS + 13005000)
+                                                                   .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                                   .setDouble(2, 15.0)
+                                                                   .build();
+
+        int serializedSize = RecordUtils.computeSerializedSize(records);
+
+        TimeSeriesRecord blockHeader = new BlockHeaderBuilder(def).firstTimestamp(TIME_IN_NANOS + 12000700)
+                                                                  .lastTimestamp(TIME_IN_NANOS + 13004400)
+                                                                  .compressedBlockSize(serializedSize)
+                                                                  .uncompressedBlockSize(serializedSize)
+                                                                  .recordCount(0, 5)
+                                                                  .build();
+
+        List<Record> list = new ArrayList<>();
+        list.add(blockHeader);
+        list.addAll(records);
+
+        int headerSize = RecordUtils.computeSerializedSize(blockHeader);
+        Buffer buffer = Buffers.allocate(2 * (headerSize + serializedSize));
+        RecordUtils.writeRecords(buffer, list);
+        RecordUtils.writeRecords(buffer, list);
+        ReadableBuffer expectedData = buffer.duplicate().slice(headerSize, serializedSize);
+
+        BufferPool pool = BufferPool.newHeapPool(1);
+
+        try (ResourceIterator<DataBlock> iterator = new BinaryBlockIterator(def, 
+                                                                            buffer, 
+                                                                            ChecksumVerification.ALWAYS, 
+                                                                            pool)) {
+
+            for (int i = 0; i < 2; i++) {
+
+                assertTrue(iterator.hasNext());
+                DataBlock block = iterator.next();
+
+                assertEquals(5, BlockHeaderUtils.getRecordCount(block.getHeader(), 0));
+                assertEquals(expectedData, block.getData());
+            }
+
+            assertFalse(iterator.hasNext());
+        }
+
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testNextWithRangeSetSkipsTheDataOfPrunedBlocks() throws IOException {
+
+        RecordTypeDefinition tradeDefinition = RecordTypeDefinition.newBuilder("trade")
+                                                                   .addField("price", FieldType.DECIMAL)
+                                                                   .build();
+
+        TimeSeriesDefinition def = TimeSeriesDefinition.newBuilder("test")
+                                                       .timeUnit(TimeUnit.MILLISECONDS)
+                                                       .addRecordType(tradeDefinition)
+                                                       .build();
+
+        List<DataBlock> blocks = new ArrayList<>();
+        int serializedSize = 0;
+
+        for (int i = 1; i <= 3; i++) {
+
+            DataBlock block = new DataBlockBuilder(def).newRecord("trade")
+                                                       .setTimestampInMillis(0, i * 1000)
+                                                       .setDouble(1, 10.0)
+                                                       .newRecord("trade")
+                                                       .setTimestampInMillis(0, i * 1000 + 500)
+                                                       .setDouble(1, 12.5)
+                                                       .build();
+            blocks.add(block);
+            serializedSize += block.computeSerializedSize();
+        }
+
+        Buffer buffer = Buffers.allocate(serializedSize);
+
+        for (DataBlock block : blocks) {
+            block.writeTo(buffer);
+        }
+
+        Field from = FieldType.MILLISECONDS_TIMESTAMP.newField().setTimestampInMillis(2200);
+        Field to = FieldType.MILLISECONDS_TIMESTAMP.newField().setTimestampInMillis(2400);
+
+        RangeSet<Field> rangeSet = ImmutableRangeSet.of(Range.closed(from, to));
+
+        BufferPool pool = BufferPool.newHeapPool(1);
+
+        try (ResourceIterator<DataBlock> iterator = new BinaryBlockIterator(def, 
+                                                                            buffer, 
+                                                                            ChecksumVerification.ALWAYS, 
+                                                                            pool,
+                                                                            rangeSet,
+                                                                            Predicates.noop())) {
+
+            assertTrue(iterator.hasNext());
+            DataBlock block = iterator.next();
+
+            assertEquals(2000, BlockHeaderUtils.getFirstTimestamp(block.getHeader()));
+            assertArrayEquals(toBytes(blocks.get(1).getData()), toBytes(block.getData()));
+
+            assertFalse(iterator.hasNext());
+        }
+
+        assertEquals(1, pool.getMissCount());
+        assertEquals(0, pool.getHitCount());
+    }
+
 }
@@ -27,6 +27,8 @@ import io.horizondb.model.core.fields.TimestampField;
 import io.horizondb.model.core.filters.Filters;
 import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
 import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.BlockLayout;
+import io.horizondb.model.schema.FieldEncoding;
 import io.horizondb.model.schema.FieldType;
 import io.horizondb.model.schema.RecordTypeDefinition;
 import io.horizondb.model.schema.TimeSeriesDefinition;
@@ -526,6 +528,443 @@ public class BinaryTimeSeriesRecordIteratorTest {
         }
     }
     
+    @Test
+    public void testNextWithColumnarLayout() throws Exception {
+
+        TimeSeriesDefinition def = newColumnarDefinition();
+
+        Buffer buffer = serialize(newColumnarBlock(def)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = new BinaryTimeSeriesRecordIterator(def, buffer)) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+
+            assertEquals(0, actual.getType());
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 12000700L, actual.getTimestampInNanos(0));
+            assertEquals(TIME_IN_MILLIS + 12, actual.getTimestampInMillis(1));
+            assertEquals(3, actual.getByte(2));
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(0, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(1000200, actual.getTimestampInNanos(0));
+            assertEquals(1, actual.getTimestampInMillis(1));
+            assertEquals(0, actual.getByte(2));
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+            assertEquals(TIME_IN_MILLIS + 13, actual.getTimestampInMillis(1));
+            assertEquals(10.0, actual.getDouble(2), 0.0);
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(0, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(3500, actual.getTimestampInNanos(0));
+            assertEquals(0, actual.getTimestampInMillis(1));
+            assertEquals(-2, actual.getByte(2));
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(4000, actual.getTimestampInNanos(0));
+            assertEquals(0, actual.getTimestampInMillis(1));
+            assertEquals(5.0, actual.getDouble(2), 0.0);
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithColumnarLayoutAndXorEncoding() throws Exception {
+
+        TimeSeriesDefinition def = newColumnarDefinition(FieldEncoding.DEFAULT, FieldEncoding.XOR);
+
+        Buffer buffer = serialize(newColumnarBlock(def)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = new BinaryTimeSeriesRecordIterator(def,
+                                                                                                        buffer,
+                                                                                                        TimestampField.ALL,
+                                                                                                        Filters.eq("trade",
+                                                                                                                   false),
+                                                                                                        Filters.<String>noop())) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+            assertEquals(10.0, actual.getDouble(2), 0.0);
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(4000, actual.getTimestampInNanos(0));
+            assertEquals(5.0, actual.getDouble(2), 0.0);
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithColumnarLayoutAndDeltaOfDeltaEncoding() throws Exception {
+
+        TimeSeriesDefinition def = newColumnarDefinition(FieldEncoding.DELTA_OF_DELTA, FieldEncoding.DEFAULT);
+
+        Buffer buffer = serialize(newColumnarBlock(def)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = new BinaryTimeSeriesRecordIterator(def,
+                                                                                                        buffer,
+                                                                                                        TimestampField.ALL,
+                                                                                                        Filters.eq("trade",
+                                                                                                                   false),
+                                                                                                        Filters.<String>noop())) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+            assertEquals(10.0, actual.getDouble(2), 0.0);
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(4000, actual.getTimestampInNanos(0));
+            assertEquals(5.0, actual.getDouble(2), 0.0);
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithColumnarLayoutAndFrameOfReferenceEncoding() throws Exception {
+
+        RecordTypeDefinition quoteDefinition = RecordTypeDefinition.newBuilder("quote")
+                                                                   .addField("volume", 
+                                                                             FieldType.LONG, 
+                                                                             FieldEncoding.FRAME_OF_REFERENCE)
+                                                                   .build();
+
+        TimeSeriesDefinition def = TimeSeriesDefinition.newBuilder("test")
+                                                       .timeUnit(TimeUnit.NANOSECONDS)
+                                                       .blockLayout(BlockLayout.COLUMNAR)
+                                                       .addRecordType(quoteDefinition)
+                                                       .build();
+
+        DataBlockBuilder builder = new DataBlockBuilder(def);
+
+        for (int i = 0; i < 300; i++) {
+            builder.newRecord("quote")
+                   .setTimestampInNanos(0, TIME_IN_NANOS + i)
+                   .setLong(1, 1000 + ((i * 37) % 200));
+        }
+
+        Buffer buffer = serialize(builder.build()); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = new BinaryTimeSeriesRecordIterator(def, buffer)) {
+
+            long volume = 0;
+
+            for (int i = 0; i < 300; i++) {
+
+                assertTrue(readIterator.hasNext());
+                BinaryTimeSeriesRecord actual = readIterator.next();
+
+                assertEquals(i > 0, actual.isDelta());
+                volume += actual.getLong(1);
+                assertEquals(1000 + ((i * 37) % 200), volume);
+            }
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithColumnarLayoutAndFieldFilter() throws Exception {
+
+        TimeSeriesDefinition def = newColumnarDefinition();
+
+        Buffer buffer = serialize(newColumnarBlock(def)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = new BinaryTimeSeriesRecordIterator(def,
+                                                                                                        buffer,
+                                                                                                        TimestampField.ALL,
+                                                                                                        Filters.eq("trade",
+                                                                                                                   false),
+                                                                                                        Filters.eq("price",
+                                                                                                                   false))) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+            assertEquals(0, actual.getTimestampInMillis(1));
+            assertEquals(10.0, actual.getDouble(2), 0.0);
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertTrue(actual.isDelta());
+            assertEquals(4000, actual.getTimestampInNanos(0));
+            assertEquals(0, actual.getTimestampInMillis(1));
+            assertEquals(5.0, actual.getDouble(2), 0.0);
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithSegmentedLayout() throws Exception {
+
+        TimeSeriesDefinition def = newSegmentedDefinition();
+
+        Buffer buffer = serialize(newColumnarBlock(def)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = new BinaryTimeSeriesRecordIterator(def, buffer)) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+
+            assertEquals(0, actual.getType());
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 12000700L, actual.getTimestampInNanos(0));
+            assertEquals(TIME_IN_MILLIS + 12, actual.getTimestampInMillis(1));
+            assertEquals(3, actual.getByte(2));
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(0, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(1000200, actual.getTimestampInNanos(0));
+            assertEquals(1, actual.getTimestampInMillis(1));
+            assertEquals(0, actual.getByte(2));
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+            assertEquals(TIME_IN_MILLIS + 13, actual.getTimestampInMillis(1));
+            assertEquals(10.0, actual.getDouble(2), 0.0);
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(0, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(3500, actual.getTimestampInNanos(0));
+            assertEquals(0, actual.getTimestampInMillis(1));
+            assertEquals(-2, actual.getByte(2));
+
+            assertTrue(readIterator.hasNext());
+            actual = readIterator.next();
+
+            assertEquals(1, actual.getType());
+            assertTrue(actual.isDelta());
+            assertEquals(4000, actual.getTimestampInNanos(0));
+            assertEquals(0, actual.getTimestampInMillis(1));
+            assertEquals(5.0, actual.getDouble(2), 0.0);
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithSegmentedLayoutAndFilter() throws Exception {
+
+        TimeSeriesDefinition def = newSegmentedDefinition();
+
+        Buffer buffer = serialize(newColumnarBlock(def), newColumnarBlock(def)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = new BinaryTimeSeriesRecordIterator(def,
+                                                                                                        buffer,
+                                                                                                        TimestampField.ALL,
+                                                                                                        Filters.eq("trade",
+                                                                                                                   false))) {
+
+            for (int i = 0; i < 2; i++) {
+
+                assertTrue(readIterator.hasNext());
+                Record actual = readIterator.next();
+
+                assertEquals(1, actual.getType());
+                assertFalse(actual.isDelta());
+                assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+                assertEquals(10.0, actual.getDouble(2), 0.0);
+
+                assertTrue(readIterator.hasNext());
+                actual = readIterator.next();
+
+                assertEquals(1, actual.getType());
+                assertTrue(actual.isDelta());
+                assertEquals(4000, actual.getTimestampInNanos(0));
+                assertEquals(5.0, actual.getDouble(2), 0.0);
+            }
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithKeyframes() throws Exception {
+
+        TimeSeriesDefinition def = newKeyframeDefinition();
+        DataBlock block = newColumnarBlock(def);
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = 
+                new BinaryTimeSeriesRecordIterator(def, serialize(block))) {
+
+            assertTrue(readIterator.hasNext());
+            assertFalse(readIterator.next().isDelta());
+            assertTrue(readIterator.next().isDelta());
+
+            Record actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+
+            actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13004400L, actual.getTimestampInNanos(0));
+            assertEquals(1, actual.getByte(2));
+
+            actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13005000L, actual.getTimestampInNanos(0));
+            assertEquals(15.0, actual.getDouble(2), 0.0);
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithKeyframesAndRangeSet() throws Exception {
+
+        TimeSeriesDefinition def = newKeyframeDefinition();
+        DataBlock block = newColumnarBlock(def);
+
+        Field from = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 13004000);
+        Field to = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 15000000);
+
+        RangeSet<Field> rangeSet = ImmutableRangeSet.of(Range.closed(from, to)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = 
+                new BinaryTimeSeriesRecordIterator(def, serialize(block), rangeSet)) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+            assertEquals(10.0, actual.getDouble(2), 0.0);
+
+            actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13004400L, actual.getTimestampInNanos(0));
+            assertEquals(1, actual.getByte(2));
+
+            actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13005000L, actual.getTimestampInNanos(0));
+
+            assertFalse(readIterator.hasNext());
+        }
+
+        from = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 13005001);
+        rangeSet = ImmutableRangeSet.of(Range.closed(from, to)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = 
+                new BinaryTimeSeriesRecordIterator(def, 
+                                                   compress(CompressionType.LZ4, iterator(block)),
+                                                   rangeSet,
+                                                   Filters.<String>noop(),
+                                                   Filters.<String>noop())) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13005000L, actual.getTimestampInNanos(0));
+            assertEquals(15.0, actual.getDouble(2), 0.0);
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithKeyframesAndRangeSetUpperBound() throws Exception {
+
+        TimeSeriesDefinition def = newKeyframeDefinition();
+        DataBlock block = newColumnarBlock(def);
+
+        Field from = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 12000000);
+        Field to = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 13004400);
+
+        RangeSet<Field> rangeSet = ImmutableRangeSet.of(Range.closed(from, to)); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = 
+                new BinaryTimeSeriesRecordIterator(def, serialize(block), rangeSet)) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+            assertEquals(TIME_IN_NANOS + 12000700L, actual.getTimestampInNanos(0));
+            assertTrue(readIterator.next().isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, readIterator.next().getTimestampInNanos(0));
+            assertEquals(TIME_IN_NANOS + 13004400L, readIterator.next().getTimestampInNanos(0));
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testNextWithKeyframesAndRangeSetOutsideOfTheBlock() throws Exception {
+
+        TimeSeriesDefinition def = newKeyframeDefinition();
+        DataBlock block = newColumnarBlock(def);
+
+        Field from = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS);
+        Field to = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 100);
+
+        Field from2 = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 13004500);
+        Field to2 = NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(TIME_IN_NANOS + 15000000);
+
+        RangeSet<Field> rangeSet = ImmutableRangeSet.<Field>builder()
+                                                    .add(Range.closed(from, to))
+                                                    .add(Range.closed(from2, to2))
+                                                    .build(); 
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> readIterator = 
+                new BinaryTimeSeriesRecordIterator(def, serialize(block), rangeSet)) {
+
+            assertTrue(readIterator.hasNext());
+            Record actual = readIterator.next();
+            assertFalse(actual.isDelta());
+            assertEquals(TIME_IN_NANOS + 13001000L, actual.getTimestampInNanos(0));
+            assertEquals(TIME_IN_NANOS + 13004400L, readIterator.next().getTimestampInNanos(0));
+            assertEquals(TIME_IN_NANOS + 13005000L, readIterator.next().getTimestampInNanos(0));
+
+            assertFalse(readIterator.hasNext());
+        }
+    }
+
     @Test
     public void testHasNextWithEmptyStream() throws Exception {
 
@@ -546,6 +985,104 @@ public class BinaryTimeSeriesRecordIteratorTest {
         }
     }
     
+    private static TimeSeriesDefinition newColumnarDefinition() {
+
+        return newColumnarDefinition(FieldEncoding.DEFAULT, FieldEncoding.DEFAULT);
+    }
+
+    private static TimeSeriesDefinition newColumnarDefinition(FieldEncoding timestampEncoding, 
+                                                              FieldEncoding priceEncoding) {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        RecordTypeDefinition tradeDefinition = RecordTypeDefinition.newBuilder("trade")
+                                                                   .addField("timestampInMillis",
+                                                                             FieldType.MILLISECONDS_TIMESTAMP)
+                                                                   .addDecimalField("price", priceEncoding)
+                                                                   .build();
+
+        return TimeSeriesDefinition.newBuilder("test")
+                                   .timeUnit(TimeUnit.NANOSECONDS)
+                                   .blockLayout(BlockLayout.COLUMNAR)
+                                   .timestampEncoding(timestampEncoding)
+                                   .addRecordType(recordTypeDefinition)
+                                   .addRecordType(tradeDefinition)
+                                   .build();
+    }
+
+    private static TimeSeriesDefinition newSegmentedDefinition() {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        RecordTypeDefinition tradeDefinition = RecordTypeDefinition.newBuilder("trade")
+                                                                   .addField("timestampInMillis",
+                                                                             FieldType.MILLISECONDS_TIMESTAMP)
+                                                                   .addField("price", FieldType.DECIMAL)
+                                                                   .build();
+
+        return TimeSeriesDefinition.newBuilder("test")
+                                   .timeUnit(TimeUnit.NANOSECONDS)
+                                   .blockLayout(BlockLayout.SEGMENTED)
+                                   .addRecordType(recordTypeDefinition)
+                                   .addRecordType(tradeDefinition)
+                                   .build();
+    }
+
+    private static TimeSeriesDefinition newKeyframeDefinition() {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        RecordTypeDefinition tradeDefinition = RecordTypeDefinition.newBuilder("trade")
+                                                                   .addField("timestampInMillis",
+                                                                             FieldType.MILLISECONDS_TIMESTAMP)
+                                                                   .addField("price", FieldType.DECIMAL)
+                                                                   .build();
+
+        return TimeSeriesDefinition.newBuilder("test")
+                                   .timeUnit(TimeUnit.NANOSECONDS)
+                                   .keyframeInterval(2)
+                                   .addRecordType(recordTypeDefinition)
+                                   .addRecordType(tradeDefinition)
+                                   .build();
+    }
+
+    private static DataBlock newColumnarBlock(TimeSeriesDefinition def) throws IOException {
+
+        return new DataBlockBuilder(def).newRecord("exchangeState")
+                                        .setTimestampInNanos(0, TIME_IN_NANOS + 12000700)
+                                        .setTimestampInMillis(1, TIME_IN_MILLIS + 12)
+                                        .setByte(2, 3)
+                                        .newRecord("exchangeState")
+                                        .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                        .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                        .setByte(2, 3)
+                                        .newRecord("trade")
+                                        .setTimestampInNanos(0, TIME_IN_NANOS + 13001000)
+                                        .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                        .setDouble(2, 10.0)
+                                        .newRecord("exchangeState")
+                                        .setTimestampInNanos(0, TIME_IN_NANOS + 13004400)
+                                        .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                        .setByte(2, 1)
+                                        .newRecord("trade")
+                                        .setTimestampInNanos(0, TIME_IN_NANOS + 13005000)
+                                        .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                        .setDouble(2, 15.0)
+                                        .build();
+    }
+
     private static Buffer serialize(DataBlock... blocks) throws IOException {
         Buffer buffer = Buffers.allocate(computeSerializedSize(blocks));
 
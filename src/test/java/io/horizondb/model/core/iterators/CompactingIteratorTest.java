@@ -0,0 +1,240 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.iterators;
+
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.iterators.BlockIterators.compress;
+import static io.horizondb.model.core.iterators.BlockIterators.decompress;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getRecordCount;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newExchangeStateType;
+import static io.horizondb.model.schema.DefinitionUtils.newTradeType;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactingIteratorTest {
+
+    @Test
+    public void testCompactWithOverlappingBlocks() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(8192, newExchangeStateType(), newTradeType(false));
+
+        DataBlock first = new DataBlockBuilder(definition).newRecord("exchangeState")
+                                                          .setTimestampInMillis(0, 1000)
+                                                          .setByte(2, 1)
+                                                          .newRecord("trade")
+                                                          .setTimestampInMillis(0, 3000)
+                                                          .setInt(1, 100)
+                                                          .newRecord("exchangeState")
+                                                          .setTimestampInMillis(0, 5000)
+                                                          .setByte(2, 2)
+                                                          .build();
+
+        DataBlock second = new DataBlockBuilder(definition).newRecord("trade")
+                                                           .setTimestampInMillis(0, 2000)
+                                                           .setInt(1, 50)
+                                                           .newRecord("exchangeState")
+                                                           .setTimestampInMillis(0, 4000)
+                                                           .setByte(2, 3)
+                                                           .build();
+
+        DataBlock expected = new DataBlockBuilder(definition).newRecord("exchangeState")
+                                                             .setTimestampInMillis(0, 1000)
+                                                             .setByte(2, 1)
+                                                             .newRecord("trade")
+                                                             .setTimestampInMillis(0, 2000)
+                                                             .setInt(1, 50)
+                                                             .newRecord("trade")
+                                                             .setTimestampInMillis(0, 3000)
+                                                             .setInt(1, 100)
+                                                             .newRecord("exchangeState")
+                                                             .setTimestampInMillis(0, 4000)
+                                                             .setByte(2, 3)
+                                                             .newRecord("exchangeState")
+                                                             .setTimestampInMillis(0, 5000)
+                                                             .setByte(2, 2)
+                                                             .build();
+
+        List<DataBlock> blocks = compact(definition, asList(first, second), false);
+
+        assertEquals(1, blocks.size());
+        assertEquals(3, getRecordCount(blocks.get(0).getHeader(), 0));
+        assertEquals(2, getRecordCount(blocks.get(0).getHeader(), 1));
+        assertArrayEquals(toBytes(expected.getData()), toBytes(blocks.get(0).getData()));
+    }
+
+    @Test
+    public void testCompactWithDeduplication() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(8192, newExchangeStateType(), newTradeType(false));
+
+        DataBlock first = new DataBlockBuilder(definition).newRecord("exchangeState")
+                                                          .setTimestampInMillis(0, 1000)
+                                                          .setByte(2, 1)
+                                                          .newRecord("exchangeState")
+                                                          .setTimestampInMillis(0, 2000)
+                                                          .setByte(2, 2)
+                                                          .newRecord("trade")
+                                                          .setTimestampInMillis(0, 2000)
+                                                          .setInt(1, 100)
+                                                          .build();
+
+        DataBlock second = new DataBlockBuilder(definition).newRecord("exchangeState")
+                                                           .setTimestampInMillis(0, 2000)
+                                                           .setByte(2, 9)
+                                                           .newRecord("exchangeState")
+                                                           .setTimestampInMillis(0, 3000)
+                                                           .setByte(2, 3)
+                                                           .build();
+
+        DataBlock expected = new DataBlockBuilder(definition).newRecord("exchangeState")
+                                                             .setTimestampInMillis(0, 1000)
+                                                             .setByte(2, 1)
+                                                             .newRecord("exchangeState")
+                                                             .setTimestampInMillis(0, 2000)
+                                                             .setByte(2, 9)
+                                                             .newRecord("trade")
+                                                             .setTimestampInMillis(0, 2000)
+                                                             .setInt(1, 100)
+                                                             .newRecord("exchangeState")
+                                                             .setTimestampInMillis(0, 3000)
+                                                             .setByte(2, 3)
+                                                             .build();
+
+        List<DataBlock> blocks = compact(definition, asList(first, second), true);
+
+        assertEquals(1, blocks.size());
+        assertEquals(3, getRecordCount(blocks.get(0).getHeader(), 0));
+        assertEquals(1, getRecordCount(blocks.get(0).getHeader(), 1));
+        assertArrayEquals(toBytes(expected.getData()), toBytes(blocks.get(0).getData()));
+
+        blocks = compact(definition, asList(first, second), false);
+
+        assertEquals(1, blocks.size());
+        assertEquals(4, getRecordCount(blocks.get(0).getHeader(), 0));
+    }
+
+    @Test
+    public void testCompactIntoMultipleBlocks() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(60, newExchangeStateType(), newTradeType(false));
+
+        List<DataBlock> input = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+
+            DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+            for (int j = 0; j < 5; j++) {
+                builder.newRecord("trade")
+                       .setTimestampInMillis(0, 1000 + (j * 4 + i) * 10)
+                       .setInt(1, i * 1000 + j * 37);
+            }
+
+            input.add(builder.build());
+        }
+
+        List<DataBlock> blocks = compact(definition, input, false);
+
+        assertTrue(blocks.size() > 1);
+
+        int numberOfRecords = 0;
+
+        for (int i = 0; i < blocks.size(); i++) {
+
+            DataBlock block = blocks.get(i);
+            numberOfRecords += getRecordCount(block.getHeader(), 1);
+
+            if (i > 0) {
+                assertTrue(block.isAfter(blocks.get(i - 1)));
+            }
+        }
+
+        assertEquals(20, numberOfRecords);
+    }
+
+    @Test
+    public void testCompactWithCompressedBlocks() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(60, newExchangeStateType(), newTradeType(false));
+
+        List<DataBlock> input = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+
+            DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+            for (int j = 0; j < 5; j++) {
+                builder.newRecord("trade")
+                       .setTimestampInMillis(0, 1000 + (j * 4 + i) * 10)
+                       .setInt(1, i * 1000 + j * 37);
+            }
+
+            input.add(builder.build());
+        }
+
+        List<DataBlock> compressed = new ArrayList<>();
+
+        try (ResourceIterator<DataBlock> iterator = compress(CompressionType.LZ4, BlockIterators.iterator(input))) {
+            while (iterator.hasNext()) {
+                compressed.add(iterator.next());
+            }
+        }
+
+        List<DataBlock> expected = compact(definition, input, false);
+        List<DataBlock> actual = compact(definition, compressed, false);
+
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(toBytes(expected.get(i).getData()), toBytes(actual.get(i).getData()));
+        }
+
+        try (ResourceIterator<DataBlock> iterator = BlockIterators.compact(definition, compressed, false)) {
+            assertTrue(iterator.hasNext());
+            iterator.next();
+        }
+    }
+
+    private static List<DataBlock> compact(TimeSeriesDefinition definition, 
+                                           List<DataBlock> input, 
+                                           boolean deduplicate) throws IOException {
+
+        List<DataBlock> blocks = new ArrayList<>();
+
+        try (ResourceIterator<DataBlock> iterator = decompress(BlockIterators.compact(definition, 
+                                                                                       input, 
+                                                                                       deduplicate))) {
+            while (iterator.hasNext()) {
+                blocks.add(iterator.next());
+            }
+        }
+
+        return blocks;
+    }
+}
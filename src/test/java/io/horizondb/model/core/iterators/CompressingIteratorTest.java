@@ -0,0 +1,105 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.iterators;
+
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.iterators.BlockIterators.compress;
+import static io.horizondb.model.core.iterators.BlockIterators.decompress;
+import static io.horizondb.model.core.iterators.BlockIterators.iterator;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressionType;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newTradeType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompressingIteratorTest {
+
+    @Test
+    public void testAdaptiveCompressionWithCompressibleBlock() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(64 * 1024, newTradeType(false));
+        DataBlock block = newBlock(definition, new Random(1), false);
+
+        try (ResourceIterator<DataBlock> iterator = compress(CompressionType.LZ4, iterator(block), 1.0)) {
+
+            assertTrue(iterator.hasNext());
+            assertEquals(CompressionType.LZ4, getCompressionType(iterator.next().getHeader()));
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testAdaptiveCompressionWithIncompressibleBlock() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(64 * 1024, newTradeType(false));
+        DataBlock block = newBlock(definition, new Random(1), true);
+
+        try (ResourceIterator<DataBlock> iterator = decompress(compress(CompressionType.LZ4, 
+                                                                        iterator(block, block), 
+                                                                        100))) {
+
+            for (int i = 0; i < 2; i++) {
+
+                assertTrue(iterator.hasNext());
+                DataBlock actual = iterator.next();
+
+                assertEquals(CompressionType.NONE, getCompressionType(actual.getHeader()));
+                assertArrayEquals(toBytes(block.getData()), toBytes(actual.getData()));
+            }
+
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testCompressionWithoutMinimumRatio() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(64 * 1024, newTradeType(false));
+        DataBlock block = newBlock(definition, new Random(1), true);
+
+        try (ResourceIterator<DataBlock> iterator = compress(CompressionType.LZ4, iterator(block))) {
+
+            assertTrue(iterator.hasNext());
+            assertEquals(CompressionType.LZ4, getCompressionType(iterator.next().getHeader()));
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    private static DataBlock newBlock(TimeSeriesDefinition definition, Random random, boolean noisy) 
+            throws IOException {
+
+        DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+        for (int i = 0; i < 1000; i++) {
+            builder.newRecord("trade")
+                   .setTimestampInMillis(0, 1000 + 10 * i)
+                   .setInt(1, noisy ? random.nextInt() : 100);
+        }
+
+        return builder.build();
+    }
+}
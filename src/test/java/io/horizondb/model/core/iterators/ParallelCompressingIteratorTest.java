@@ -0,0 +1,241 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.iterators;
+
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.ResourceIteratorUtils;
+import io.horizondb.model.core.blocks.ChecksumVerification;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.util.BufferPool;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.iterators.BlockIterators.compress;
+import static io.horizondb.model.core.iterators.BlockIterators.iterator;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newTradeType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelCompressingIteratorTest {
+
+    @Test
+    public void testNextPreservesOrder() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        List<DataBlock> blocks = newBlocks(definition, 20);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (ResourceIterator<DataBlock> expected = compress(CompressionType.LZ4, iterator(blocks));
+             ResourceIterator<DataBlock> actual = compress(CompressionType.LZ4, 
+                                                           iterator(blocks), 
+                                                           executor, 
+                                                           4, 
+                                                           Long.MAX_VALUE)) {
+
+            while (expected.hasNext()) {
+
+                assertTrue(actual.hasNext());
+
+                DataBlock expectedBlock = expected.next();
+                DataBlock actualBlock = actual.next();
+
+                assertEquals(expectedBlock.getHeader(), actualBlock.getHeader());
+                assertArrayEquals(toBytes(expectedBlock.getData()), toBytes(actualBlock.getData()));
+            }
+
+            assertFalse(actual.hasNext());
+
+        } finally {
+
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testNextWithBlocksReadFromABinaryBlockIterator() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        List<DataBlock> blocks = newBlocks(definition, 10);
+        ReadableBuffer bytes = ResourceIteratorUtils.toBytes(iterator(blocks));
+
+        BufferPool pool = BufferPool.newHeapPool(16);
+        QueuingExecutor executor = new QueuingExecutor();
+
+        try (ResourceIterator<DataBlock> expected = compress(CompressionType.LZ4, iterator(blocks));
+             ResourceIterator<DataBlock> actual = compress(CompressionType.LZ4, 
+                                                           iterator(definition, 
+                                                                    bytes, 
+                                                                    ChecksumVerification.ALWAYS, 
+                                                                    pool), 
+                                                           executor, 
+                                                           10, 
+                                                           Long.MAX_VALUE)) {
+
+            assertTrue(actual.hasNext());
+            assertEquals(10, executor.getNumberOfPendingTasks());
+
+            executor.runAll();
+
+            while (expected.hasNext()) {
+
+                assertTrue(actual.hasNext());
+
+                DataBlock expectedBlock = expected.next();
+                DataBlock actualBlock = actual.next();
+
+                assertEquals(expectedBlock.getHeader(), actualBlock.getHeader());
+                assertArrayEquals(toBytes(expectedBlock.getData()), toBytes(actualBlock.getData()));
+            }
+
+            assertFalse(actual.hasNext());
+        }
+
+        assertEquals(pool.getMissCount(), pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testCloseReleasesTheBuffersOfThePendingBlocks() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        ReadableBuffer bytes = ResourceIteratorUtils.toBytes(iterator(newBlocks(definition, 10)));
+
+        BufferPool pool = BufferPool.newHeapPool(16);
+        QueuingExecutor executor = new QueuingExecutor();
+
+        ResourceIterator<DataBlock> actual = compress(CompressionType.LZ4, 
+                                                      iterator(definition, bytes, ChecksumVerification.ALWAYS, pool), 
+                                                      executor, 
+                                                      3, 
+                                                      Long.MAX_VALUE);
+
+        assertTrue(actual.hasNext());
+        assertEquals(3, executor.getNumberOfPendingTasks());
+
+        actual.close();
+        executor.runAll();
+
+        assertEquals(pool.getMissCount(), pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testReadAheadIsBoundedByTheNumberOfBlocks() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        QueuingExecutor executor = new QueuingExecutor();
+
+        try (ResourceIterator<DataBlock> actual = compress(CompressionType.LZ4, 
+                                                           iterator(newBlocks(definition, 10)), 
+                                                           executor, 
+                                                           3, 
+                                                           Long.MAX_VALUE)) {
+
+            assertTrue(actual.hasNext());
+            assertEquals(3, executor.getNumberOfPendingTasks());
+
+            executor.runAll();
+            actual.next();
+
+            assertEquals(1, executor.getNumberOfPendingTasks());
+        }
+    }
+
+    @Test
+    public void testReadAheadIsBoundedByTheNumberOfBytes() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        QueuingExecutor executor = new QueuingExecutor();
+
+        try (ResourceIterator<DataBlock> actual = compress(CompressionType.LZ4, 
+                                                           iterator(newBlocks(definition, 10)), 
+                                                           executor, 
+                                                           3, 
+                                                           1)) {
+
+            for (int i = 0; i < 10; i++) {
+
+                assertTrue(actual.hasNext());
+                assertEquals(1, executor.getNumberOfPendingTasks());
+
+                executor.runAll();
+                actual.next();
+            }
+
+            assertFalse(actual.hasNext());
+        }
+    }
+
+    private static List<DataBlock> newBlocks(TimeSeriesDefinition definition, int numberOfBlocks) 
+            throws IOException {
+
+        List<DataBlock> blocks = new ArrayList<>();
+
+        for (int i = 0; i < numberOfBlocks; i++) {
+
+            DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+            for (int j = 0; j < 50; j++) {
+                builder.newRecord("trade")
+                       .setTimestampInMillis(0, 1000 * i + 10 * j)
+                       .setInt(1, i * j);
+            }
+
+            blocks.add(builder.build());
+        }
+
+        return blocks;
+    }
+
+
+    /**
+     * <code>Executor</code> that only runs the tasks when requested.
+     */
+    private static final class QueuingExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            this.tasks.add(task);
+        }
+
+        public int getNumberOfPendingTasks() {
+            return this.tasks.size();
+        }
+
+        public void runAll() {
+
+            for (Runnable task : this.tasks) {
+                task.run();
+            }
+
+            this.tasks.clear();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.iterators;
+
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.ResourceIteratorUtils;
+import io.horizondb.model.core.blocks.ChecksumVerification;
+import io.horizondb.model.core.blocks.CorruptedBlockException;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.core.filters.Filters;
+import io.horizondb.model.core.util.BufferPool;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import static io.horizondb.io.buffers.Buffers.toBytes;
+import static io.horizondb.model.core.iterators.BlockIterators.compress;
+import static io.horizondb.model.core.iterators.BlockIterators.decompress;
+import static io.horizondb.model.core.iterators.BlockIterators.iterator;
+import static io.horizondb.model.schema.DefinitionUtils.newDefinition;
+import static io.horizondb.model.schema.DefinitionUtils.newTradeType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadAheadDecompressingIteratorTest {
+
+    @Test
+    public void testNextPreservesOrder() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        ReadableBuffer bytes = newCompressedBlocks(definition, 20);
+
+        BufferPool pool = BufferPool.newHeapPool(8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (ResourceIterator<DataBlock> expected = decompress(iterator(definition, bytes.duplicate()));
+             ResourceIterator<DataBlock> actual = decompress(iterator(definition, 
+                                                                      bytes.duplicate(), 
+                                                                      ChecksumVerification.ALWAYS, 
+                                                                      pool), 
+                                                             ChecksumVerification.ALWAYS,
+                                                             executor, 
+                                                             3)) {
+
+            while (expected.hasNext()) {
+
+                assertTrue(actual.hasNext());
+
+                DataBlock expectedBlock = expected.next();
+                DataBlock actualBlock = actual.next();
+
+                assertEquals(expectedBlock.getHeader(), actualBlock.getHeader());
+                assertArrayEquals(toBytes(expectedBlock.getData()), toBytes(actualBlock.getData()));
+            }
+
+            assertFalse(actual.hasNext());
+
+        } finally {
+
+            executor.shutdown();
+        }
+
+        assertEquals(pool.getMissCount(), pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testNextWithPooledUncompressedData() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        ReadableBuffer bytes = newCompressedBlocks(definition, 20);
+
+        BufferPool pool = BufferPool.newHeapPool(8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (ResourceIterator<DataBlock> expected = decompress(iterator(definition, bytes.duplicate()));
+             ResourceIterator<DataBlock> actual = decompress(iterator(definition, 
+                                                                      bytes.duplicate(), 
+                                                                      ChecksumVerification.ALWAYS, 
+                                                                      pool), 
+                                                             ChecksumVerification.ALWAYS,
+                                                             executor, 
+                                                             3,
+                                                             pool)) {
+
+            while (expected.hasNext()) {
+
+                assertTrue(actual.hasNext());
+
+                DataBlock expectedBlock = expected.next();
+                DataBlock actualBlock = actual.next();
+
+                assertEquals(expectedBlock.getHeader(), actualBlock.getHeader());
+                assertArrayEquals(toBytes(expectedBlock.getData()), toBytes(actualBlock.getData()));
+            }
+
+            assertFalse(actual.hasNext());
+
+        } finally {
+
+            executor.shutdown();
+        }
+
+        assertTrue(pool.getHitCount() > 0);
+        assertEquals(pool.getMissCount(), pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testNextWithMixedCompressionTypes() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        List<DataBlock> blocks = new ArrayList<>();
+        List<DataBlock> compressedBlocks = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+
+            DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+            for (int j = 0; j < 50; j++) {
+                builder.newRecord("trade")
+                       .setTimestampInMillis(0, 1000 * i + 10 * j)
+                       .setInt(1, i * j);
+            }
+
+            DataBlock block = builder.build();
+            CompressionType compressionType = (i % 2 == 0) ? CompressionType.LZ4 : CompressionType.SNAPPY;
+
+            blocks.add(block);
+            compressedBlocks.add(compress(compressionType, iterator(Collections.singletonList(block))).next());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try (ResourceIterator<DataBlock> actual = decompress(iterator(compressedBlocks), 
+                                                             ChecksumVerification.ALWAYS,
+                                                             executor, 
+                                                             3)) {
+
+            for (DataBlock expectedBlock : blocks) {
+
+                assertTrue(actual.hasNext());
+                assertArrayEquals(toBytes(expectedBlock.getData()), toBytes(actual.next().getData()));
+            }
+
+            assertFalse(actual.hasNext());
+
+        } finally {
+
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCloseCancelsPendingTasksAndReleasesBuffers() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        ReadableBuffer bytes = newCompressedBlocks(definition, 10);
+
+        BufferPool pool = BufferPool.newHeapPool(8);
+        QueuingExecutor executor = new QueuingExecutor();
+
+        ResourceIterator<DataBlock> actual = decompress(iterator(definition, 
+                                                                 bytes, 
+                                                                 ChecksumVerification.ALWAYS, 
+                                                                 pool), 
+                                                        ChecksumVerification.ALWAYS,
+                                                        executor, 
+                                                        3);
+
+        assertTrue(actual.hasNext());
+        assertEquals(3, executor.getNumberOfPendingTasks());
+
+        actual.close();
+        executor.runAll();
+
+        assertEquals(pool.getMissCount(), pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testBinaryTimeSeriesRecordIteratorWithReadAhead() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        ReadableBuffer bytes = newCompressedBlocks(definition, 5);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try (BinaryTimeSeriesRecordIterator expected = new BinaryTimeSeriesRecordIterator(definition, 
+                                                                                          bytes.duplicate());
+             BinaryTimeSeriesRecordIterator actual = new BinaryTimeSeriesRecordIterator(definition, 
+                                                                                        bytes.duplicate(),
+                                                                                        TimestampField.ALL,
+                                                                                        Filters.<String>noop(),
+                                                                                        Filters.<String>noop(),
+                                                                                        executor,
+                                                                                        2)) {
+
+            while (expected.hasNext()) {
+
+                assertTrue(actual.hasNext());
+                assertEquals(expected.next().toTimeSeriesRecord(), actual.next().toTimeSeriesRecord());
+            }
+
+            assertFalse(actual.hasNext());
+
+        } finally {
+
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBinaryTimeSeriesRecordIteratorWithPooledUncompressedData() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        ReadableBuffer bytes = newCompressedBlocks(definition, 5);
+
+        BufferPool pool = BufferPool.newHeapPool(8);
+
+        try (BinaryTimeSeriesRecordIterator expected = new BinaryTimeSeriesRecordIterator(definition, 
+                                                                                          bytes.duplicate());
+             BinaryTimeSeriesRecordIterator actual = 
+                     new BinaryTimeSeriesRecordIterator(definition, 
+                                                        decompress(iterator(definition, 
+                                                                            bytes.duplicate(), 
+                                                                            ChecksumVerification.ALWAYS, 
+                                                                            pool),
+                                                                   ChecksumVerification.OFF,
+                                                                   pool),
+                                                        Filters.<String>noop())) {
+
+            while (expected.hasNext()) {
+
+                assertTrue(actual.hasNext());
+                assertEquals(expected.next().toTimeSeriesRecord(), actual.next().toTimeSeriesRecord());
+            }
+
+            assertFalse(actual.hasNext());
+        }
+
+        // The compressed and uncompressed buffers of a block are both reused for each of the following blocks
+        assertEquals(8, pool.getHitCount());
+        assertEquals(pool.getMissCount(), pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testBinaryTimeSeriesRecordIteratorWithReadAheadAndChecksumVerification() throws IOException {
+
+        TimeSeriesDefinition definition = newDefinition(newTradeType(false));
+        byte[] bytes = toBytes(newCompressedBlocks(definition, 3));
+        bytes[bytes.length - 1] ^= 1;
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try (BinaryTimeSeriesRecordIterator actual = 
+                new BinaryTimeSeriesRecordIterator(definition, 
+                                                   iterator(definition, 
+                                                            Buffers.wrap(bytes), 
+                                                            ChecksumVerification.OFF),
+                                                   TimestampField.ALL,
+                                                   Filters.<String>noop(),
+                                                   Filters.<String>noop(),
+                                                   ChecksumVerification.ALWAYS,
+                                                   executor,
+                                                   2)) {
+
+            while (actual.hasNext()) {
+                actual.next();
+            }
+
+            fail();
+
+        } catch (CorruptedBlockException e) {
+
+            assertTrue(true);
+
+        } finally {
+
+            executor.shutdown();
+        }
+    }
+
+    private static ReadableBuffer newCompressedBlocks(TimeSeriesDefinition definition, int numberOfBlocks) 
+            throws IOException {
+
+        List<DataBlock> blocks = new ArrayList<>();
+
+        for (int i = 0; i < numberOfBlocks; i++) {
+
+            DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+            for (int j = 0; j < 50; j++) {
+                builder.newRecord("trade")
+                       .setTimestampInMillis(0, 1000 * i + 10 * j)
+                       .setInt(1, i * j);
+            }
+
+            blocks.add(builder.build());
+        }
+
+        return ResourceIteratorUtils.toBytes(compress(CompressionType.LZ4, iterator(blocks)));
+    }
+
+
+    /**
+     * <code>Executor</code> that only runs the tasks when requested.
+     */
+    private static final class QueuingExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            this.tasks.add(task);
+        }
+
+        public int getNumberOfPendingTasks() {
+            return this.tasks.size();
+        }
+
+        public void runAll() {
+
+            for (Runnable task : this.tasks) {
+                task.run();
+            }
+
+            this.tasks.clear();
+        }
+    }
+}
@@ -13,10 +13,17 @@
  */
 package io.horizondb.model.core.predicates;
 
+import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Predicate;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
 import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.schema.FieldDefinition;
 import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -140,4 +147,43 @@ public class InPredicateTest {
         
         assertTrue(rangeSet.contains(expected));
     }
+
+    @Test
+    public void testMayMatchWithBloomFilter() throws Exception {
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("trade")
+                                                         .addField(FieldDefinition.newBuilder("volume", 
+                                                                                              FieldType.INTEGER)
+                                                                                  .bloomFilter(true))
+                                                         .build();
+
+        TimeSeriesDefinition definition = TimeSeriesDefinition.newBuilder("test")
+                                                              .timeUnit(TimeUnit.MILLISECONDS)
+                                                              .addRecordType(trade)
+                                                              .build();
+
+        DataBlock block = new DataBlockBuilder(definition).newRecord("trade")
+                                                          .setTimestampInMillis(0, 100)
+                                                          .setInt(1, 150)
+                                                          .newRecord("trade")
+                                                          .setTimestampInMillis(0, 200)
+                                                          .setInt(1, 800)
+                                                          .newRecord("trade")
+                                                          .setTimestampInMillis(0, 300)
+                                                          .setInt(1, 20)
+                                                          .build();
+
+        Predicate predicate = Predicates.in("volume", newTreeSet(asList(toIntField("170"), toIntField("900"))));
+        assertFalse(predicate.mayMatch(definition, block));
+
+        predicate = Predicates.in("volume", newTreeSet(asList(toIntField("20"), toIntField("900"))));
+        assertTrue(predicate.mayMatch(definition, block));
+
+        predicate = Predicates.notIn("volume", newTreeSet(asList(toIntField("170"), toIntField("900"))));
+        assertTrue(predicate.mayMatch(definition, block));
+
+        assertFalse(Predicates.eq("volume", toIntField("170")).mayMatch(definition, block));
+        assertTrue(Predicates.eq("volume", toIntField("800")).mayMatch(definition, block));
+        assertTrue(Predicates.gt("volume", toIntField("900")).mayMatch(definition, block));
+    }
 }
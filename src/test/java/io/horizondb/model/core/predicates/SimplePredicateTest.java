@@ -13,10 +13,20 @@
  */
 package io.horizondb.model.core.predicates;
 
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Predicate;
+import io.horizondb.model.core.blocks.BinaryDataBlock;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
 import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.schema.FieldDefinition;
 import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -30,6 +40,40 @@ import static org.junit.Assert.assertTrue;
 
 public class SimplePredicateTest {
 
+    @Test
+    public void testMayMatchWithZoneMap() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(true);
+        DataBlock block = newBlock(definition);
+
+        assertFalse(Predicates.gt("volume", toIntField("1000")).mayMatch(definition, block));
+        assertFalse(Predicates.lt("volume", toIntField("10")).mayMatch(definition, block));
+        assertFalse(Predicates.eq("volume", toIntField("900")).mayMatch(definition, block));
+        assertTrue(Predicates.ge("volume", toIntField("500")).mayMatch(definition, block));
+        assertTrue(Predicates.eq("volume", toIntField("150")).mayMatch(definition, block));
+        assertTrue(Predicates.ne("volume", toIntField("150")).mayMatch(definition, block));
+    }
+
+    @Test
+    public void testMayMatchWithoutZoneMap() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(false);
+        DataBlock block = newBlock(definition);
+
+        assertTrue(Predicates.gt("volume", toIntField("1000")).mayMatch(definition, block));
+        assertTrue(Predicates.lt("volume", toIntField("10")).mayMatch(definition, block));
+    }
+
+    @Test
+    public void testMayMatchWithTimestampField() throws Exception {
+
+        TimeSeriesDefinition definition = newDefinition(false);
+        DataBlock block = newBlock(definition);
+
+        assertFalse(Predicates.gt("timestamp", toMillisecondField("1000ms")).mayMatch(definition, block));
+        assertTrue(Predicates.lt("timestamp", toMillisecondField("1000ms")).mayMatch(definition, block));
+    }
+
     @Test
     public void testGetTimestampRangesWithNonTimestampField() {
         
@@ -224,4 +268,77 @@ public class SimplePredicateTest {
         
         assertTrue(rangeSet.contains(expected));
     }
+
+    @Test
+    public void testMayMatchWithBloomFilterAndDistinctIds() throws Exception {
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("trade")
+                                                         .addField(FieldDefinition.newBuilder("id", FieldType.LONG)
+                                                                                  .bloomFilter(true))
+                                                         .build();
+
+        TimeSeriesDefinition definition = TimeSeriesDefinition.newBuilder("test")
+                                                              .timeUnit(TimeUnit.MILLISECONDS)
+                                                              .addRecordType(trade)
+                                                              .build();
+
+        DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+        for (int i = 0; i < 4000; i++) {
+            builder.newRecord("trade")
+                   .setTimestampInMillis(0, 100 + i)
+                   .setLong(1, 1000000L + 7919L * i);
+        }
+
+        DataBlock block = builder.build();
+
+        Buffer buffer = Buffers.allocate(block.computeSerializedSize());
+        block.writeTo(buffer);
+        DataBlock serialized = new BinaryDataBlock(definition).fill(buffer);
+
+        for (int i = 0; i < 4000; i += 100) {
+            Field id = FieldType.LONG.newField().setLong(1000000L + 7919L * i);
+            assertTrue(Predicates.eq("id", id).mayMatch(definition, serialized));
+        }
+
+        int pruned = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            Field id = FieldType.LONG.newField().setLong(2 * i + 1);
+
+            if (!Predicates.eq("id", id).mayMatch(definition, serialized)) {
+                pruned++;
+            }
+        }
+
+        assertTrue("only " + pruned + " blocks pruned", pruned > 950);
+    }
+
+    private static TimeSeriesDefinition newDefinition(boolean zoneMap) {
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("trade")
+                                                         .addField(FieldDefinition.newBuilder("volume", 
+                                                                                              FieldType.INTEGER)
+                                                                                  .zoneMap(zoneMap))
+                                                         .build();
+
+        return TimeSeriesDefinition.newBuilder("test")
+                                   .timeUnit(TimeUnit.MILLISECONDS)
+                                   .addRecordType(trade)
+                                   .build();
+    }
+
+    private static DataBlock newBlock(TimeSeriesDefinition definition) throws Exception {
+
+        return new DataBlockBuilder(definition).newRecord("trade")
+                                               .setTimestampInMillis(0, 100)
+                                               .setInt(1, 150)
+                                               .newRecord("trade")
+                                               .setTimestampInMillis(0, 200)
+                                               .setInt(1, 800)
+                                               .newRecord("trade")
+                                               .setTimestampInMillis(0, 300)
+                                               .setInt(1, 20)
+                                               .build();
+    }
 }
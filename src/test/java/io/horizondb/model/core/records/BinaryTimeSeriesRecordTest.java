@@ -218,6 +218,94 @@ public class BinaryTimeSeriesRecordTest {
         assertEquals(3, binaryRecord.getByte(3));
     }
 
+    @Test
+    public void testGetMethodsInReverseOrder() throws IOException {
+
+        TimeSeriesRecord record = new TimeSeriesRecord(TYPE,
+                                                       TimeUnit.NANOSECONDS,
+                                                       FieldType.DECIMAL,
+                                                       FieldType.BYTE,
+                                                       FieldType.MILLISECONDS_TIMESTAMP,
+                                                       FieldType.INTEGER,
+                                                       FieldType.DECIMAL);
+
+        record.setTimestampInNanos(0, 10000000);
+        record.setDecimal(1, 145, 1);
+        record.setByte(2, -3);
+        record.setInt(4, 300000);
+        record.setDecimal(5, -12, -2);
+
+        BinaryTimeSeriesRecord binaryRecord = record.toBinaryTimeSeriesRecord();
+
+        assertEquals(-12, binaryRecord.getDecimalMantissa(5));
+        assertEquals(-2, binaryRecord.getDecimalExponent(5));
+        assertEquals(computeLongSize(300000), binaryRecord.getFieldLengthInBytes(4));
+        assertEquals(longToBytes(300000), binaryRecord.getFieldBytes(4));
+        assertEquals(0, binaryRecord.getTimestampInMillis(3));
+        assertEquals(300000, binaryRecord.getInt(4));
+        assertEquals(-3, binaryRecord.getByte(2));
+        assertEquals(decimalToBytes(145, 1), binaryRecord.getFieldBytes(1));
+        assertEquals(145, binaryRecord.getDecimalMantissa(1));
+        assertEquals(1, binaryRecord.getDecimalExponent(1));
+        assertEquals(10000000, binaryRecord.getTimestampInNanos(0));
+
+        TimeSeriesRecord copy = new TimeSeriesRecord(TYPE,
+                                                     TimeUnit.NANOSECONDS,
+                                                     FieldType.DECIMAL,
+                                                     FieldType.BYTE,
+                                                     FieldType.MILLISECONDS_TIMESTAMP,
+                                                     FieldType.INTEGER,
+                                                     FieldType.DECIMAL);
+
+        binaryRecord.copyTo(copy);
+
+        assertEquals(record, copy);
+    }
+
+    @Test
+    public void testFillWithDecodedRecord() throws IOException {
+
+        TimeSeriesRecord record = new TimeSeriesRecord(TYPE,
+                                                       TimeUnit.NANOSECONDS,
+                                                       FieldType.MILLISECONDS_TIMESTAMP,
+                                                       FieldType.DECIMAL,
+                                                       FieldType.BYTE);
+
+        record.setDelta(true);
+        record.setTimestampInNanos(0, 10000000);
+        record.setDecimal(2, 145, 1);
+        record.setByte(3, 3);
+
+        BinaryTimeSeriesRecord binaryRecord = new BinaryTimeSeriesRecord(TYPE,
+                                                                         TimeUnit.NANOSECONDS,
+                                                                         FieldType.MILLISECONDS_TIMESTAMP,
+                                                                         FieldType.DECIMAL,
+                                                                         FieldType.BYTE);
+        binaryRecord.fill(record);
+
+        assertTrue(binaryRecord.isDelta());
+        assertEquals(10000000, binaryRecord.getTimestampInNanos(0));
+        assertEquals(0, binaryRecord.getTimestampInMillis(1));
+        assertEquals(145, binaryRecord.getDecimalMantissa(2));
+        assertEquals(3, binaryRecord.getByte(3));
+
+        BinaryTimeSeriesRecord copy = binaryRecord.newInstance();
+
+        assertEquals(decimalToBytes(145, 1), binaryRecord.getFieldBytes(2));
+        assertEquals(record.computeSerializedSize(), binaryRecord.computeSerializedSize());
+
+        Buffer expected = Buffers.allocate(record.computeSerializedSize());
+        record.writeTo(expected);
+
+        Buffer actual = Buffers.allocate(binaryRecord.computeSerializedSize());
+        binaryRecord.writeTo(actual);
+
+        assertArrayEquals(expected.array(), actual.array());
+        assertEquals(145, binaryRecord.getDecimalMantissa(2));
+        assertEquals(3, copy.getByte(3));
+        assertEquals(longToBytes(10000000), copy.getFieldBytes(0));
+    }
+
     @Test
     public void testWriteTo() throws IOException {
 
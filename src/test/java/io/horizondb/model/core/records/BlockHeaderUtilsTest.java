@@ -17,9 +17,14 @@ import io.horizondb.io.Buffer;
 import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.buffers.Buffers;
 import io.horizondb.io.compression.CompressionType;
+import io.horizondb.model.core.Record;
 import io.horizondb.model.core.RecordListBuilder;
 import io.horizondb.model.core.RecordUtils;
+import io.horizondb.model.core.fields.ByteField;
+import io.horizondb.model.core.fields.IntegerField;
+import io.horizondb.model.core.fields.TimestampField;
 import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.FieldDefinition;
 import io.horizondb.model.schema.FieldType;
 import io.horizondb.model.schema.RecordTypeDefinition;
 import io.horizondb.model.schema.TimeSeriesDefinition;
@@ -106,4 +111,112 @@ public class BlockHeaderUtilsTest {
         assertEquals(3, BlockHeaderUtils.getRecordCount(blockHeader, 0));
     }
 
+    @Test
+    public void testHeaderLayout() {
+
+        assertEquals(1, BlockHeaderUtils.LAST_TIMESTAMP_INDEX);
+        assertEquals(2, BlockHeaderUtils.COMPRESSED_BLOCK_SIZE_INDEX);
+        assertEquals(3, BlockHeaderUtils.UNCOMPRESSED_BLOCK_SIZE_INDEX);
+        assertEquals(4, BlockHeaderUtils.COMPRESSION_TYPE_INDEX);
+        assertEquals(5, BlockHeaderUtils.RECORD_COUNTERS_OFFSET);
+        assertEquals(8, BlockHeaderUtils.getChecksumIndex(10));
+        assertEquals(9, BlockHeaderUtils.getFlagsIndex(10));
+    }
+
+    @Test
+    public void testReadHeaderWrittenWithTheFormerLayout() throws IOException {
+
+        RecordTypeDefinition exchangeState = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                 .addField("status", FieldType.BYTE)
+                                                                 .build();
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("trade")
+                                                         .addField("volume", FieldType.INTEGER)
+                                                         .build();
+
+        TimeSeriesDefinition def = TimeSeriesDefinition.newBuilder("test")
+                                                       .timeUnit(TimeUnit.MILLISECONDS)
+                                                       .addRecordType(exchangeState)
+                                                       .addRecordType(trade)
+                                                       .build();
+
+        // The header as written before the checksum and the flags were appended to it
+        TimeSeriesRecord oldBlockHeader = new TimeSeriesRecord(Record.BLOCK_HEADER_TYPE,
+                                                               new TimestampField(TimeUnit.MILLISECONDS),
+                                                               new TimestampField(TimeUnit.MILLISECONDS),
+                                                               new IntegerField(),
+                                                               new IntegerField(),
+                                                               new ByteField(),
+                                                               new IntegerField(),
+                                                               new IntegerField());
+
+        oldBlockHeader.setTimestampInMillis(0, TIME_IN_MILLIS);
+        // The last timestamp and the uncompressed size are stored as deltas
+        oldBlockHeader.setTimestampInMillis(1, 100);
+        oldBlockHeader.setInt(2, 40);
+        oldBlockHeader.setInt(3, 20);
+        oldBlockHeader.setByte(4, CompressionType.LZ4.toByte());
+        oldBlockHeader.setInt(5, 3);
+        oldBlockHeader.setInt(6, 2);
+
+        Buffer buffer = Buffers.allocate(oldBlockHeader.computeSerializedSize());
+        oldBlockHeader.writeTo(buffer);
+
+        BinaryTimeSeriesRecord newBlockHeader = def.newBinaryBlockHeader();
+        newBlockHeader.fill(buffer);
+
+        assertEquals(TIME_IN_MILLIS, BlockHeaderUtils.getFirstTimestampField(newBlockHeader)
+                                                     .getTimestampInMillis());
+        assertEquals(TIME_IN_MILLIS + 100, BlockHeaderUtils.getLastTimestampField(newBlockHeader)
+                                                           .getTimestampInMillis());
+        assertEquals(40, BlockHeaderUtils.getCompressedBlockSize(newBlockHeader));
+        assertEquals(60, BlockHeaderUtils.getUncompressedBlockSize(newBlockHeader));
+        assertEquals(CompressionType.LZ4, BlockHeaderUtils.getCompressionType(newBlockHeader));
+        assertEquals(3, BlockHeaderUtils.getRecordCount(newBlockHeader, 0));
+        assertEquals(2, BlockHeaderUtils.getRecordCount(newBlockHeader, 1));
+        assertEquals(0, BlockHeaderUtils.getChecksum(newBlockHeader));
+        assertFalse(BlockHeaderUtils.isOverlapping(newBlockHeader));
+        assertFalse(BlockHeaderUtils.hasBloomFilters(newBlockHeader));
+    }
+
+    @Test
+    public void testBloomFilter() throws IOException {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("trade")
+                                                                        .addField(FieldDefinition.newBuilder("id", 
+                                                                                                             FieldType.LONG)
+                                                                                                 .bloomFilter(true))
+                                                                        .build();
+
+        TimeSeriesDefinition def = TimeSeriesDefinition.newBuilder("test")
+                                                       .addRecordType(recordTypeDefinition)
+                                                       .build();
+
+        int offset = def.getBloomFilterOffset(0, 1);
+        int length = def.getBloomFilterLength();
+        byte[] bloomFilters = new byte[def.getBloomFiltersLength()];
+
+        assertFalse(BlockHeaderUtils.mightContain(Buffers.wrap(bloomFilters), offset, length, 42));
+
+        for (long id = 1000; id < 5000; id++) {
+            BlockHeaderUtils.addToBloomFilter(bloomFilters, offset, length, id);
+        }
+
+        ReadableBuffer buffer = Buffers.wrap(bloomFilters);
+
+        for (long id = 1000; id < 5000; id++) {
+            assertTrue(BlockHeaderUtils.mightContain(buffer, offset, length, id));
+        }
+
+        int falsePositives = 0;
+
+        for (long id = 10000; id < 20000; id++) {
+            if (BlockHeaderUtils.mightContain(buffer, offset, length, id)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue("too many false positives: " + falsePositives, falsePositives < 300);
+    }
+
 }
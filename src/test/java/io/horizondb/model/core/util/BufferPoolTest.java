@@ -0,0 +1,114 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.core.util;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BufferPoolTest {
+
+    @Test
+    public void testAcquireWithSizeClasses() {
+
+        BufferPool pool = BufferPool.newHeapPool(2);
+
+        assertEquals(BufferPool.MINIMUM_SIZE_CLASS, pool.acquire(10).getBuffer().capacity());
+        assertEquals(BufferPool.MINIMUM_SIZE_CLASS, pool.acquire(BufferPool.MINIMUM_SIZE_CLASS).getBuffer().capacity());
+        assertEquals(2 * BufferPool.MINIMUM_SIZE_CLASS, 
+                     pool.acquire(BufferPool.MINIMUM_SIZE_CLASS + 1).getBuffer().capacity());
+        assertEquals(BufferPool.MAXIMUM_SIZE_CLASS + 1, 
+                     pool.acquire(BufferPool.MAXIMUM_SIZE_CLASS + 1).getBuffer().capacity());
+        assertEquals(4, pool.getMissCount());
+        assertEquals(0, pool.getHitCount());
+    }
+
+    @Test
+    public void testReleaseAndAcquire() throws IOException {
+
+        BufferPool pool = BufferPool.newHeapPool(2);
+
+        PooledBuffer first = pool.acquire(100);
+        first.getBuffer().writeByte(5);
+
+        assertTrue(first.release());
+        assertEquals(1, pool.getNumberOfIdleBuffers());
+
+        PooledBuffer second = pool.acquire(200);
+
+        assertSame(first, second);
+        assertEquals(0, second.getBuffer().readableBytes());
+        assertEquals(1, second.getReferenceCount());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertEquals(0, pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testRetain() {
+
+        BufferPool pool = BufferPool.newHeapPool(2);
+
+        PooledBuffer buffer = pool.acquire(100).retain();
+
+        assertEquals(2, buffer.getReferenceCount());
+        assertFalse(buffer.release());
+        assertEquals(0, pool.getNumberOfIdleBuffers());
+        assertTrue(buffer.release());
+        assertEquals(1, pool.getNumberOfIdleBuffers());
+    }
+
+    @Test
+    public void testReleaseWithReleasedBuffer() {
+
+        PooledBuffer buffer = BufferPool.newHeapPool(2).acquire(100);
+        buffer.release();
+
+        try {
+            buffer.release();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(true);
+        }
+
+        try {
+            buffer.getBuffer();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(true);
+        }
+    }
+
+    @Test
+    public void testReleaseWithFullPool() {
+
+        BufferPool pool = BufferPool.newDirectPool(1);
+
+        PooledBuffer first = pool.acquire(100);
+        PooledBuffer second = pool.acquire(100);
+        PooledBuffer large = pool.acquire(BufferPool.MAXIMUM_SIZE_CLASS + 1);
+
+        first.release();
+        second.release();
+        large.release();
+
+        assertEquals(1, pool.getNumberOfIdleBuffers());
+    }
+}
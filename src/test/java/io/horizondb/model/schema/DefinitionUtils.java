@@ -0,0 +1,92 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.model.schema;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for the time series definitions used by the tests.
+ */
+public final class DefinitionUtils {
+
+    /**
+     * Creates an <code>exchangeState</code> record type with a <code>timestampInMillis</code> field and a 
+     * <code>status</code> byte field.
+     * 
+     * @return an <code>exchangeState</code> record type
+     */
+    public static RecordTypeDefinition newExchangeStateType() {
+
+        return RecordTypeDefinition.newBuilder("exchangeState")
+                                   .addField("timestampInMillis", FieldType.MILLISECONDS_TIMESTAMP)
+                                   .addField("status", FieldType.BYTE)
+                                   .build();
+    }
+
+    /**
+     * Creates a <code>trade</code> record type with a <code>volume</code> integer field and a <code>price</code> 
+     * decimal field.
+     * 
+     * @param aggregates <code>true</code> if the aggregates of the fields must be maintained within the block 
+     * headers
+     * @return a <code>trade</code> record type
+     */
+    public static RecordTypeDefinition newTradeType(boolean aggregates) {
+
+        return RecordTypeDefinition.newBuilder("trade")
+                                   .addField(FieldDefinition.newBuilder("volume", FieldType.INTEGER)
+                                                            .aggregates(aggregates))
+                                   .addField(FieldDefinition.newBuilder("price", FieldType.DECIMAL)
+                                                            .aggregates(aggregates))
+                                   .build();
+    }
+
+    /**
+     * Creates a time series definition with the specified record types.
+     * 
+     * @param recordTypes the record types
+     * @return a time series definition
+     */
+    public static TimeSeriesDefinition newDefinition(RecordTypeDefinition... recordTypes) {
+
+        return newBuilder(recordTypes).build();
+    }
+
+    /**
+     * Creates a time series definition with the specified block size and record types.
+     * 
+     * @param blockSize the block size in bytes
+     * @param recordTypes the record types
+     * @return a time series definition
+     */
+    public static TimeSeriesDefinition newDefinition(int blockSize, RecordTypeDefinition... recordTypes) {
+
+        return newBuilder(recordTypes).blockSize(blockSize).build();
+    }
+
+    private static TimeSeriesDefinition.Builder newBuilder(RecordTypeDefinition... recordTypes) {
+
+        TimeSeriesDefinition.Builder builder = TimeSeriesDefinition.newBuilder("test")
+                                                                   .timeUnit(TimeUnit.MILLISECONDS);
+
+        for (RecordTypeDefinition recordType : recordTypes) {
+            builder.addRecordType(recordType);
+        }
+
+        return builder;
+    }
+
+    private DefinitionUtils() {
+    }
+}
@@ -19,6 +19,7 @@ import java.io.IOException;
 
 import io.horizondb.io.Buffer;
 import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.encoding.VarInts;
 import io.horizondb.model.schema.FieldDefinition;
 import io.horizondb.model.schema.FieldType;
 
@@ -67,4 +68,130 @@ public class FieldDefinitionTest {
         assertEquals(buffer.readableBytes(), definition.computeSerializedSize());
     }
 
+    @Test
+    public void testParseFromWithEncoding() throws IOException {
+
+        FieldDefinition definition = FieldDefinition.newInstance("price", FieldType.DECIMAL, FieldEncoding.XOR);
+
+        Buffer buffer = Buffers.allocate(100);
+        definition.writeTo(buffer);
+
+        FieldDefinition deserializedDefinition = FieldDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertEquals(FieldEncoding.XOR, deserializedDefinition.getEncoding());
+    }
+
+    @Test
+    public void testParseFromWithoutEncodingAndOptions() throws IOException {
+
+        Buffer buffer = Buffers.allocate(100);
+        VarInts.writeString(buffer, "volume");
+        FieldType.INTEGER.writeTo(buffer);
+        VarInts.writeString(buffer, "price");
+        FieldType.DECIMAL.writeTo(buffer);
+
+        assertEquals(FieldDefinition.newInstance("volume", FieldType.INTEGER), FieldDefinition.parseFrom(buffer));
+        assertEquals(FieldDefinition.newInstance("price", FieldType.DECIMAL), FieldDefinition.parseFrom(buffer));
+        assertFalse(buffer.isReadable());
+    }
+
+    @Test
+    public void testWriteToWithDefaultEncodingAndOptions() throws IOException {
+
+        Buffer expected = Buffers.allocate(100);
+        VarInts.writeString(expected, "volume");
+        FieldType.INTEGER.writeTo(expected);
+
+        Buffer buffer = Buffers.allocate(100);
+        FieldDefinition.newInstance("volume", FieldType.INTEGER).writeTo(buffer);
+
+        assertArrayEquals(Buffers.toBytes(expected), Buffers.toBytes(buffer));
+    }
+
+    @Test
+    public void testParseFromWithSuccessiveFields() throws IOException {
+
+        FieldDefinition price = FieldDefinition.newBuilder("price", FieldType.DECIMAL)
+                                               .encoding(FieldEncoding.XOR)
+                                               .aggregates(true)
+                                               .build();
+
+        FieldDefinition volume = FieldDefinition.newInstance("volume", FieldType.INTEGER);
+
+        Buffer buffer = Buffers.allocate(100);
+        price.writeTo(buffer);
+        volume.writeTo(buffer);
+
+        assertEquals(buffer.readableBytes(), price.computeSerializedSize() + volume.computeSerializedSize());
+        assertEquals(price, FieldDefinition.parseFrom(buffer));
+        assertEquals(volume, FieldDefinition.parseFrom(buffer));
+        assertFalse(buffer.isReadable());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewInstanceWithUnsupportedEncoding() {
+
+        FieldDefinition.newInstance("volume", FieldType.INTEGER, FieldEncoding.XOR);
+    }
+
+    @Test
+    public void testParseFromWithZoneMap() throws IOException {
+
+        FieldDefinition definition = FieldDefinition.newBuilder("volume", FieldType.INTEGER)
+                                                    .zoneMap(true)
+                                                    .build();
+
+        Buffer buffer = Buffers.allocate(100);
+        definition.writeTo(buffer);
+
+        FieldDefinition deserializedDefinition = FieldDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertTrue(deserializedDefinition.hasZoneMap());
+        assertFalse(FieldDefinition.newInstance("volume", FieldType.INTEGER).hasZoneMap());
+    }
+
+    @Test
+    public void testParseFromWithBloomFilter() throws IOException {
+
+        FieldDefinition definition = FieldDefinition.newBuilder("id", FieldType.LONG)
+                                                    .bloomFilter(true)
+                                                    .build();
+
+        Buffer buffer = Buffers.allocate(100);
+        definition.writeTo(buffer);
+
+        FieldDefinition deserializedDefinition = FieldDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertTrue(deserializedDefinition.hasBloomFilter());
+        assertFalse(deserializedDefinition.hasZoneMap());
+    }
+
+    @Test
+    public void testParseFromWithAggregates() throws IOException {
+
+        FieldDefinition definition = FieldDefinition.newBuilder("price", FieldType.DECIMAL)
+                                                    .aggregates(true)
+                                                    .build();
+
+        Buffer buffer = Buffers.allocate(100);
+        definition.writeTo(buffer);
+
+        FieldDefinition deserializedDefinition = FieldDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertTrue(deserializedDefinition.hasAggregates());
+        assertTrue(deserializedDefinition.hasZoneMap());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithUnsupportedAggregates() {
+
+        FieldDefinition.newBuilder("timestamp", FieldType.MILLISECONDS_TIMESTAMP).aggregates(true).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithUnsupportedBloomFilter() {
+
+        FieldDefinition.newBuilder("price", FieldType.DECIMAL).bloomFilter(true).build();
+    }
+
 }
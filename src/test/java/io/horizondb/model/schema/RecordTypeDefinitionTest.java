@@ -17,6 +17,7 @@ package io.horizondb.model.schema;
 
 import io.horizondb.io.Buffer;
 import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.encoding.VarInts;
 import io.horizondb.model.schema.FieldType;
 import io.horizondb.model.schema.RecordTypeDefinition;
 
@@ -68,4 +69,33 @@ public class RecordTypeDefinitionTest {
         assertEquals(definition, deserializedDefinition);
     }
 
+    @Test
+    public void testParseFromWithFieldsWithoutEncodingAndOptions() throws IOException {
+
+        Buffer buffer = Buffers.allocate(100);
+        VarInts.writeString(buffer, "Quote");
+        VarInts.writeUnsignedInt(buffer, 2);
+        VarInts.writeString(buffer, "bestBid");
+        FieldType.DECIMAL.writeTo(buffer);
+        VarInts.writeString(buffer, "bidVolume");
+        FieldType.INTEGER.writeTo(buffer);
+        VarInts.writeString(buffer, "Trade");
+        VarInts.writeUnsignedInt(buffer, 1);
+        VarInts.writeString(buffer, "price");
+        FieldType.DECIMAL.writeTo(buffer);
+
+        RecordTypeDefinition quote = RecordTypeDefinition.newBuilder("Quote")
+                                                         .addField("bestBid", FieldType.DECIMAL)
+                                                         .addField("bidVolume", FieldType.INTEGER)
+                                                         .build();
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("Trade")
+                                                         .addField("price", FieldType.DECIMAL)
+                                                         .build();
+
+        assertEquals(quote, RecordTypeDefinition.getParser().parseFrom(buffer));
+        assertEquals(trade, RecordTypeDefinition.getParser().parseFrom(buffer));
+        Assert.assertFalse(buffer.isReadable());
+    }
+
 }
@@ -15,6 +15,8 @@ package io.horizondb.model.schema;
 
 import io.horizondb.io.Buffer;
 import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.compression.CompressionType;
+import io.horizondb.io.encoding.VarInts;
 
 import java.io.IOException;
 import java.text.ParsePosition;
@@ -223,6 +225,123 @@ public class TimeSeriesDefinitionTest {
         TimeSeriesDefinition deserializedDefinition = TimeSeriesDefinition.parseFrom(buffer);
         assertEquals(definition, deserializedDefinition);
     }
+
+    @Test
+    public void testParseFromWithoutBlockFormat() throws IOException {
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("Trade")
+                                                         .addDecimalField("price")
+                                                         .addLongField("volume")
+                                                         .build();
+
+        TimeSeriesDefinition definition = TimeSeriesDefinition.newBuilder("DAX")
+                                                              .timeUnit(TimeUnit.MILLISECONDS)
+                                                              .compressionType(CompressionType.LZ4)
+                                                              .addRecordType(trade)
+                                                              .build();
+
+        Buffer buffer = Buffers.allocate(200);
+        VarInts.writeString(buffer, definition.getName());
+        VarInts.writeLong(buffer, definition.getTimestamp());
+        VarInts.writeByte(buffer, TimeUnit.MILLISECONDS.ordinal());
+        VarInts.writeString(buffer, definition.getTimeZone().getID());
+        VarInts.writeUnsignedInt(buffer, 1);
+        trade.writeTo(buffer);
+        definition.getPartitionType().writeTo(buffer);
+        VarInts.writeUnsignedInt(buffer, definition.getBlockSizeInBytes());
+        CompressionType.LZ4.writeTo(buffer);
+
+        Buffer actual = Buffers.allocate(200);
+        definition.writeTo(actual);
+
+        Assert.assertArrayEquals(Buffers.toBytes(buffer), Buffers.toBytes(actual));
+
+        buffer.writeByte(1);
+
+        TimeSeriesDefinition deserializedDefinition = TimeSeriesDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertEquals(BlockLayout.ROW, deserializedDefinition.getBlockLayout());
+        assertEquals(FieldEncoding.DEFAULT, deserializedDefinition.getTimestampEncoding());
+        assertEquals(0, deserializedDefinition.getKeyframeInterval());
+        assertEquals(1, buffer.readableBytes());
+    }
+
+    @Test
+    public void testParseFromWithColumnarLayout() throws IOException {
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("Trade")
+                                                         .addDecimalField("price", FieldEncoding.XOR)
+                                                         .addLongField("volume")
+                                                         .build();
+
+        TimeSeriesDefinition definition = TimeSeriesDefinition.newBuilder("DAX")
+                                                              .timeUnit(TimeUnit.MILLISECONDS)
+                                                              .blockLayout(BlockLayout.COLUMNAR)
+                                                              .timestampEncoding(FieldEncoding.DELTA_OF_DELTA)
+                                                              .addRecordType(trade)
+                                                              .build();
+
+        Buffer buffer = Buffers.allocate(200);
+
+        definition.writeTo(buffer);
+
+        TimeSeriesDefinition deserializedDefinition = TimeSeriesDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertEquals(BlockLayout.COLUMNAR, deserializedDefinition.getBlockLayout());
+        assertEquals(FieldEncoding.DELTA_OF_DELTA, deserializedDefinition.getFieldEncoding(0, 0));
+        assertEquals(FieldEncoding.XOR, deserializedDefinition.getFieldEncoding(0, 1));
+        assertEquals(FieldEncoding.DEFAULT, deserializedDefinition.getFieldEncoding(0, 2));
+    }
+
+    @Test
+    public void testParseFromWithKeyframes() throws IOException {
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("Trade")
+                                                         .addDecimalField("price")
+                                                         .addLongField("volume")
+                                                         .build();
+
+        TimeSeriesDefinition definition = TimeSeriesDefinition.newBuilder("DAX")
+                                                              .timeUnit(TimeUnit.MILLISECONDS)
+                                                              .keyframeInterval(100)
+                                                              .addRecordType(trade)
+                                                              .build();
+
+        Buffer buffer = Buffers.allocate(200);
+
+        definition.writeTo(buffer);
+
+        TimeSeriesDefinition deserializedDefinition = TimeSeriesDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertEquals(100, deserializedDefinition.getKeyframeInterval());
+        assertEquals(6, deserializedDefinition.getKeyframeIndex());
+    }
+
+    @Test
+    public void testParseFromWithSegmentedLayout() throws IOException {
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("Trade")
+                                                         .addDecimalField("price")
+                                                         .addLongField("volume")
+                                                         .build();
+
+        TimeSeriesDefinition definition = TimeSeriesDefinition.newBuilder("DAX")
+                                                              .timeUnit(TimeUnit.MILLISECONDS)
+                                                              .blockLayout(BlockLayout.SEGMENTED)
+                                                              .keyframeInterval(100)
+                                                              .addRecordType(trade)
+                                                              .build();
+
+        Buffer buffer = Buffers.allocate(200);
+
+        definition.writeTo(buffer);
+
+        TimeSeriesDefinition deserializedDefinition = TimeSeriesDefinition.parseFrom(buffer);
+        assertEquals(definition, deserializedDefinition);
+        assertEquals(BlockLayout.SEGMENTED, deserializedDefinition.getBlockLayout());
+        assertEquals(6, deserializedDefinition.getSegmentOffsetIndex());
+        assertEquals(7, deserializedDefinition.getKeyframeIndex());
+    }
     
     /**
      * Returns the time in milliseconds corresponding to the specified {@link String} (format: